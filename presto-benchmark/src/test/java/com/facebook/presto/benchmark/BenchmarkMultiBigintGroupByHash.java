@@ -0,0 +1,197 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.benchmark;
+
+import com.facebook.presto.operator.GroupByHash;
+import com.facebook.presto.operator.GroupByIdBlock;
+import com.facebook.presto.operator.MultiBigintGroupByHash;
+import com.facebook.presto.operator.MultiChannelGroupByHash;
+import com.facebook.presto.operator.Work;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.PageBuilder;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.sql.gen.JoinCompiler;
+import com.facebook.presto.type.TypeUtils;
+import com.google.common.collect.ImmutableList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static com.facebook.presto.operator.UpdateMemory.NOOP;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.openjdk.jmh.annotations.Mode.AverageTime;
+import static org.openjdk.jmh.annotations.Scope.Thread;
+
+@SuppressWarnings("MethodMayBeStatic")
+@State(Thread)
+@OutputTimeUnit(NANOSECONDS)
+@BenchmarkMode(AverageTime)
+@Fork(2)
+@Warmup(iterations = 10, time = 500, timeUnit = MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = MILLISECONDS)
+public class BenchmarkMultiBigintGroupByHash
+{
+    private static final int POSITIONS = 1_000_000;
+    private static final int EXPECTED_SIZE = 10_000;
+    private static final JoinCompiler JOIN_COMPILER = new JoinCompiler();
+
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public long multiChannelGroupByHash(BenchmarkData data)
+    {
+        GroupByHash groupByHash = new MultiChannelGroupByHash(data.getTypes(), data.getChannels(), data.getHashChannel(), EXPECTED_SIZE, false, JOIN_COMPILER, NOOP);
+        return getGroupIds(groupByHash, data.getPages());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public long multiBigintGroupByHash(BenchmarkData data)
+    {
+        GroupByHash groupByHash = new MultiBigintGroupByHash(data.getChannels(), data.getHashChannel().isPresent(), EXPECTED_SIZE, NOOP);
+        return getGroupIds(groupByHash, data.getPages());
+    }
+
+    private static long getGroupIds(GroupByHash groupByHash, List<Page> pages)
+    {
+        long result = 0;
+        for (Page page : pages) {
+            Work<GroupByIdBlock> work = groupByHash.getGroupIds(page);
+            work.process();
+            result += work.getResult().getGroupCount();
+        }
+        return result;
+    }
+
+    @SuppressWarnings("FieldMayBeFinal")
+    @State(Thread)
+    public static class BenchmarkData
+    {
+        @Param({"2", "4"})
+        private int channelCount = 2;
+
+        @Param({"1000", "300000"})
+        private int groupCount = 1000;
+
+        @Param({"true", "false"})
+        private boolean hashEnabled = true;
+
+        private List<Page> pages;
+        private Optional<Integer> hashChannel;
+        private List<Type> types;
+        private int[] channels;
+
+        @Setup
+        public void setup()
+        {
+            types = Collections.<Type>nCopies(channelCount, BIGINT);
+            channels = new int[channelCount];
+            for (int i = 0; i < channelCount; i++) {
+                channels[i] = i;
+            }
+            hashChannel = hashEnabled ? Optional.of(channelCount) : Optional.empty();
+            pages = createPages();
+        }
+
+        private List<Page> createPages()
+        {
+            ImmutableList.Builder<Page> pages = ImmutableList.builder();
+            PageBuilder pageBuilder = new PageBuilder(types);
+            for (int position = 0; position < POSITIONS; position++) {
+                int group = ThreadLocalRandom.current().nextInt(groupCount);
+                pageBuilder.declarePosition();
+                for (int channel = 0; channel < channelCount; channel++) {
+                    BIGINT.writeLong(pageBuilder.getBlockBuilder(channel), group * (channel + 1L));
+                }
+                if (pageBuilder.isFull()) {
+                    pages.add(withHashChannel(pageBuilder.build()));
+                    pageBuilder.reset();
+                }
+            }
+            if (!pageBuilder.isEmpty()) {
+                pages.add(withHashChannel(pageBuilder.build()));
+            }
+            return pages.build();
+        }
+
+        private Page withHashChannel(Page page)
+        {
+            if (!hashEnabled) {
+                return page;
+            }
+            Block[] blocks = Arrays.copyOf(page.getBlocks(), channelCount + 1);
+            blocks[channelCount] = TypeUtils.getHashBlock(types, page.getBlocks());
+            return new Page(blocks);
+        }
+
+        public List<Page> getPages()
+        {
+            return pages;
+        }
+
+        public List<Type> getTypes()
+        {
+            return types;
+        }
+
+        public int[] getChannels()
+        {
+            return channels;
+        }
+
+        public Optional<Integer> getHashChannel()
+        {
+            return hashChannel;
+        }
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        // assure the benchmarks are valid before running
+        BenchmarkData data = new BenchmarkData();
+        data.setup();
+        long expected = new BenchmarkMultiBigintGroupByHash().multiChannelGroupByHash(data);
+        long actual = new BenchmarkMultiBigintGroupByHash().multiBigintGroupByHash(data);
+        if (expected != actual) {
+            throw new AssertionError("Group counts differ: " + expected + " vs " + actual);
+        }
+
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkMultiBigintGroupByHash.class.getSimpleName() + ".*")
+                .build();
+        new Runner(options).run();
+    }
+}
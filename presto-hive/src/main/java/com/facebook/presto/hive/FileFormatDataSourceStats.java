@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.hive;
 
+import io.airlift.stats.CounterStat;
 import io.airlift.stats.DistributionStat;
 import io.airlift.stats.TimeStat;
 import org.weakref.jmx.Managed;
@@ -29,6 +30,12 @@ public class FileFormatDataSourceStats
     private final TimeStat time100KBto1MB = new TimeStat(MILLISECONDS);
     private final TimeStat time1MBto10MB = new TimeStat(MILLISECONDS);
     private final TimeStat time10MBPlus = new TimeStat(MILLISECONDS);
+    private final CounterStat localCacheHits = new CounterStat();
+    private final CounterStat localCacheMisses = new CounterStat();
+    private final CounterStat localCacheReadBytes = new CounterStat();
+    private final CounterStat localCacheWrittenBytes = new CounterStat();
+    private final CounterStat localCacheEvictions = new CounterStat();
+    private final CounterStat localCacheFailures = new CounterStat();
 
     @Managed
     @Nested
@@ -72,6 +79,48 @@ public class FileFormatDataSourceStats
         return time10MBPlus;
     }
 
+    @Managed
+    @Nested
+    public CounterStat getLocalCacheHits()
+    {
+        return localCacheHits;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getLocalCacheMisses()
+    {
+        return localCacheMisses;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getLocalCacheReadBytes()
+    {
+        return localCacheReadBytes;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getLocalCacheWrittenBytes()
+    {
+        return localCacheWrittenBytes;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getLocalCacheEvictions()
+    {
+        return localCacheEvictions;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getLocalCacheFailures()
+    {
+        return localCacheFailures;
+    }
+
     public void readDataBytesPerSecond(long bytes, long nanos)
     {
         readBytes.add(bytes);
@@ -93,4 +142,30 @@ public class FileFormatDataSourceStats
     {
         maxCombinedBytesPerRow.add(bytes);
     }
+
+    public void localCacheHit(long bytes)
+    {
+        localCacheHits.update(1);
+        localCacheReadBytes.update(bytes);
+    }
+
+    public void localCacheMiss()
+    {
+        localCacheMisses.update(1);
+    }
+
+    public void localCacheWrite(long bytes)
+    {
+        localCacheWrittenBytes.update(bytes);
+    }
+
+    public void localCacheEviction()
+    {
+        localCacheEvictions.update(1);
+    }
+
+    public void localCacheFailure()
+    {
+        localCacheFailures.update(1);
+    }
 }
@@ -34,6 +34,8 @@ import java.util.List;
 import java.util.TimeZone;
 import java.util.concurrent.TimeUnit;
 
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.airlift.units.DataSize.Unit.GIGABYTE;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
 
 @DefunctConfig({
@@ -58,6 +60,7 @@ public class HiveClientConfig
     private DataSize maxInitialSplitSize;
     private int domainCompactionThreshold = 100;
     private boolean forceLocalScheduling;
+    private boolean softAffinitySchedulingEnabled;
     private boolean recursiveDirWalkerEnabled;
 
     private int maxConcurrentFileRenames = 20;
@@ -104,6 +107,15 @@ public class HiveClientConfig
     private DataSize orcStreamBufferSize = new DataSize(8, MEGABYTE);
     private DataSize orcMaxReadBlockSize = new DataSize(16, MEGABYTE);
     private boolean orcLazyReadSmallRanges = true;
+    private boolean orcFilterFirstReadingEnabled;
+    private DataSize orcMetadataCacheSize = new DataSize(0, BYTE);
+    private int orcMaxConcurrentReadsPerFile = 1;
+    private int orcMaxConcurrentReads = 32;
+    private boolean orcAdaptiveMergeDistanceEnabled;
+
+    private String localCacheDirectory;
+    private DataSize localCacheMaxSize = new DataSize(10, GIGABYTE);
+    private int localCacheMinReadsBeforeCaching = 2;
     private boolean orcOptimizedWriterEnabled;
     private boolean orcWriterValidate = true;
 
@@ -190,6 +202,19 @@ public class HiveClientConfig
         return this;
     }
 
+    public boolean isSoftAffinitySchedulingEnabled()
+    {
+        return softAffinitySchedulingEnabled;
+    }
+
+    @Config("hive.soft-affinity-scheduling.enabled")
+    @ConfigDescription("Prefer scheduling all splits of a file on the same worker, so the worker local cache can be reused")
+    public HiveClientConfig setSoftAffinitySchedulingEnabled(boolean softAffinitySchedulingEnabled)
+    {
+        this.softAffinitySchedulingEnabled = softAffinitySchedulingEnabled;
+        return this;
+    }
+
     @Min(1)
     public int getMaxConcurrentFileRenames()
     {
@@ -731,6 +756,115 @@ public class HiveClientConfig
         return this;
     }
 
+    public boolean isOrcFilterFirstReadingEnabled()
+    {
+        return orcFilterFirstReadingEnabled;
+    }
+
+    @Config("hive.orc.filter-first-reading.enabled")
+    @ConfigDescription("ORC read columns with pushed down predicates first and only read matching rows of the other columns")
+    public HiveClientConfig setOrcFilterFirstReadingEnabled(boolean orcFilterFirstReadingEnabled)
+    {
+        this.orcFilterFirstReadingEnabled = orcFilterFirstReadingEnabled;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getOrcMetadataCacheSize()
+    {
+        return orcMetadataCacheSize;
+    }
+
+    @Config("hive.orc.metadata-cache-size")
+    @ConfigDescription("Maximum size of ORC file tails, stripe footers and row indexes cached on each worker")
+    public HiveClientConfig setOrcMetadataCacheSize(DataSize orcMetadataCacheSize)
+    {
+        this.orcMetadataCacheSize = orcMetadataCacheSize;
+        return this;
+    }
+
+    @Min(1)
+    public int getOrcMaxConcurrentReadsPerFile()
+    {
+        return orcMaxConcurrentReadsPerFile;
+    }
+
+    @Config("hive.orc.max-concurrent-reads-per-file")
+    @ConfigDescription("Maximum number of merged ORC disk ranges of a file that are read concurrently")
+    public HiveClientConfig setOrcMaxConcurrentReadsPerFile(int orcMaxConcurrentReadsPerFile)
+    {
+        this.orcMaxConcurrentReadsPerFile = orcMaxConcurrentReadsPerFile;
+        return this;
+    }
+
+    @Min(1)
+    public int getOrcMaxConcurrentReads()
+    {
+        return orcMaxConcurrentReads;
+    }
+
+    @Config("hive.orc.max-concurrent-reads")
+    @ConfigDescription("Maximum number of concurrent ORC disk range reads on each worker")
+    public HiveClientConfig setOrcMaxConcurrentReads(int orcMaxConcurrentReads)
+    {
+        this.orcMaxConcurrentReads = orcMaxConcurrentReads;
+        return this;
+    }
+
+    public boolean isOrcAdaptiveMergeDistanceEnabled()
+    {
+        return orcAdaptiveMergeDistanceEnabled;
+    }
+
+    @Config("hive.orc.adaptive-merge-distance.enabled")
+    @ConfigDescription("Derive the ORC merge distance from the observed latency and throughput of the reads")
+    public HiveClientConfig setOrcAdaptiveMergeDistanceEnabled(boolean orcAdaptiveMergeDistanceEnabled)
+    {
+        this.orcAdaptiveMergeDistanceEnabled = orcAdaptiveMergeDistanceEnabled;
+        return this;
+    }
+
+    public String getLocalCacheDirectory()
+    {
+        return localCacheDirectory;
+    }
+
+    @Config("hive.local-cache.directory")
+    @ConfigDescription("Local directory used to cache ranges of remote files; the cache is disabled when not set")
+    public HiveClientConfig setLocalCacheDirectory(String localCacheDirectory)
+    {
+        this.localCacheDirectory = localCacheDirectory;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getLocalCacheMaxSize()
+    {
+        return localCacheMaxSize;
+    }
+
+    @Config("hive.local-cache.max-size")
+    @ConfigDescription("Maximum size of the remote file ranges cached in the local cache directory")
+    public HiveClientConfig setLocalCacheMaxSize(DataSize localCacheMaxSize)
+    {
+        this.localCacheMaxSize = localCacheMaxSize;
+        return this;
+    }
+
+    @Min(1)
+    public int getLocalCacheMinReadsBeforeCaching()
+    {
+        return localCacheMinReadsBeforeCaching;
+    }
+
+    @Config("hive.local-cache.min-reads-before-caching")
+    @ConfigDescription("Number of reads of a remote file range before it is admitted to the local cache")
+    public HiveClientConfig setLocalCacheMinReadsBeforeCaching(int localCacheMinReadsBeforeCaching)
+    {
+        this.localCacheMinReadsBeforeCaching = localCacheMinReadsBeforeCaching;
+        return this;
+    }
+
     public boolean isOrcBloomFiltersEnabled()
     {
         return orcBloomFiltersEnabled;
@@ -13,12 +13,15 @@
  */
 package com.facebook.presto.hive;
 
+import com.facebook.presto.hive.cache.LocalRangeCache;
 import com.facebook.presto.hive.metastore.SemiTransactionalHiveMetastore;
 import com.facebook.presto.hive.orc.DwrfPageSourceFactory;
 import com.facebook.presto.hive.orc.OrcPageSourceFactory;
 import com.facebook.presto.hive.parquet.ParquetPageSourceFactory;
 import com.facebook.presto.hive.parquet.ParquetRecordCursorProvider;
 import com.facebook.presto.hive.rcfile.RcFilePageSourceFactory;
+import com.facebook.presto.orc.OrcMetadataCache;
+import com.facebook.presto.orc.OrcReadScheduler;
 import com.facebook.presto.spi.NodeManager;
 import com.facebook.presto.spi.PageIndexerFactory;
 import com.facebook.presto.spi.connector.ConnectorNodePartitioningProvider;
@@ -31,13 +34,17 @@ import com.google.inject.Module;
 import com.google.inject.Provides;
 import com.google.inject.Scopes;
 import com.google.inject.multibindings.Multibinder;
+import io.airlift.concurrent.BoundedExecutor;
 import io.airlift.event.client.EventClient;
 
 import javax.inject.Singleton;
 
+import java.io.File;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.function.Function;
 
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static com.google.inject.multibindings.Multibinder.newSetBinder;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.airlift.configuration.ConfigBinder.configBinder;
@@ -110,6 +117,10 @@ public class HiveClientModule
         binder.bind(FileFormatDataSourceStats.class).in(Scopes.SINGLETON);
         newExporter(binder).export(FileFormatDataSourceStats.class).as(generatedNameOf(FileFormatDataSourceStats.class, connectorId));
 
+        newExporter(binder).export(OrcMetadataCache.class).as(generatedNameOf(OrcMetadataCache.class, connectorId));
+        newExporter(binder).export(LocalRangeCache.class).as(generatedNameOf(LocalRangeCache.class, connectorId));
+        newExporter(binder).export(OrcReadScheduler.class).as(generatedNameOf(OrcReadScheduler.class, connectorId));
+
         Multibinder<HivePageSourceFactory> pageSourceFactoryBinder = newSetBinder(binder, HivePageSourceFactory.class);
         pageSourceFactoryBinder.addBinding().to(OrcPageSourceFactory.class).in(Scopes.SINGLETON);
         pageSourceFactoryBinder.addBinding().to(DwrfPageSourceFactory.class).in(Scopes.SINGLETON);
@@ -132,6 +143,40 @@ public class HiveClientModule
         return newCachedThreadPool(daemonThreadsNamed("hive-" + hiveClientId + "-%s"));
     }
 
+    @Singleton
+    @Provides
+    public OrcMetadataCache createOrcMetadataCache(HiveClientConfig hiveClientConfig)
+    {
+        return new OrcMetadataCache(hiveClientConfig.getOrcMetadataCacheSize());
+    }
+
+    @Singleton
+    @Provides
+    public OrcReadScheduler createOrcReadScheduler(HiveConnectorId hiveClientId, HiveClientConfig hiveClientConfig)
+    {
+        Executor executor = directExecutor();
+        if (hiveClientConfig.getOrcMaxConcurrentReadsPerFile() > 1) {
+            executor = new BoundedExecutor(
+                    newCachedThreadPool(daemonThreadsNamed("hive-orc-read-" + hiveClientId + "-%s")),
+                    hiveClientConfig.getOrcMaxConcurrentReads());
+        }
+        return new OrcReadScheduler(executor, hiveClientConfig.getOrcMaxConcurrentReadsPerFile(), hiveClientConfig.isOrcAdaptiveMergeDistanceEnabled());
+    }
+
+    @Singleton
+    @Provides
+    public LocalRangeCache createLocalRangeCache(HiveClientConfig hiveClientConfig, FileFormatDataSourceStats stats)
+    {
+        if (hiveClientConfig.getLocalCacheDirectory() == null) {
+            return LocalRangeCache.NO_CACHE;
+        }
+        return new LocalRangeCache(
+                new File(hiveClientConfig.getLocalCacheDirectory()),
+                hiveClientConfig.getLocalCacheMaxSize(),
+                hiveClientConfig.getLocalCacheMinReadsBeforeCaching(),
+                stats);
+    }
+
     @ForCachingHiveMetastore
     @Singleton
     @Provides
@@ -18,10 +18,13 @@ import com.facebook.presto.spi.ColumnHandle;
 import com.facebook.presto.spi.ConnectorPageSource;
 import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.ConnectorSplit;
+import com.facebook.presto.spi.FixedPageSource;
 import com.facebook.presto.spi.RecordCursor;
 import com.facebook.presto.spi.RecordPageSource;
 import com.facebook.presto.spi.connector.ConnectorPageSourceProvider;
 import com.facebook.presto.spi.connector.ConnectorTransactionHandle;
+import com.facebook.presto.spi.predicate.Domain;
+import com.facebook.presto.spi.predicate.NullableValue;
 import com.facebook.presto.spi.predicate.TupleDomain;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.spi.type.TypeManager;
@@ -43,11 +46,13 @@ import java.util.Set;
 import static com.facebook.presto.hive.HiveColumnHandle.ColumnType.REGULAR;
 import static com.facebook.presto.hive.HivePageSourceProvider.ColumnMapping.extractRegularColumnHandles;
 import static com.facebook.presto.hive.HiveUtil.getPrefilledColumnValue;
+import static com.facebook.presto.hive.HiveUtil.parsePartitionValue;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.Maps.uniqueIndex;
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
 
 public class HivePageSourceProvider
         implements ConnectorPageSourceProvider
@@ -77,12 +82,47 @@ public class HivePageSourceProvider
 
     @Override
     public ConnectorPageSource createPageSource(ConnectorTransactionHandle transaction, ConnectorSession session, ConnectorSplit split, List<ColumnHandle> columns)
+    {
+        HiveSplit hiveSplit = (HiveSplit) split;
+        return createPageSource(session, hiveSplit, columns, hiveSplit.getEffectivePredicate());
+    }
+
+    @Override
+    public ConnectorPageSource createPageSource(ConnectorTransactionHandle transaction, ConnectorSession session, ConnectorSplit split, List<ColumnHandle> columns, TupleDomain<ColumnHandle> dynamicFilter)
+    {
+        HiveSplit hiveSplit = (HiveSplit) split;
+        TupleDomain<HiveColumnHandle> effectivePredicate = hiveSplit.getEffectivePredicate()
+                .intersect(dynamicFilter.transform(HiveColumnHandle.class::cast));
+        if (effectivePredicate.isNone() || !partitionMatches(hiveSplit, effectivePredicate)) {
+            return new FixedPageSource(ImmutableList.of());
+        }
+        // the file readers skip the stripes and row groups whose statistics do not match the predicate
+        return createPageSource(session, hiveSplit, columns, effectivePredicate);
+    }
+
+    private boolean partitionMatches(HiveSplit hiveSplit, TupleDomain<HiveColumnHandle> effectivePredicate)
+    {
+        Map<String, Domain> domains = effectivePredicate.getDomains().get().entrySet().stream()
+                .collect(toMap(entry -> entry.getKey().getName(), Map.Entry::getValue));
+        for (HivePartitionKey partitionKey : hiveSplit.getPartitionKeys()) {
+            Domain domain = domains.get(partitionKey.getName());
+            if (domain == null) {
+                continue;
+            }
+            NullableValue value = parsePartitionValue(hiveSplit.getPartitionName(), partitionKey.getValue(), domain.getType(), hiveStorageTimeZone);
+            if (!domain.includesNullableValue(value.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private ConnectorPageSource createPageSource(ConnectorSession session, HiveSplit hiveSplit, List<ColumnHandle> columns, TupleDomain<HiveColumnHandle> effectivePredicate)
     {
         List<HiveColumnHandle> hiveColumns = columns.stream()
                 .map(HiveColumnHandle.class::cast)
                 .collect(toList());
 
-        HiveSplit hiveSplit = (HiveSplit) split;
         Path path = new Path(hiveSplit.getPath());
 
         Optional<ConnectorPageSource> pageSource = createHivePageSource(
@@ -96,7 +136,7 @@ public class HivePageSourceProvider
                 hiveSplit.getLength(),
                 hiveSplit.getFileSize(),
                 hiveSplit.getSchema(),
-                hiveSplit.getEffectivePredicate(),
+                effectivePredicate,
                 hiveColumns,
                 hiveSplit.getPartitionKeys(),
                 hiveStorageTimeZone,
@@ -29,12 +29,14 @@ public final class HiveSessionProperties
 {
     private static final String BUCKET_EXECUTION_ENABLED = "bucket_execution_enabled";
     private static final String FORCE_LOCAL_SCHEDULING = "force_local_scheduling";
+    private static final String SOFT_AFFINITY_SCHEDULING_ENABLED = "soft_affinity_scheduling_enabled";
     private static final String ORC_BLOOM_FILTERS_ENABLED = "orc_bloom_filters_enabled";
     private static final String ORC_MAX_MERGE_DISTANCE = "orc_max_merge_distance";
     private static final String ORC_MAX_BUFFER_SIZE = "orc_max_buffer_size";
     private static final String ORC_STREAM_BUFFER_SIZE = "orc_stream_buffer_size";
     private static final String ORC_MAX_READ_BLOCK_SIZE = "orc_max_read_block_size";
     private static final String ORC_LAZY_READ_SMALL_RANGES = "orc_lazy_read_small_ranges";
+    private static final String ORC_FILTER_FIRST_READING_ENABLED = "orc_filter_first_reading_enabled";
     private static final String ORC_OPTIMIZED_WRITER_ENABLED = "orc_optimized_writer_enabled";
     private static final String ORC_OPTIMIZED_WRITER_VALIDATE = "orc_optimized_writer_validate";
     private static final String PARQUET_PREDICATE_PUSHDOWN_ENABLED = "parquet_predicate_pushdown_enabled";
@@ -61,6 +63,11 @@ public final class HiveSessionProperties
                         "Only schedule splits on workers colocated with data node",
                         config.isForceLocalScheduling(),
                         false),
+                booleanSessionProperty(
+                        SOFT_AFFINITY_SCHEDULING_ENABLED,
+                        "Prefer scheduling all splits of a file on the same worker",
+                        config.isSoftAffinitySchedulingEnabled(),
+                        false),
                 booleanSessionProperty(
                         ORC_BLOOM_FILTERS_ENABLED,
                         "ORC: Enable bloom filters for predicate pushdown",
@@ -91,6 +98,11 @@ public final class HiveSessionProperties
                         "Experimental: ORC: Read small file segments lazily",
                         config.isOrcLazyReadSmallRanges(),
                         false),
+                booleanSessionProperty(
+                        ORC_FILTER_FIRST_READING_ENABLED,
+                        "Experimental: ORC: Read predicate columns first and skip non-matching rows of other columns",
+                        config.isOrcFilterFirstReadingEnabled(),
+                        false),
                 booleanSessionProperty(
                         ORC_OPTIMIZED_WRITER_ENABLED,
                         "Experimental: ORC: Enable optimized writer",
@@ -153,6 +165,11 @@ public final class HiveSessionProperties
         return session.getProperty(FORCE_LOCAL_SCHEDULING, Boolean.class);
     }
 
+    public static boolean isSoftAffinitySchedulingEnabled(ConnectorSession session)
+    {
+        return session.getProperty(SOFT_AFFINITY_SCHEDULING_ENABLED, Boolean.class);
+    }
+
     public static boolean isParquetOptimizedReaderEnabled(ConnectorSession session)
     {
         return session.getProperty(PARQUET_OPTIMIZED_READER_ENABLED, Boolean.class);
@@ -188,6 +205,11 @@ public final class HiveSessionProperties
         return session.getProperty(ORC_LAZY_READ_SMALL_RANGES, Boolean.class);
     }
 
+    public static boolean isOrcFilterFirstReadingEnabled(ConnectorSession session)
+    {
+        return session.getProperty(ORC_FILTER_FIRST_READING_ENABLED, Boolean.class);
+    }
+
     public static boolean isOrcOptimizedWriterEnabled(ConnectorSession session)
     {
         return session.getProperty(ORC_OPTIMIZED_WRITER_ENABLED, Boolean.class);
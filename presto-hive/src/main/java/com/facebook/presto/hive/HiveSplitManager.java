@@ -22,6 +22,8 @@ import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.ConnectorSplitSource;
 import com.facebook.presto.spi.ConnectorTableLayoutHandle;
 import com.facebook.presto.spi.FixedSplitSource;
+import com.facebook.presto.spi.Node;
+import com.facebook.presto.spi.NodeManager;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.SchemaTableName;
 import com.facebook.presto.spi.TableNotFoundException;
@@ -55,6 +57,7 @@ import static com.facebook.presto.hive.HiveErrorCode.HIVE_INVALID_METADATA;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_PARTITION_DROPPED_DURING_QUERY;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_PARTITION_SCHEMA_MISMATCH;
 import static com.facebook.presto.hive.HivePartition.UNPARTITIONED_ID;
+import static com.facebook.presto.hive.HiveSessionProperties.isSoftAffinitySchedulingEnabled;
 import static com.facebook.presto.hive.metastore.MetastoreUtil.getProtectMode;
 import static com.facebook.presto.hive.metastore.MetastoreUtil.makePartName;
 import static com.facebook.presto.hive.metastore.MetastoreUtil.verifyOnline;
@@ -83,6 +86,7 @@ public class HiveSplitManager
     private final DirectoryLister directoryLister;
     private final Executor executor;
     private final CoercionPolicy coercionPolicy;
+    private final NodeManager nodeManager;
     private final int maxOutstandingSplits;
     private final DataSize maxOutstandingSplitsSize;
     private final int minPartitionBatchSize;
@@ -100,7 +104,8 @@ public class HiveSplitManager
             HdfsEnvironment hdfsEnvironment,
             DirectoryLister directoryLister,
             @ForHiveClient ExecutorService executorService,
-            CoercionPolicy coercionPolicy)
+            CoercionPolicy coercionPolicy,
+            NodeManager nodeManager)
     {
         this(
                 metastoreProvider,
@@ -109,6 +114,7 @@ public class HiveSplitManager
                 directoryLister,
                 new BoundedExecutor(executorService, hiveClientConfig.getMaxSplitIteratorThreads()),
                 coercionPolicy,
+                nodeManager,
                 new CounterStat(),
                 hiveClientConfig.getMaxOutstandingSplits(),
                 hiveClientConfig.getMaxOutstandingSplitsSize(),
@@ -126,6 +132,7 @@ public class HiveSplitManager
             DirectoryLister directoryLister,
             Executor executor,
             CoercionPolicy coercionPolicy,
+            NodeManager nodeManager,
             CounterStat highMemorySplitSourceCounter,
             int maxOutstandingSplits,
             DataSize maxOutstandingSplitsSize,
@@ -141,6 +148,7 @@ public class HiveSplitManager
         this.directoryLister = requireNonNull(directoryLister, "directoryLister is null");
         this.executor = new ErrorCodedExecutor(executor);
         this.coercionPolicy = requireNonNull(coercionPolicy, "coercionPolicy is null");
+        this.nodeManager = requireNonNull(nodeManager, "nodeManager is null");
         this.highMemorySplitSourceCounter = requireNonNull(highMemorySplitSourceCounter, "highMemorySplitSourceCounter is null");
         checkArgument(maxOutstandingSplits >= 1, "maxOutstandingSplits must be at least 1");
         this.maxOutstandingSplits = maxOutstandingSplits;
@@ -204,7 +212,8 @@ public class HiveSplitManager
                 directoryLister,
                 executor,
                 splitLoaderConcurrency,
-                recursiveDfsWalkerEnabled);
+                recursiveDfsWalkerEnabled,
+                getAffinityNodes(session));
 
         HiveSplitSource splitSource;
         switch (splitSchedulingStrategy) {
@@ -249,6 +258,14 @@ public class HiveSplitManager
         return highMemorySplitSourceCounter;
     }
 
+    private List<Node> getAffinityNodes(ConnectorSession session)
+    {
+        if (!isSoftAffinitySchedulingEnabled(session)) {
+            return ImmutableList.of();
+        }
+        return ImmutableList.copyOf(nodeManager.getWorkerNodes());
+    }
+
     private Iterable<HivePartitionMetadata> getPartitionMetadata(SemiTransactionalHiveMetastore metastore, Table table, SchemaTableName tableName, List<HivePartition> hivePartitions, Optional<HiveBucketProperty> bucketProperty)
     {
         if (hivePartitions.isEmpty()) {
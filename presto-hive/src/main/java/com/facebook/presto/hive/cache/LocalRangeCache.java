@@ -0,0 +1,427 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.cache;
+
+import com.facebook.presto.hive.FileFormatDataSourceStats;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import io.airlift.log.Logger;
+import io.airlift.slice.XxHash64;
+import io.airlift.units.DataSize;
+import org.weakref.jmx.Managed;
+
+import javax.annotation.concurrent.GuardedBy;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.airlift.slice.Slices.wrappedBuffer;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Read-through cache of remote file ranges on a local disk of the worker.
+ * <p>
+ * Ranges are cached exactly as they are requested by the readers, so a range is only
+ * served from the cache when the same range of the same version of a file is read again.
+ * A range is admitted after it has been read a configured number of times, and the least
+ * recently used ranges are evicted when the cache exceeds its maximum size. Every cached
+ * range carries a checksum; a range that fails verification or cannot be read is dropped
+ * and read from the remote file system instead.
+ * <p>
+ * The index of cached ranges is kept in memory, so the cache directory is emptied on startup.
+ */
+public class LocalRangeCache
+{
+    private static final Logger log = Logger.get(LocalRangeCache.class);
+
+    public static final LocalRangeCache NO_CACHE = new LocalRangeCache();
+
+    private static final String RANGE_FILE_SUFFIX = ".range";
+    private static final String TEMPORARY_FILE_SUFFIX = ".tmp";
+    private static final int MAX_TRACKED_READ_COUNTS = 100_000;
+
+    // null when the cache is disabled
+    private final Path directory;
+    private final long maxSizeInBytes;
+    private final int minReadsBeforeCaching;
+    private final FileFormatDataSourceStats stats;
+    private final Cache<RangeKey, AtomicInteger> readCounts;
+    private final AtomicLong nextFileId = new AtomicLong();
+
+    @GuardedBy("this")
+    private final LinkedHashMap<RangeKey, CachedRange> ranges = new LinkedHashMap<>(16, 0.75f, true);
+    @GuardedBy("this")
+    private long cachedBytes;
+
+    private LocalRangeCache()
+    {
+        this.directory = null;
+        this.maxSizeInBytes = 0;
+        this.minReadsBeforeCaching = 1;
+        this.stats = new FileFormatDataSourceStats();
+        this.readCounts = null;
+    }
+
+    public LocalRangeCache(File directory, DataSize maxSize, int minReadsBeforeCaching, FileFormatDataSourceStats stats)
+    {
+        requireNonNull(directory, "directory is null");
+        requireNonNull(maxSize, "maxSize is null");
+        checkArgument(maxSize.toBytes() > 0, "maxSize must be positive");
+        checkArgument(minReadsBeforeCaching >= 1, "minReadsBeforeCaching must be at least 1");
+
+        this.directory = directory.toPath();
+        this.maxSizeInBytes = maxSize.toBytes();
+        this.minReadsBeforeCaching = minReadsBeforeCaching;
+        this.stats = requireNonNull(stats, "stats is null");
+        this.readCounts = CacheBuilder.newBuilder()
+                .maximumSize(MAX_TRACKED_READ_COUNTS)
+                .build();
+
+        try {
+            Files.createDirectories(this.directory);
+            deleteCacheFiles(this.directory);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Failed to initialize local cache directory " + directory, e);
+        }
+    }
+
+    public boolean isEnabled()
+    {
+        return directory != null;
+    }
+
+    /**
+     * Reads the range of the file into the buffer, either from the local cache
+     * or with the remote reader. Only failures of the remote reader are thrown.
+     */
+    public void readFully(FileKey file, long position, byte[] buffer, int offset, int length, RangeReader remoteReader)
+            throws IOException
+    {
+        if (!isEnabled() || length == 0 || length > maxSizeInBytes) {
+            remoteReader.readFully(position, buffer, offset, length);
+            return;
+        }
+
+        RangeKey key = new RangeKey(file, position, length);
+        CachedRange range = getRange(key);
+        if (range != null) {
+            if (readCachedRange(range, buffer, offset, length)) {
+                stats.localCacheHit(length);
+                return;
+            }
+            stats.localCacheFailure();
+            remove(key, range);
+        }
+
+        stats.localCacheMiss();
+        remoteReader.readFully(position, buffer, offset, length);
+
+        if (admit(key)) {
+            cacheRange(key, buffer, offset, length);
+        }
+    }
+
+    private synchronized CachedRange getRange(RangeKey key)
+    {
+        return ranges.get(key);
+    }
+
+    private boolean admit(RangeKey key)
+    {
+        if (minReadsBeforeCaching == 1) {
+            return true;
+        }
+        AtomicInteger readCount = readCounts.asMap().computeIfAbsent(key, ignored -> new AtomicInteger());
+        if (readCount.incrementAndGet() < minReadsBeforeCaching) {
+            return false;
+        }
+        readCounts.invalidate(key);
+        return true;
+    }
+
+    private static boolean readCachedRange(CachedRange range, byte[] buffer, int offset, int length)
+    {
+        try (FileChannel channel = FileChannel.open(range.getPath(), READ)) {
+            if (channel.size() != length) {
+                return false;
+            }
+            ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, offset, length);
+            while (byteBuffer.hasRemaining()) {
+                if (channel.read(byteBuffer) < 0) {
+                    return false;
+                }
+            }
+        }
+        catch (IOException e) {
+            // the range may have been evicted concurrently
+            log.debug(e, "Failed to read cached range %s", range.getPath());
+            return false;
+        }
+        return XxHash64.hash(wrappedBuffer(buffer, offset, length)) == range.getChecksum();
+    }
+
+    private void cacheRange(RangeKey key, byte[] buffer, int offset, int length)
+    {
+        synchronized (this) {
+            if (ranges.containsKey(key)) {
+                return;
+            }
+        }
+
+        long fileId = nextFileId.incrementAndGet();
+        Path temporaryPath = directory.resolve(fileId + TEMPORARY_FILE_SUFFIX);
+        Path path = directory.resolve(fileId + RANGE_FILE_SUFFIX);
+        try {
+            try (OutputStream output = Files.newOutputStream(temporaryPath)) {
+                output.write(buffer, offset, length);
+            }
+            Files.move(temporaryPath, path, ATOMIC_MOVE);
+        }
+        catch (IOException e) {
+            log.warn(e, "Failed to write cached range %s", path);
+            deleteQuietly(temporaryPath);
+            deleteQuietly(path);
+            return;
+        }
+
+        CachedRange range = new CachedRange(path, XxHash64.hash(wrappedBuffer(buffer, offset, length)), length);
+        List<CachedRange> evicted = new ArrayList<>();
+        synchronized (this) {
+            if (ranges.putIfAbsent(key, range) != null) {
+                evicted.add(range);
+            }
+            else {
+                cachedBytes += length;
+                Iterator<CachedRange> iterator = ranges.values().iterator();
+                while (cachedBytes > maxSizeInBytes && iterator.hasNext()) {
+                    CachedRange eldest = iterator.next();
+                    iterator.remove();
+                    cachedBytes -= eldest.getLength();
+                    evicted.add(eldest);
+                    stats.localCacheEviction();
+                }
+            }
+        }
+        stats.localCacheWrite(length);
+
+        for (CachedRange evictedRange : evicted) {
+            deleteQuietly(evictedRange.getPath());
+        }
+    }
+
+    private void remove(RangeKey key, CachedRange range)
+    {
+        synchronized (this) {
+            if (!ranges.remove(key, range)) {
+                return;
+            }
+            cachedBytes -= range.getLength();
+        }
+        deleteQuietly(range.getPath());
+    }
+
+    @Managed
+    public void flushCache()
+    {
+        List<CachedRange> removed;
+        synchronized (this) {
+            removed = ImmutableList.copyOf(ranges.values());
+            ranges.clear();
+            cachedBytes = 0;
+        }
+        for (CachedRange range : removed) {
+            deleteQuietly(range.getPath());
+        }
+    }
+
+    @Managed
+    public long getMaxSizeInBytes()
+    {
+        return maxSizeInBytes;
+    }
+
+    @Managed
+    public synchronized long getCachedBytes()
+    {
+        return cachedBytes;
+    }
+
+    @Managed
+    public synchronized long getCachedRanges()
+    {
+        return ranges.size();
+    }
+
+    private static void deleteCacheFiles(Path directory)
+            throws IOException
+    {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(RANGE_FILE_SUFFIX) || name.endsWith(TEMPORARY_FILE_SUFFIX)) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    private static void deleteQuietly(Path path)
+    {
+        try {
+            Files.deleteIfExists(path);
+        }
+        catch (IOException e) {
+            log.warn(e, "Failed to delete cached range %s", path);
+        }
+    }
+
+    public interface RangeReader
+    {
+        void readFully(long position, byte[] buffer, int offset, int length)
+                throws IOException;
+    }
+
+    /**
+     * Identifies a version of a remote file. The modification time is part of the key,
+     * so ranges of a file that was overwritten are not served from the cache.
+     */
+    public static final class FileKey
+    {
+        private final String path;
+        private final long size;
+        private final long modificationTime;
+
+        public FileKey(String path, long size, long modificationTime)
+        {
+            this.path = requireNonNull(path, "path is null");
+            this.size = size;
+            this.modificationTime = modificationTime;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            FileKey that = (FileKey) o;
+            return size == that.size &&
+                    modificationTime == that.modificationTime &&
+                    path.equals(that.path);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(path, size, modificationTime);
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("path", path)
+                    .add("size", size)
+                    .add("modificationTime", modificationTime)
+                    .toString();
+        }
+    }
+
+    private static final class RangeKey
+    {
+        private final FileKey file;
+        private final long position;
+        private final int length;
+
+        public RangeKey(FileKey file, long position, int length)
+        {
+            this.file = requireNonNull(file, "file is null");
+            this.position = position;
+            this.length = length;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            RangeKey that = (RangeKey) o;
+            return position == that.position &&
+                    length == that.length &&
+                    file.equals(that.file);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(file, position, length);
+        }
+    }
+
+    private static final class CachedRange
+    {
+        private final Path path;
+        private final long checksum;
+        private final int length;
+
+        public CachedRange(Path path, long checksum, int length)
+        {
+            this.path = requireNonNull(path, "path is null");
+            this.checksum = checksum;
+            this.length = length;
+        }
+
+        public Path getPath()
+        {
+            return path;
+        }
+
+        public long getChecksum()
+        {
+            return checksum;
+        }
+
+        public int getLength()
+        {
+            return length;
+        }
+    }
+}
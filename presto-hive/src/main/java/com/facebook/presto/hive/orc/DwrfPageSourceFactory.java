@@ -18,6 +18,9 @@ import com.facebook.presto.hive.FileFormatDataSourceStats;
 import com.facebook.presto.hive.HdfsEnvironment;
 import com.facebook.presto.hive.HiveColumnHandle;
 import com.facebook.presto.hive.HivePageSourceFactory;
+import com.facebook.presto.hive.cache.LocalRangeCache;
+import com.facebook.presto.orc.OrcMetadataCache;
+import com.facebook.presto.orc.OrcReadScheduler;
 import com.facebook.presto.spi.ConnectorPageSource;
 import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.PrestoException;
@@ -39,6 +42,7 @@ import static com.facebook.presto.hive.HiveSessionProperties.getOrcMaxBufferSize
 import static com.facebook.presto.hive.HiveSessionProperties.getOrcMaxMergeDistance;
 import static com.facebook.presto.hive.HiveSessionProperties.getOrcMaxReadBlockSize;
 import static com.facebook.presto.hive.HiveSessionProperties.getOrcStreamBufferSize;
+import static com.facebook.presto.hive.HiveSessionProperties.isOrcFilterFirstReadingEnabled;
 import static com.facebook.presto.hive.HiveUtil.isDeserializerClass;
 import static com.facebook.presto.hive.orc.OrcPageSourceFactory.createOrcPageSource;
 import static com.facebook.presto.orc.OrcEncoding.DWRF;
@@ -50,10 +54,27 @@ public class DwrfPageSourceFactory
     private final TypeManager typeManager;
     private final HdfsEnvironment hdfsEnvironment;
     private final FileFormatDataSourceStats stats;
+    private final OrcMetadataCache metadataCache;
+    private final LocalRangeCache rangeCache;
+    private final OrcReadScheduler readScheduler;
 
-    @Inject
     public DwrfPageSourceFactory(TypeManager typeManager, HdfsEnvironment hdfsEnvironment, FileFormatDataSourceStats stats)
     {
+        this(typeManager, hdfsEnvironment, stats, OrcMetadataCache.NO_CACHE, LocalRangeCache.NO_CACHE, OrcReadScheduler.SEQUENTIAL);
+    }
+
+    @Inject
+    public DwrfPageSourceFactory(
+            TypeManager typeManager,
+            HdfsEnvironment hdfsEnvironment,
+            FileFormatDataSourceStats stats,
+            OrcMetadataCache metadataCache,
+            LocalRangeCache rangeCache,
+            OrcReadScheduler readScheduler)
+    {
+        this.metadataCache = requireNonNull(metadataCache, "metadataCache is null");
+        this.rangeCache = requireNonNull(rangeCache, "rangeCache is null");
+        this.readScheduler = requireNonNull(readScheduler, "readScheduler is null");
         this.typeManager = requireNonNull(typeManager, "typeManager is null");
         this.hdfsEnvironment = requireNonNull(hdfsEnvironment, "hdfsEnvironment is null");
         this.stats = requireNonNull(stats, "stats is null");
@@ -99,6 +120,10 @@ public class DwrfPageSourceFactory
                 getOrcMaxReadBlockSize(session),
                 getOrcLazyReadSmallRanges(session),
                 false,
+                isOrcFilterFirstReadingEnabled(session),
+                metadataCache,
+                rangeCache,
+                readScheduler,
                 stats));
     }
 }
@@ -14,8 +14,11 @@
 package com.facebook.presto.hive.orc;
 
 import com.facebook.presto.hive.FileFormatDataSourceStats;
+import com.facebook.presto.hive.cache.LocalRangeCache;
+import com.facebook.presto.hive.cache.LocalRangeCache.FileKey;
 import com.facebook.presto.orc.AbstractOrcDataSource;
 import com.facebook.presto.orc.OrcDataSourceId;
+import com.facebook.presto.orc.OrcReadScheduler;
 import com.facebook.presto.spi.PrestoException;
 import io.airlift.units.DataSize;
 import org.apache.hadoop.fs.FSDataInputStream;
@@ -33,6 +36,8 @@ public class HdfsOrcDataSource
 {
     private final FSDataInputStream inputStream;
     private final FileFormatDataSourceStats stats;
+    private final LocalRangeCache rangeCache;
+    private final FileKey fileKey;
 
     public HdfsOrcDataSource(
             OrcDataSourceId id,
@@ -44,25 +49,55 @@ public class HdfsOrcDataSource
             FSDataInputStream inputStream,
             FileFormatDataSourceStats stats)
     {
-        super(id, size, maxMergeDistance, maxReadSize, streamBufferSize, lazyReadSmallRanges);
+        this(id, size, maxMergeDistance, maxReadSize, streamBufferSize, lazyReadSmallRanges, inputStream, stats, LocalRangeCache.NO_CACHE, 0, OrcReadScheduler.SEQUENTIAL);
+    }
+
+    public HdfsOrcDataSource(
+            OrcDataSourceId id,
+            long size,
+            DataSize maxMergeDistance,
+            DataSize maxReadSize,
+            DataSize streamBufferSize,
+            boolean lazyReadSmallRanges,
+            FSDataInputStream inputStream,
+            FileFormatDataSourceStats stats,
+            LocalRangeCache rangeCache,
+            long modificationTime,
+            OrcReadScheduler readScheduler)
+    {
+        super(id, size, maxMergeDistance, maxReadSize, streamBufferSize, lazyReadSmallRanges, readScheduler);
         this.inputStream = requireNonNull(inputStream, "inputStream is null");
         this.stats = requireNonNull(stats, "stats is null");
+        this.rangeCache = requireNonNull(rangeCache, "rangeCache is null");
+        this.fileKey = new FileKey(id.toString(), size, modificationTime);
     }
 
     @Override
     public void close()
             throws IOException
     {
+        super.close();
         inputStream.close();
     }
 
+    @Override
+    protected boolean recordsStorageReads()
+    {
+        // reads served by the local range cache are not reported to the read scheduler
+        return true;
+    }
+
     @Override
     protected void readInternal(long position, byte[] buffer, int bufferOffset, int bufferLength)
     {
         try {
-            long readStart = System.nanoTime();
-            inputStream.readFully(position, buffer, bufferOffset, bufferLength);
-            stats.readDataBytesPerSecond(bufferLength, System.nanoTime() - readStart);
+            rangeCache.readFully(fileKey, position, buffer, bufferOffset, bufferLength, (remotePosition, remoteBuffer, remoteOffset, remoteLength) -> {
+                long readStart = System.nanoTime();
+                inputStream.readFully(remotePosition, remoteBuffer, remoteOffset, remoteLength);
+                long readNanos = System.nanoTime() - readStart;
+                stats.readDataBytesPerSecond(remoteLength, readNanos);
+                recordStorageRead(remoteLength, readNanos);
+            });
         }
         catch (PrestoException e) {
             // just in case there is a Presto wrapper or hook
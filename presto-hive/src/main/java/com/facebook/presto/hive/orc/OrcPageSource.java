@@ -27,6 +27,7 @@ import com.facebook.presto.spi.block.BlockBuilder;
 import com.facebook.presto.spi.block.BlockBuilderStatus;
 import com.facebook.presto.spi.block.LazyBlock;
 import com.facebook.presto.spi.block.LazyBlockLoader;
+import com.facebook.presto.spi.predicate.Domain;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.spi.type.TypeManager;
 import com.google.common.collect.ImmutableList;
@@ -34,12 +35,15 @@ import com.google.common.collect.ImmutableList;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Map;
 
 import static com.facebook.presto.hive.HiveColumnHandle.ColumnType.REGULAR;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_BAD_DATA;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_CURSOR_ERROR;
 import static com.facebook.presto.orc.OrcReader.MAX_BATCH_SIZE;
+import static com.facebook.presto.spi.type.TypeUtils.readNativeValue;
 import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static java.util.Objects.requireNonNull;
 
@@ -56,6 +60,10 @@ public class OrcPageSource
     private final Block[] constantBlocks;
     private final int[] hiveColumnIndexes;
 
+    // columns with a predicate that are read first to find the rows of the batch to read from the other columns
+    private final int[] filterFieldIds;
+    private final Domain[] filterDomains;
+
     private int batchId;
     private boolean closed;
 
@@ -68,6 +76,7 @@ public class OrcPageSource
             OrcDataSource orcDataSource,
             List<HiveColumnHandle> columns,
             TypeManager typeManager,
+            Map<Integer, Domain> filterDomains,
             AggregatedMemoryContext systemMemoryContext,
             FileFormatDataSourceStats stats)
     {
@@ -106,6 +115,17 @@ public class OrcPageSource
         types = typesBuilder.build();
         columnNames = namesBuilder.build();
 
+        requireNonNull(filterDomains, "filterDomains is null");
+        this.filterFieldIds = new int[filterDomains.size()];
+        this.filterDomains = new Domain[filterDomains.size()];
+        int filterIndex = 0;
+        for (Map.Entry<Integer, Domain> entry : filterDomains.entrySet()) {
+            checkArgument(entry.getKey() >= 0 && entry.getKey() < size, "invalid filter field %s", entry.getKey());
+            this.filterFieldIds[filterIndex] = entry.getKey();
+            this.filterDomains[filterIndex] = entry.getValue();
+            filterIndex++;
+        }
+
         this.systemMemoryContext = requireNonNull(systemMemoryContext, "systemMemoryContext is null");
     }
 
@@ -131,24 +151,41 @@ public class OrcPageSource
     public Page getNextPage()
     {
         try {
-            batchId++;
-            int batchSize = recordReader.nextBatch();
-            if (batchSize <= 0) {
-                close();
-                return null;
-            }
+            while (true) {
+                batchId++;
+                int batchSize = recordReader.nextBatch();
+                if (batchSize <= 0) {
+                    close();
+                    return null;
+                }
 
-            Block[] blocks = new Block[hiveColumnIndexes.length];
-            for (int fieldId = 0; fieldId < blocks.length; fieldId++) {
-                Type type = types.get(fieldId);
-                if (constantBlocks[fieldId] != null) {
-                    blocks[fieldId] = constantBlocks[fieldId].getRegion(0, batchSize);
+                if (filterFieldIds.length == 0) {
+                    return createPage(batchSize, new Block[hiveColumnIndexes.length]);
                 }
-                else {
-                    blocks[fieldId] = new LazyBlock(batchSize, new OrcBlockLoader(hiveColumnIndexes[fieldId], type));
+
+                Block[] blocks = new Block[hiveColumnIndexes.length];
+                for (int fieldId : filterFieldIds) {
+                    blocks[fieldId] = readBlock(fieldId, batchSize);
                 }
+
+                int[] positions = new int[batchSize];
+                int positionCount = 0;
+                for (int position = 0; position < batchSize; position++) {
+                    if (matches(blocks, position)) {
+                        positions[positionCount] = position;
+                        positionCount++;
+                    }
+                }
+
+                if (positionCount == batchSize) {
+                    return createPage(batchSize, blocks);
+                }
+                if (positionCount == 0) {
+                    // the remaining columns of the batch are skipped when the next batch is read
+                    continue;
+                }
+                return createPage(blocks, positions, positionCount);
             }
-            return new Page(batchSize, blocks);
         }
         catch (PrestoException e) {
             closeWithSuppression(e);
@@ -164,6 +201,61 @@ public class OrcPageSource
         }
     }
 
+    private Block readBlock(int fieldId, int batchSize)
+            throws IOException
+    {
+        if (constantBlocks[fieldId] != null) {
+            return constantBlocks[fieldId].getRegion(0, batchSize);
+        }
+        return recordReader.readBlock(types.get(fieldId), hiveColumnIndexes[fieldId]);
+    }
+
+    private boolean matches(Block[] blocks, int position)
+    {
+        for (int i = 0; i < filterFieldIds.length; i++) {
+            int fieldId = filterFieldIds[i];
+            if (!filterDomains[i].includesNullableValue(readNativeValue(types.get(fieldId), blocks[fieldId], position))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Page createPage(int batchSize, Block[] blocks)
+    {
+        for (int fieldId = 0; fieldId < blocks.length; fieldId++) {
+            if (blocks[fieldId] != null) {
+                continue;
+            }
+            Type type = types.get(fieldId);
+            if (constantBlocks[fieldId] != null) {
+                blocks[fieldId] = constantBlocks[fieldId].getRegion(0, batchSize);
+            }
+            else {
+                blocks[fieldId] = new LazyBlock(batchSize, new OrcBlockLoader(hiveColumnIndexes[fieldId], type, null, batchSize));
+            }
+        }
+        return new Page(batchSize, blocks);
+    }
+
+    private Page createPage(Block[] filterBlocks, int[] positions, int positionCount)
+    {
+        Block[] blocks = new Block[hiveColumnIndexes.length];
+        for (int fieldId = 0; fieldId < blocks.length; fieldId++) {
+            Type type = types.get(fieldId);
+            if (filterBlocks[fieldId] != null) {
+                blocks[fieldId] = filterBlocks[fieldId].copyPositions(positions, 0, positionCount);
+            }
+            else if (constantBlocks[fieldId] != null) {
+                blocks[fieldId] = constantBlocks[fieldId].getRegion(0, positionCount);
+            }
+            else {
+                blocks[fieldId] = new LazyBlock(positionCount, new OrcBlockLoader(hiveColumnIndexes[fieldId], type, positions, positionCount));
+            }
+        }
+        return new Page(positionCount, blocks);
+    }
+
     @Override
     public void close()
     {
@@ -217,12 +309,17 @@ public class OrcPageSource
         private final int expectedBatchId = batchId;
         private final int columnIndex;
         private final Type type;
+        // positions of the batch to read, or null to read the entire batch
+        private final int[] positions;
+        private final int positionCount;
         private boolean loaded;
 
-        public OrcBlockLoader(int columnIndex, Type type)
+        public OrcBlockLoader(int columnIndex, Type type, int[] positions, int positionCount)
         {
             this.columnIndex = columnIndex;
             this.type = requireNonNull(type, "type is null");
+            this.positions = positions;
+            this.positionCount = positionCount;
         }
 
         @Override
@@ -235,7 +332,13 @@ public class OrcPageSource
             checkState(batchId == expectedBatchId);
 
             try {
-                Block block = recordReader.readBlock(type, columnIndex);
+                Block block;
+                if (positions == null) {
+                    block = recordReader.readBlock(type, columnIndex);
+                }
+                else {
+                    block = recordReader.readBlock(type, columnIndex, positions, positionCount);
+                }
                 lazyBlock.setBlock(block);
             }
             catch (OrcCorruptionException e) {
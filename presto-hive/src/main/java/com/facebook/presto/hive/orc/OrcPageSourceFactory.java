@@ -18,10 +18,13 @@ import com.facebook.presto.hive.HdfsEnvironment;
 import com.facebook.presto.hive.HiveClientConfig;
 import com.facebook.presto.hive.HiveColumnHandle;
 import com.facebook.presto.hive.HivePageSourceFactory;
+import com.facebook.presto.hive.cache.LocalRangeCache;
 import com.facebook.presto.orc.OrcDataSource;
 import com.facebook.presto.orc.OrcDataSourceId;
 import com.facebook.presto.orc.OrcEncoding;
+import com.facebook.presto.orc.OrcMetadataCache;
 import com.facebook.presto.orc.OrcPredicate;
+import com.facebook.presto.orc.OrcReadScheduler;
 import com.facebook.presto.orc.OrcReader;
 import com.facebook.presto.orc.OrcRecordReader;
 import com.facebook.presto.orc.TupleDomainOrcPredicate;
@@ -31,11 +34,13 @@ import com.facebook.presto.spi.ConnectorPageSource;
 import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.FixedPageSource;
 import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.predicate.Domain;
 import com.facebook.presto.spi.predicate.TupleDomain;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.spi.type.TypeManager;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import io.airlift.slice.Slice;
 import io.airlift.units.DataSize;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FSDataInputStream;
@@ -48,6 +53,7 @@ import javax.inject.Inject;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -64,6 +70,7 @@ import static com.facebook.presto.hive.HiveSessionProperties.getOrcMaxMergeDista
 import static com.facebook.presto.hive.HiveSessionProperties.getOrcMaxReadBlockSize;
 import static com.facebook.presto.hive.HiveSessionProperties.getOrcStreamBufferSize;
 import static com.facebook.presto.hive.HiveSessionProperties.isOrcBloomFiltersEnabled;
+import static com.facebook.presto.hive.HiveSessionProperties.isOrcFilterFirstReadingEnabled;
 import static com.facebook.presto.hive.HiveUtil.isDeserializerClass;
 import static com.facebook.presto.orc.OrcEncoding.ORC;
 import static com.google.common.base.Strings.nullToEmpty;
@@ -78,15 +85,40 @@ public class OrcPageSourceFactory
     private final boolean useOrcColumnNames;
     private final HdfsEnvironment hdfsEnvironment;
     private final FileFormatDataSourceStats stats;
+    private final OrcMetadataCache metadataCache;
+    private final LocalRangeCache rangeCache;
+    private final OrcReadScheduler readScheduler;
 
     @Inject
-    public OrcPageSourceFactory(TypeManager typeManager, HiveClientConfig config, HdfsEnvironment hdfsEnvironment, FileFormatDataSourceStats stats)
+    public OrcPageSourceFactory(
+            TypeManager typeManager,
+            HiveClientConfig config,
+            HdfsEnvironment hdfsEnvironment,
+            FileFormatDataSourceStats stats,
+            OrcMetadataCache metadataCache,
+            LocalRangeCache rangeCache,
+            OrcReadScheduler readScheduler)
     {
-        this(typeManager, requireNonNull(config, "hiveClientConfig is null").isUseOrcColumnNames(), hdfsEnvironment, stats);
+        this(typeManager, requireNonNull(config, "hiveClientConfig is null").isUseOrcColumnNames(), hdfsEnvironment, stats, metadataCache, rangeCache, readScheduler);
     }
 
     public OrcPageSourceFactory(TypeManager typeManager, boolean useOrcColumnNames, HdfsEnvironment hdfsEnvironment, FileFormatDataSourceStats stats)
     {
+        this(typeManager, useOrcColumnNames, hdfsEnvironment, stats, OrcMetadataCache.NO_CACHE, LocalRangeCache.NO_CACHE, OrcReadScheduler.SEQUENTIAL);
+    }
+
+    public OrcPageSourceFactory(
+            TypeManager typeManager,
+            boolean useOrcColumnNames,
+            HdfsEnvironment hdfsEnvironment,
+            FileFormatDataSourceStats stats,
+            OrcMetadataCache metadataCache,
+            LocalRangeCache rangeCache,
+            OrcReadScheduler readScheduler)
+    {
+        this.metadataCache = requireNonNull(metadataCache, "metadataCache is null");
+        this.rangeCache = requireNonNull(rangeCache, "rangeCache is null");
+        this.readScheduler = requireNonNull(readScheduler, "readScheduler is null");
         this.typeManager = requireNonNull(typeManager, "typeManager is null");
         this.useOrcColumnNames = useOrcColumnNames;
         this.hdfsEnvironment = requireNonNull(hdfsEnvironment, "hdfsEnvironment is null");
@@ -135,6 +167,10 @@ public class OrcPageSourceFactory
                 getOrcMaxReadBlockSize(session),
                 getOrcLazyReadSmallRanges(session),
                 isOrcBloomFiltersEnabled(session),
+                isOrcFilterFirstReadingEnabled(session),
+                metadataCache,
+                rangeCache,
+                readScheduler,
                 stats));
     }
 
@@ -158,11 +194,20 @@ public class OrcPageSourceFactory
             DataSize maxReadBlockSize,
             boolean lazyReadSmallRanges,
             boolean orcBloomFiltersEnabled,
+            boolean filterFirstReadingEnabled,
+            OrcMetadataCache metadataCache,
+            LocalRangeCache rangeCache,
+            OrcReadScheduler readScheduler,
             FileFormatDataSourceStats stats)
     {
         OrcDataSource orcDataSource;
+        long modificationTime = 0;
         try {
             FileSystem fileSystem = hdfsEnvironment.getFileSystem(sessionUser, path, configuration);
+            if (metadataCache.isEnabled() || rangeCache.isEnabled()) {
+                // the modification time is part of the cache keys, so files that are overwritten are not read with stale data
+                modificationTime = fileSystem.getFileStatus(path).getModificationTime();
+            }
             FSDataInputStream inputStream = fileSystem.open(path);
             orcDataSource = new HdfsOrcDataSource(
                     new OrcDataSourceId(path.toString()),
@@ -172,7 +217,10 @@ public class OrcPageSourceFactory
                     streamBufferSize,
                     lazyReadSmallRanges,
                     inputStream,
-                    stats);
+                    stats,
+                    rangeCache,
+                    modificationTime,
+                    readScheduler);
         }
         catch (Exception e) {
             if (nullToEmpty(e.getMessage()).trim().equals("Filesystem closed") ||
@@ -184,7 +232,7 @@ public class OrcPageSourceFactory
 
         AggregatedMemoryContext systemMemoryUsage = new AggregatedMemoryContext();
         try {
-            OrcReader reader = new OrcReader(orcDataSource, orcEncoding, maxMergeDistance, maxBufferSize, maxReadBlockSize);
+            OrcReader reader = new OrcReader(orcDataSource, orcEncoding, maxMergeDistance, maxBufferSize, maxReadBlockSize, metadataCache, modificationTime);
 
             List<HiveColumnHandle> physicalColumns = getPhysicalHiveColumnHandles(columns, useOrcColumnNames, reader, path);
             ImmutableMap.Builder<Integer, Type> includedColumns = ImmutableMap.builder();
@@ -207,11 +255,17 @@ public class OrcPageSourceFactory
                     hiveStorageTimeZone,
                     systemMemoryUsage);
 
+            Map<Integer, Domain> filterDomains = ImmutableMap.of();
+            if (filterFirstReadingEnabled) {
+                filterDomains = getFilterDomains(physicalColumns, effectivePredicate, typeManager);
+            }
+
             return new OrcPageSource(
                     recordReader,
                     orcDataSource,
                     physicalColumns,
                     typeManager,
+                    filterDomains,
                     systemMemoryUsage,
                     stats);
         }
@@ -232,6 +286,40 @@ public class OrcPageSourceFactory
         }
     }
 
+    /**
+     * Returns the domains of the effective predicate that can be evaluated directly on the
+     * decoded values of a column, keyed by the field index of the column in the page.
+     * Columns that are coerced after they are read are skipped, because the domain is
+     * expressed in the table type and not in the type stored in the file.
+     */
+    private static Map<Integer, Domain> getFilterDomains(List<HiveColumnHandle> columns, TupleDomain<HiveColumnHandle> effectivePredicate, TypeManager typeManager)
+    {
+        if (!effectivePredicate.getDomains().isPresent()) {
+            return ImmutableMap.of();
+        }
+
+        Map<String, HiveColumnHandle> predicateColumnsByName = new HashMap<>();
+        effectivePredicate.getDomains().get().keySet().forEach(column -> predicateColumnsByName.put(column.getName(), column));
+
+        ImmutableMap.Builder<Integer, Domain> filterDomains = ImmutableMap.builder();
+        for (int fieldId = 0; fieldId < columns.size(); fieldId++) {
+            HiveColumnHandle column = columns.get(fieldId);
+            HiveColumnHandle predicateColumn = predicateColumnsByName.get(column.getName());
+            if (column.getColumnType() != REGULAR || predicateColumn == null || !predicateColumn.getHiveType().equals(column.getHiveType())) {
+                continue;
+            }
+            Domain domain = effectivePredicate.getDomains().get().get(predicateColumn);
+            if (domain.isAll()) {
+                continue;
+            }
+            Class<?> javaType = typeManager.getType(column.getTypeSignature()).getJavaType();
+            if (javaType == long.class || javaType == double.class || javaType == boolean.class || javaType == Slice.class) {
+                filterDomains.put(fieldId, domain);
+            }
+        }
+        return filterDomains.build();
+    }
+
     private static String splitError(Throwable t, Path path, long start, long length)
     {
         return format("Error opening Hive split %s (offset=%s, length=%s): %s", path, start, length, t.getMessage());
@@ -13,6 +13,8 @@
  */
 package com.facebook.presto.hive.parquet;
 
+import com.facebook.presto.hive.cache.LocalRangeCache;
+import com.facebook.presto.hive.cache.LocalRangeCache.FileKey;
 import com.facebook.presto.spi.PrestoException;
 import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FileSystem;
@@ -25,6 +27,7 @@ import static com.facebook.presto.hive.HiveErrorCode.HIVE_CANNOT_OPEN_SPLIT;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_FILESYSTEM_ERROR;
 import static com.google.common.base.Strings.nullToEmpty;
 import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
 
 public class HdfsParquetDataSource
         implements ParquetDataSource
@@ -32,13 +35,22 @@ public class HdfsParquetDataSource
     private final String name;
     private final long size;
     private final FSDataInputStream inputStream;
+    private final LocalRangeCache rangeCache;
+    private final FileKey fileKey;
     private long readBytes;
 
     public HdfsParquetDataSource(Path path, long size, FSDataInputStream inputStream)
+    {
+        this(path, size, inputStream, LocalRangeCache.NO_CACHE, 0);
+    }
+
+    public HdfsParquetDataSource(Path path, long size, FSDataInputStream inputStream, LocalRangeCache rangeCache, long modificationTime)
     {
         this.name = path.toString();
         this.size = size;
         this.inputStream = inputStream;
+        this.rangeCache = requireNonNull(rangeCache, "rangeCache is null");
+        this.fileKey = new FileKey(name, size, modificationTime);
     }
 
     @Override
@@ -79,7 +91,7 @@ public class HdfsParquetDataSource
             throws IOException
     {
         try {
-            inputStream.readFully(position, buffer, bufferOffset, bufferLength);
+            rangeCache.readFully(fileKey, position, buffer, bufferOffset, bufferLength, inputStream::readFully);
         }
         catch (PrestoException e) {
             // just in case there is a Presto wrapper or hook
@@ -91,10 +103,20 @@ public class HdfsParquetDataSource
     }
 
     public static HdfsParquetDataSource buildHdfsParquetDataSource(FileSystem fileSystem, Path path, long start, long length, long fileSize)
+    {
+        return buildHdfsParquetDataSource(fileSystem, path, start, length, fileSize, LocalRangeCache.NO_CACHE);
+    }
+
+    public static HdfsParquetDataSource buildHdfsParquetDataSource(FileSystem fileSystem, Path path, long start, long length, long fileSize, LocalRangeCache rangeCache)
     {
         try {
+            long modificationTime = 0;
+            if (rangeCache.isEnabled()) {
+                // the modification time is part of the cache key, so files that are overwritten are not read with stale data
+                modificationTime = fileSystem.getFileStatus(path).getModificationTime();
+            }
             FSDataInputStream inputStream = fileSystem.open(path);
-            return new HdfsParquetDataSource(path, fileSize, inputStream);
+            return new HdfsParquetDataSource(path, fileSize, inputStream, rangeCache, modificationTime);
         }
         catch (Exception e) {
             if (nullToEmpty(e.getMessage()).trim().equals("Filesystem closed") ||
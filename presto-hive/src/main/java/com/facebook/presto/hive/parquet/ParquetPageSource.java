@@ -196,7 +196,8 @@ public class ParquetPageSource
                     else {
                         Optional<RichColumnDescriptor> descriptor = getDescriptor(fileSchema, requestedSchema, path);
                         if (descriptor.isPresent()) {
-                            blocks[fieldId] = new LazyBlock(batchSize, new ParquetBlockLoader(descriptor.get(), type));
+                            ColumnDescriptor columnDescriptor = descriptor.get();
+                            blocks[fieldId] = new LazyBlock(batchSize, new ParquetBlockLoader(() -> parquetReader.readPrimitive(columnDescriptor, type)));
                         }
                         else {
                             blocks[fieldId] = RunLengthEncodedBlock.create(type, null, batchSize);
@@ -250,18 +251,22 @@ public class ParquetPageSource
         }
     }
 
+    private interface BlockReader
+    {
+        Block read()
+                throws IOException;
+    }
+
     private final class ParquetBlockLoader
             implements LazyBlockLoader<LazyBlock>
     {
         private final int expectedBatchId = batchId;
-        private final ColumnDescriptor columnDescriptor;
-        private final Type type;
+        private final BlockReader blockReader;
         private boolean loaded;
 
-        public ParquetBlockLoader(ColumnDescriptor columnDescriptor, Type type)
+        public ParquetBlockLoader(BlockReader blockReader)
         {
-            this.columnDescriptor = columnDescriptor;
-            this.type = requireNonNull(type, "type is null");
+            this.blockReader = requireNonNull(blockReader, "blockReader is null");
         }
 
         @Override
@@ -274,7 +279,7 @@ public class ParquetPageSource
             checkState(batchId == expectedBatchId);
 
             try {
-                Block block = parquetReader.readPrimitive(columnDescriptor, type);
+                Block block = blockReader.read();
                 lazyBlock.setBlock(block);
             }
             catch (ParquetCorruptionException e) {
@@ -54,6 +54,7 @@ import static com.facebook.presto.spi.type.SmallintType.SMALLINT;
 import static com.facebook.presto.spi.type.TinyintType.TINYINT;
 import static com.google.common.base.Verify.verify;
 import static io.airlift.slice.Slices.wrappedBuffer;
+import static java.lang.Math.min;
 import static java.lang.Math.toIntExact;
 import static java.util.Map.Entry;
 import static parquet.column.Encoding.BIT_PACKED;
@@ -138,28 +139,37 @@ public final class ParquetPredicateUtils
                 ColumnDescriptor columnDescriptor = descriptor.get();
                 if (isOnlyDictionaryEncodingPages(columnMetaData.getEncodings()) && isColumnPredicate(columnDescriptor, parquetTupleDomain)) {
                     try {
-                        int totalSize = toIntExact(columnMetaData.getTotalSize());
-                        byte[] buffer = new byte[totalSize];
+                        byte[] buffer = new byte[getDictionaryPageSize(columnMetaData)];
                         dataSource.readFully(columnMetaData.getStartingPos(), buffer);
                         Optional<ParquetDictionaryPage> dictionaryPage = readDictionaryPage(buffer, columnMetaData.getCodec());
                         dictionaries.put(columnDescriptor, new ParquetDictionaryDescriptor(columnDescriptor, dictionaryPage));
                     }
                     catch (IOException ignored) {
                     }
-                    break;
                 }
             }
         }
         return dictionaries.build();
     }
 
+    private static int getDictionaryPageSize(ColumnChunkMetaData columnMetaData)
+    {
+        // the dictionary page precedes the first data page, so the data pages do not have to be read;
+        // some writers record the start of the column chunk as the offset of the first data page
+        long dictionaryPageSize = columnMetaData.getFirstDataPageOffset() - columnMetaData.getStartingPos();
+        if (dictionaryPageSize <= 0) {
+            dictionaryPageSize = columnMetaData.getTotalSize();
+        }
+        return toIntExact(min(dictionaryPageSize, columnMetaData.getTotalSize()));
+    }
+
     private static Optional<ParquetDictionaryPage> readDictionaryPage(byte[] data, CompressionCodecName codecName)
     {
         try {
             ByteArrayInputStream inputStream = new ByteArrayInputStream(data);
             PageHeader pageHeader = Util.readPageHeader(inputStream);
 
-            if (pageHeader.type != PageType.DICTIONARY_PAGE) {
+            if (pageHeader.type != PageType.DICTIONARY_PAGE || pageHeader.getCompressed_page_size() > inputStream.available()) {
                 return Optional.empty();
             }
 
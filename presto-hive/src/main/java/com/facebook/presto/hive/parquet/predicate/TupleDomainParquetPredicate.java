@@ -243,6 +243,14 @@ public class TupleDomainParquetPredicate
             domains.add(Domain.onlyNull(type));
             return Domain.union(domains);
         }
+        else if ((type.equals(INTEGER) || type.equals(SMALLINT) || type.equals(TINYINT)) && columnDescriptor.getType() == PrimitiveTypeName.INT32) {
+            List<Domain> domains = new ArrayList<>();
+            for (int i = 0; i < dictionarySize; i++) {
+                domains.add(Domain.singleValue(type, (long) dictionary.decodeToInt(i)));
+            }
+            domains.add(Domain.onlyNull(type));
+            return Domain.union(domains);
+        }
         else if (type.equals(DOUBLE) && columnDescriptor.getType() == PrimitiveTypeName.DOUBLE) {
             List<Domain> domains = new ArrayList<>();
             for (int i = 0; i < dictionarySize; i++) {
@@ -259,6 +267,14 @@ public class TupleDomainParquetPredicate
             domains.add(Domain.onlyNull(type));
             return Domain.union(domains);
         }
+        else if (type.equals(REAL) && columnDescriptor.getType() == PrimitiveTypeName.FLOAT) {
+            List<Domain> domains = new ArrayList<>();
+            for (int i = 0; i < dictionarySize; i++) {
+                domains.add(Domain.singleValue(type, (long) floatToRawIntBits(dictionary.decodeToFloat(i))));
+            }
+            domains.add(Domain.onlyNull(type));
+            return Domain.union(domains);
+        }
         else if (isVarcharType(type) && columnDescriptor.getType() == PrimitiveTypeName.BINARY) {
             List<Domain> domains = new ArrayList<>();
             for (int i = 0; i < dictionarySize; i++) {
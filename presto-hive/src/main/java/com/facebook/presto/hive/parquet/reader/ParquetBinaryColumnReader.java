@@ -13,12 +13,17 @@
  */
 package com.facebook.presto.hive.parquet.reader;
 
+import com.facebook.presto.hive.parquet.dictionary.ParquetDictionary;
+import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.block.BlockBuilderStatus;
 import com.facebook.presto.spi.type.Type;
 import io.airlift.slice.Slice;
 import parquet.column.ColumnDescriptor;
 import parquet.io.api.Binary;
 
+import java.util.Optional;
+
 import static com.facebook.presto.spi.type.Chars.isCharType;
 import static com.facebook.presto.spi.type.Chars.truncateToLengthAndTrimSpaces;
 import static com.facebook.presto.spi.type.Varchars.isVarcharType;
@@ -38,27 +43,45 @@ public class ParquetBinaryColumnReader
     protected void readValue(BlockBuilder blockBuilder, Type type)
     {
         if (definitionLevel == columnDescriptor.getMaxDefinitionLevel()) {
-            Binary binary = valuesReader.readBytes();
-            Slice value;
-            if (binary.length() == 0) {
-                value = EMPTY_SLICE;
-            }
-            else {
-                value = wrappedBuffer(binary.getBytes());
-            }
-            if (isVarcharType(type)) {
-                value = truncateToLength(value, type);
-            }
-            if (isCharType(type)) {
-                value = truncateToLengthAndTrimSpaces(value, type);
-            }
-            type.writeSlice(blockBuilder, value);
+            writeValue(blockBuilder, type, valuesReader.readBytes());
         }
         else {
             blockBuilder.appendNull();
         }
     }
 
+    @Override
+    protected Optional<Block> createDictionaryBlock(ParquetDictionary dictionary, int dictionarySize, Type type)
+    {
+        if (type.getJavaType() != Slice.class) {
+            return Optional.empty();
+        }
+        BlockBuilder blockBuilder = type.createBlockBuilder(new BlockBuilderStatus(), dictionarySize + 1);
+        for (int i = 0; i < dictionarySize; i++) {
+            writeValue(blockBuilder, type, dictionary.decodeToBinary(i));
+        }
+        blockBuilder.appendNull();
+        return Optional.of(blockBuilder.build());
+    }
+
+    private static void writeValue(BlockBuilder blockBuilder, Type type, Binary binary)
+    {
+        Slice value;
+        if (binary.length() == 0) {
+            value = EMPTY_SLICE;
+        }
+        else {
+            value = wrappedBuffer(binary.getBytes());
+        }
+        if (isVarcharType(type)) {
+            value = truncateToLength(value, type);
+        }
+        if (isCharType(type)) {
+            value = truncateToLengthAndTrimSpaces(value, type);
+        }
+        type.writeSlice(blockBuilder, value);
+    }
+
     @Override
     protected void skipValue()
     {
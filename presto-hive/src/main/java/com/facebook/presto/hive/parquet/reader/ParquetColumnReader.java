@@ -24,6 +24,8 @@ import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.BlockBuilder;
 import com.facebook.presto.spi.block.BlockBuilderStatus;
+import com.facebook.presto.spi.block.DictionaryBlock;
+import com.facebook.presto.spi.block.DictionaryId;
 import com.facebook.presto.spi.type.DecimalType;
 import com.facebook.presto.spi.type.Type;
 import io.airlift.slice.Slice;
@@ -36,6 +38,7 @@ import parquet.io.ParquetDecodingException;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.util.List;
 import java.util.Optional;
 
 import static com.facebook.presto.hive.parquet.ParquetTypeUtils.createDecimalType;
@@ -44,7 +47,9 @@ import static com.facebook.presto.hive.parquet.ParquetValuesType.DEFINITION_LEVE
 import static com.facebook.presto.hive.parquet.ParquetValuesType.REPETITION_LEVEL;
 import static com.facebook.presto.hive.parquet.ParquetValuesType.VALUES;
 import static com.facebook.presto.spi.StandardErrorCode.NOT_SUPPORTED;
+import static com.facebook.presto.spi.block.DictionaryId.randomDictionaryId;
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
 import static java.util.Objects.requireNonNull;
 
 public abstract class ParquetColumnReader
@@ -61,6 +66,10 @@ public abstract class ParquetColumnReader
     private long totalValueCount;
     private ParquetPageReader pageReader;
     private ParquetDictionary dictionary;
+    private int dictionarySize;
+    private boolean readDictionaryIds;
+    private Block dictionaryBlock;
+    private DictionaryId dictionaryId;
     private int currentValueCount;
     private ParquetDataPage page;
     private int remainingValueCountInPage;
@@ -70,6 +79,15 @@ public abstract class ParquetColumnReader
 
     protected abstract void skipValue();
 
+    /**
+     * Creates a block with the values of the dictionary followed by a null, so that the values
+     * of a dictionary encoded column chunk can be returned as a {@link DictionaryBlock}.
+     */
+    protected Optional<Block> createDictionaryBlock(ParquetDictionary dictionary, int dictionarySize, Type type)
+    {
+        return Optional.empty();
+    }
+
     public static ParquetColumnReader createReader(RichColumnDescriptor descriptor)
     {
         switch (descriptor.getType()) {
@@ -124,6 +142,7 @@ public abstract class ParquetColumnReader
         if (dictionaryPage != null) {
             try {
                 dictionary = dictionaryPage.getEncoding().initDictionary(columnDescriptor, dictionaryPage);
+                dictionarySize = dictionaryPage.getDictionarySize();
             }
             catch (IOException e) {
                 throw new ParquetDecodingException("could not decode the dictionary for " + columnDescriptor, e);
@@ -131,7 +150,12 @@ public abstract class ParquetColumnReader
         }
         else {
             dictionary = null;
+            dictionarySize = 0;
         }
+        // the dictionary ids can only be returned when no page of the column chunk fell back to another encoding
+        readDictionaryIds = dictionary != null && isFlat() && allPagesUseDictionary(pageReader.getCompressedPages());
+        dictionaryBlock = null;
+        dictionaryId = randomDictionaryId();
         checkArgument(pageReader.getTotalValueCount() > 0, "page is empty");
         totalValueCount = pageReader.getTotalValueCount();
     }
@@ -142,6 +166,13 @@ public abstract class ParquetColumnReader
         nextBatchSize = batchSize;
     }
 
+    public void skipRows(int rowCount)
+    {
+        checkState(isFlat(), "Rows of repeated column %s cannot be skipped by offset", columnDescriptor);
+        readOffset = readOffset + nextBatchSize + rowCount;
+        nextBatchSize = 0;
+    }
+
     public ColumnDescriptor getDescriptor()
     {
         return columnDescriptor;
@@ -151,6 +182,15 @@ public abstract class ParquetColumnReader
             throws IOException
     {
         seek();
+        if (readDictionaryIds && dictionaryBlock == null) {
+            Optional<Block> block = createDictionaryBlock(dictionary, dictionarySize, type);
+            readDictionaryIds = block.isPresent();
+            dictionaryBlock = block.orElse(null);
+        }
+        if (readDictionaryIds) {
+            return readDictionaryIds(positions);
+        }
+
         BlockBuilder blockBuilder = type.createBlockBuilder(new BlockBuilderStatus(), nextBatchSize);
         int valueCount = 0;
         while (valueCount < nextBatchSize) {
@@ -169,6 +209,36 @@ public abstract class ParquetColumnReader
         return blockBuilder.build();
     }
 
+    private Block readDictionaryIds(IntList positions)
+            throws IOException
+    {
+        int[] ids = new int[nextBatchSize];
+        int valueCount = 0;
+        while (valueCount < nextBatchSize) {
+            if (page == null) {
+                readNextPage();
+            }
+            int numValues = Math.min(remainingValueCountInPage, nextBatchSize - valueCount);
+            for (int i = valueCount; i < valueCount + numValues; i++) {
+                if (definitionReader.readLevel() == columnDescriptor.getMaxDefinitionLevel()) {
+                    ids[i] = valuesReader.readValueDictionaryId();
+                }
+                else {
+                    // the last position of the dictionary block is null
+                    ids[i] = dictionarySize;
+                }
+                positions.add(1);
+            }
+            valueCount += numValues;
+            updatePosition(numValues);
+        }
+
+        Block block = new DictionaryBlock(nextBatchSize, dictionaryBlock, ids, dictionaryId);
+        readOffset = 0;
+        nextBatchSize = 0;
+        return block;
+    }
+
     private void readValues(BlockBuilder blockBuilder, int numValues, Type type, IntList positions)
     {
         definitionLevel = definitionReader.readLevel();
@@ -232,10 +302,21 @@ public abstract class ParquetColumnReader
         int valuePosition = 0;
         while (valuePosition < readOffset) {
             if (page == null) {
+                if (isFlat()) {
+                    // each value of a flat column is a row, so whole pages are skipped without decompressing them
+                    int skippedValues = pageReader.skipPages(readOffset - valuePosition);
+                    valuePosition = valuePosition + skippedValues;
+                    currentValueCount += skippedValues;
+                    if (valuePosition == readOffset) {
+                        break;
+                    }
+                }
                 readNextPage();
             }
             int offset = Math.min(remainingValueCountInPage, readOffset - valuePosition);
-            skipValues(offset);
+            if (!isFlat() || offset < remainingValueCountInPage) {
+                skipValues(offset);
+            }
             valuePosition = valuePosition + offset;
             updatePosition(offset);
         }
@@ -257,6 +338,28 @@ public abstract class ParquetColumnReader
         }
     }
 
+    private boolean isFlat()
+    {
+        return columnDescriptor.getMaxRepetitionLevel() == 0;
+    }
+
+    private static boolean allPagesUseDictionary(List<ParquetDataPage> pages)
+    {
+        for (ParquetDataPage page : pages) {
+            ParquetEncoding encoding;
+            if (page instanceof ParquetDataPageV1) {
+                encoding = ((ParquetDataPageV1) page).getValueEncoding();
+            }
+            else {
+                encoding = ((ParquetDataPageV2) page).getDataEncoding();
+            }
+            if (!encoding.usesDictionary()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private void updatePosition(int numValues)
     {
         if (numValues == remainingValueCountInPage) {
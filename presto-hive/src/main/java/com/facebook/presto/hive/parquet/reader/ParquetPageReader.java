@@ -17,6 +17,7 @@ import com.facebook.presto.hive.parquet.ParquetDataPage;
 import com.facebook.presto.hive.parquet.ParquetDataPageV1;
 import com.facebook.presto.hive.parquet.ParquetDataPageV2;
 import com.facebook.presto.hive.parquet.ParquetDictionaryPage;
+import com.google.common.collect.ImmutableList;
 import parquet.hadoop.metadata.CompressionCodecName;
 
 import java.io.IOException;
@@ -52,6 +53,27 @@ class ParquetPageReader
         return valueCount;
     }
 
+    /**
+     * Returns the pages that have not been read yet, without decompressing them.
+     */
+    public List<ParquetDataPage> getCompressedPages()
+    {
+        return ImmutableList.copyOf(compressedPages);
+    }
+
+    /**
+     * Skips the whole pages with at most the specified number of values in total,
+     * without decompressing them, and returns the number of values skipped.
+     */
+    public int skipPages(int maxValueCount)
+    {
+        int skippedValueCount = 0;
+        while (!compressedPages.isEmpty() && skippedValueCount + compressedPages.get(0).getValueCount() <= maxValueCount) {
+            skippedValueCount += compressedPages.remove(0).getValueCount();
+        }
+        return skippedValueCount;
+    }
+
     public ParquetDataPage readPage()
     {
         if (compressedPages.isEmpty()) {
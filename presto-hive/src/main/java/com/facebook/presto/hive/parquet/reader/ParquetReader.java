@@ -14,22 +14,35 @@
 package com.facebook.presto.hive.parquet.reader;
 
 import com.facebook.presto.hive.parquet.ParquetCorruptionException;
+import com.facebook.presto.hive.parquet.ParquetDataPage;
+import com.facebook.presto.hive.parquet.ParquetDataPageV1;
+import com.facebook.presto.hive.parquet.ParquetDataPageV2;
 import com.facebook.presto.hive.parquet.ParquetDataSource;
 import com.facebook.presto.hive.parquet.RichColumnDescriptor;
 import com.facebook.presto.hive.parquet.memory.AggregatedMemoryContext;
 import com.facebook.presto.hive.parquet.memory.LocalMemoryContext;
+import com.facebook.presto.hive.parquet.predicate.ParquetPredicate;
+import com.facebook.presto.hive.parquet.predicate.TupleDomainParquetPredicate;
 import com.facebook.presto.spi.block.ArrayBlock;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.RowBlock;
 import com.facebook.presto.spi.block.RunLengthEncodedBlock;
+import com.facebook.presto.spi.predicate.TupleDomain;
 import com.facebook.presto.spi.type.MapType;
 import com.facebook.presto.spi.type.NamedTypeSignature;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.spi.type.TypeManager;
 import com.facebook.presto.spi.type.TypeSignatureParameter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Range;
+import com.google.common.collect.RangeSet;
+import com.google.common.collect.TreeRangeSet;
 import it.unimi.dsi.fastutil.ints.IntArrayList;
 import it.unimi.dsi.fastutil.ints.IntList;
 import parquet.column.ColumnDescriptor;
+import parquet.column.statistics.Statistics;
 import parquet.hadoop.metadata.BlockMetaData;
 import parquet.hadoop.metadata.ColumnChunkMetaData;
 import parquet.hadoop.metadata.ColumnPath;
@@ -42,6 +55,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static com.facebook.presto.hive.parquet.ParquetTypeUtils.getColumns;
 import static com.facebook.presto.hive.parquet.ParquetTypeUtils.getDescriptor;
@@ -69,6 +83,7 @@ public class ParquetReader
     private final List<BlockMetaData> blocks;
     private final ParquetDataSource dataSource;
     private final TypeManager typeManager;
+    private final TupleDomain<ColumnDescriptor> predicate;
 
     private int currentBlock;
     private BlockMetaData currentBlockMetadata;
@@ -77,6 +92,8 @@ public class ParquetReader
     private long nextRowInGroup;
     private int batchSize;
     private final Map<ColumnDescriptor, ParquetColumnReader> columnReadersMap = new HashMap<>();
+    // rows of the current row group that cannot match the predicate according to the statistics of their pages
+    private RangeSet<Long> nonMatchingRows = TreeRangeSet.create();
 
     private AggregatedMemoryContext currentRowGroupMemoryContext;
     private final AggregatedMemoryContext systemMemoryContext;
@@ -87,12 +104,24 @@ public class ParquetReader
             ParquetDataSource dataSource,
             TypeManager typeManager,
             AggregatedMemoryContext systemMemoryContext)
+    {
+        this(fileSchema, requestedSchema, blocks, dataSource, typeManager, systemMemoryContext, TupleDomain.all());
+    }
+
+    public ParquetReader(MessageType fileSchema,
+            MessageType requestedSchema,
+            List<BlockMetaData> blocks,
+            ParquetDataSource dataSource,
+            TypeManager typeManager,
+            AggregatedMemoryContext systemMemoryContext,
+            TupleDomain<ColumnDescriptor> predicate)
     {
         this.fileSchema = fileSchema;
         this.requestedSchema = requestedSchema;
         this.blocks = blocks;
         this.dataSource = dataSource;
         this.typeManager = typeManager;
+        this.predicate = requireNonNull(predicate, "predicate is null");
         this.systemMemoryContext = requireNonNull(systemMemoryContext, "systemMemoryContext is null");
         this.currentRowGroupMemoryContext = systemMemoryContext.newAggregatedMemoryContext();
         initializeColumnReaders();
@@ -112,12 +141,30 @@ public class ParquetReader
     }
 
     public int nextBatch()
+            throws IOException
     {
-        if (nextRowInGroup >= currentGroupRowCount && !advanceToNextRowGroup()) {
-            return -1;
+        while (true) {
+            if (nextRowInGroup >= currentGroupRowCount && !advanceToNextRowGroup()) {
+                return -1;
+            }
+            Range<Long> skippedRows = nonMatchingRows.rangeContaining(nextRowInGroup);
+            if (skippedRows == null) {
+                break;
+            }
+            int skippedRowCount = toIntExact(skippedRows.upperEndpoint() - nextRowInGroup);
+            nextRowInGroup += skippedRowCount;
+            for (ParquetColumnReader columnReader : columnReadersMap.values()) {
+                columnReader.skipRows(skippedRowCount);
+            }
         }
 
-        batchSize = toIntExact(min(MAX_VECTOR_LENGTH, currentGroupRowCount - nextRowInGroup));
+        // the batch ends before the next rows that can be skipped
+        long batchEnd = min(nextRowInGroup + MAX_VECTOR_LENGTH, currentGroupRowCount);
+        Set<Range<Long>> nextSkippedRows = nonMatchingRows.subRangeSet(Range.closedOpen(nextRowInGroup, batchEnd)).asRanges();
+        if (!nextSkippedRows.isEmpty()) {
+            batchEnd = nextSkippedRows.iterator().next().lowerEndpoint();
+        }
+        batchSize = toIntExact(batchEnd - nextRowInGroup);
 
         nextRowInGroup += batchSize;
         currentPosition += batchSize;
@@ -131,6 +178,7 @@ public class ParquetReader
     }
 
     private boolean advanceToNextRowGroup()
+            throws IOException
     {
         currentRowGroupMemoryContext.close();
         currentRowGroupMemoryContext = systemMemoryContext.newAggregatedMemoryContext();
@@ -145,9 +193,49 @@ public class ParquetReader
         currentGroupRowCount = currentBlockMetadata.getRowCount();
         columnReadersMap.clear();
         initializeColumnReaders();
+        nonMatchingRows = getNonMatchingRows();
         return true;
     }
 
+    private RangeSet<Long> getNonMatchingRows()
+            throws IOException
+    {
+        RangeSet<Long> rows = TreeRangeSet.create();
+        // rows can only be skipped by offset when the values of every column are its rows
+        if (columnReadersMap.keySet().stream().anyMatch(column -> column.getMaxRepetitionLevel() != 0)) {
+            return rows;
+        }
+
+        Set<ColumnDescriptor> predicateColumns = predicate.getDomains()
+                .map(Map::keySet)
+                .orElse(ImmutableSet.of());
+        for (Map.Entry<ColumnDescriptor, ParquetColumnReader> entry : columnReadersMap.entrySet()) {
+            RichColumnDescriptor column = (RichColumnDescriptor) entry.getKey();
+            if (!predicateColumns.contains(column)) {
+                continue;
+            }
+
+            ParquetPredicate pagePredicate = new TupleDomainParquetPredicate(predicate, ImmutableList.of(column));
+            long pageStart = 0;
+            for (ParquetDataPage page : getPageReader(column, entry.getValue()).getCompressedPages()) {
+                Statistics<?> statistics = getStatistics(page);
+                if (statistics != null && !pagePredicate.matches(page.getValueCount(), ImmutableMap.of(column, statistics))) {
+                    rows.add(Range.closedOpen(pageStart, pageStart + page.getValueCount()));
+                }
+                pageStart += page.getValueCount();
+            }
+        }
+        return rows;
+    }
+
+    private static Statistics<?> getStatistics(ParquetDataPage page)
+    {
+        if (page instanceof ParquetDataPageV1) {
+            return ((ParquetDataPageV1) page).getStatistics();
+        }
+        return ((ParquetDataPageV2) page).getStatistics();
+    }
+
     public Block readArray(Type type, List<String> path)
             throws IOException
     {
@@ -250,6 +338,13 @@ public class ParquetReader
             throws IOException
     {
         ParquetColumnReader columnReader = columnReadersMap.get(columnDescriptor);
+        getPageReader(columnDescriptor, columnReader);
+        return columnReader.readPrimitive(type, offsets);
+    }
+
+    private ParquetPageReader getPageReader(ColumnDescriptor columnDescriptor, ParquetColumnReader columnReader)
+            throws IOException
+    {
         if (columnReader.getPageReader() == null) {
             validateParquet(currentBlockMetadata.getRowCount() > 0, "Row group has 0 rows");
             ColumnChunkMetaData metadata = getColumnChunkMetaData(columnDescriptor);
@@ -261,7 +356,7 @@ public class ParquetReader
             ParquetColumnChunk columnChunk = new ParquetColumnChunk(descriptor, buffer, 0);
             columnReader.setPageReader(columnChunk.readAllPages());
         }
-        return columnReader.readPrimitive(type, offsets);
+        return columnReader.getPageReader();
     }
 
     private byte[] allocateBlock(int length)
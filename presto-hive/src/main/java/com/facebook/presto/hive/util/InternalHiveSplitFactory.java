@@ -19,6 +19,7 @@ import com.facebook.presto.hive.HiveTypeName;
 import com.facebook.presto.hive.InternalHiveSplit;
 import com.facebook.presto.hive.InternalHiveSplit.InternalHiveBlock;
 import com.facebook.presto.spi.HostAddress;
+import com.facebook.presto.spi.Node;
 import com.facebook.presto.spi.predicate.Domain;
 import com.facebook.presto.spi.predicate.TupleDomain;
 import com.google.common.collect.ImmutableList;
@@ -43,7 +44,9 @@ import static com.facebook.presto.hive.HiveColumnHandle.isPathColumnHandle;
 import static com.facebook.presto.hive.HiveUtil.isSplittable;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.hash.Hashing.murmur3_128;
 import static io.airlift.slice.Slices.utf8Slice;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Objects.requireNonNull;
 
 public class InternalHiveSplitFactory
@@ -56,6 +59,7 @@ public class InternalHiveSplitFactory
     private final Optional<Domain> pathDomain;
     private final Map<Integer, HiveTypeName> columnCoercions;
     private final boolean forceLocalScheduling;
+    private final List<Node> affinityNodes;
 
     public InternalHiveSplitFactory(
             FileSystem fileSystem,
@@ -65,7 +69,8 @@ public class InternalHiveSplitFactory
             List<HivePartitionKey> partitionKeys,
             TupleDomain<HiveColumnHandle> effectivePredicate,
             Map<Integer, HiveTypeName> columnCoercions,
-            boolean forceLocalScheduling)
+            boolean forceLocalScheduling,
+            List<Node> affinityNodes)
     {
         this.fileSystem = requireNonNull(fileSystem, "fileSystem is null");
         this.partitionName = requireNonNull(partitionName, "partitionName is null");
@@ -75,6 +80,7 @@ public class InternalHiveSplitFactory
         pathDomain = getPathDomain(requireNonNull(effectivePredicate, "effectivePredicate is null"));
         this.columnCoercions = requireNonNull(columnCoercions, "columnCoercions is null");
         this.forceLocalScheduling = forceLocalScheduling;
+        this.affinityNodes = ImmutableList.copyOf(requireNonNull(affinityNodes, "affinityNodes is null"));
     }
 
     public String getPartitionName()
@@ -166,6 +172,16 @@ public class InternalHiveSplitFactory
             blocks = ImmutableList.of(new InternalHiveBlock(start, start + length, blocks.get(0).getAddresses()));
         }
 
+        if (!affinityNodes.isEmpty()) {
+            // prefer the same worker for all splits of a file, so its local cache can serve repeated reads;
+            // the preference is soft, so a busy worker does not prevent the split from being scheduled elsewhere
+            List<HostAddress> addresses = ImmutableList.of(getAffinityNode(pathString).getHostAndPort());
+            blocks = blocks.stream()
+                    .map(block -> new InternalHiveBlock(block.getStart(), block.getEnd(), addresses))
+                    .collect(toImmutableList());
+            forceLocalScheduling = false;
+        }
+
         return Optional.of(new InternalHiveSplit(
                 partitionName,
                 pathString,
@@ -181,6 +197,29 @@ public class InternalHiveSplitFactory
                 columnCoercions));
     }
 
+    /**
+     * Chooses the worker for a file by rendezvous hashing of the node identifiers, so a file
+     * only moves to another worker when its worker leaves the cluster, regardless of the
+     * order in which the workers are listed.
+     */
+    private Node getAffinityNode(String path)
+    {
+        Node affinityNode = null;
+        long maxHash = Long.MIN_VALUE;
+        for (Node node : affinityNodes) {
+            long hash = murmur3_128().newHasher()
+                    .putString(node.getNodeIdentifier(), UTF_8)
+                    .putString(path, UTF_8)
+                    .hash()
+                    .asLong();
+            if (affinityNode == null || hash > maxHash) {
+                affinityNode = node;
+                maxHash = hash;
+            }
+        }
+        return affinityNode;
+    }
+
     private static void checkBlocks(List<InternalHiveBlock> blocks, long start, long length)
     {
         checkArgument(length >= 0);
@@ -546,6 +546,7 @@ public abstract class AbstractTestHiveClient
                 new HadoopDirectoryLister(),
                 newDirectExecutorService(),
                 new HiveCoercionPolicy(TYPE_MANAGER),
+                new TestingNodeManager("fake-environment"),
                 new CounterStat(),
                 100,
                 hiveClientConfig.getMaxOutstandingSplitsSize(),
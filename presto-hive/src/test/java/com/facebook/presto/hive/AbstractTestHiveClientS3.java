@@ -202,6 +202,7 @@ public abstract class AbstractTestHiveClientS3
                 new HadoopDirectoryLister(),
                 new BoundedExecutor(executor, config.getMaxSplitIteratorThreads()),
                 new HiveCoercionPolicy(TYPE_MANAGER),
+                new TestingNodeManager("fake-environment"),
                 new CounterStat(),
                 config.getMaxOutstandingSplits(),
                 config.getMaxOutstandingSplitsSize(),
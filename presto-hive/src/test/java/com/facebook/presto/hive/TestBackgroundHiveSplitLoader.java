@@ -13,17 +13,23 @@
  */
 package com.facebook.presto.hive;
 
+import com.facebook.presto.client.NodeVersion;
 import com.facebook.presto.hive.authentication.NoHdfsAuthentication;
 import com.facebook.presto.hive.metastore.Column;
 import com.facebook.presto.hive.metastore.StorageFormat;
 import com.facebook.presto.hive.metastore.Table;
+import com.facebook.presto.metadata.PrestoNode;
 import com.facebook.presto.spi.ConnectorSession;
+import com.facebook.presto.spi.HostAddress;
+import com.facebook.presto.spi.Node;
 import com.facebook.presto.spi.SchemaTableName;
 import com.facebook.presto.spi.predicate.Domain;
 import com.facebook.presto.spi.predicate.TupleDomain;
 import com.facebook.presto.testing.TestingConnectorSession;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 import io.airlift.stats.CounterStat;
 import io.airlift.units.DataSize;
 import org.apache.hadoop.conf.Configuration;
@@ -43,7 +49,9 @@ import org.testng.annotations.Test;
 import java.net.URI;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.Executor;
 
 import static com.facebook.presto.hive.BackgroundHiveSplitLoader.BucketSplitInfo.createBucketSplitInfo;
@@ -56,12 +64,17 @@ import static com.facebook.presto.hive.HiveUtil.getRegularColumnHandles;
 import static com.facebook.presto.spi.predicate.TupleDomain.withColumnDomains;
 import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
 import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static com.google.common.collect.Iterables.getOnlyElement;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.airlift.slice.Slices.utf8Slice;
 import static io.airlift.units.DataSize.Unit.GIGABYTE;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 public class TestBackgroundHiveSplitLoader
 {
@@ -180,6 +193,76 @@ public class TestBackgroundHiveSplitLoader
         assertEquals(splits.get(0).getLength(), 0);
     }
 
+    @Test
+    public void testSoftAffinity()
+            throws Exception
+    {
+        List<LocatedFileStatus> files = ImmutableList.of(
+                locatedFileStatusWithHost(RETURNED_PATH, "datanode1"),
+                locatedFileStatusWithHost(FILTERED_PATH, "datanode2"));
+        List<Node> nodes = ImmutableList.of(node("worker1"), node("worker2"), node("worker3"), node("worker4"));
+
+        // without soft affinity the splits are scheduled on the hosts of their blocks
+        List<HiveSplit> splits = loadSplits(files, ImmutableList.of());
+        assertEquals(getSplitAddresses(splits), ImmutableMap.of(
+                RETURNED_PATH.toString(), HostAddress.fromString("datanode1"),
+                FILTERED_PATH.toString(), HostAddress.fromString("datanode2")));
+        assertTrue(splits.stream().allMatch(HiveSplit::isForceLocalScheduling));
+
+        // with soft affinity each file prefers a single worker, and force local scheduling is turned off
+        splits = loadSplits(files, nodes);
+        assertFalse(splits.stream().anyMatch(HiveSplit::isForceLocalScheduling));
+        Map<String, HostAddress> affinityAddresses = getSplitAddresses(splits);
+        assertEquals(affinityAddresses.keySet(), ImmutableSet.of(RETURNED_PATH.toString(), FILTERED_PATH.toString()));
+        Set<HostAddress> workerAddresses = nodes.stream()
+                .map(Node::getHostAndPort)
+                .collect(toImmutableSet());
+        assertTrue(workerAddresses.containsAll(affinityAddresses.values()));
+
+        // the worker of a file does not depend on the order of the workers
+        assertEquals(getSplitAddresses(loadSplits(files, Lists.reverse(nodes))), affinityAddresses);
+
+        // a file keeps its worker when another worker leaves the cluster
+        for (Node removed : nodes) {
+            List<Node> remaining = nodes.stream()
+                    .filter(node -> !node.equals(removed))
+                    .collect(toImmutableList());
+            Map<String, HostAddress> remainingAddresses = getSplitAddresses(loadSplits(files, remaining));
+            for (Map.Entry<String, HostAddress> entry : affinityAddresses.entrySet()) {
+                if (!entry.getValue().equals(removed.getHostAndPort())) {
+                    assertEquals(remainingAddresses.get(entry.getKey()), entry.getValue());
+                }
+            }
+        }
+    }
+
+    private static List<HiveSplit> loadSplits(List<LocatedFileStatus> files, List<Node> affinityNodes)
+            throws Exception
+    {
+        BackgroundHiveSplitLoader backgroundHiveSplitLoader = backgroundHiveSplitLoader(
+                files,
+                TupleDomain.all(),
+                ImmutableList.of(),
+                SIMPLE_TABLE,
+                Optional.empty(),
+                affinityNodes);
+
+        HiveSplitSource hiveSplitSource = hiveSplitSource(backgroundHiveSplitLoader, TupleDomain.all());
+        backgroundHiveSplitLoader.start(hiveSplitSource);
+        return drainSplits(hiveSplitSource);
+    }
+
+    private static Map<String, HostAddress> getSplitAddresses(List<HiveSplit> splits)
+    {
+        return splits.stream()
+                .collect(toImmutableMap(HiveSplit::getPath, split -> getOnlyElement(split.getAddresses())));
+    }
+
+    private static Node node(String nodeIdentifier)
+    {
+        return new PrestoNode(nodeIdentifier, URI.create("http://" + nodeIdentifier + ":8080"), NodeVersion.UNKNOWN, false);
+    }
+
     private static List<String> drain(HiveSplitSource source)
             throws Exception
     {
@@ -218,6 +301,23 @@ public class TestBackgroundHiveSplitLoader
             List<HiveBucket> hiveBuckets,
             Table table,
             Optional<HiveBucketHandle> bucketHandle)
+    {
+        return backgroundHiveSplitLoader(
+                files,
+                compactEffectivePredicate,
+                hiveBuckets,
+                table,
+                bucketHandle,
+                ImmutableList.of());
+    }
+
+    private static BackgroundHiveSplitLoader backgroundHiveSplitLoader(
+            List<LocatedFileStatus> files,
+            TupleDomain<HiveColumnHandle> compactEffectivePredicate,
+            List<HiveBucket> hiveBuckets,
+            Table table,
+            Optional<HiveBucketHandle> bucketHandle,
+            List<Node> affinityNodes)
     {
         List<HivePartitionMetadata> hivePartitionMetadatas =
                 ImmutableList.of(
@@ -227,7 +327,8 @@ public class TestBackgroundHiveSplitLoader
                                 ImmutableMap.of()));
 
         ConnectorSession connectorSession = new TestingConnectorSession(
-                new HiveSessionProperties(new HiveClientConfig().setMaxSplitSize(new DataSize(1.0, GIGABYTE))).getSessionProperties());
+                // force local scheduling only applies to splits whose blocks have real addresses
+                new HiveSessionProperties(new HiveClientConfig().setMaxSplitSize(new DataSize(1.0, GIGABYTE)).setForceLocalScheduling(true)).getSessionProperties());
 
         return new BackgroundHiveSplitLoader(
                 table,
@@ -240,7 +341,8 @@ public class TestBackgroundHiveSplitLoader
                 new TestingDirectoryLister(files),
                 EXECUTOR,
                 2,
-                false);
+                false,
+                affinityNodes);
     }
 
     private static HiveSplitSource hiveSplitSource(
@@ -304,6 +406,23 @@ public class TestBackgroundHiveSplitLoader
                 new BlockLocation[] {new BlockLocation()});
     }
 
+    private static LocatedFileStatus locatedFileStatusWithHost(Path path, String host)
+    {
+        return new LocatedFileStatus(
+                100L,
+                false,
+                0,
+                0L,
+                0L,
+                0L,
+                null,
+                null,
+                null,
+                null,
+                path,
+                new BlockLocation[] {new BlockLocation(new String[] {host + ":50010"}, new String[] {host}, 0, 100)});
+    }
+
     private static LocatedFileStatus locatedFileStatusWithNoBlocks(Path path)
     {
         return new LocatedFileStatus(
@@ -58,6 +58,7 @@ public class TestHiveClientConfig
                 .setSplitLoaderConcurrency(4)
                 .setDomainCompactionThreshold(100)
                 .setForceLocalScheduling(false)
+                .setSoftAffinitySchedulingEnabled(false)
                 .setMaxConcurrentFileRenames(20)
                 .setRecursiveDirWalkerEnabled(false)
                 .setDfsTimeout(new Duration(60, TimeUnit.SECONDS))
@@ -86,6 +87,14 @@ public class TestHiveClientConfig
                 .setOrcStreamBufferSize(new DataSize(8, Unit.MEGABYTE))
                 .setOrcMaxReadBlockSize(new DataSize(16, Unit.MEGABYTE))
                 .setOrcLazyReadSmallRanges(true)
+                .setOrcFilterFirstReadingEnabled(false)
+                .setOrcMetadataCacheSize(new DataSize(0, Unit.BYTE))
+                .setOrcMaxConcurrentReadsPerFile(1)
+                .setOrcMaxConcurrentReads(32)
+                .setOrcAdaptiveMergeDistanceEnabled(false)
+                .setLocalCacheDirectory(null)
+                .setLocalCacheMaxSize(new DataSize(10, Unit.GIGABYTE))
+                .setLocalCacheMinReadsBeforeCaching(2)
                 .setRcfileOptimizedWriterEnabled(true)
                 .setRcfileWriterValidate(false)
                 .setOrcOptimizedWriterEnabled(false)
@@ -141,6 +150,7 @@ public class TestHiveClientConfig
                 .put("hive.max-partitions-per-writers", "222")
                 .put("hive.write-validation-threads", "11")
                 .put("hive.force-local-scheduling", "true")
+                .put("hive.soft-affinity-scheduling.enabled", "true")
                 .put("hive.max-concurrent-file-renames", "100")
                 .put("hive.assume-canonical-partition-keys", "true")
                 .put("hive.parquet.use-column-names", "true")
@@ -154,6 +164,14 @@ public class TestHiveClientConfig
                 .put("hive.orc.stream-buffer-size", "55kB")
                 .put("hive.orc.max-read-block-size", "66kB")
                 .put("hive.orc.lazy-read-small-ranges", "false")
+                .put("hive.orc.filter-first-reading.enabled", "true")
+                .put("hive.orc.metadata-cache-size", "77MB")
+                .put("hive.orc.max-concurrent-reads-per-file", "4")
+                .put("hive.orc.max-concurrent-reads", "64")
+                .put("hive.orc.adaptive-merge-distance.enabled", "true")
+                .put("hive.local-cache.directory", "/tmp/hive-cache")
+                .put("hive.local-cache.max-size", "20GB")
+                .put("hive.local-cache.min-reads-before-caching", "3")
                 .put("hive.rcfile-optimized-writer.enabled", "false")
                 .put("hive.rcfile.writer.validate", "true")
                 .put("hive.orc.optimized-writer.enabled", "true")
@@ -191,6 +209,7 @@ public class TestHiveClientConfig
                 .setSplitLoaderConcurrency(1)
                 .setDomainCompactionThreshold(42)
                 .setForceLocalScheduling(true)
+                .setSoftAffinitySchedulingEnabled(true)
                 .setMaxConcurrentFileRenames(100)
                 .setRecursiveDirWalkerEnabled(true)
                 .setIpcPingInterval(new Duration(34, TimeUnit.SECONDS))
@@ -219,6 +238,14 @@ public class TestHiveClientConfig
                 .setOrcStreamBufferSize(new DataSize(55, Unit.KILOBYTE))
                 .setOrcMaxReadBlockSize(new DataSize(66, Unit.KILOBYTE))
                 .setOrcLazyReadSmallRanges(false)
+                .setOrcFilterFirstReadingEnabled(true)
+                .setOrcMetadataCacheSize(new DataSize(77, Unit.MEGABYTE))
+                .setOrcMaxConcurrentReadsPerFile(4)
+                .setOrcMaxConcurrentReads(64)
+                .setOrcAdaptiveMergeDistanceEnabled(true)
+                .setLocalCacheDirectory("/tmp/hive-cache")
+                .setLocalCacheMaxSize(new DataSize(20, Unit.GIGABYTE))
+                .setLocalCacheMinReadsBeforeCaching(3)
                 .setRcfileOptimizedWriterEnabled(false)
                 .setRcfileWriterValidate(true)
                 .setOrcOptimizedWriterEnabled(true)
@@ -30,7 +30,10 @@ import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.classloader.ThreadContextClassLoader;
+import com.facebook.presto.spi.predicate.Domain;
+import com.facebook.presto.spi.predicate.Range;
 import com.facebook.presto.spi.predicate.TupleDomain;
+import com.facebook.presto.spi.predicate.ValueSet;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.sql.gen.ExpressionCompiler;
 import com.facebook.presto.sql.gen.PageFunctionCompiler;
@@ -83,22 +86,28 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.Properties;
 import java.util.Random;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import static com.facebook.presto.hive.HiveColumnHandle.ColumnType.PARTITION_KEY;
 import static com.facebook.presto.hive.HiveColumnHandle.ColumnType.REGULAR;
 import static com.facebook.presto.hive.HiveTestUtils.HDFS_ENVIRONMENT;
 import static com.facebook.presto.hive.HiveTestUtils.SESSION;
 import static com.facebook.presto.hive.HiveTestUtils.TYPE_MANAGER;
+import static com.facebook.presto.hive.HiveType.HIVE_LONG;
+import static com.facebook.presto.hive.HiveType.HIVE_STRING;
 import static com.facebook.presto.metadata.MetadataManager.createTestMetadataManager;
 import static com.facebook.presto.orc.OrcReader.MAX_BATCH_SIZE;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.facebook.presto.spi.type.VarcharType.createUnboundedVarcharType;
 import static com.facebook.presto.sql.relational.Expressions.field;
 import static com.facebook.presto.testing.TestingSession.testSessionBuilder;
@@ -117,6 +126,7 @@ import static org.apache.hadoop.hive.metastore.api.hive_metastoreConstants.FILE_
 import static org.apache.hadoop.hive.ql.io.orc.CompressionKind.ZLIB;
 import static org.apache.hadoop.hive.serde.serdeConstants.SERIALIZATION_LIB;
 import static org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorFactory.getStandardStructObjectInspector;
+import static org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory.javaLongObjectInspector;
 import static org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory.javaStringObjectInspector;
 import static org.apache.hadoop.mapreduce.lib.output.FileOutputFormat.COMPRESS_CODEC;
 import static org.apache.hadoop.mapreduce.lib.output.FileOutputFormat.COMPRESS_TYPE;
@@ -301,6 +311,66 @@ public class TestOrcPageSourceMemoryTracking
         }
     }
 
+    @Test
+    public void testFilterFirstReading()
+            throws Exception
+    {
+        HiveClientConfig config = new HiveClientConfig().setOrcFilterFirstReadingEnabled(true);
+        ConnectorSession session = new TestingConnectorSession(new HiveSessionProperties(config).getSessionProperties());
+
+        // the file stores the row number in a bigint column and in a string column that the table declares as bigint
+        AtomicLong longValues = new AtomicLong();
+        AtomicLong stringValues = new AtomicLong();
+        List<TestColumn> testColumns = ImmutableList.<TestColumn>builder()
+                .add(new TestColumn("p_empty_string", javaStringObjectInspector, () -> "", true))
+                .add(new TestColumn("c_long", javaLongObjectInspector, longValues::getAndIncrement, false))
+                .add(new TestColumn("c_coerced", javaStringObjectInspector, () -> String.valueOf(stringValues.getAndIncrement()), false))
+                .build();
+        File tempFile = File.createTempFile("presto_test_orc_page_source_filter_first", "orc");
+        tempFile.delete();
+
+        try {
+            int rowCount = 1_000;
+            TestPreparer testPreparer = new TestPreparer(tempFile.getAbsolutePath(), testColumns, rowCount, rowCount);
+            HiveColumnHandle longColumn = testPreparer.getColumns().get(1);
+            HiveColumnHandle coercedColumn = new HiveColumnHandle("c_coerced", HIVE_LONG, BIGINT.getTypeSignature(), 1, REGULAR, Optional.empty());
+            List<HiveColumnHandle> columns = ImmutableList.of(testPreparer.getColumns().get(0), longColumn, coercedColumn);
+            Map<Integer, HiveType> columnCoercions = ImmutableMap.of(1, HIVE_STRING);
+            Domain domain = Domain.create(ValueSet.ofRanges(Range.range(BIGINT, 10L, true, 19L, true)), false);
+            List<Long> matchingRows = LongStream.range(10, 20).boxed().collect(toList());
+
+            // rows outside of the domain of a column that is read as is are dropped, and the other columns are only read for the remaining rows
+            TupleDomain<HiveColumnHandle> longPredicate = TupleDomain.withColumnDomains(ImmutableMap.of(longColumn, domain));
+            assertEquals(readBigintColumn(testPreparer.newPageSource(session, columns, longPredicate, columnCoercions), 1), matchingRows);
+            assertEquals(readBigintColumn(testPreparer.newPageSource(session, columns, longPredicate, columnCoercions), 2), matchingRows);
+
+            // the domain of a coerced column is expressed in the table type, so it is not evaluated on the values read from the file
+            TupleDomain<HiveColumnHandle> coercedPredicate = TupleDomain.withColumnDomains(ImmutableMap.of(coercedColumn, domain));
+            assertEquals(readBigintColumn(testPreparer.newPageSource(session, columns, coercedPredicate, columnCoercions), 2), LongStream.range(0, rowCount).boxed().collect(toList()));
+        }
+        finally {
+            tempFile.delete();
+        }
+    }
+
+    private static List<Long> readBigintColumn(ConnectorPageSource pageSource, int channel)
+            throws IOException
+    {
+        ImmutableList.Builder<Long> values = ImmutableList.builder();
+        while (!pageSource.isFinished()) {
+            Page page = pageSource.getNextPage();
+            if (page == null) {
+                continue;
+            }
+            Block block = page.getBlock(channel);
+            for (int position = 0; position < block.getPositionCount(); position++) {
+                values.add(BIGINT.getLong(block, position));
+            }
+        }
+        pageSource.close();
+        return values.build();
+    }
+
     @Test
     public void testTableScanOperator()
             throws Exception
@@ -456,6 +526,21 @@ public class TestOrcPageSourceMemoryTracking
         }
 
         public ConnectorPageSource newPageSource(FileFormatDataSourceStats stats, ConnectorSession session)
+        {
+            return newPageSource(stats, session, columns, TupleDomain.all(), ImmutableMap.of());
+        }
+
+        public ConnectorPageSource newPageSource(ConnectorSession session, List<HiveColumnHandle> hiveColumns, TupleDomain<HiveColumnHandle> effectivePredicate, Map<Integer, HiveType> columnCoercions)
+        {
+            return newPageSource(new FileFormatDataSourceStats(), session, hiveColumns, effectivePredicate, columnCoercions);
+        }
+
+        private ConnectorPageSource newPageSource(
+                FileFormatDataSourceStats stats,
+                ConnectorSession session,
+                List<HiveColumnHandle> hiveColumns,
+                TupleDomain<HiveColumnHandle> effectivePredicate,
+                Map<Integer, HiveType> columnCoercions)
         {
             OrcPageSourceFactory orcPageSourceFactory = new OrcPageSourceFactory(TYPE_MANAGER, false, HDFS_ENVIRONMENT, stats);
             return HivePageSourceProvider.createHivePageSource(
@@ -469,15 +554,20 @@ public class TestOrcPageSourceMemoryTracking
                     fileSplit.getLength(),
                     fileSplit.getLength(),
                     schema,
-                    TupleDomain.all(),
-                    columns,
+                    effectivePredicate,
+                    hiveColumns,
                     partitionKeys,
                     DateTimeZone.UTC,
                     TYPE_MANAGER,
-                    ImmutableMap.of())
+                    columnCoercions)
                     .get();
         }
 
+        public List<HiveColumnHandle> getColumns()
+        {
+            return columns;
+        }
+
         public SourceOperator newTableScanOperator(DriverContext driverContext)
         {
             ConnectorPageSource pageSource = newPageSource();
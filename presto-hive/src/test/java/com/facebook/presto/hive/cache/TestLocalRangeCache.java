@@ -0,0 +1,207 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.cache;
+
+import com.facebook.presto.hive.FileFormatDataSourceStats;
+import com.facebook.presto.hive.cache.LocalRangeCache.FileKey;
+import com.facebook.presto.hive.cache.LocalRangeCache.RangeReader;
+import com.google.common.io.Files;
+import io.airlift.units.DataSize;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestLocalRangeCache
+{
+    private static final FileKey FILE = new FileKey("hdfs://test/file", 1000, 1234);
+
+    private File directory;
+    private FileFormatDataSourceStats stats;
+    private CountingReader remoteReader;
+
+    @BeforeMethod
+    public void setUp()
+    {
+        directory = Files.createTempDir();
+        stats = new FileFormatDataSourceStats();
+        remoteReader = new CountingReader();
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown()
+            throws IOException
+    {
+        deleteRecursively(directory.toPath(), ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testDisabled()
+            throws IOException
+    {
+        LocalRangeCache cache = LocalRangeCache.NO_CACHE;
+        assertFalse(cache.isEnabled());
+
+        assertRead(cache, FILE, 10, 20);
+        assertRead(cache, FILE, 10, 20);
+        assertEquals(remoteReader.getReads(), 2);
+        assertEquals(cache.getCachedRanges(), 0);
+    }
+
+    @Test
+    public void testAdmission()
+            throws IOException
+    {
+        LocalRangeCache cache = new LocalRangeCache(directory, new DataSize(1000, BYTE), 2, stats);
+        assertTrue(cache.isEnabled());
+
+        // first read is only counted
+        assertRead(cache, FILE, 10, 20);
+        assertEquals(cache.getCachedRanges(), 0);
+
+        // second read admits the range
+        assertRead(cache, FILE, 10, 20);
+        assertEquals(cache.getCachedRanges(), 1);
+        assertEquals(cache.getCachedBytes(), 20);
+        assertEquals(remoteReader.getReads(), 2);
+
+        // further reads are served locally
+        assertRead(cache, FILE, 10, 20);
+        assertRead(cache, FILE, 10, 20);
+        assertEquals(remoteReader.getReads(), 2);
+        assertEquals(stats.getLocalCacheHits().getTotalCount(), 2);
+        assertEquals(stats.getLocalCacheReadBytes().getTotalCount(), 40);
+        assertEquals(stats.getLocalCacheMisses().getTotalCount(), 2);
+
+        // a different range or a different version of the file is a miss
+        assertRead(cache, FILE, 11, 20);
+        assertRead(cache, new FileKey("hdfs://test/file", 1000, 5678), 10, 20);
+        assertEquals(remoteReader.getReads(), 4);
+    }
+
+    @Test
+    public void testEviction()
+            throws IOException
+    {
+        LocalRangeCache cache = new LocalRangeCache(directory, new DataSize(100, BYTE), 1, stats);
+
+        assertRead(cache, FILE, 0, 40);
+        assertRead(cache, FILE, 100, 40);
+        assertEquals(cache.getCachedBytes(), 80);
+
+        // touch the first range, so the second one is the least recently used
+        assertRead(cache, FILE, 0, 40);
+        assertRead(cache, FILE, 200, 40);
+        assertEquals(cache.getCachedRanges(), 2);
+        assertEquals(cache.getCachedBytes(), 80);
+        assertEquals(stats.getLocalCacheEvictions().getTotalCount(), 1);
+        assertEquals(directory.listFiles().length, 2);
+
+        int reads = remoteReader.getReads();
+        assertRead(cache, FILE, 0, 40);
+        assertEquals(remoteReader.getReads(), reads);
+        assertRead(cache, FILE, 100, 40);
+        assertEquals(remoteReader.getReads(), reads + 1);
+
+        cache.flushCache();
+        assertEquals(cache.getCachedRanges(), 0);
+        assertEquals(cache.getCachedBytes(), 0);
+        assertEquals(directory.listFiles().length, 0);
+    }
+
+    @Test
+    public void testCorruptedRange()
+            throws IOException
+    {
+        LocalRangeCache cache = new LocalRangeCache(directory, new DataSize(1000, BYTE), 1, stats);
+
+        assertRead(cache, FILE, 10, 20);
+        File[] files = directory.listFiles();
+        assertEquals(files.length, 1);
+        byte[] corrupted = new byte[20];
+        Arrays.fill(corrupted, (byte) 0xFF);
+        Files.write(corrupted, files[0]);
+
+        // the corrupted range is dropped and read remotely
+        assertRead(cache, FILE, 10, 20);
+        assertEquals(remoteReader.getReads(), 2);
+        assertEquals(stats.getLocalCacheFailures().getTotalCount(), 1);
+
+        // the range read remotely is cached again
+        assertRead(cache, FILE, 10, 20);
+        assertEquals(remoteReader.getReads(), 2);
+    }
+
+    @Test
+    public void testStartupCleansDirectory()
+            throws IOException
+    {
+        LocalRangeCache cache = new LocalRangeCache(directory, new DataSize(1000, BYTE), 1, stats);
+        assertRead(cache, FILE, 10, 20);
+        assertEquals(directory.listFiles().length, 1);
+
+        LocalRangeCache restarted = new LocalRangeCache(directory, new DataSize(1000, BYTE), 1, stats);
+        assertEquals(directory.listFiles().length, 0);
+        assertEquals(restarted.getCachedRanges(), 0);
+    }
+
+    private void assertRead(LocalRangeCache cache, FileKey file, long position, int length)
+            throws IOException
+    {
+        byte[] buffer = new byte[length + 2];
+        cache.readFully(file, position, buffer, 1, length, remoteReader);
+        for (int i = 0; i < length; i++) {
+            assertEquals(buffer[i + 1], expectedByte(position + i));
+        }
+        assertEquals(buffer[0], 0);
+        assertEquals(buffer[length + 1], 0);
+    }
+
+    private static byte expectedByte(long position)
+    {
+        return (byte) (position * 31);
+    }
+
+    private static class CountingReader
+            implements RangeReader
+    {
+        private final AtomicInteger reads = new AtomicInteger();
+
+        @Override
+        public void readFully(long position, byte[] buffer, int offset, int length)
+        {
+            reads.incrementAndGet();
+            for (int i = 0; i < length; i++) {
+                buffer[offset + i] = expectedByte(position + i);
+            }
+        }
+
+        public int getReads()
+        {
+            return reads.get();
+        }
+    }
+}
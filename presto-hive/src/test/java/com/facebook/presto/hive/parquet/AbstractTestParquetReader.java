@@ -13,6 +13,9 @@
  */
 package com.facebook.presto.hive.parquet;
 
+import com.facebook.presto.spi.predicate.Domain;
+import com.facebook.presto.spi.predicate.ValueSet;
+import com.facebook.presto.spi.type.ArrayType;
 import com.facebook.presto.spi.type.SqlDate;
 import com.facebook.presto.spi.type.SqlDecimal;
 import com.facebook.presto.spi.type.SqlTimestamp;
@@ -39,6 +42,7 @@ import java.math.BigInteger;
 import java.sql.Date;
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
@@ -50,6 +54,7 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import static com.facebook.presto.hive.parquet.ParquetTester.HIVE_STORAGE_TIME_ZONE;
+import static com.facebook.presto.spi.predicate.Range.greaterThanOrEqual;
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
 import static com.facebook.presto.spi.type.DateType.DATE;
@@ -69,6 +74,7 @@ import static com.google.common.collect.Iterables.limit;
 import static com.google.common.collect.Iterables.transform;
 import static java.lang.String.format;
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorFactory.getStandardListObjectInspector;
 import static org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory.javaBooleanObjectInspector;
 import static org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory.javaByteArrayObjectInspector;
 import static org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory.javaByteObjectInspector;
@@ -319,6 +325,53 @@ public abstract class AbstractTestParquetReader
         tester.testRoundTrip(javaStringObjectInspector, concat(ImmutableList.of("a"), Collections.nCopies(9999, "123"), ImmutableList.of("b"), Collections.nCopies(9999, "123")), createUnboundedVarcharType());
     }
 
+    @Test
+    public void testStringDictionaryWithNulls()
+            throws Exception
+    {
+        Iterable<String> values = limit(cycle(Arrays.asList("apple", null, "banana", null, null, "cherry")), 30_000);
+        tester.assertRoundTrip(javaStringObjectInspector, values, values, createUnboundedVarcharType());
+    }
+
+    @Test
+    public void testFlatColumnsWithPredicate()
+            throws Exception
+    {
+        List<List<?>> writeValues = new ArrayList<>();
+        List<List<?>> readValues = new ArrayList<>();
+        for (long value = 0; value < 30_000; value++) {
+            String string = value % 5 == 0 ? null : String.valueOf(value % 7);
+            writeValues.add(Arrays.asList(value, string));
+            readValues.add(Arrays.asList(value, string));
+        }
+        tester.assertRoundTripWithPredicate(
+                ImmutableList.of(javaLongObjectInspector, javaStringObjectInspector),
+                writeValues,
+                readValues,
+                ImmutableList.of(BIGINT, createUnboundedVarcharType()),
+                Domain.create(ValueSet.ofRanges(greaterThanOrEqual(BIGINT, 20_000L)), false));
+    }
+
+    @Test
+    public void testNestedColumnsWithPredicate()
+            throws Exception
+    {
+        List<List<?>> writeValues = new ArrayList<>();
+        List<List<?>> readValues = new ArrayList<>();
+        for (long value = 0; value < 30_000; value++) {
+            List<Integer> array = value % 5 == 0 ? null : Collections.nCopies((int) (value % 3), (int) value);
+            String string = String.valueOf(value % 7);
+            writeValues.add(Arrays.asList(value, array, string));
+            readValues.add(Arrays.asList(value, array, string));
+        }
+        tester.assertRoundTripWithPredicate(
+                ImmutableList.of(javaLongObjectInspector, getStandardListObjectInspector(javaIntObjectInspector), javaStringObjectInspector),
+                writeValues,
+                readValues,
+                ImmutableList.of(BIGINT, new ArrayType(INTEGER), createUnboundedVarcharType()),
+                Domain.create(ValueSet.ofRanges(greaterThanOrEqual(BIGINT, 20_000L)), false));
+    }
+
     @Test
     public void testEmptyStringSequence()
             throws Exception
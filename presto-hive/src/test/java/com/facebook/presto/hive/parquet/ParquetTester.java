@@ -17,12 +17,17 @@ import com.facebook.presto.hive.parquet.memory.AggregatedMemoryContext;
 import com.facebook.presto.hive.parquet.reader.ParquetMetadataReader;
 import com.facebook.presto.hive.parquet.reader.ParquetReader;
 import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.predicate.Domain;
+import com.facebook.presto.spi.predicate.TupleDomain;
 import com.facebook.presto.spi.type.Type;
 import com.google.common.base.Function;
+import com.google.common.base.Joiner;
 import com.google.common.base.Throwables;
 import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
 import io.airlift.units.DataSize;
 import org.apache.hadoop.fs.FSDataInputStream;
@@ -48,6 +53,8 @@ import parquet.schema.MessageType;
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
@@ -55,8 +62,14 @@ import java.util.Properties;
 import java.util.Set;
 
 import static com.facebook.presto.hive.HiveTestUtils.TYPE_MANAGER;
+import static com.facebook.presto.hive.parquet.ParquetTypeUtils.getDescriptor;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.StandardTypes.ARRAY;
+import static com.facebook.presto.spi.type.StandardTypes.MAP;
+import static com.facebook.presto.spi.type.StandardTypes.ROW;
 import static com.facebook.presto.testing.TestingConnectorSession.SESSION;
 import static com.google.common.base.Functions.constant;
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.collect.Iterables.transform;
 import static io.airlift.units.DataSize.succinctBytes;
 import static org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorFactory.getStandardStructObjectInspector;
@@ -66,6 +79,7 @@ import static org.testng.Assert.assertTrue;
 import static parquet.column.ParquetProperties.WriterVersion.PARQUET_1_0;
 import static parquet.hadoop.ParquetOutputFormat.COMPRESSION;
 import static parquet.hadoop.ParquetOutputFormat.ENABLE_DICTIONARY;
+import static parquet.hadoop.ParquetOutputFormat.PAGE_SIZE;
 import static parquet.hadoop.ParquetOutputFormat.WRITER_VERSION;
 import static parquet.hadoop.metadata.CompressionCodecName.GZIP;
 import static parquet.hadoop.metadata.CompressionCodecName.LZO;
@@ -177,6 +191,114 @@ public class ParquetTester
         assertRoundTrip(objectInspector, writeValues, readValues, type, Optional.empty());
     }
 
+    /**
+     * Writes the rows in small pages and reads them back with the domain applied to the first column,
+     * which must be a bigint column. Rows may only be skipped where none of them match the domain.
+     */
+    public void assertRoundTripWithPredicate(List<ObjectInspector> objectInspectors, Iterable<List<?>> writeValues, Iterable<List<?>> readValues, List<Type> types, Domain domain)
+            throws Exception
+    {
+        checkArgument(types.get(0).equals(BIGINT), "first column must be a bigint column");
+        List<String> columnNames = new ArrayList<>();
+        for (int column = 0; column < objectInspectors.size(); column++) {
+            columnNames.add("test" + column);
+        }
+
+        for (WriterVersion version : versions) {
+            for (CompressionCodecName compressionCodecName : compressions) {
+                try (TempFile tempFile = new TempFile("test", "parquet")) {
+                    JobConf jobConf = new JobConf();
+                    jobConf.setEnum(COMPRESSION, compressionCodecName);
+                    jobConf.setBoolean(ENABLE_DICTIONARY, true);
+                    jobConf.setEnum(WRITER_VERSION, version);
+                    jobConf.setInt(PAGE_SIZE, 1024);
+                    writeParquetColumns(
+                            jobConf,
+                            tempFile.getFile(),
+                            compressionCodecName,
+                            columnNames,
+                            objectInspectors,
+                            writeValues.iterator(),
+                            Optional.empty());
+                    assertFileContentsWithPredicate(
+                            jobConf,
+                            tempFile,
+                            readValues,
+                            types,
+                            domain);
+                }
+            }
+        }
+    }
+
+    private static void assertFileContentsWithPredicate(JobConf jobConf,
+            TempFile tempFile,
+            Iterable<List<?>> expectedValues,
+            List<Type> types,
+            Domain domain)
+            throws IOException
+    {
+        Path path = new Path(tempFile.getFile().toURI());
+        FileSystem fileSystem = path.getFileSystem(jobConf);
+        ParquetMetadata parquetMetadata = ParquetMetadataReader.readFooter(fileSystem, path, fileSystem.getFileStatus(path).getLen());
+        MessageType fileSchema = parquetMetadata.getFileMetaData().getSchema();
+
+        long size = fileSystem.getFileStatus(path).getLen();
+        FSDataInputStream inputStream = fileSystem.open(path);
+        ParquetDataSource dataSource = new HdfsParquetDataSource(path, size, inputStream);
+
+        TupleDomain<ColumnDescriptor> predicate = TupleDomain.withColumnDomains(ImmutableMap.of(fileSchema.getColumns().get(0), domain));
+        ParquetReader parquetReader = new ParquetReader(fileSchema, fileSchema, parquetMetadata.getBlocks(), dataSource, TYPE_MANAGER, new AggregatedMemoryContext(), predicate);
+
+        int rowsProcessed = 0;
+        Iterator<List<?>> iterator = expectedValues.iterator();
+        for (int batchSize = parquetReader.nextBatch(); batchSize >= 0; batchSize = parquetReader.nextBatch()) {
+            List<Block> blocks = new ArrayList<>();
+            for (int column = 0; column < types.size(); column++) {
+                blocks.add(readBlock(parquetReader, fileSchema, column, types.get(column)));
+            }
+            for (int i = 0; i < batchSize; i++) {
+                List<Object> actual = new ArrayList<>();
+                for (int column = 0; column < types.size(); column++) {
+                    actual.add(decodeObject(types.get(column), blocks.get(column), i));
+                }
+                // the rows skipped before this one must not match the domain
+                while (true) {
+                    assertTrue(iterator.hasNext(), "unexpected row " + actual);
+                    List<?> expected = iterator.next();
+                    if (expected.equals(actual)) {
+                        break;
+                    }
+                    assertFalse(domain.includesNullableValue(expected.get(0)), "skipped matching row " + expected);
+                }
+            }
+            rowsProcessed += batchSize;
+            assertEquals(parquetReader.getPosition(), rowsProcessed);
+        }
+        while (iterator.hasNext()) {
+            List<?> expected = iterator.next();
+            assertFalse(domain.includesNullableValue(expected.get(0)), "skipped matching row " + expected);
+        }
+
+        parquetReader.close();
+    }
+
+    private static Block readBlock(ParquetReader parquetReader, MessageType fileSchema, int column, Type type)
+            throws IOException
+    {
+        List<String> path = ImmutableList.of(fileSchema.getFields().get(column).getName());
+        if (ROW.equals(type.getTypeSignature().getBase())) {
+            return parquetReader.readStruct(type, path);
+        }
+        if (MAP.equals(type.getTypeSignature().getBase())) {
+            return parquetReader.readMap(type, path);
+        }
+        if (ARRAY.equals(type.getTypeSignature().getBase())) {
+            return parquetReader.readArray(type, path);
+        }
+        return parquetReader.readPrimitive(getDescriptor(fileSchema, fileSchema, path).get(), type);
+    }
+
     private static void assertFileContents(JobConf jobConf,
             TempFile tempFile,
             Iterable<?> expectedValues,
@@ -224,23 +346,45 @@ public class ParquetTester
             Optional<MessageType> parquetSchema)
             throws Exception
     {
+        return writeParquetColumns(
+                jobConf,
+                outputFile,
+                compressionCodecName,
+                ImmutableList.of("test"),
+                ImmutableList.of(columnObjectInspector),
+                Iterators.transform(values, Collections::singletonList),
+                parquetSchema);
+    }
+
+    private static DataSize writeParquetColumns(JobConf jobConf,
+            File outputFile,
+            CompressionCodecName compressionCodecName,
+            List<String> columnNames,
+            List<ObjectInspector> columnObjectInspectors,
+            Iterator<? extends List<?>> rows,
+            Optional<MessageType> parquetSchema)
+            throws Exception
+    {
+        Properties tableProperties = createTableProperties(columnNames, columnObjectInspectors);
         RecordWriter recordWriter = new TestMapredParquetOutputFormat(parquetSchema)
                 .getHiveRecordWriter(
                         jobConf,
                         new Path(outputFile.toURI()),
                         Text.class,
                         compressionCodecName != UNCOMPRESSED,
-                        createTableProperties("test", columnObjectInspector.getTypeName()),
+                        tableProperties,
                         () -> {});
-        SettableStructObjectInspector objectInspector = createSettableStructObjectInspector("test", columnObjectInspector);
+        SettableStructObjectInspector objectInspector = getStandardStructObjectInspector(columnNames, columnObjectInspectors);
         Object row = objectInspector.create();
         List<StructField> fields = ImmutableList.copyOf(objectInspector.getAllStructFieldRefs());
-        while (values.hasNext()) {
-            Object value = values.next();
-            objectInspector.setStructFieldData(row, fields.get(0), value);
+        while (rows.hasNext()) {
+            List<?> values = rows.next();
+            for (int field = 0; field < fields.size(); field++) {
+                objectInspector.setStructFieldData(row, fields.get(field), values.get(field));
+            }
 
             ParquetHiveSerDe serde = new ParquetHiveSerDe();
-            serde.initialize(jobConf, createTableProperties("test", columnObjectInspector.getTypeName()), null);
+            serde.initialize(jobConf, tableProperties, null);
             Writable record = serde.serialize(row, objectInspector);
             recordWriter.write(record);
         }
@@ -253,11 +397,11 @@ public class ParquetTester
         return getStandardStructObjectInspector(ImmutableList.of(name), ImmutableList.of(objectInspector));
     }
 
-    private static Properties createTableProperties(String name, String type)
+    private static Properties createTableProperties(List<String> names, List<ObjectInspector> objectInspectors)
     {
         Properties orderTableProperties = new Properties();
-        orderTableProperties.setProperty("columns", name);
-        orderTableProperties.setProperty("columns.types", type);
+        orderTableProperties.setProperty("columns", Joiner.on(',').join(names));
+        orderTableProperties.setProperty("columns.types", Joiner.on(':').join(transform(objectInspectors, ObjectInspector::getTypeName)));
         return orderTableProperties;
     }
 
@@ -13,8 +13,11 @@
  */
 package com.facebook.presto.hive.parquet;
 
+import com.facebook.presto.hive.parquet.predicate.ParquetDictionaryDescriptor;
 import com.facebook.presto.spi.predicate.ValueSet;
+import io.airlift.slice.Slice;
 import org.testng.annotations.Test;
+import parquet.column.ColumnDescriptor;
 import parquet.column.statistics.BinaryStatistics;
 import parquet.column.statistics.BooleanStatistics;
 import parquet.column.statistics.DoubleStatistics;
@@ -22,6 +25,9 @@ import parquet.column.statistics.FloatStatistics;
 import parquet.column.statistics.LongStatistics;
 import parquet.io.api.Binary;
 
+import java.util.Optional;
+
+import static com.facebook.presto.hive.parquet.ParquetEncoding.PLAIN;
 import static com.facebook.presto.hive.parquet.predicate.TupleDomainParquetPredicate.getDomain;
 import static com.facebook.presto.spi.predicate.Domain.all;
 import static com.facebook.presto.spi.predicate.Domain.create;
@@ -36,9 +42,12 @@ import static com.facebook.presto.spi.type.RealType.REAL;
 import static com.facebook.presto.spi.type.SmallintType.SMALLINT;
 import static com.facebook.presto.spi.type.TinyintType.TINYINT;
 import static com.facebook.presto.spi.type.VarcharType.createUnboundedVarcharType;
+import static io.airlift.slice.Slices.allocate;
 import static io.airlift.slice.Slices.utf8Slice;
 import static java.lang.Float.floatToRawIntBits;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static parquet.schema.PrimitiveType.PrimitiveTypeName.INT32;
 
 public class TestTupleDomainParquetPredicate
 {
@@ -180,4 +189,25 @@ public class TestTupleDomainParquetPredicate
         statistics.setMinMax(minimum, maximum);
         return statistics;
     }
+
+    @Test
+    public void testIntegerDictionary()
+            throws Exception
+    {
+        ParquetDictionaryDescriptor dictionary = integerDictionary(7, 1, 5);
+
+        assertEquals(getDomain(INTEGER, dictionary), create(ValueSet.of(INTEGER, 1L, 5L, 7L), true));
+        assertEquals(getDomain(SMALLINT, dictionary), create(ValueSet.of(SMALLINT, 1L, 5L, 7L), true));
+        assertNull(getDomain(INTEGER, new ParquetDictionaryDescriptor(dictionary.getColumnDescriptor(), Optional.empty())));
+    }
+
+    private static ParquetDictionaryDescriptor integerDictionary(int... values)
+    {
+        Slice slice = allocate(values.length * Integer.BYTES);
+        for (int i = 0; i < values.length; i++) {
+            slice.setInt(i * Integer.BYTES, values[i]);
+        }
+        ColumnDescriptor column = new ColumnDescriptor(new String[] {"column"}, INT32, 0, 0);
+        return new ParquetDictionaryDescriptor(column, Optional.of(new ParquetDictionaryPage(slice, values.length, PLAIN)));
+    }
 }
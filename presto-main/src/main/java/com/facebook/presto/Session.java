@@ -304,6 +304,35 @@ public final class Session
                 preparedStatements);
     }
 
+    public Session withSystemProperty(String name, String value)
+    {
+        requireNonNull(name, "name is null");
+        requireNonNull(value, "value is null");
+
+        Map<String, String> systemProperties = new HashMap<>(this.systemProperties);
+        systemProperties.put(name, value);
+        return new Session(
+                queryId,
+                transactionId,
+                clientTransactionSupport,
+                identity,
+                source,
+                catalog,
+                schema,
+                timeZoneKey,
+                locale,
+                remoteUserAddress,
+                userAgent,
+                clientInfo,
+                clientTags,
+                startTime,
+                systemProperties,
+                connectorProperties,
+                unprocessedCatalogProperties,
+                sessionPropertyManager,
+                preparedStatements);
+    }
+
     public ConnectorSession toConnectorSession()
     {
         return new FullConnectorSession(queryId.toString(), identity, source, timeZoneKey, locale, startTime, SystemSessionProperties.isLegacyTimestamp(this));
@@ -70,11 +70,13 @@ public final class SystemSessionProperties
     public static final String QUERY_PRIORITY = "query_priority";
     public static final String SPILL_ENABLED = "spill_enabled";
     public static final String AGGREGATION_OPERATOR_UNSPILL_MEMORY_LIMIT = "aggregation_operator_unspill_memory_limit";
+    public static final String JOIN_SPILL_PARTITION_FANOUT = "join_spill_partition_fanout";
     public static final String OPTIMIZE_DISTINCT_AGGREGATIONS = "optimize_mixed_distinct_aggregations";
     public static final String LEGACY_ORDER_BY = "legacy_order_by";
     public static final String ITERATIVE_OPTIMIZER = "iterative_optimizer_enabled";
     public static final String ITERATIVE_OPTIMIZER_TIMEOUT = "iterative_optimizer_timeout";
     public static final String EXCHANGE_COMPRESSION = "exchange_compression";
+    public static final String PACKED_VALUES_ENCODING = "packed_values_encoding";
     public static final String LEGACY_TIMESTAMP = "legacy_timestamp";
     public static final String ENABLE_INTERMEDIATE_AGGREGATIONS = "enable_intermediate_aggregations";
     public static final String PUSH_AGGREGATION_THROUGH_JOIN = "push_aggregation_through_join";
@@ -83,6 +85,18 @@ public final class SystemSessionProperties
     public static final String FORCE_SINGLE_NODE_OUTPUT = "force_single_node_output";
     public static final String FILTER_AND_PROJECT_MIN_OUTPUT_PAGE_SIZE = "filter_and_project_min_output_page_size";
     public static final String FILTER_AND_PROJECT_MIN_OUTPUT_PAGE_ROW_COUNT = "filter_and_project_min_output_page_row_count";
+    public static final String DYNAMIC_FILTERING_ENABLED = "dynamic_filtering_enabled";
+    public static final String COST_BASED_JOIN_REORDERING_ENABLED = "cost_based_join_reordering_enabled";
+    public static final String COST_BASED_JOIN_DISTRIBUTION_ENABLED = "cost_based_join_distribution_enabled";
+    public static final String MAX_REORDERED_JOINS = "max_reordered_joins";
+    public static final String ADAPTIVE_PARTIAL_AGGREGATION_ENABLED = "adaptive_partial_aggregation_enabled";
+    public static final String ADAPTIVE_PARTIAL_AGGREGATION_MIN_ROWS = "adaptive_partial_aggregation_min_rows";
+    public static final String DICTIONARY_PARTITIONED_OUTPUT = "dictionary_partitioned_output";
+    public static final String TASK_SCHEDULING_WEIGHT = "task_scheduling_weight";
+    public static final String QUERY_MAX_CORES_PER_NODE = "query_max_cores_per_node";
+
+    public static final int MAX_TASK_SCHEDULING_WEIGHT = 1000;
+    public static final int MAX_JOIN_SPILL_PARTITION_FANOUT = 64;
 
     private final List<PropertyMetadata<?>> sessionProperties;
 
@@ -313,6 +327,23 @@ public final class SystemSessionProperties
                         false,
                         value -> DataSize.valueOf((String) value),
                         DataSize::toString),
+                new PropertyMetadata<>(
+                        JOIN_SPILL_PARTITION_FANOUT,
+                        "Experimental: Number of lookup source partitions per build driver of a join with spill enabled",
+                        BIGINT,
+                        Integer.class,
+                        featuresConfig.getJoinSpillPartitionFanout(),
+                        false,
+                        value -> {
+                            long fanout = ((Number) value).longValue();
+                            if (fanout < 1 || fanout > MAX_JOIN_SPILL_PARTITION_FANOUT || Long.bitCount(fanout) != 1) {
+                                throw new PrestoException(
+                                        StandardErrorCode.INVALID_SESSION_PROPERTY,
+                                        format("%s must be a power of 2 between 1 and %s: %s", JOIN_SPILL_PARTITION_FANOUT, MAX_JOIN_SPILL_PARTITION_FANOUT, fanout));
+                            }
+                            return (int) fanout;
+                        },
+                        value -> value),
                 booleanSessionProperty(
                         OPTIMIZE_DISTINCT_AGGREGATIONS,
                         "Optimize mixed non-distinct and distinct aggregations",
@@ -342,6 +373,11 @@ public final class SystemSessionProperties
                         "Enable compression in exchanges",
                         featuresConfig.isExchangeCompressionEnabled(),
                         false),
+                booleanSessionProperty(
+                        PACKED_VALUES_ENCODING,
+                        "Experimental: Bit pack long, int and dictionary blocks in exchanges. All nodes must support the packed encodings",
+                        featuresConfig.isPackedValuesEncodingEnabled(),
+                        false),
                 booleanSessionProperty(
                         LEGACY_TIMESTAMP,
                         "Use legacy TIME & TIMESTAMP semantics",
@@ -385,7 +421,101 @@ public final class SystemSessionProperties
                         FILTER_AND_PROJECT_MIN_OUTPUT_PAGE_ROW_COUNT,
                         "Experimental: Minimum output page row count for filter and project operators",
                         featuresConfig.getFilterAndProjectMinOutputPageRowCount(),
-                        false));
+                        false),
+                booleanSessionProperty(
+                        DYNAMIC_FILTERING_ENABLED,
+                        "Experimental: Use build side join key summaries to filter probe side rows",
+                        featuresConfig.isDynamicFilteringEnabled(),
+                        false),
+                booleanSessionProperty(
+                        COST_BASED_JOIN_REORDERING_ENABLED,
+                        "Experimental: Reorder joins based on estimated cost",
+                        featuresConfig.isCostBasedJoinReorderingEnabled(),
+                        false),
+                booleanSessionProperty(
+                        COST_BASED_JOIN_DISTRIBUTION_ENABLED,
+                        "Experimental: Choose join distribution type based on estimated cost",
+                        featuresConfig.isCostBasedJoinDistributionEnabled(),
+                        false),
+                new PropertyMetadata<>(
+                        MAX_REORDERED_JOINS,
+                        "Experimental: Maximum number of joins reordered at once by cost based join reordering",
+                        BIGINT,
+                        Integer.class,
+                        featuresConfig.getMaxReorderedJoins(),
+                        false,
+                        value -> {
+                            int maxReorderedJoins = ((Number) value).intValue();
+                            // join enumeration keeps the best order of every subset of the joined relations
+                            if (maxReorderedJoins < 2 || maxReorderedJoins > 20) {
+                                throw new PrestoException(
+                                        StandardErrorCode.INVALID_SESSION_PROPERTY,
+                                        format("%s must be between 2 and 20: %s", MAX_REORDERED_JOINS, maxReorderedJoins));
+                            }
+                            return maxReorderedJoins;
+                        },
+                        value -> value),
+                booleanSessionProperty(
+                        ADAPTIVE_PARTIAL_AGGREGATION_ENABLED,
+                        "Experimental: Switch partial aggregation to pass-through when it does not reduce the number of rows",
+                        featuresConfig.isAdaptivePartialAggregationEnabled(),
+                        false),
+                new PropertyMetadata<>(
+                        ADAPTIVE_PARTIAL_AGGREGATION_MIN_ROWS,
+                        "Experimental: Minimum number of input rows partial aggregation processes before deciding whether to switch to pass-through",
+                        BIGINT,
+                        Integer.class,
+                        featuresConfig.getAdaptivePartialAggregationMinRows(),
+                        false,
+                        value -> {
+                            int minRows = ((Number) value).intValue();
+                            if (minRows < 1) {
+                                throw new PrestoException(
+                                        StandardErrorCode.INVALID_SESSION_PROPERTY,
+                                        format("%s must be positive: %s", ADAPTIVE_PARTIAL_AGGREGATION_MIN_ROWS, minRows));
+                            }
+                            return minRows;
+                        },
+                        value -> value),
+                booleanSessionProperty(
+                        DICTIONARY_PARTITIONED_OUTPUT,
+                        "Experimental: Keep dictionary and run length encoded blocks when partitioning output pages",
+                        featuresConfig.isDictionaryPartitionedOutput(),
+                        false),
+                new PropertyMetadata<>(
+                        TASK_SCHEDULING_WEIGHT,
+                        "Relative share of worker runner thread time given to the tasks of a query (set from the scheduling weight of the query's resource group)",
+                        BIGINT,
+                        Integer.class,
+                        1,
+                        true,
+                        value -> {
+                            int weight = ((Number) value).intValue();
+                            if (weight < 1 || weight > MAX_TASK_SCHEDULING_WEIGHT) {
+                                throw new PrestoException(
+                                        StandardErrorCode.INVALID_SESSION_PROPERTY,
+                                        format("%s must be between 1 and %s: %s", TASK_SCHEDULING_WEIGHT, MAX_TASK_SCHEDULING_WEIGHT, weight));
+                            }
+                            return weight;
+                        },
+                        value -> value),
+                new PropertyMetadata<>(
+                        QUERY_MAX_CORES_PER_NODE,
+                        "Maximum number of runner threads a query can use at the same time on a worker (0 means no limit)",
+                        BIGINT,
+                        Integer.class,
+                        0,
+                        false,
+                        value -> {
+                            int maxCores = ((Number) value).intValue();
+                            if (maxCores < 0 || maxCores > taskManagerConfig.getMaxWorkerThreads()) {
+                                throw new PrestoException(
+                                        StandardErrorCode.INVALID_SESSION_PROPERTY,
+                                        format("%s must be between 0 and %s: %s", QUERY_MAX_CORES_PER_NODE, taskManagerConfig.getMaxWorkerThreads(), maxCores));
+                            }
+                            return maxCores;
+                        },
+                        value -> value));
     }
 
     public List<PropertyMetadata<?>> getSessionProperties()
@@ -554,6 +684,11 @@ public final class SystemSessionProperties
         return memoryLimitForMerge;
     }
 
+    public static int getJoinSpillPartitionFanout(Session session)
+    {
+        return session.getSystemProperty(JOIN_SPILL_PARTITION_FANOUT, Integer.class);
+    }
+
     public static boolean isOptimizeDistinctAggregationEnabled(Session session)
     {
         return session.getSystemProperty(OPTIMIZE_DISTINCT_AGGREGATIONS, Boolean.class);
@@ -585,6 +720,11 @@ public final class SystemSessionProperties
         return session.getSystemProperty(EXCHANGE_COMPRESSION, Boolean.class);
     }
 
+    public static boolean isPackedValuesEncodingEnabled(Session session)
+    {
+        return session.getSystemProperty(PACKED_VALUES_ENCODING, Boolean.class);
+    }
+
     public static boolean isEnableIntermediateAggregations(Session session)
     {
         return session.getSystemProperty(ENABLE_INTERMEDIATE_AGGREGATIONS, Boolean.class);
@@ -619,4 +759,53 @@ public final class SystemSessionProperties
     {
         return session.getSystemProperty(FILTER_AND_PROJECT_MIN_OUTPUT_PAGE_ROW_COUNT, Integer.class);
     }
+
+    public static boolean isDynamicFilteringEnabled(Session session)
+    {
+        return session.getSystemProperty(DYNAMIC_FILTERING_ENABLED, Boolean.class);
+    }
+
+    public static boolean isCostBasedJoinReorderingEnabled(Session session)
+    {
+        return session.getSystemProperty(COST_BASED_JOIN_REORDERING_ENABLED, Boolean.class);
+    }
+
+    public static boolean isCostBasedJoinDistributionEnabled(Session session)
+    {
+        return session.getSystemProperty(COST_BASED_JOIN_DISTRIBUTION_ENABLED, Boolean.class);
+    }
+
+    public static int getMaxReorderedJoins(Session session)
+    {
+        return session.getSystemProperty(MAX_REORDERED_JOINS, Integer.class);
+    }
+
+    public static boolean isAdaptivePartialAggregationEnabled(Session session)
+    {
+        return session.getSystemProperty(ADAPTIVE_PARTIAL_AGGREGATION_ENABLED, Boolean.class);
+    }
+
+    public static int getAdaptivePartialAggregationMinRows(Session session)
+    {
+        return session.getSystemProperty(ADAPTIVE_PARTIAL_AGGREGATION_MIN_ROWS, Integer.class);
+    }
+
+    public static boolean isDictionaryPartitionedOutputEnabled(Session session)
+    {
+        return session.getSystemProperty(DICTIONARY_PARTITIONED_OUTPUT, Boolean.class);
+    }
+
+    public static int getTaskSchedulingWeight(Session session)
+    {
+        return session.getSystemProperty(TASK_SCHEDULING_WEIGHT, Integer.class);
+    }
+
+    public static OptionalInt getQueryMaxCoresPerNode(Session session)
+    {
+        Integer result = session.getSystemProperty(QUERY_MAX_CORES_PER_NODE, Integer.class);
+        if (result == 0) {
+            return OptionalInt.empty();
+        }
+        return OptionalInt.of(result);
+    }
 }
@@ -23,6 +23,9 @@ import com.facebook.presto.spi.block.FixedWidthBlockEncoding;
 import com.facebook.presto.spi.block.IntArrayBlockEncoding;
 import com.facebook.presto.spi.block.LongArrayBlockEncoding;
 import com.facebook.presto.spi.block.MapBlockEncoding;
+import com.facebook.presto.spi.block.PackedDictionaryBlockEncoding;
+import com.facebook.presto.spi.block.PackedIntArrayBlockEncoding;
+import com.facebook.presto.spi.block.PackedLongArrayBlockEncoding;
 import com.facebook.presto.spi.block.RowBlockEncoding;
 import com.facebook.presto.spi.block.RunLengthBlockEncoding;
 import com.facebook.presto.spi.block.ShortArrayBlockEncoding;
@@ -76,6 +79,9 @@ public final class BlockEncodingManager
         addBlockEncodingFactory(RowBlockEncoding.FACTORY);
         addBlockEncodingFactory(SingleRowBlockEncoding.FACTORY);
         addBlockEncodingFactory(RunLengthBlockEncoding.FACTORY);
+        addBlockEncodingFactory(PackedIntArrayBlockEncoding.FACTORY);
+        addBlockEncodingFactory(PackedLongArrayBlockEncoding.FACTORY);
+        addBlockEncodingFactory(PackedDictionaryBlockEncoding.FACTORY);
 
         for (BlockEncodingFactory<?> factory : requireNonNull(blockEncodingFactories, "blockEncodingFactories is null")) {
             addBlockEncodingFactory(factory);
@@ -16,6 +16,7 @@ package com.facebook.presto.cost;
 import com.facebook.presto.Session;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.sql.planner.Symbol;
+import com.facebook.presto.sql.planner.iterative.Lookup;
 import com.facebook.presto.sql.planner.plan.PlanNode;
 import com.facebook.presto.sql.planner.plan.PlanNodeId;
 
@@ -35,4 +36,12 @@ public interface CostCalculator
     {
         return calculateCostForPlan(session, types, planNode).get(planNode.getId());
     }
+
+    /**
+     * Calculates cost of a single node, excluding the cost of its sources.
+     *
+     * @param lookup used to resolve {@link com.facebook.presto.sql.planner.iterative.GroupReference}
+     * sources when calculating cost of nodes stored in the iterative optimizer memo
+     */
+    PlanNodeCost calculateCost(PlanNode planNode, Lookup lookup, Session session, Map<Symbol, Type> types);
 }
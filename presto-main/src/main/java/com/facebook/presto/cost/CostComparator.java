@@ -0,0 +1,44 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.cost;
+
+import java.util.Comparator;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Orders costs by a weighted sum of their cpu, memory and network components.
+ * Costs with unknown components can not be compared.
+ */
+public class CostComparator
+        implements Comparator<PlanNodeCost>
+{
+    private static final double CPU_WEIGHT = 75;
+    private static final double MEMORY_WEIGHT = 10;
+    private static final double NETWORK_WEIGHT = 15;
+
+    @Override
+    public int compare(PlanNodeCost left, PlanNodeCost right)
+    {
+        checkArgument(!left.hasUnknownComponents() && !right.hasUnknownComponents(), "Can not compare costs with unknown components");
+        return Double.compare(weightedCost(left), weightedCost(right));
+    }
+
+    private static double weightedCost(PlanNodeCost cost)
+    {
+        return cost.getCpuCost().getValue() * CPU_WEIGHT
+                + cost.getMemoryCost().getValue() * MEMORY_WEIGHT
+                + cost.getNetworkCost().getValue() * NETWORK_WEIGHT;
+    }
+}
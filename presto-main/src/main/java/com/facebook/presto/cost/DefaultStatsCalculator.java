@@ -0,0 +1,609 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.cost;
+
+import com.facebook.presto.Session;
+import com.facebook.presto.metadata.Metadata;
+import com.facebook.presto.spi.ColumnHandle;
+import com.facebook.presto.spi.Constraint;
+import com.facebook.presto.spi.statistics.ColumnStatistics;
+import com.facebook.presto.spi.statistics.Estimate;
+import com.facebook.presto.spi.statistics.RangeColumnStatistics;
+import com.facebook.presto.spi.statistics.TableStatistics;
+import com.facebook.presto.spi.type.FixedWidthType;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.sql.planner.Symbol;
+import com.facebook.presto.sql.planner.iterative.Lookup;
+import com.facebook.presto.sql.planner.plan.AggregationNode;
+import com.facebook.presto.sql.planner.plan.EnforceSingleRowNode;
+import com.facebook.presto.sql.planner.plan.ExchangeNode;
+import com.facebook.presto.sql.planner.plan.FilterNode;
+import com.facebook.presto.sql.planner.plan.JoinNode;
+import com.facebook.presto.sql.planner.plan.LimitNode;
+import com.facebook.presto.sql.planner.plan.OutputNode;
+import com.facebook.presto.sql.planner.plan.PlanNode;
+import com.facebook.presto.sql.planner.plan.PlanNodeId;
+import com.facebook.presto.sql.planner.plan.PlanVisitor;
+import com.facebook.presto.sql.planner.plan.ProjectNode;
+import com.facebook.presto.sql.planner.plan.SemiJoinNode;
+import com.facebook.presto.sql.planner.plan.SortNode;
+import com.facebook.presto.sql.planner.plan.TableScanNode;
+import com.facebook.presto.sql.planner.plan.TopNNode;
+import com.facebook.presto.sql.planner.plan.UnionNode;
+import com.facebook.presto.sql.planner.plan.ValuesNode;
+import com.facebook.presto.sql.tree.BetweenPredicate;
+import com.facebook.presto.sql.tree.ComparisonExpression;
+import com.facebook.presto.sql.tree.ComparisonExpressionType;
+import com.facebook.presto.sql.tree.DoubleLiteral;
+import com.facebook.presto.sql.tree.Expression;
+import com.facebook.presto.sql.tree.IsNotNullPredicate;
+import com.facebook.presto.sql.tree.IsNullPredicate;
+import com.facebook.presto.sql.tree.Literal;
+import com.facebook.presto.sql.tree.LongLiteral;
+import com.facebook.presto.sql.tree.NullLiteral;
+import com.facebook.presto.sql.tree.SymbolReference;
+import com.google.common.collect.ImmutableMap;
+
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
+
+import static com.facebook.presto.cost.PlanNodeStatsEstimate.UNKNOWN_STATS_ESTIMATE;
+import static com.facebook.presto.sql.ExpressionUtils.extractConjuncts;
+import static com.facebook.presto.sql.planner.optimizations.PlanNodeSearcher.searchFrom;
+import static com.facebook.presto.sql.planner.plan.AggregationNode.Step.SINGLE;
+import static java.lang.Double.NaN;
+import static java.lang.Double.isNaN;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Estimates statistics of plan nodes by propagating connector provided table statistics
+ * through filters, projections, joins and aggregations. Nodes, which are not supported,
+ * produce {@link PlanNodeStatsEstimate#UNKNOWN_STATS_ESTIMATE}.
+ */
+@ThreadSafe
+public class DefaultStatsCalculator
+        implements StatsCalculator
+{
+    // selectivity of predicates which can not be estimated from statistics
+    static final double UNKNOWN_FILTER_COEFFICIENT = 0.9;
+
+    private final Metadata metadata;
+
+    @Inject
+    public DefaultStatsCalculator(Metadata metadata)
+    {
+        this.metadata = requireNonNull(metadata, "metadata is null");
+    }
+
+    @Override
+    public PlanNodeStatsEstimate calculateStats(PlanNode planNode, Lookup lookup, Session session, Map<Symbol, Type> types)
+    {
+        return new Visitor(lookup, session, types).statsOf(planNode);
+    }
+
+    @Override
+    public Map<PlanNodeId, PlanNodeStatsEstimate> calculateStatsForPlan(Session session, Map<Symbol, Type> types, PlanNode planNode)
+    {
+        // share the visitor, so that statistics of every node are calculated only once
+        Visitor visitor = new Visitor(Lookup.noLookup(), session, types);
+        ImmutableMap.Builder<PlanNodeId, PlanNodeStatsEstimate> stats = ImmutableMap.builder();
+        for (PlanNode node : searchFrom(planNode).findAll()) {
+            stats.put(node.getId(), visitor.statsOf(node));
+        }
+        return stats.build();
+    }
+
+    private class Visitor
+            extends PlanVisitor<PlanNodeStatsEstimate, Void>
+    {
+        private final Lookup lookup;
+        private final Session session;
+        private final Map<Symbol, Type> types;
+        private final Map<PlanNode, PlanNodeStatsEstimate> cache = new IdentityHashMap<>();
+
+        public Visitor(Lookup lookup, Session session, Map<Symbol, Type> types)
+        {
+            this.lookup = requireNonNull(lookup, "lookup is null");
+            this.session = requireNonNull(session, "session is null");
+            this.types = ImmutableMap.copyOf(requireNonNull(types, "types is null"));
+        }
+
+        @Override
+        protected PlanNodeStatsEstimate visitPlan(PlanNode node, Void context)
+        {
+            return UNKNOWN_STATS_ESTIMATE;
+        }
+
+        @Override
+        public PlanNodeStatsEstimate visitOutput(OutputNode node, Void context)
+        {
+            return statsOf(node.getSource());
+        }
+
+        @Override
+        public PlanNodeStatsEstimate visitSort(SortNode node, Void context)
+        {
+            return statsOf(node.getSource());
+        }
+
+        @Override
+        public PlanNodeStatsEstimate visitSemiJoin(SemiJoinNode node, Void context)
+        {
+            return statsOf(node.getSource());
+        }
+
+        @Override
+        public PlanNodeStatsEstimate visitTableScan(TableScanNode node, Void context)
+        {
+            Constraint<ColumnHandle> constraint = new Constraint<>(node.getCurrentConstraint(), bindings -> true);
+            TableStatistics tableStatistics = metadata.getTableStatistics(session, node.getTable(), constraint);
+
+            double rowCount = asDouble(tableStatistics.getRowCount());
+            PlanNodeStatsEstimate.Builder stats = PlanNodeStatsEstimate.builder()
+                    .setOutputRowCount(rowCount);
+            for (Map.Entry<Symbol, ColumnHandle> assignment : node.getAssignments().entrySet()) {
+                ColumnStatistics columnStatistics = tableStatistics.getColumnStatistics().get(assignment.getValue());
+                if (columnStatistics != null) {
+                    stats.addSymbolStatistics(assignment.getKey(), toSymbolStatistics(columnStatistics, rowCount, types.get(assignment.getKey())));
+                }
+            }
+            return stats.build();
+        }
+
+        @Override
+        public PlanNodeStatsEstimate visitValues(ValuesNode node, Void context)
+        {
+            return PlanNodeStatsEstimate.builder()
+                    .setOutputRowCount(node.getRows().size())
+                    .build();
+        }
+
+        @Override
+        public PlanNodeStatsEstimate visitEnforceSingleRow(EnforceSingleRowNode node, Void context)
+        {
+            return PlanNodeStatsEstimate.buildFrom(statsOf(node.getSource()))
+                    .setOutputRowCount(1)
+                    .build();
+        }
+
+        @Override
+        public PlanNodeStatsEstimate visitLimit(LimitNode node, Void context)
+        {
+            return limit(statsOf(node.getSource()), node.getCount());
+        }
+
+        @Override
+        public PlanNodeStatsEstimate visitTopN(TopNNode node, Void context)
+        {
+            return limit(statsOf(node.getSource()), node.getCount());
+        }
+
+        @Override
+        public PlanNodeStatsEstimate visitFilter(FilterNode node, Void context)
+        {
+            return filter(statsOf(node.getSource()), node.getPredicate());
+        }
+
+        @Override
+        public PlanNodeStatsEstimate visitProject(ProjectNode node, Void context)
+        {
+            PlanNodeStatsEstimate sourceStats = statsOf(node.getSource());
+            PlanNodeStatsEstimate.Builder stats = PlanNodeStatsEstimate.builder()
+                    .setOutputRowCount(sourceStats.getOutputRowCount());
+            for (Map.Entry<Symbol, Expression> assignment : node.getAssignments().entrySet()) {
+                if (assignment.getValue() instanceof SymbolReference) {
+                    stats.addSymbolStatistics(assignment.getKey(), sourceStats.getSymbolStatistics(Symbol.from(assignment.getValue())));
+                }
+            }
+            return stats.build();
+        }
+
+        @Override
+        public PlanNodeStatsEstimate visitExchange(ExchangeNode node, Void context)
+        {
+            double rowCount = 0;
+            for (PlanNode source : node.getSources()) {
+                rowCount += statsOf(source).getOutputRowCount();
+            }
+            if (node.getSources().size() == 1) {
+                return PlanNodeStatsEstimate.buildFrom(statsOf(node.getSources().get(0)))
+                        .setOutputRowCount(rowCount)
+                        .build();
+            }
+            return PlanNodeStatsEstimate.builder()
+                    .setOutputRowCount(rowCount)
+                    .build();
+        }
+
+        @Override
+        public PlanNodeStatsEstimate visitUnion(UnionNode node, Void context)
+        {
+            double rowCount = 0;
+            for (PlanNode source : node.getSources()) {
+                rowCount += statsOf(source).getOutputRowCount();
+            }
+            return PlanNodeStatsEstimate.builder()
+                    .setOutputRowCount(rowCount)
+                    .build();
+        }
+
+        @Override
+        public PlanNodeStatsEstimate visitAggregation(AggregationNode node, Void context)
+        {
+            if (node.getStep() != SINGLE || node.getGroupingSets().size() != 1) {
+                return UNKNOWN_STATS_ESTIMATE;
+            }
+
+            PlanNodeStatsEstimate sourceStats = statsOf(node.getSource());
+            if (node.getGroupingKeys().isEmpty()) {
+                return PlanNodeStatsEstimate.builder()
+                        .setOutputRowCount(1)
+                        .build();
+            }
+
+            // number of groups is bounded by the number of input rows
+            double rowCount = 1;
+            PlanNodeStatsEstimate.Builder stats = PlanNodeStatsEstimate.builder();
+            for (Symbol groupingKey : node.getGroupingKeys()) {
+                SymbolStatsEstimate symbolStats = sourceStats.getSymbolStatistics(groupingKey);
+                double distinctValues = symbolStats.getDistinctValuesCount();
+                if (symbolStats.getNullsFraction() > 0) {
+                    distinctValues += 1;
+                }
+                rowCount *= distinctValues;
+                stats.addSymbolStatistics(groupingKey, symbolStats);
+            }
+            if (isNaN(rowCount) || rowCount > sourceStats.getOutputRowCount()) {
+                rowCount = sourceStats.getOutputRowCount();
+            }
+            return stats.setOutputRowCount(rowCount).build();
+        }
+
+        @Override
+        public PlanNodeStatsEstimate visitJoin(JoinNode node, Void context)
+        {
+            PlanNodeStatsEstimate leftStats = statsOf(node.getLeft());
+            PlanNodeStatsEstimate rightStats = statsOf(node.getRight());
+
+            PlanNodeStatsEstimate innerJoinStats = estimateInnerJoin(leftStats, rightStats, node.getCriteria());
+            if (node.getFilter().isPresent()) {
+                innerJoinStats = filter(innerJoinStats, node.getFilter().get());
+            }
+
+            // outer joins produce at least one row for every row of the preserved side
+            double rowCount = innerJoinStats.getOutputRowCount();
+            switch (node.getType()) {
+                case INNER:
+                    break;
+                case LEFT:
+                    rowCount = max(rowCount, leftStats.getOutputRowCount());
+                    break;
+                case RIGHT:
+                    rowCount = max(rowCount, rightStats.getOutputRowCount());
+                    break;
+                case FULL:
+                    rowCount = max(rowCount, leftStats.getOutputRowCount() + rightStats.getOutputRowCount());
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported join type: " + node.getType());
+            }
+            return PlanNodeStatsEstimate.buildFrom(innerJoinStats)
+                    .setOutputRowCount(rowCount)
+                    .build();
+        }
+
+        private PlanNodeStatsEstimate statsOf(PlanNode node)
+        {
+            PlanNode resolved = lookup.resolve(node);
+            PlanNodeStatsEstimate stats = cache.get(resolved);
+            if (stats == null) {
+                stats = resolved.accept(this, null);
+                cache.put(resolved, stats);
+            }
+            return stats;
+        }
+    }
+
+    private static SymbolStatsEstimate toSymbolStatistics(ColumnStatistics columnStatistics, double rowCount, Type type)
+    {
+        RangeColumnStatistics rangeStatistics = columnStatistics.getOnlyRangeColumnStatistics();
+        double nullsFraction = asDouble(columnStatistics.getNullsFraction());
+        double nonNullRowCount = rowCount * (1 - (isNaN(nullsFraction) ? 0 : nullsFraction));
+
+        double averageRowSize = asDouble(rangeStatistics.getDataSize()) / nonNullRowCount;
+        if ((isNaN(averageRowSize) || Double.isInfinite(averageRowSize)) && type instanceof FixedWidthType) {
+            averageRowSize = ((FixedWidthType) type).getFixedSize();
+        }
+        if (Double.isInfinite(averageRowSize)) {
+            averageRowSize = NaN;
+        }
+
+        return SymbolStatsEstimate.builder()
+                .setLowValue(toDouble(rangeStatistics.getLowValue()).orElse(Double.NEGATIVE_INFINITY))
+                .setHighValue(toDouble(rangeStatistics.getHighValue()).orElse(Double.POSITIVE_INFINITY))
+                .setNullsFraction(nullsFraction)
+                .setAverageRowSize(averageRowSize)
+                .setDistinctValuesCount(asDouble(rangeStatistics.getDistinctValuesCount()))
+                .build();
+    }
+
+    private static OptionalDouble toDouble(Optional<Object> value)
+    {
+        if (value.isPresent() && value.get() instanceof Number) {
+            return OptionalDouble.of(((Number) value.get()).doubleValue());
+        }
+        return OptionalDouble.empty();
+    }
+
+    private static double asDouble(Estimate estimate)
+    {
+        return estimate.isValueUnknown() ? NaN : estimate.getValue();
+    }
+
+    private static PlanNodeStatsEstimate limit(PlanNodeStatsEstimate sourceStats, long count)
+    {
+        if (sourceStats.getOutputRowCount() <= count) {
+            return sourceStats;
+        }
+        return PlanNodeStatsEstimate.buildFrom(sourceStats)
+                .setOutputRowCount(count)
+                .build();
+    }
+
+    /**
+     * Estimates statistics of an inner join without additional join filter. Exposed so that
+     * join enumeration can combine statistics of join sources without re-evaluating their plans.
+     */
+    public static PlanNodeStatsEstimate estimateInnerJoin(PlanNodeStatsEstimate leftStats, PlanNodeStatsEstimate rightStats, List<JoinNode.EquiJoinClause> criteria)
+    {
+        PlanNodeStatsEstimate stats = PlanNodeStatsEstimate.builder()
+                .setOutputRowCount(leftStats.getOutputRowCount() * rightStats.getOutputRowCount())
+                .addSymbolStatistics(leftStats.getSymbolStatistics())
+                .addSymbolStatistics(rightStats.getSymbolStatistics())
+                .build();
+        for (JoinNode.EquiJoinClause clause : criteria) {
+            stats = equiJoin(stats, clause.getLeft(), clause.getRight());
+        }
+        return stats;
+    }
+
+    private static PlanNodeStatsEstimate equiJoin(PlanNodeStatsEstimate stats, Symbol left, Symbol right)
+    {
+        SymbolStatsEstimate leftStats = stats.getSymbolStatistics(left);
+        SymbolStatsEstimate rightStats = stats.getSymbolStatistics(right);
+        double leftDistinctValues = leftStats.getDistinctValuesCount();
+        double rightDistinctValues = rightStats.getDistinctValuesCount();
+
+        // containment assumption: every value of the side with less distinct values has a match on the other side
+        double selectivity = 1 / max(leftDistinctValues, rightDistinctValues);
+        double matchedDistinctValues = min(leftDistinctValues, rightDistinctValues);
+        double rowCount = stats.getOutputRowCount() * nonNullFraction(leftStats) * nonNullFraction(rightStats) * selectivity;
+
+        SymbolStatsEstimate leftJoinStats = SymbolStatsEstimate.buildFrom(leftStats)
+                .setNullsFraction(0)
+                .setDistinctValuesCount(matchedDistinctValues)
+                .build();
+        SymbolStatsEstimate rightJoinStats = SymbolStatsEstimate.buildFrom(rightStats)
+                .setNullsFraction(0)
+                .setDistinctValuesCount(matchedDistinctValues)
+                .build();
+
+        return capDistinctValues(PlanNodeStatsEstimate.buildFrom(stats)
+                .setOutputRowCount(rowCount)
+                .addSymbolStatistics(left, leftJoinStats)
+                .addSymbolStatistics(right, rightJoinStats)
+                .build());
+    }
+
+    static PlanNodeStatsEstimate filter(PlanNodeStatsEstimate sourceStats, Expression predicate)
+    {
+        PlanNodeStatsEstimate stats = sourceStats;
+        for (Expression conjunct : extractConjuncts(predicate)) {
+            stats = filterConjunct(stats, conjunct);
+        }
+        return capDistinctValues(stats);
+    }
+
+    private static PlanNodeStatsEstimate filterConjunct(PlanNodeStatsEstimate stats, Expression conjunct)
+    {
+        if (conjunct instanceof IsNullPredicate && ((IsNullPredicate) conjunct).getValue() instanceof SymbolReference) {
+            Symbol symbol = Symbol.from(((IsNullPredicate) conjunct).getValue());
+            SymbolStatsEstimate symbolStats = stats.getSymbolStatistics(symbol);
+            if (isNaN(symbolStats.getNullsFraction())) {
+                return unknownFilter(stats);
+            }
+            return PlanNodeStatsEstimate.buildFrom(stats)
+                    .setOutputRowCount(stats.getOutputRowCount() * symbolStats.getNullsFraction())
+                    .addSymbolStatistics(symbol, SymbolStatsEstimate.builder()
+                            .setNullsFraction(1)
+                            .setDistinctValuesCount(0)
+                            .setAverageRowSize(symbolStats.getAverageRowSize())
+                            .build())
+                    .build();
+        }
+
+        if (conjunct instanceof IsNotNullPredicate && ((IsNotNullPredicate) conjunct).getValue() instanceof SymbolReference) {
+            Symbol symbol = Symbol.from(((IsNotNullPredicate) conjunct).getValue());
+            SymbolStatsEstimate symbolStats = stats.getSymbolStatistics(symbol);
+            if (isNaN(symbolStats.getNullsFraction())) {
+                return unknownFilter(stats);
+            }
+            return PlanNodeStatsEstimate.buildFrom(stats)
+                    .setOutputRowCount(stats.getOutputRowCount() * nonNullFraction(symbolStats))
+                    .addSymbolStatistics(symbol, SymbolStatsEstimate.buildFrom(symbolStats).setNullsFraction(0).build())
+                    .build();
+        }
+
+        if (conjunct instanceof BetweenPredicate) {
+            BetweenPredicate between = (BetweenPredicate) conjunct;
+            return filterConjunct(
+                    filterConjunct(stats, new ComparisonExpression(ComparisonExpressionType.GREATER_THAN_OR_EQUAL, between.getValue(), between.getMin())),
+                    new ComparisonExpression(ComparisonExpressionType.LESS_THAN_OR_EQUAL, between.getValue(), between.getMax()));
+        }
+
+        if (conjunct instanceof ComparisonExpression) {
+            ComparisonExpression comparison = (ComparisonExpression) conjunct;
+            if (comparison.getLeft() instanceof Literal && comparison.getRight() instanceof SymbolReference) {
+                comparison = new ComparisonExpression(comparison.getType().flip(), comparison.getRight(), comparison.getLeft());
+            }
+            if (comparison.getLeft() instanceof SymbolReference && comparison.getRight() instanceof Literal) {
+                return filterComparisonWithLiteral(stats, comparison.getType(), Symbol.from(comparison.getLeft()), (Literal) comparison.getRight());
+            }
+            if (comparison.getType() == ComparisonExpressionType.EQUAL
+                    && comparison.getLeft() instanceof SymbolReference
+                    && comparison.getRight() instanceof SymbolReference) {
+                return equiJoin(stats, Symbol.from(comparison.getLeft()), Symbol.from(comparison.getRight()));
+            }
+        }
+
+        return unknownFilter(stats);
+    }
+
+    private static PlanNodeStatsEstimate filterComparisonWithLiteral(PlanNodeStatsEstimate stats, ComparisonExpressionType type, Symbol symbol, Literal literal)
+    {
+        if (literal instanceof NullLiteral) {
+            return PlanNodeStatsEstimate.buildFrom(stats)
+                    .setOutputRowCount(0)
+                    .build();
+        }
+
+        SymbolStatsEstimate symbolStats = stats.getSymbolStatistics(symbol);
+        double distinctValues = symbolStats.getDistinctValuesCount();
+        OptionalDouble value = numericValue(literal);
+
+        switch (type) {
+            case EQUAL: {
+                if (isNaN(distinctValues)) {
+                    return unknownFilter(stats);
+                }
+                if (value.isPresent() && symbolStats.hasFiniteRange()
+                        && (value.getAsDouble() < symbolStats.getLowValue() || value.getAsDouble() > symbolStats.getHighValue())) {
+                    return PlanNodeStatsEstimate.buildFrom(stats)
+                            .setOutputRowCount(0)
+                            .build();
+                }
+                SymbolStatsEstimate.Builder filteredStats = SymbolStatsEstimate.buildFrom(symbolStats)
+                        .setNullsFraction(0)
+                        .setDistinctValuesCount(1);
+                if (value.isPresent()) {
+                    filteredStats.setLowValue(value.getAsDouble()).setHighValue(value.getAsDouble());
+                }
+                return PlanNodeStatsEstimate.buildFrom(stats)
+                        .setOutputRowCount(stats.getOutputRowCount() * nonNullFraction(symbolStats) / max(distinctValues, 1))
+                        .addSymbolStatistics(symbol, filteredStats.build())
+                        .build();
+            }
+            case NOT_EQUAL: {
+                if (isNaN(distinctValues)) {
+                    return unknownFilter(stats);
+                }
+                double selectivity = distinctValues <= 1 ? 0 : 1 - 1 / distinctValues;
+                return PlanNodeStatsEstimate.buildFrom(stats)
+                        .setOutputRowCount(stats.getOutputRowCount() * nonNullFraction(symbolStats) * selectivity)
+                        .addSymbolStatistics(symbol, SymbolStatsEstimate.buildFrom(symbolStats)
+                                .setNullsFraction(0)
+                                .setDistinctValuesCount(max(distinctValues - 1, 0))
+                                .build())
+                        .build();
+            }
+            case LESS_THAN:
+            case LESS_THAN_OR_EQUAL:
+                if (!value.isPresent()) {
+                    return unknownFilter(stats);
+                }
+                return filterRange(stats, symbol, symbolStats.getLowValue(), min(value.getAsDouble(), symbolStats.getHighValue()));
+            case GREATER_THAN:
+            case GREATER_THAN_OR_EQUAL:
+                if (!value.isPresent()) {
+                    return unknownFilter(stats);
+                }
+                return filterRange(stats, symbol, max(value.getAsDouble(), symbolStats.getLowValue()), symbolStats.getHighValue());
+            default:
+                return unknownFilter(stats);
+        }
+    }
+
+    private static PlanNodeStatsEstimate filterRange(PlanNodeStatsEstimate stats, Symbol symbol, double lowValue, double highValue)
+    {
+        SymbolStatsEstimate symbolStats = stats.getSymbolStatistics(symbol);
+        if (!symbolStats.hasFiniteRange()) {
+            return unknownFilter(stats);
+        }
+        if (lowValue > highValue) {
+            return PlanNodeStatsEstimate.buildFrom(stats)
+                    .setOutputRowCount(0)
+                    .build();
+        }
+
+        // assume uniform distribution of values within the range
+        double rangeLength = symbolStats.getHighValue() - symbolStats.getLowValue();
+        double rangeFraction = rangeLength == 0 ? 1 : (highValue - lowValue) / rangeLength;
+        return PlanNodeStatsEstimate.buildFrom(stats)
+                .setOutputRowCount(stats.getOutputRowCount() * nonNullFraction(symbolStats) * rangeFraction)
+                .addSymbolStatistics(symbol, SymbolStatsEstimate.buildFrom(symbolStats)
+                        .setLowValue(lowValue)
+                        .setHighValue(highValue)
+                        .setNullsFraction(0)
+                        .setDistinctValuesCount(symbolStats.getDistinctValuesCount() * rangeFraction)
+                        .build())
+                .build();
+    }
+
+    private static PlanNodeStatsEstimate unknownFilter(PlanNodeStatsEstimate stats)
+    {
+        return stats.mapOutputRowCount(rowCount -> rowCount * UNKNOWN_FILTER_COEFFICIENT);
+    }
+
+    /**
+     * Distinct values count of a symbol can not exceed the number of rows.
+     */
+    private static PlanNodeStatsEstimate capDistinctValues(PlanNodeStatsEstimate stats)
+    {
+        double rowCount = stats.getOutputRowCount();
+        if (isNaN(rowCount)) {
+            return stats;
+        }
+        PlanNodeStatsEstimate.Builder result = PlanNodeStatsEstimate.builder()
+                .setOutputRowCount(rowCount);
+        for (Map.Entry<Symbol, SymbolStatsEstimate> entry : stats.getSymbolStatistics().entrySet()) {
+            result.addSymbolStatistics(entry.getKey(), entry.getValue().mapDistinctValuesCount(distinctValues -> distinctValues > rowCount ? rowCount : distinctValues));
+        }
+        return result.build();
+    }
+
+    private static double nonNullFraction(SymbolStatsEstimate symbolStats)
+    {
+        double nullsFraction = symbolStats.getNullsFraction();
+        return isNaN(nullsFraction) ? 1 : 1 - nullsFraction;
+    }
+
+    private static OptionalDouble numericValue(Literal literal)
+    {
+        if (literal instanceof LongLiteral) {
+            return OptionalDouble.of(((LongLiteral) literal).getValue());
+        }
+        if (literal instanceof DoubleLiteral) {
+            return OptionalDouble.of(((DoubleLiteral) literal).getValue());
+        }
+        return OptionalDouble.empty();
+    }
+}
@@ -27,11 +27,17 @@ public class PlanNodeCost
 
     private final Estimate outputRowCount;
     private final Estimate outputSizeInBytes;
+    private final Estimate cpuCost;
+    private final Estimate memoryCost;
+    private final Estimate networkCost;
 
-    private PlanNodeCost(Estimate outputRowCount, Estimate outputSizeInBytes)
+    private PlanNodeCost(Estimate outputRowCount, Estimate outputSizeInBytes, Estimate cpuCost, Estimate memoryCost, Estimate networkCost)
     {
         this.outputRowCount = requireNonNull(outputRowCount, "outputRowCount can not be null");
         this.outputSizeInBytes = requireNonNull(outputSizeInBytes, "outputSizeInBytes can not be null");
+        this.cpuCost = requireNonNull(cpuCost, "cpuCost can not be null");
+        this.memoryCost = requireNonNull(memoryCost, "memoryCost can not be null");
+        this.networkCost = requireNonNull(networkCost, "networkCost can not be null");
     }
 
     public Estimate getOutputRowCount()
@@ -44,6 +50,55 @@ public class PlanNodeCost
         return outputSizeInBytes;
     }
 
+    /**
+     * Estimated amount of data processed by the node itself, in bytes.
+     */
+    public Estimate getCpuCost()
+    {
+        return cpuCost;
+    }
+
+    /**
+     * Estimated peak memory used by the node itself, in bytes, summed over all nodes of the cluster.
+     */
+    public Estimate getMemoryCost()
+    {
+        return memoryCost;
+    }
+
+    /**
+     * Estimated amount of data transferred over the network by the node itself, in bytes.
+     */
+    public Estimate getNetworkCost()
+    {
+        return networkCost;
+    }
+
+    public boolean hasUnknownComponents()
+    {
+        return cpuCost.isValueUnknown() || memoryCost.isValueUnknown() || networkCost.isValueUnknown();
+    }
+
+    /**
+     * Sums cpu, memory and network costs. Output statistics of the result are unknown.
+     */
+    public PlanNodeCost add(PlanNodeCost other)
+    {
+        return builder()
+                .setCpuCost(add(cpuCost, other.getCpuCost()))
+                .setMemoryCost(add(memoryCost, other.getMemoryCost()))
+                .setNetworkCost(add(networkCost, other.getNetworkCost()))
+                .build();
+    }
+
+    private static Estimate add(Estimate first, Estimate second)
+    {
+        if (first.isValueUnknown() || second.isValueUnknown()) {
+            return unknownValue();
+        }
+        return new Estimate(first.getValue() + second.getValue());
+    }
+
     public PlanNodeCost mapOutputRowCount(Function<Double, Double> mappingFunction)
     {
         return buildFrom(this).setOutputRowCount(outputRowCount.map(mappingFunction)).build();
@@ -51,13 +106,17 @@ public class PlanNodeCost
 
     public PlanNodeCost mapOutputSizeInBytes(Function<Double, Double> mappingFunction)
     {
-        return buildFrom(this).setOutputSizeInBytes(outputRowCount.map(mappingFunction)).build();
+        return buildFrom(this).setOutputSizeInBytes(outputSizeInBytes.map(mappingFunction)).build();
     }
 
     @Override
     public String toString()
     {
-        return "PlanNodeCost{outputRowCount=" + outputRowCount + ", outputSizeInBytes=" + outputSizeInBytes + '}';
+        return "PlanNodeCost{outputRowCount=" + outputRowCount +
+                ", outputSizeInBytes=" + outputSizeInBytes +
+                ", cpuCost=" + cpuCost +
+                ", memoryCost=" + memoryCost +
+                ", networkCost=" + networkCost + '}';
     }
 
     @Override
@@ -71,13 +130,16 @@ public class PlanNodeCost
         }
         PlanNodeCost that = (PlanNodeCost) o;
         return Objects.equals(outputRowCount, that.outputRowCount) &&
-                Objects.equals(outputSizeInBytes, that.outputSizeInBytes);
+                Objects.equals(outputSizeInBytes, that.outputSizeInBytes) &&
+                Objects.equals(cpuCost, that.cpuCost) &&
+                Objects.equals(memoryCost, that.memoryCost) &&
+                Objects.equals(networkCost, that.networkCost);
     }
 
     @Override
     public int hashCode()
     {
-        return Objects.hash(outputRowCount, outputSizeInBytes);
+        return Objects.hash(outputRowCount, outputSizeInBytes, cpuCost, memoryCost, networkCost);
     }
 
     public static Builder builder()
@@ -88,13 +150,19 @@ public class PlanNodeCost
     public static Builder buildFrom(PlanNodeCost other)
     {
         return builder().setOutputRowCount(other.getOutputRowCount())
-                .setOutputSizeInBytes(other.getOutputSizeInBytes());
+                .setOutputSizeInBytes(other.getOutputSizeInBytes())
+                .setCpuCost(other.getCpuCost())
+                .setMemoryCost(other.getMemoryCost())
+                .setNetworkCost(other.getNetworkCost());
     }
 
     public static final class Builder
     {
         private Estimate outputRowCount = unknownValue();
         private Estimate outputSizeInBytes = unknownValue();
+        private Estimate cpuCost = unknownValue();
+        private Estimate memoryCost = unknownValue();
+        private Estimate networkCost = unknownValue();
 
         public Builder setOutputRowCount(Estimate outputRowCount)
         {
@@ -108,9 +176,27 @@ public class PlanNodeCost
             return this;
         }
 
+        public Builder setCpuCost(Estimate cpuCost)
+        {
+            this.cpuCost = cpuCost;
+            return this;
+        }
+
+        public Builder setMemoryCost(Estimate memoryCost)
+        {
+            this.memoryCost = memoryCost;
+            return this;
+        }
+
+        public Builder setNetworkCost(Estimate networkCost)
+        {
+            this.networkCost = networkCost;
+            return this;
+        }
+
         public PlanNodeCost build()
         {
-            return new PlanNodeCost(outputRowCount, outputSizeInBytes);
+            return new PlanNodeCost(outputRowCount, outputSizeInBytes, cpuCost, memoryCost, networkCost);
         }
     }
 }
@@ -0,0 +1,163 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.cost;
+
+import com.facebook.presto.sql.planner.Symbol;
+import com.google.common.collect.ImmutableMap;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+import static com.facebook.presto.cost.SymbolStatsEstimate.UNKNOWN_STATS;
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.lang.Double.NaN;
+import static java.lang.Double.isNaN;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Estimated statistics of the output of a plan node.
+ */
+public class PlanNodeStatsEstimate
+{
+    public static final PlanNodeStatsEstimate UNKNOWN_STATS_ESTIMATE = PlanNodeStatsEstimate.builder().build();
+
+    private static final double DEFAULT_AVERAGE_ROW_SIZE = 8;
+
+    private final double outputRowCount;
+    private final Map<Symbol, SymbolStatsEstimate> symbolStatistics;
+
+    private PlanNodeStatsEstimate(double outputRowCount, Map<Symbol, SymbolStatsEstimate> symbolStatistics)
+    {
+        this.outputRowCount = outputRowCount;
+        this.symbolStatistics = ImmutableMap.copyOf(requireNonNull(symbolStatistics, "symbolStatistics is null"));
+    }
+
+    /**
+     * Returns estimated number of output rows or {@code NaN} when unknown.
+     */
+    public double getOutputRowCount()
+    {
+        return outputRowCount;
+    }
+
+    public boolean isOutputRowCountUnknown()
+    {
+        return isNaN(outputRowCount);
+    }
+
+    /**
+     * Returns estimated size of the given output symbols. When average row size of a symbol is not known
+     * a fixed default is assumed, so the result is unknown only when the output row count is unknown.
+     */
+    public double getOutputSizeInBytes(Collection<Symbol> outputSymbols)
+    {
+        if (isOutputRowCountUnknown()) {
+            return NaN;
+        }
+        double rowSize = 0;
+        for (Symbol symbol : outputSymbols) {
+            double averageRowSize = getSymbolStatistics(symbol).getAverageRowSize();
+            rowSize += isNaN(averageRowSize) ? DEFAULT_AVERAGE_ROW_SIZE : averageRowSize;
+        }
+        return outputRowCount * rowSize;
+    }
+
+    public Map<Symbol, SymbolStatsEstimate> getSymbolStatistics()
+    {
+        return symbolStatistics;
+    }
+
+    public SymbolStatsEstimate getSymbolStatistics(Symbol symbol)
+    {
+        return symbolStatistics.getOrDefault(symbol, UNKNOWN_STATS);
+    }
+
+    public PlanNodeStatsEstimate mapOutputRowCount(Function<Double, Double> mappingFunction)
+    {
+        return buildFrom(this).setOutputRowCount(mappingFunction.apply(outputRowCount)).build();
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("outputRowCount", outputRowCount)
+                .add("symbolStatistics", symbolStatistics)
+                .toString();
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        PlanNodeStatsEstimate that = (PlanNodeStatsEstimate) o;
+        return Double.compare(that.outputRowCount, outputRowCount) == 0 &&
+                Objects.equals(symbolStatistics, that.symbolStatistics);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(outputRowCount, symbolStatistics);
+    }
+
+    public static Builder builder()
+    {
+        return new Builder();
+    }
+
+    public static Builder buildFrom(PlanNodeStatsEstimate other)
+    {
+        return builder()
+                .setOutputRowCount(other.getOutputRowCount())
+                .addSymbolStatistics(other.getSymbolStatistics());
+    }
+
+    public static final class Builder
+    {
+        private double outputRowCount = NaN;
+        private final Map<Symbol, SymbolStatsEstimate> symbolStatistics = new HashMap<>();
+
+        public Builder setOutputRowCount(double outputRowCount)
+        {
+            this.outputRowCount = outputRowCount;
+            return this;
+        }
+
+        public Builder addSymbolStatistics(Symbol symbol, SymbolStatsEstimate statistics)
+        {
+            symbolStatistics.put(symbol, statistics);
+            return this;
+        }
+
+        public Builder addSymbolStatistics(Map<Symbol, SymbolStatsEstimate> statistics)
+        {
+            symbolStatistics.putAll(statistics);
+            return this;
+        }
+
+        public PlanNodeStatsEstimate build()
+        {
+            return new PlanNodeStatsEstimate(outputRowCount, symbolStatistics);
+        }
+    }
+}
@@ -0,0 +1,273 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.cost;
+
+import com.facebook.presto.Session;
+import com.facebook.presto.execution.scheduler.NodeSchedulerConfig;
+import com.facebook.presto.metadata.InternalNodeManager;
+import com.facebook.presto.spi.Node;
+import com.facebook.presto.spi.statistics.Estimate;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.sql.planner.Symbol;
+import com.facebook.presto.sql.planner.iterative.Lookup;
+import com.facebook.presto.sql.planner.plan.AggregationNode;
+import com.facebook.presto.sql.planner.plan.EnforceSingleRowNode;
+import com.facebook.presto.sql.planner.plan.ExchangeNode;
+import com.facebook.presto.sql.planner.plan.FilterNode;
+import com.facebook.presto.sql.planner.plan.JoinNode;
+import com.facebook.presto.sql.planner.plan.LimitNode;
+import com.facebook.presto.sql.planner.plan.OutputNode;
+import com.facebook.presto.sql.planner.plan.PlanNode;
+import com.facebook.presto.sql.planner.plan.PlanNodeId;
+import com.facebook.presto.sql.planner.plan.PlanVisitor;
+import com.facebook.presto.sql.planner.plan.ProjectNode;
+import com.facebook.presto.sql.planner.plan.SemiJoinNode;
+import com.facebook.presto.sql.planner.plan.SortNode;
+import com.facebook.presto.sql.planner.plan.TableScanNode;
+import com.facebook.presto.sql.planner.plan.TopNNode;
+import com.facebook.presto.sql.planner.plan.UnionNode;
+import com.facebook.presto.sql.planner.plan.ValuesNode;
+import com.google.common.collect.ImmutableMap;
+
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+
+import static com.facebook.presto.sql.planner.optimizations.PlanNodeSearcher.searchFrom;
+import static com.facebook.presto.sql.planner.plan.ExchangeNode.Scope.REMOTE;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static java.lang.Double.isNaN;
+import static java.lang.Math.max;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Estimates cpu, memory and network cost of plan nodes from statistics provided by {@link StatsCalculator}.
+ * <p>
+ * Costs are expressed in bytes and are local to a node, i.e. they do not include cost of node sources.
+ * Network cost is attributed to remote exchanges only. Replicated data is received by every worker node.
+ */
+@ThreadSafe
+public class StatsBasedCostCalculator
+        implements CostCalculator
+{
+    private final StatsCalculator statsCalculator;
+    private final IntSupplier numberOfWorkerNodes;
+
+    @Inject
+    public StatsBasedCostCalculator(StatsCalculator statsCalculator, NodeSchedulerConfig nodeSchedulerConfig, InternalNodeManager nodeManager)
+    {
+        this(statsCalculator, currentNumberOfWorkerNodes(nodeSchedulerConfig.isIncludeCoordinator(), nodeManager));
+    }
+
+    public StatsBasedCostCalculator(StatsCalculator statsCalculator, IntSupplier numberOfWorkerNodes)
+    {
+        this.statsCalculator = requireNonNull(statsCalculator, "statsCalculator is null");
+        this.numberOfWorkerNodes = requireNonNull(numberOfWorkerNodes, "numberOfWorkerNodes is null");
+    }
+
+    public static IntSupplier currentNumberOfWorkerNodes(boolean includeCoordinator, InternalNodeManager nodeManager)
+    {
+        requireNonNull(nodeManager, "nodeManager is null");
+        return () -> {
+            Set<Node> activeNodes = nodeManager.getAllNodes().getActiveNodes();
+            if (!includeCoordinator) {
+                Set<Node> coordinators = nodeManager.getCoordinators();
+                activeNodes = activeNodes.stream()
+                        .filter(node -> !coordinators.contains(node))
+                        .collect(toImmutableSet());
+            }
+            // a plan is costed also before any worker has announced itself
+            return max(activeNodes.size(), 1);
+        };
+    }
+
+    @Override
+    public Map<PlanNodeId, PlanNodeCost> calculateCostForPlan(Session session, Map<Symbol, Type> types, PlanNode planNode)
+    {
+        Map<PlanNodeId, PlanNodeStatsEstimate> stats = statsCalculator.calculateStatsForPlan(session, types, planNode);
+        Visitor visitor = new Visitor(node -> stats.get(node.getId()), numberOfWorkerNodes.getAsInt());
+
+        ImmutableMap.Builder<PlanNodeId, PlanNodeCost> costs = ImmutableMap.builder();
+        for (PlanNode node : searchFrom(planNode).findAll()) {
+            costs.put(node.getId(), node.accept(visitor, null));
+        }
+        return costs.build();
+    }
+
+    @Override
+    public PlanNodeCost calculateCost(PlanNode planNode, Lookup lookup, Session session, Map<Symbol, Type> types)
+    {
+        Visitor visitor = new Visitor(node -> statsCalculator.calculateStats(node, lookup, session, types), numberOfWorkerNodes.getAsInt());
+        return lookup.resolve(planNode).accept(visitor, null);
+    }
+
+    private static class Visitor
+            extends PlanVisitor<PlanNodeCost, Void>
+    {
+        private final Function<PlanNode, PlanNodeStatsEstimate> stats;
+        private final int numberOfWorkerNodes;
+
+        public Visitor(Function<PlanNode, PlanNodeStatsEstimate> stats, int numberOfWorkerNodes)
+        {
+            this.stats = requireNonNull(stats, "stats is null");
+            this.numberOfWorkerNodes = numberOfWorkerNodes;
+        }
+
+        @Override
+        protected PlanNodeCost visitPlan(PlanNode node, Void context)
+        {
+            return outputStatistics(node).build();
+        }
+
+        @Override
+        public PlanNodeCost visitOutput(OutputNode node, Void context)
+        {
+            return cost(node, 0, 0, 0);
+        }
+
+        @Override
+        public PlanNodeCost visitTableScan(TableScanNode node, Void context)
+        {
+            return cost(node, outputSize(node), 0, 0);
+        }
+
+        @Override
+        public PlanNodeCost visitValues(ValuesNode node, Void context)
+        {
+            return cost(node, 0, 0, 0);
+        }
+
+        @Override
+        public PlanNodeCost visitFilter(FilterNode node, Void context)
+        {
+            return cost(node, outputSize(node.getSource()), 0, 0);
+        }
+
+        @Override
+        public PlanNodeCost visitProject(ProjectNode node, Void context)
+        {
+            return cost(node, outputSize(node.getSource()), 0, 0);
+        }
+
+        @Override
+        public PlanNodeCost visitAggregation(AggregationNode node, Void context)
+        {
+            // memory is used by the hash table holding the groups
+            return cost(node, outputSize(node.getSource()), outputSize(node), 0);
+        }
+
+        @Override
+        public PlanNodeCost visitJoin(JoinNode node, Void context)
+        {
+            double buildSize = outputSize(node.getRight());
+            double cpuCost = outputSize(node.getLeft()) + buildSize + outputSize(node);
+            double memoryCost = buildSize;
+            if (node.getDistributionType().isPresent() && node.getDistributionType().get() == JoinNode.DistributionType.REPLICATED) {
+                memoryCost *= numberOfWorkerNodes;
+            }
+            return cost(node, cpuCost, memoryCost, 0);
+        }
+
+        @Override
+        public PlanNodeCost visitSemiJoin(SemiJoinNode node, Void context)
+        {
+            double buildSize = outputSize(node.getFilteringSource());
+            double cpuCost = outputSize(node.getSource()) + buildSize;
+            double memoryCost = buildSize;
+            if (node.getDistributionType().isPresent() && node.getDistributionType().get() == SemiJoinNode.DistributionType.REPLICATED) {
+                memoryCost *= numberOfWorkerNodes;
+            }
+            return cost(node, cpuCost, memoryCost, 0);
+        }
+
+        @Override
+        public PlanNodeCost visitExchange(ExchangeNode node, Void context)
+        {
+            double inputSize = 0;
+            for (PlanNode source : node.getSources()) {
+                inputSize += outputSize(source);
+            }
+            if (node.getScope() != REMOTE) {
+                return cost(node, inputSize, 0, 0);
+            }
+            double networkCost = inputSize;
+            if (node.getType() == ExchangeNode.Type.REPLICATE) {
+                networkCost *= numberOfWorkerNodes;
+            }
+            return cost(node, inputSize, 0, networkCost);
+        }
+
+        @Override
+        public PlanNodeCost visitUnion(UnionNode node, Void context)
+        {
+            return cost(node, 0, 0, 0);
+        }
+
+        @Override
+        public PlanNodeCost visitSort(SortNode node, Void context)
+        {
+            double inputSize = outputSize(node.getSource());
+            return cost(node, inputSize, inputSize, 0);
+        }
+
+        @Override
+        public PlanNodeCost visitTopN(TopNNode node, Void context)
+        {
+            return cost(node, outputSize(node.getSource()), outputSize(node), 0);
+        }
+
+        @Override
+        public PlanNodeCost visitLimit(LimitNode node, Void context)
+        {
+            return cost(node, 0, 0, 0);
+        }
+
+        @Override
+        public PlanNodeCost visitEnforceSingleRow(EnforceSingleRowNode node, Void context)
+        {
+            return cost(node, 0, 0, 0);
+        }
+
+        private PlanNodeCost cost(PlanNode node, double cpuCost, double memoryCost, double networkCost)
+        {
+            return outputStatistics(node)
+                    .setCpuCost(toEstimate(cpuCost))
+                    .setMemoryCost(toEstimate(memoryCost))
+                    .setNetworkCost(toEstimate(networkCost))
+                    .build();
+        }
+
+        private PlanNodeCost.Builder outputStatistics(PlanNode node)
+        {
+            PlanNodeStatsEstimate nodeStats = stats.apply(node);
+            return PlanNodeCost.builder()
+                    .setOutputRowCount(toEstimate(nodeStats.getOutputRowCount()))
+                    .setOutputSizeInBytes(toEstimate(nodeStats.getOutputSizeInBytes(node.getOutputSymbols())));
+        }
+
+        private double outputSize(PlanNode node)
+        {
+            return stats.apply(node).getOutputSizeInBytes(node.getOutputSymbols());
+        }
+    }
+
+    private static Estimate toEstimate(double value)
+    {
+        return isNaN(value) ? Estimate.unknownValue() : new Estimate(value);
+    }
+}
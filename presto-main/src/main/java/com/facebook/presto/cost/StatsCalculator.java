@@ -0,0 +1,54 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.cost;
+
+import com.facebook.presto.Session;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.sql.planner.Symbol;
+import com.facebook.presto.sql.planner.iterative.Lookup;
+import com.facebook.presto.sql.planner.plan.PlanNode;
+import com.facebook.presto.sql.planner.plan.PlanNodeId;
+import com.google.common.collect.ImmutableMap;
+
+import java.util.Map;
+
+import static com.facebook.presto.sql.planner.optimizations.PlanNodeSearcher.searchFrom;
+
+/**
+ * Interface of statistics calculator.
+ * <p>
+ * It's responsibility is to estimate statistics (row count, per symbol distinct values count,
+ * nulls fraction, value range and data size) of the output of a plan node, by propagating
+ * the connector provided table statistics through the plan.
+ */
+public interface StatsCalculator
+{
+    /**
+     * @param lookup used to resolve {@link com.facebook.presto.sql.planner.iterative.GroupReference}
+     * sources when calculating statistics of nodes stored in the iterative optimizer memo
+     */
+    PlanNodeStatsEstimate calculateStats(PlanNode planNode, Lookup lookup, Session session, Map<Symbol, Type> types);
+
+    /**
+     * Calculates statistics of every node of the plan.
+     */
+    default Map<PlanNodeId, PlanNodeStatsEstimate> calculateStatsForPlan(Session session, Map<Symbol, Type> types, PlanNode planNode)
+    {
+        ImmutableMap.Builder<PlanNodeId, PlanNodeStatsEstimate> stats = ImmutableMap.builder();
+        for (PlanNode node : searchFrom(planNode).findAll()) {
+            stats.put(node.getId(), calculateStats(node, Lookup.noLookup(), session, types));
+        }
+        return stats.build();
+    }
+}
@@ -240,6 +240,12 @@ public class DataDefinitionExecution<T extends Statement>
         stateMachine.setResourceGroup(resourceGroupId);
     }
 
+    @Override
+    public void setSchedulingWeight(int schedulingWeight)
+    {
+        // data definition statements do not run tasks on the workers
+    }
+
     public List<Expression> getParameters()
     {
         return parameters;
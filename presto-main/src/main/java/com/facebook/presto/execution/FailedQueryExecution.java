@@ -184,4 +184,10 @@ public class FailedQueryExecution
     {
         throw new UnsupportedOperationException("setResouceGroup is not supported for FailedQueryExecution");
     }
+
+    @Override
+    public void setSchedulingWeight(int schedulingWeight)
+    {
+        throw new UnsupportedOperationException("setSchedulingWeight is not supported for FailedQueryExecution");
+    }
 }
@@ -52,6 +52,8 @@ public interface QueryExecution
 
     void setResourceGroup(ResourceGroupId resourceGroupId);
 
+    void setSchedulingWeight(int schedulingWeight);
+
     Plan getQueryPlan();
 
     VersionedMemoryPoolId getMemoryPool();
@@ -90,11 +90,14 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
 import static com.facebook.presto.OutputBuffers.BROADCAST_PARTITION_ID;
 import static com.facebook.presto.OutputBuffers.createInitialEmptyOutputBuffers;
+import static com.facebook.presto.SystemSessionProperties.MAX_TASK_SCHEDULING_WEIGHT;
+import static com.facebook.presto.SystemSessionProperties.TASK_SCHEDULING_WEIGHT;
 import static com.facebook.presto.spi.StandardErrorCode.NOT_SUPPORTED;
 import static com.facebook.presto.spi.resourceGroups.QueryType.DELETE;
 import static com.facebook.presto.spi.resourceGroups.QueryType.DESCRIBE;
@@ -103,6 +106,7 @@ import static com.facebook.presto.spi.resourceGroups.QueryType.INSERT;
 import static com.facebook.presto.spi.resourceGroups.QueryType.SELECT;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Throwables.throwIfInstanceOf;
+import static java.lang.Math.min;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
@@ -136,6 +140,8 @@ public final class SqlQueryExecution
     private final CostCalculator costCalculator;
     private final AtomicReference<SqlQueryScheduler> queryScheduler = new AtomicReference<>();
     private final AtomicReference<Plan> queryPlan = new AtomicReference<>();
+    // queries that are not run by a resource group get the default weight
+    private final AtomicInteger schedulingWeight = new AtomicInteger(1);
     private final NodeTaskMap nodeTaskMap;
     private final ExecutionPolicy executionPolicy;
     private final List<Expression> parameters;
@@ -441,7 +447,7 @@ public final class SqlQueryExecution
                 nodePartitioningManager,
                 nodeScheduler,
                 remoteTaskFactory,
-                stateMachine.getSession(),
+                createTaskSession(),
                 plan.isSummarizeTaskInfos(),
                 scheduleSplitBatchSize,
                 queryExecutor,
@@ -571,6 +577,20 @@ public final class SqlQueryExecution
         stateMachine.setResourceGroup(resourceGroupId);
     }
 
+    @Override
+    public void setSchedulingWeight(int schedulingWeight)
+    {
+        checkArgument(schedulingWeight > 0, "schedulingWeight must be positive");
+        this.schedulingWeight.set(schedulingWeight);
+    }
+
+    private Session createTaskSession()
+    {
+        // the tasks are weighted by the resource group of the query, and not by a weight set by the user
+        int weight = min(schedulingWeight.get(), MAX_TASK_SCHEDULING_WEIGHT);
+        return stateMachine.getSession().withSystemProperty(TASK_SCHEDULING_WEIGHT, String.valueOf(weight));
+    }
+
     public Plan getQueryPlan()
     {
         return queryPlan.get();
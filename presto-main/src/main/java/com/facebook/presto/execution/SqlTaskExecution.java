@@ -65,7 +65,9 @@ import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 import static com.facebook.presto.SystemSessionProperties.getInitialSplitsPerNode;
+import static com.facebook.presto.SystemSessionProperties.getQueryMaxCoresPerNode;
 import static com.facebook.presto.SystemSessionProperties.getSplitConcurrencyAdjustmentInterval;
+import static com.facebook.presto.SystemSessionProperties.getTaskSchedulingWeight;
 import static com.facebook.presto.execution.SqlTaskExecution.SplitsState.ADDING_SPLITS;
 import static com.facebook.presto.execution.SqlTaskExecution.SplitsState.FINISHED;
 import static com.facebook.presto.execution.SqlTaskExecution.SplitsState.NO_MORE_SPLITS;
@@ -116,6 +118,7 @@ public class SqlTaskExecution
 
     private final TaskHandle taskHandle;
     private final TaskExecutor taskExecutor;
+    private final Set<String> blockingSplitCatalogs;
 
     private final Executor notificationExecutor;
 
@@ -152,6 +155,20 @@ public class SqlTaskExecution
             TaskExecutor taskExecutor,
             Executor notificationExecutor,
             QueryMonitor queryMonitor)
+    {
+        return createSqlTaskExecution(taskStateMachine, taskContext, outputBuffer, sources, localExecutionPlan, taskExecutor, ImmutableSet.of(), notificationExecutor, queryMonitor);
+    }
+
+    static SqlTaskExecution createSqlTaskExecution(
+            TaskStateMachine taskStateMachine,
+            TaskContext taskContext,
+            OutputBuffer outputBuffer,
+            List<TaskSource> sources,
+            LocalExecutionPlan localExecutionPlan,
+            TaskExecutor taskExecutor,
+            Set<String> blockingSplitCatalogs,
+            Executor notificationExecutor,
+            QueryMonitor queryMonitor)
     {
         SqlTaskExecution task = new SqlTaskExecution(
                 taskStateMachine,
@@ -159,6 +176,7 @@ public class SqlTaskExecution
                 outputBuffer,
                 localExecutionPlan,
                 taskExecutor,
+                blockingSplitCatalogs,
                 queryMonitor,
                 notificationExecutor);
         try (SetThreadName ignored = new SetThreadName("Task-%s", task.getTaskId())) {
@@ -176,6 +194,7 @@ public class SqlTaskExecution
             OutputBuffer outputBuffer,
             LocalExecutionPlan localExecutionPlan,
             TaskExecutor taskExecutor,
+            Set<String> blockingSplitCatalogs,
             QueryMonitor queryMonitor,
             Executor notificationExecutor)
     {
@@ -185,6 +204,7 @@ public class SqlTaskExecution
         this.outputBuffer = requireNonNull(outputBuffer, "outputBuffer is null");
 
         this.taskExecutor = requireNonNull(taskExecutor, "driverExecutor is null");
+        this.blockingSplitCatalogs = ImmutableSet.copyOf(requireNonNull(blockingSplitCatalogs, "blockingSplitCatalogs is null"));
         this.notificationExecutor = requireNonNull(notificationExecutor, "notificationExecutor is null");
 
         this.queryMonitor = requireNonNull(queryMonitor, "queryMonitor is null");
@@ -240,7 +260,13 @@ public class SqlTaskExecution
 
             // don't register the task if it is already completed (most likely failed during planning above)
             if (!taskStateMachine.getState().isDone()) {
-                taskHandle = taskExecutor.addTask(taskId, outputBuffer::getUtilization, getInitialSplitsPerNode(taskContext.getSession()), getSplitConcurrencyAdjustmentInterval(taskContext.getSession()));
+                taskHandle = taskExecutor.addTask(
+                        taskId,
+                        outputBuffer::getUtilization,
+                        getInitialSplitsPerNode(taskContext.getSession()),
+                        getSplitConcurrencyAdjustmentInterval(taskContext.getSession()),
+                        getTaskSchedulingWeight(taskContext.getSession()),
+                        getQueryMaxCoresPerNode(taskContext.getSession()));
                 taskStateMachine.addStateChangeListener(state -> {
                     if (state.isDone()) {
                         taskExecutor.removeTask(taskHandle);
@@ -399,11 +425,19 @@ public class SqlTaskExecution
 
                 // Enqueue driver runners with split lifecycle for this plan node and driver life cycle combination.
                 ImmutableList.Builder<DriverSplitRunner> runners = ImmutableList.builder();
+                ImmutableList.Builder<DriverSplitRunner> blockingRunners = ImmutableList.builder();
                 for (ScheduledSplit scheduledSplit : pendingSplits.removeAllSplits()) {
                     // create a new driver for the split
-                    runners.add(partitionedDriverRunnerFactory.createDriverRunner(scheduledSplit, true, lifespan));
+                    DriverSplitRunner runner = partitionedDriverRunnerFactory.createDriverRunner(scheduledSplit, true, lifespan);
+                    if (blockingSplitCatalogs.contains(scheduledSplit.getSplit().getConnectorId().getCatalogName())) {
+                        blockingRunners.add(runner);
+                    }
+                    else {
+                        runners.add(runner);
+                    }
                 }
-                enqueueDriverSplitRunner(false, runners.build());
+                enqueueDriverSplitRunner(false, false, runners.build());
+                enqueueDriverSplitRunner(false, true, blockingRunners.build());
 
                 // If all driver runners have been enqueued for this plan node and driver life cycle combination,
                 // move on to the next plan node.
@@ -456,7 +490,7 @@ public class SqlTaskExecution
                 runners.add(driverRunnerFactory.createDriverRunner(null, false, Lifespan.taskWide()));
             }
         }
-        enqueueDriverSplitRunner(true, runners);
+        enqueueDriverSplitRunner(true, false, runners);
         for (DriverSplitRunnerFactory driverRunnerFactory : driverRunnerFactoriesWithTaskLifeCycle) {
             driverRunnerFactory.noMoreDriverRunner(ImmutableList.of(Lifespan.taskWide()));
             verify(driverRunnerFactory.isNoMoreDriverRunner());
@@ -478,16 +512,26 @@ public class SqlTaskExecution
                 runners.add(driverSplitRunnerFactory.createDriverRunner(null, false, lifespan));
             }
         }
-        enqueueDriverSplitRunner(true, runners);
+        enqueueDriverSplitRunner(true, false, runners);
         for (DriverSplitRunnerFactory driverRunnerFactory : driverRunnerFactoriesWithDriverGroupLifeCycle) {
             driverRunnerFactory.noMoreDriverRunner(ImmutableList.of(lifespan));
         }
     }
 
-    private synchronized void enqueueDriverSplitRunner(boolean forceRunSplit, List<DriverSplitRunner> runners)
+    private synchronized void enqueueDriverSplitRunner(boolean forceRunSplit, boolean blocking, List<DriverSplitRunner> runners)
     {
+        if (runners.isEmpty()) {
+            return;
+        }
+
         // schedule driver to be executed
-        List<ListenableFuture<?>> finishedFutures = taskExecutor.enqueueSplits(taskHandle, forceRunSplit, runners);
+        List<ListenableFuture<?>> finishedFutures;
+        if (blocking) {
+            finishedFutures = taskExecutor.enqueueBlockingSplits(taskHandle, runners);
+        }
+        else {
+            finishedFutures = taskExecutor.enqueueSplits(taskHandle, forceRunSplit, runners);
+        }
         checkState(finishedFutures.size() == runners.size(), "Expected %s futures but got %s", runners.size(), finishedFutures.size());
 
         // when driver completes, update state and fire events
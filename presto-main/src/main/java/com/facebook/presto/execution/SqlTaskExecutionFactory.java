@@ -26,10 +26,12 @@ import com.facebook.presto.sql.planner.LocalExecutionPlanner;
 import com.facebook.presto.sql.planner.LocalExecutionPlanner.LocalExecutionPlan;
 import com.facebook.presto.sql.planner.PlanFragment;
 import com.facebook.presto.sql.planner.plan.PlanNodeId;
+import com.google.common.collect.ImmutableSet;
 import io.airlift.concurrent.SetThreadName;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.Executor;
 
 import static com.facebook.presto.execution.SqlTaskExecution.createSqlTaskExecution;
@@ -51,6 +53,7 @@ public class SqlTaskExecutionFactory
     private final QueryMonitor queryMonitor;
     private final boolean verboseStats;
     private final boolean cpuTimerEnabled;
+    private final Set<String> blockingSplitCatalogs;
 
     public SqlTaskExecutionFactory(
             Executor taskNotificationExecutor,
@@ -66,6 +69,7 @@ public class SqlTaskExecutionFactory
         requireNonNull(config, "config is null");
         this.verboseStats = config.isVerboseStats();
         this.cpuTimerEnabled = config.isTaskCpuTimerEnabled();
+        this.blockingSplitCatalogs = ImmutableSet.copyOf(config.getBlockingSplitCatalogs());
     }
 
     public SqlTaskExecution create(Session session, QueryContext queryContext, TaskStateMachine taskStateMachine, OutputBuffer outputBuffer, PlanFragment fragment, List<TaskSource> sources)
@@ -115,6 +119,7 @@ public class SqlTaskExecutionFactory
                 sources,
                 localExecutionPlan,
                 taskExecutor,
+                blockingSplitCatalogs,
                 taskNotificationExecutor,
                 queryMonitor);
     }
@@ -20,6 +20,7 @@ import com.facebook.presto.TaskSource;
 import com.facebook.presto.event.query.QueryMonitor;
 import com.facebook.presto.execution.StateMachine.StateChangeListener;
 import com.facebook.presto.execution.buffer.BufferResult;
+import com.facebook.presto.execution.buffer.OutputBufferSpool;
 import com.facebook.presto.execution.executor.TaskExecutor;
 import com.facebook.presto.memory.LocalMemoryManager;
 import com.facebook.presto.memory.MemoryPoolAssignment;
@@ -54,6 +55,11 @@ import javax.annotation.concurrent.GuardedBy;
 import javax.inject.Inject;
 
 import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.ExecutorService;
@@ -62,11 +68,13 @@ import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 import static com.facebook.presto.SystemSessionProperties.resourceOvercommit;
+import static com.facebook.presto.execution.buffer.PartitionedOutputBuffer.SPOOL_FILE_GLOB;
 import static com.facebook.presto.spi.StandardErrorCode.ABANDONED_TASK;
 import static com.facebook.presto.spi.StandardErrorCode.SERVER_SHUTTING_DOWN;
 import static com.google.common.base.Predicates.notNull;
 import static com.google.common.collect.Iterables.filter;
 import static com.google.common.collect.Iterables.transform;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.airlift.concurrent.Threads.threadsNamed;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
@@ -81,6 +89,9 @@ public class SqlTaskManager
     private final ExecutorService taskNotificationExecutor;
     private final ThreadPoolExecutorMBean taskNotificationExecutorMBean;
 
+    // present when partitioned output pages that do not fit in the output buffer are spooled to local disk
+    private final Optional<OutputBufferSpool> outputBufferSpool;
+
     private final ScheduledExecutorService taskManagementExecutor;
     private final ScheduledExecutorService driverYieldExecutor;
 
@@ -119,6 +130,13 @@ public class SqlTaskManager
         clientTimeout = config.getClientTimeout();
 
         DataSize maxBufferSize = config.getSinkMaxBufferSize();
+        Optional<Path> spoolPath = Optional.ofNullable(config.getSinkSpoolPath());
+        spoolPath.ifPresent(SqlTaskManager::createSpoolDirectory);
+        outputBufferSpool = spoolPath.map(path -> new OutputBufferSpool(
+                path,
+                config.getSinkMaxSpoolSizePerNode(),
+                newFixedThreadPool(config.getSinkSpoolThreads(), daemonThreadsNamed("output-spool-%s"))));
+        DataSize maxSpoolSize = config.getSinkMaxSpoolSize();
 
         taskNotificationExecutor = newFixedThreadPool(config.getTaskNotificationThreads(), threadsNamed("task-notification-%s"));
         taskNotificationExecutorMBean = new ThreadPoolExecutorMBean((ThreadPoolExecutor) taskNotificationExecutor);
@@ -156,7 +174,30 @@ public class SqlTaskManager
                             finishedTaskStats.merge(sqlTask.getIoStats());
                             return null;
                         },
-                        maxBufferSize)));
+                        maxBufferSize,
+                        outputBufferSpool,
+                        maxSpoolSize)));
+    }
+
+    private static void createSpoolDirectory(Path spoolPath)
+    {
+        try {
+            Files.createDirectories(spoolPath);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(format("could not create spool path %s; adjust sink.spool-path config property or filesystem permissions", spoolPath), e);
+        }
+
+        // spool files left behind by a previous process are never read again
+        try (DirectoryStream<Path> spoolFiles = Files.newDirectoryStream(spoolPath, SPOOL_FILE_GLOB)) {
+            for (Path spoolFile : spoolFiles) {
+                log.info("Deleting stale output spool file %s", spoolFile);
+                Files.deleteIfExists(spoolFile);
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(format("could not delete stale spool files in %s", spoolPath), e);
+        }
     }
 
     @Override
@@ -225,6 +266,7 @@ public class SqlTaskManager
             }
         }
         taskNotificationExecutor.shutdownNow();
+        outputBufferSpool.ifPresent(OutputBufferSpool::close);
     }
 
     @Managed
@@ -234,6 +276,12 @@ public class SqlTaskManager
         return cachedStats;
     }
 
+    @Managed(description = "Bytes of partitioned output spooled to local disk")
+    public long getOutputSpoolBytes()
+    {
+        return outputBufferSpool.map(spool -> spool.getSpoolSpaceTracker().getCurrentBytes()).orElse(0L);
+    }
+
     @Managed(description = "Task notification executor")
     @Nested
     public ThreadPoolExecutorMBean getTaskNotificationExecutor()
@@ -14,6 +14,8 @@
 package com.facebook.presto.execution;
 
 import com.facebook.presto.util.PowerOfTwo;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableSet;
 import io.airlift.configuration.Config;
 import io.airlift.configuration.ConfigDescription;
 import io.airlift.configuration.DefunctConfig;
@@ -24,10 +26,14 @@ import io.airlift.units.Duration;
 import io.airlift.units.MaxDuration;
 import io.airlift.units.MinDuration;
 
+import javax.annotation.Nullable;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 
 import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 @DefunctConfig({
@@ -45,11 +51,17 @@ public class TaskManagerConfig
     private DataSize maxIndexMemoryUsage = new DataSize(64, Unit.MEGABYTE);
     private boolean shareIndexLoading;
     private int maxWorkerThreads = Runtime.getRuntime().availableProcessors() * 2;
+    private int maxBlockingThreads = 100;
+    private Set<String> blockingSplitCatalogs = ImmutableSet.of();
     private Integer minDrivers;
     private Integer initialSplitsPerNode;
     private Duration splitConcurrencyAdjustmentInterval = new Duration(100, TimeUnit.MILLISECONDS);
 
     private DataSize sinkMaxBufferSize = new DataSize(32, Unit.MEGABYTE);
+    private Path sinkSpoolPath;
+    private DataSize sinkMaxSpoolSize = new DataSize(1, Unit.GIGABYTE);
+    private DataSize sinkMaxSpoolSizePerNode = new DataSize(100, Unit.GIGABYTE);
+    private int sinkSpoolThreads = 4;
     private DataSize maxPagePartitioningBufferSize = new DataSize(32, Unit.MEGABYTE);
 
     private Duration clientTimeout = new Duration(2, TimeUnit.MINUTES);
@@ -208,6 +220,34 @@ public class TaskManagerConfig
         return this;
     }
 
+    @Min(1)
+    public int getMaxBlockingThreads()
+    {
+        return maxBlockingThreads;
+    }
+
+    @Config("task.max-blocking-threads")
+    @ConfigDescription("Maximum number of threads running splits of catalogs listed in task.blocking-split-catalogs")
+    public TaskManagerConfig setMaxBlockingThreads(int maxBlockingThreads)
+    {
+        this.maxBlockingThreads = maxBlockingThreads;
+        return this;
+    }
+
+    @NotNull
+    public Set<String> getBlockingSplitCatalogs()
+    {
+        return blockingSplitCatalogs;
+    }
+
+    @Config("task.blocking-split-catalogs")
+    @ConfigDescription("Catalogs whose splits block while reading and are run outside of the worker threads")
+    public TaskManagerConfig setBlockingSplitCatalogs(String blockingSplitCatalogs)
+    {
+        this.blockingSplitCatalogs = ImmutableSet.copyOf(Splitter.on(',').trimResults().omitEmptyStrings().split(blockingSplitCatalogs));
+        return this;
+    }
+
     @Min(1)
     public int getInitialSplitsPerNode()
     {
@@ -266,6 +306,62 @@ public class TaskManagerConfig
         return this;
     }
 
+    @Nullable
+    public Path getSinkSpoolPath()
+    {
+        return sinkSpoolPath;
+    }
+
+    @Config("sink.spool-path")
+    @ConfigDescription("Directory for partitioned output pages that do not fit in the output buffer; pages are not spooled when unset")
+    public TaskManagerConfig setSinkSpoolPath(String sinkSpoolPath)
+    {
+        this.sinkSpoolPath = sinkSpoolPath == null ? null : Paths.get(sinkSpoolPath);
+        return this;
+    }
+
+    @NotNull
+    public DataSize getSinkMaxSpoolSize()
+    {
+        return sinkMaxSpoolSize;
+    }
+
+    @Config("sink.max-spool-size")
+    @ConfigDescription("Maximum size of spooled output pages per task that have not been read; writers are blocked above this size")
+    public TaskManagerConfig setSinkMaxSpoolSize(DataSize sinkMaxSpoolSize)
+    {
+        this.sinkMaxSpoolSize = sinkMaxSpoolSize;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getSinkMaxSpoolSizePerNode()
+    {
+        return sinkMaxSpoolSizePerNode;
+    }
+
+    @Config("sink.max-spool-size-per-node")
+    @ConfigDescription("Maximum disk space of the spooled output pages of all tasks on a node; pages are held in memory above this size")
+    public TaskManagerConfig setSinkMaxSpoolSizePerNode(DataSize sinkMaxSpoolSizePerNode)
+    {
+        this.sinkMaxSpoolSizePerNode = sinkMaxSpoolSizePerNode;
+        return this;
+    }
+
+    @Min(1)
+    public int getSinkSpoolThreads()
+    {
+        return sinkSpoolThreads;
+    }
+
+    @Config("sink.spool-threads")
+    @ConfigDescription("Number of threads reading and writing spooled output pages")
+    public TaskManagerConfig setSinkSpoolThreads(int sinkSpoolThreads)
+    {
+        this.sinkSpoolThreads = sinkSpoolThreads;
+        return this;
+    }
+
     @NotNull
     public DataSize getMaxPagePartitioningBufferSize()
     {
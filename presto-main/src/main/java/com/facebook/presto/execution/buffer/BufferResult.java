@@ -34,16 +34,24 @@ public class BufferResult
     private final long token;
     private final long nextToken;
     private final boolean bufferComplete;
+    private final boolean noMorePages;
     private final List<SerializedPage> serializedPages;
 
     public BufferResult(String taskInstanceId, long token, long nextToken, boolean bufferComplete, List<SerializedPage> serializedPages)
+    {
+        this(taskInstanceId, token, nextToken, bufferComplete, bufferComplete, serializedPages);
+    }
+
+    public BufferResult(String taskInstanceId, long token, long nextToken, boolean bufferComplete, boolean noMorePages, List<SerializedPage> serializedPages)
     {
         checkArgument(!isNullOrEmpty(taskInstanceId), "taskInstanceId is null");
+        checkArgument(!bufferComplete || noMorePages, "complete buffer must not have more pages");
 
         this.taskInstanceId = taskInstanceId;
         this.token = token;
         this.nextToken = nextToken;
         this.bufferComplete = bufferComplete;
+        this.noMorePages = noMorePages;
         this.serializedPages = ImmutableList.copyOf(requireNonNull(serializedPages, "serializedPages is null"));
     }
 
@@ -62,6 +70,16 @@ public class BufferResult
         return bufferComplete;
     }
 
+    /**
+     * Returns true if the buffer will not produce any pages after the pages in this result.
+     * The client can finish the buffer as soon as these pages are received, without
+     * requesting the empty completion result.
+     */
+    public boolean isNoMorePages()
+    {
+        return noMorePages;
+    }
+
     public List<SerializedPage> getSerializedPages()
     {
         return serializedPages;
@@ -96,13 +114,14 @@ public class BufferResult
                 Objects.equals(nextToken, that.nextToken) &&
                 Objects.equals(taskInstanceId, that.taskInstanceId) &&
                 Objects.equals(bufferComplete, that.bufferComplete) &&
+                Objects.equals(noMorePages, that.noMorePages) &&
                 Objects.equals(serializedPages, that.serializedPages);
     }
 
     @Override
     public int hashCode()
     {
-        return Objects.hash(token, nextToken, taskInstanceId, bufferComplete, serializedPages);
+        return Objects.hash(token, nextToken, taskInstanceId, bufferComplete, noMorePages, serializedPages);
     }
 
     @Override
@@ -113,6 +132,7 @@ public class BufferResult
                 .add("nextToken", nextToken)
                 .add("taskInstanceId", taskInstanceId)
                 .add("bufferComplete", bufferComplete)
+                .add("noMorePages", noMorePages)
                 .add("serializedPages", serializedPages)
                 .toString();
     }
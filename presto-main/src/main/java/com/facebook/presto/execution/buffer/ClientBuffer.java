@@ -363,7 +363,11 @@ class ClientBuffer
             }
             result.add(page.getSerializedPage());
         }
-        return new BufferResult(taskInstanceId, sequenceId, sequenceId + result.size(), false, result);
+
+        // if these are the last pages of a finished buffer, tell the client so it
+        // can destroy the buffer without another round trip for an empty result
+        boolean lastPages = noMorePages && result.size() == pages.size();
+        return new BufferResult(taskInstanceId, sequenceId, sequenceId + result.size(), false, lastPages, result);
     }
 
     /**
@@ -30,6 +30,7 @@ import javax.annotation.concurrent.GuardedBy;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.Executor;
 
@@ -49,6 +50,8 @@ public class LazyOutputBuffer
     private final StateMachine<BufferState> state;
     private final String taskInstanceId;
     private final DataSize maxBufferSize;
+    private final Optional<OutputBufferSpool> spool;
+    private final DataSize maxSpoolSize;
     private final SystemMemoryUsageListener systemMemoryUsageListener;
     private final Executor executor;
 
@@ -66,6 +69,8 @@ public class LazyOutputBuffer
             String taskInstanceId,
             Executor executor,
             DataSize maxBufferSize,
+            Optional<OutputBufferSpool> spool,
+            DataSize maxSpoolSize,
             SystemMemoryUsageListener systemMemoryUsageListener)
     {
         requireNonNull(taskId, "taskId is null");
@@ -74,6 +79,8 @@ public class LazyOutputBuffer
         state = new StateMachine<>(taskId + "-buffer", executor, OPEN, TERMINAL_BUFFER_STATES);
         this.maxBufferSize = requireNonNull(maxBufferSize, "maxBufferSize is null");
         checkArgument(maxBufferSize.toBytes() > 0, "maxBufferSize must be at least 1");
+        this.spool = requireNonNull(spool, "spool is null");
+        this.maxSpoolSize = requireNonNull(maxSpoolSize, "maxSpoolSize is null");
         this.systemMemoryUsageListener = requireNonNull(systemMemoryUsageListener, "systemMemoryUsageListener is null");
     }
 
@@ -158,7 +165,7 @@ public class LazyOutputBuffer
                 }
                 switch (newOutputBuffers.getType()) {
                     case PARTITIONED:
-                        delegate = new PartitionedOutputBuffer(taskInstanceId, state, newOutputBuffers, maxBufferSize, systemMemoryUsageListener, executor);
+                        delegate = new PartitionedOutputBuffer(taskInstanceId, state, newOutputBuffers, maxBufferSize, spool, maxSpoolSize, systemMemoryUsageListener, executor);
                         break;
                     case BROADCAST:
                         delegate = new BroadcastOutputBuffer(taskInstanceId, state, maxBufferSize, systemMemoryUsageListener, executor);
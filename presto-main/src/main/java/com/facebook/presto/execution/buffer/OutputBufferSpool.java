@@ -0,0 +1,88 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution.buffer;
+
+import com.facebook.presto.ExceededSpillLimitException;
+import com.facebook.presto.spiller.SpillSpaceTracker;
+import io.airlift.units.DataSize;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.io.Closeable;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Spool directory, disk space limit and I/O threads shared by the partitioned output buffers of all tasks on a node.
+ */
+@ThreadSafe
+public class OutputBufferSpool
+        implements Closeable
+{
+    private final Path spoolPath;
+    private final SpillSpaceTracker spoolSpaceTracker;
+    private final ExecutorService executor;
+
+    public OutputBufferSpool(Path spoolPath, DataSize maxSpoolSize, ExecutorService executor)
+    {
+        this.spoolPath = requireNonNull(spoolPath, "spoolPath is null");
+        this.spoolSpaceTracker = new SpillSpaceTracker(requireNonNull(maxSpoolSize, "maxSpoolSize is null"));
+        this.executor = requireNonNull(executor, "executor is null");
+    }
+
+    public Path getSpoolPath()
+    {
+        return spoolPath;
+    }
+
+    /**
+     * Executor for all spool file reads and writes, so that disk I/O never runs on driver or HTTP threads.
+     */
+    public ExecutorService getExecutor()
+    {
+        return executor;
+    }
+
+    public SpillSpaceTracker getSpoolSpaceTracker()
+    {
+        return spoolSpaceTracker;
+    }
+
+    /**
+     * @return false if the spool of this node is full
+     */
+    public boolean tryReserve(long bytes)
+    {
+        try {
+            spoolSpaceTracker.reserve(bytes);
+            return true;
+        }
+        catch (ExceededSpillLimitException e) {
+            return false;
+        }
+    }
+
+    public void free(long bytes)
+    {
+        spoolSpaceTracker.free(bytes);
+    }
+
+    @Override
+    public void close()
+    {
+        executor.shutdownNow();
+    }
+}
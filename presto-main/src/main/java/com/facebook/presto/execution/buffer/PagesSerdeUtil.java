@@ -15,7 +15,14 @@ package com.facebook.presto.execution.buffer;
 
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockEncoding;
 import com.facebook.presto.spi.block.BlockEncodingSerde;
+import com.facebook.presto.spi.block.DictionaryBlockEncoding;
+import com.facebook.presto.spi.block.IntArrayBlockEncoding;
+import com.facebook.presto.spi.block.LongArrayBlockEncoding;
+import com.facebook.presto.spi.block.PackedDictionaryBlockEncoding;
+import com.facebook.presto.spi.block.PackedIntArrayBlockEncoding;
+import com.facebook.presto.spi.block.PackedLongArrayBlockEncoding;
 import com.google.common.collect.AbstractIterator;
 import io.airlift.slice.Slice;
 import io.airlift.slice.SliceInput;
@@ -37,12 +44,38 @@ public class PagesSerdeUtil
     }
 
     static void writeRawPage(Page page, SliceOutput output, BlockEncodingSerde serde)
+    {
+        writeRawPage(page, output, serde, false);
+    }
+
+    static void writeRawPage(Page page, SliceOutput output, BlockEncodingSerde serde, boolean packValues)
     {
         Block[] blocks = page.getBlocks();
         output.writeInt(blocks.length);
         for (Block block : blocks) {
-            writeBlock(serde, output, block);
+            if (packValues) {
+                BlockEncoding encoding = packedEncoding(block.getEncoding());
+                serde.writeBlockEncoding(output, encoding);
+                encoding.writeBlock(output, block);
+            }
+            else {
+                writeBlock(serde, output, block);
+            }
+        }
+    }
+
+    private static BlockEncoding packedEncoding(BlockEncoding encoding)
+    {
+        if (encoding instanceof LongArrayBlockEncoding) {
+            return new PackedLongArrayBlockEncoding();
+        }
+        if (encoding instanceof IntArrayBlockEncoding) {
+            return new PackedIntArrayBlockEncoding();
+        }
+        if (encoding instanceof DictionaryBlockEncoding) {
+            return new PackedDictionaryBlockEncoding(packedEncoding(((DictionaryBlockEncoding) encoding).getDictionaryEncoding()));
         }
+        return encoding;
     }
 
     static Page readRawPage(int positionCount, SliceInput input, BlockEncodingSerde blockEncodingSerde)
@@ -65,7 +98,7 @@ public class PagesSerdeUtil
         output.writeBytes(page.getSlice());
     }
 
-    private static SerializedPage readSerializedPage(SliceInput sliceInput)
+    static SerializedPage readSerializedPage(SliceInput sliceInput)
     {
         int positionCount = sliceInput.readInt();
         byte codecMarker = sliceInput.readByte();
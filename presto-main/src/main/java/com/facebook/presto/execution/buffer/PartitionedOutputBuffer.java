@@ -23,6 +23,7 @@ import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.units.DataSize;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -36,17 +37,29 @@ import static com.facebook.presto.execution.buffer.BufferState.OPEN;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.util.concurrent.Futures.allAsList;
 import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static io.airlift.units.DataSize.Unit.BYTE;
 import static java.util.Objects.requireNonNull;
 
 public class PartitionedOutputBuffer
         implements OutputBuffer
 {
+    public static final String SPOOL_FILE_GLOB = SpoolFile.SPOOL_FILE_PREFIX + "*" + SpoolFile.SPOOL_FILE_SUFFIX;
+
     private final StateMachine<BufferState> state;
     private final OutputBuffers outputBuffers;
     private final OutputBufferMemoryManager memoryManager;
 
     private final List<ClientBuffer> partitions;
+    // present when pages that do not fit in memory are spooled to local disk
+    private final Optional<List<SpoolingPagesSupplier>> spoolingPartitions;
+    // shared by all partitions, so a task holds at most one open spool file
+    private final Optional<SpoolFile> spoolFile;
+    // tracks the spooled bytes that have not been read, so writers are blocked once the spool is full
+    private final Optional<OutputBufferMemoryManager> spoolMemoryManager;
+    // tracks the spooled bytes that are not written yet, so writers are blocked when the disk falls behind
+    private final Optional<OutputBufferMemoryManager> pendingWriteMemoryManager;
 
     private final AtomicLong totalPagesAdded = new AtomicLong();
     private final AtomicLong totalRowsAdded = new AtomicLong();
@@ -58,6 +71,19 @@ public class PartitionedOutputBuffer
             DataSize maxBufferSize,
             SystemMemoryUsageListener systemMemoryUsageListener,
             Executor notificationExecutor)
+    {
+        this(taskInstanceId, state, outputBuffers, maxBufferSize, Optional.empty(), new DataSize(0, BYTE), systemMemoryUsageListener, notificationExecutor);
+    }
+
+    public PartitionedOutputBuffer(
+            String taskInstanceId,
+            StateMachine<BufferState> state,
+            OutputBuffers outputBuffers,
+            DataSize maxBufferSize,
+            Optional<OutputBufferSpool> spool,
+            DataSize maxSpoolSize,
+            SystemMemoryUsageListener systemMemoryUsageListener,
+            Executor notificationExecutor)
     {
         this.state = requireNonNull(state, "state is null");
 
@@ -78,6 +104,23 @@ public class PartitionedOutputBuffer
         }
         this.partitions = partitions.build();
 
+        requireNonNull(spool, "spool is null");
+        requireNonNull(maxSpoolSize, "maxSpoolSize is null");
+        this.spoolFile = spool.map(SpoolFile::new);
+        // spooled pages are on disk, so they are not reported as system memory
+        this.spoolMemoryManager = spool.map(ignored -> new OutputBufferMemoryManager(maxSpoolSize.toBytes(), bytes -> {}, notificationExecutor));
+        // pages waiting to be written are already reported by the memory manager
+        this.pendingWriteMemoryManager = spool.map(ignored -> new OutputBufferMemoryManager(maxBufferSize.toBytes(), bytes -> {}, notificationExecutor));
+        this.spoolingPartitions = spool.map(outputBufferSpool -> this.partitions.stream()
+                .map(partition -> new SpoolingPagesSupplier(
+                        partition,
+                        spoolFile.get(),
+                        outputBufferSpool.getExecutor(),
+                        memoryManager,
+                        spoolMemoryManager.get(),
+                        pendingWriteMemoryManager.get()))
+                .collect(toImmutableList()));
+
         state.compareAndSet(OPEN, NO_MORE_BUFFERS);
         state.compareAndSet(NO_MORE_PAGES, FLUSHING);
         checkFlushComplete();
@@ -172,15 +215,27 @@ public class PartitionedOutputBuffer
             return immediateFuture(true);
         }
 
-        // reserve memory
-        long bytesAdded = pages.stream().mapToLong(SerializedPage::getRetainedSizeInBytes).sum();
-        memoryManager.updateMemoryUsage(bytesAdded);
-
         // update stats
         long rowCount = pages.stream().mapToLong(SerializedPage::getPositionCount).sum();
         totalRowsAdded.addAndGet(rowCount);
         totalPagesAdded.addAndGet(pages.size());
 
+        if (spoolingPartitions.isPresent()) {
+            SpoolingPagesSupplier spoolingPartition = spoolingPartitions.get().get(partitionNumber);
+            boolean spooled = spoolingPartition.addPages(pages);
+            partitions.get(partitionNumber).loadPagesIfNecessary(spoolingPartition);
+
+            // pages that do not fit in memory go to disk, so the writer only waits when the spool is full or the disk falls behind
+            if (spooled) {
+                return allAsList(spoolMemoryManager.get().getNotFullFuture(), pendingWriteMemoryManager.get().getNotFullFuture());
+            }
+            return memoryManager.getNotFullFuture();
+        }
+
+        // reserve memory
+        long bytesAdded = pages.stream().mapToLong(SerializedPage::getRetainedSizeInBytes).sum();
+        memoryManager.updateMemoryUsage(bytesAdded);
+
         // create page reference counts with an initial single reference
         List<SerializedPageReference> serializedPageReferences = pages.stream()
                 .map(bufferedPage -> new SerializedPageReference(bufferedPage, 1, () -> memoryManager.updateMemoryUsage(-bufferedPage.getRetainedSizeInBytes())))
@@ -201,7 +256,17 @@ public class PartitionedOutputBuffer
         requireNonNull(outputBufferId, "outputBufferId is null");
         checkArgument(maxSize.toBytes() > 0, "maxSize must be at least 1 byte");
 
-        return partitions.get(outputBufferId.getId()).getPages(startingSequenceId, maxSize);
+        int partition = outputBufferId.getId();
+        if (!spoolingPartitions.isPresent()) {
+            return partitions.get(partition).getPages(startingSequenceId, maxSize);
+        }
+
+        // spooled pages are loaded in the background, and the client buffer is notified once they are in memory
+        SpoolingPagesSupplier spoolingPartition = spoolingPartitions.get().get(partition);
+        spoolingPartition.loadSpooledPages(maxSize);
+        ListenableFuture<BufferResult> result = partitions.get(partition).getPages(startingSequenceId, maxSize, Optional.of(spoolingPartition));
+        spoolingPartition.loadSpooledPages(maxSize);
+        return result;
     }
 
     @Override
@@ -210,6 +275,7 @@ public class PartitionedOutputBuffer
         requireNonNull(bufferId, "bufferId is null");
 
         partitions.get(bufferId.getId()).destroy();
+        spoolingPartitions.ifPresent(suppliers -> suppliers.get(bufferId.getId()).destroy());
 
         checkFlushComplete();
     }
@@ -220,8 +286,19 @@ public class PartitionedOutputBuffer
         state.compareAndSet(OPEN, NO_MORE_PAGES);
         state.compareAndSet(NO_MORE_BUFFERS, FLUSHING);
         memoryManager.setNoBlockOnFull();
-
-        partitions.forEach(ClientBuffer::setNoMorePages);
+        spoolMemoryManager.ifPresent(OutputBufferMemoryManager::setNoBlockOnFull);
+        pendingWriteMemoryManager.ifPresent(OutputBufferMemoryManager::setNoBlockOnFull);
+
+        if (spoolingPartitions.isPresent()) {
+            List<SpoolingPagesSupplier> suppliers = spoolingPartitions.get();
+            for (int partition = 0; partition < partitions.size(); partition++) {
+                suppliers.get(partition).setNoMorePages();
+                partitions.get(partition).loadPagesIfNecessary(suppliers.get(partition));
+            }
+        }
+        else {
+            partitions.forEach(ClientBuffer::setNoMorePages);
+        }
 
         checkFlushComplete();
     }
@@ -232,7 +309,11 @@ public class PartitionedOutputBuffer
         // ignore destroy if the buffer already in a terminal state.
         if (state.setIf(FINISHED, oldState -> !oldState.isTerminal())) {
             partitions.forEach(ClientBuffer::destroy);
+            spoolingPartitions.ifPresent(suppliers -> suppliers.forEach(SpoolingPagesSupplier::destroy));
+            spoolFile.ifPresent(SpoolFile::close);
             memoryManager.setNoBlockOnFull();
+            spoolMemoryManager.ifPresent(OutputBufferMemoryManager::setNoBlockOnFull);
+            pendingWriteMemoryManager.ifPresent(OutputBufferMemoryManager::setNoBlockOnFull);
         }
     }
 
@@ -242,6 +323,8 @@ public class PartitionedOutputBuffer
         // ignore fail if the buffer already in a terminal state.
         if (state.setIf(FAILED, oldState -> !oldState.isTerminal())) {
             memoryManager.setNoBlockOnFull();
+            spoolMemoryManager.ifPresent(OutputBufferMemoryManager::setNoBlockOnFull);
+            pendingWriteMemoryManager.ifPresent(OutputBufferMemoryManager::setNoBlockOnFull);
             // DO NOT destroy buffers or set no more pages.  The coordinator manages the teardown of failed queries.
         }
     }
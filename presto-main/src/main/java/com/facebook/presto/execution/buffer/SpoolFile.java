@@ -0,0 +1,256 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution.buffer;
+
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.OutputStreamSliceOutput;
+import io.airlift.slice.SliceInput;
+import io.airlift.slice.SliceOutput;
+import io.airlift.slice.Slices;
+import io.airlift.units.DataSize;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static com.facebook.presto.execution.buffer.PagesSerdeUtil.readSerializedPage;
+import static com.facebook.presto.execution.buffer.PagesSerdeUtil.writeSerializedPages;
+import static com.google.common.base.Preconditions.checkState;
+import static java.lang.Math.toIntExact;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Append only file of serialized pages shared by all partitions of an output buffer. Each batch of
+ * spooled pages is a segment that is read back with a positional read. The file is created on the
+ * first write and deleted, together with its disk space reservation, once no segment is live.
+ */
+@ThreadSafe
+class SpoolFile
+        implements Closeable
+{
+    static final String SPOOL_FILE_PREFIX = "output-spool";
+    static final String SPOOL_FILE_SUFFIX = ".bin";
+
+    // position count, compression marker, uncompressed size and size of each page
+    private static final int PAGE_HEADER_SIZE = Integer.BYTES + Byte.BYTES + Integer.BYTES + Integer.BYTES;
+    private static final int BUFFER_SIZE = toIntExact(new DataSize(64, DataSize.Unit.KILOBYTE).toBytes());
+
+    private final OutputBufferSpool spool;
+
+    @GuardedBy("this")
+    private Path path;
+    @GuardedBy("this")
+    private FileChannel channel;
+    @GuardedBy("this")
+    private SliceOutput output;
+    @GuardedBy("this")
+    private long fileSize;
+
+    @GuardedBy("this")
+    private long reservedBytes;
+    @GuardedBy("this")
+    private int liveSegments;
+    @GuardedBy("this")
+    private boolean closed;
+    // the end of the file is unknown after a failed write, so nothing more is written
+    @GuardedBy("this")
+    private boolean writeFailed;
+
+    public SpoolFile(OutputBufferSpool spool)
+    {
+        this.spool = requireNonNull(spool, "spool is null");
+    }
+
+    /**
+     * Reserves disk space for the pages.
+     *
+     * @return empty if the spool of the node is full or the file is closed
+     */
+    public synchronized Optional<Segment> reserve(List<SerializedPage> pages)
+    {
+        long length = pages.stream().mapToLong(page -> PAGE_HEADER_SIZE + page.getSizeInBytes()).sum();
+        if (closed || writeFailed || !spool.tryReserve(length)) {
+            return Optional.empty();
+        }
+        reservedBytes += length;
+        liveSegments++;
+        return Optional.of(new Segment(pages.size(), length));
+    }
+
+    /**
+     * @return false if the segment was released before it was written
+     */
+    public synchronized boolean write(Segment segment, List<SerializedPage> pages)
+            throws IOException
+    {
+        checkState(segment.getPageCount() == pages.size(), "segment does not match the pages");
+        if (closed || writeFailed || segment.isReleased()) {
+            return false;
+        }
+        try {
+            if (path == null) {
+                path = Files.createTempFile(spool.getSpoolPath(), SPOOL_FILE_PREFIX, SPOOL_FILE_SUFFIX);
+                channel = FileChannel.open(path, READ, WRITE);
+                output = new OutputStreamSliceOutput(Channels.newOutputStream(channel), BUFFER_SIZE);
+            }
+            writeSerializedPages(output, pages);
+            output.flush();
+        }
+        catch (IOException | RuntimeException e) {
+            writeFailed = true;
+            throw e;
+        }
+        segment.setOffset(fileSize);
+        fileSize += segment.getLength();
+        return true;
+    }
+
+    /**
+     * Reads the pages of a written segment.
+     */
+    public List<SerializedPage> read(Segment segment)
+            throws IOException
+    {
+        FileChannel channel;
+        long offset;
+        synchronized (this) {
+            checkState(!closed && !segment.isReleased(), "segment is released");
+            checkState(segment.getOffset() >= 0, "segment is not written");
+            channel = this.channel;
+            offset = segment.getOffset();
+        }
+
+        // positional reads do not change the position of the channel, so they do not need the lock
+        ByteBuffer buffer = ByteBuffer.allocate(toIntExact(segment.getLength()));
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of output spool file");
+            }
+        }
+
+        SliceInput input = Slices.wrappedBuffer(buffer.array()).getInput();
+        ImmutableList.Builder<SerializedPage> pages = ImmutableList.builder();
+        for (int i = 0; i < segment.getPageCount(); i++) {
+            SerializedPage page = readSerializedPage(input);
+            if (segment.getPageCount() > 1) {
+                // do not retain the buffer of the whole segment with each page
+                page = new SerializedPage(Slices.copyOf(page.getSlice()), page.getCompression(), page.getPositionCount(), page.getUncompressedSizeInBytes());
+            }
+            pages.add(page);
+        }
+        return pages.build();
+    }
+
+    public synchronized void release(Segment segment)
+    {
+        if (segment.isReleased()) {
+            return;
+        }
+        segment.setReleased();
+        liveSegments--;
+        if (liveSegments == 0) {
+            deleteFile();
+        }
+    }
+
+    @Override
+    public synchronized void close()
+    {
+        closed = true;
+        deleteFile();
+    }
+
+    @GuardedBy("this")
+    private void deleteFile()
+    {
+        spool.free(reservedBytes);
+        reservedBytes = 0;
+        if (path == null) {
+            return;
+        }
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+            Files.deleteIfExists(path);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Failed to delete output spool file " + path, e);
+        }
+        finally {
+            channel = null;
+            output = null;
+            path = null;
+            fileSize = 0;
+        }
+    }
+
+    static class Segment
+    {
+        private final int pageCount;
+        private final long length;
+
+        // guarded by the spool file
+        private long offset = -1;
+        private boolean released;
+
+        private Segment(int pageCount, long length)
+        {
+            this.pageCount = pageCount;
+            this.length = length;
+        }
+
+        public int getPageCount()
+        {
+            return pageCount;
+        }
+
+        public long getLength()
+        {
+            return length;
+        }
+
+        private long getOffset()
+        {
+            return offset;
+        }
+
+        private void setOffset(long offset)
+        {
+            this.offset = offset;
+        }
+
+        private boolean isReleased()
+        {
+            return released;
+        }
+
+        private void setReleased()
+        {
+            released = true;
+        }
+    }
+}
@@ -0,0 +1,398 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution.buffer;
+
+import com.facebook.presto.execution.buffer.ClientBuffer.PagesSupplier;
+import com.facebook.presto.execution.buffer.SpoolFile.Segment;
+import com.facebook.presto.spi.PrestoException;
+import com.google.common.collect.ImmutableList;
+import io.airlift.log.Logger;
+import io.airlift.units.DataSize;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.facebook.presto.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Pages of a single partition of an output buffer. While the output buffer is full,
+ * new pages are spooled to the spool file of the output buffer instead of being held
+ * in memory, and they are loaded back ahead of the client once the pages held in memory
+ * are drained. Spool file reads and writes run on the spool executor, never while
+ * holding a lock. The size of the spooled pages that have not been read is tracked by
+ * a separate memory manager, which blocks the writers once the spool is full.
+ */
+@ThreadSafe
+class SpoolingPagesSupplier
+        implements PagesSupplier
+{
+    private static final Logger log = Logger.get(SpoolingPagesSupplier.class);
+
+    private final ClientBuffer clientBuffer;
+    private final SpoolFile spoolFile;
+    private final Executor spoolExecutor;
+    private final OutputBufferMemoryManager memoryManager;
+    private final OutputBufferMemoryManager spoolMemoryManager;
+    private final OutputBufferMemoryManager pendingWriteMemoryManager;
+
+    @GuardedBy("this")
+    private final LinkedList<SerializedPageReference> pages = new LinkedList<>();
+
+    // all spooled batches follow the pages held in memory
+    @GuardedBy("this")
+    private final LinkedList<SpooledBatch> spooledBatches = new LinkedList<>();
+
+    @GuardedBy("this")
+    private boolean noMorePages;
+
+    @GuardedBy("this")
+    private boolean destroyed;
+
+    @GuardedBy("this")
+    private Throwable readFailure;
+
+    private final AtomicLong spooledPages = new AtomicLong();
+    private final AtomicLong spooledBytes = new AtomicLong();
+
+    /**
+     * @param pendingWriteMemoryManager tracks the spooled pages that are held in memory until they are written
+     */
+    public SpoolingPagesSupplier(
+            ClientBuffer clientBuffer,
+            SpoolFile spoolFile,
+            Executor spoolExecutor,
+            OutputBufferMemoryManager memoryManager,
+            OutputBufferMemoryManager spoolMemoryManager,
+            OutputBufferMemoryManager pendingWriteMemoryManager)
+    {
+        this.clientBuffer = requireNonNull(clientBuffer, "clientBuffer is null");
+        this.spoolFile = requireNonNull(spoolFile, "spoolFile is null");
+        this.spoolExecutor = requireNonNull(spoolExecutor, "spoolExecutor is null");
+        this.memoryManager = requireNonNull(memoryManager, "memoryManager is null");
+        this.spoolMemoryManager = requireNonNull(spoolMemoryManager, "spoolMemoryManager is null");
+        this.pendingWriteMemoryManager = requireNonNull(pendingWriteMemoryManager, "pendingWriteMemoryManager is null");
+    }
+
+    /**
+     * @return true if the pages are spooled; false if they are held in memory
+     */
+    public boolean addPages(List<SerializedPage> newPages)
+    {
+        requireNonNull(newPages, "newPages is null");
+
+        SpooledBatch batch;
+        synchronized (this) {
+            if (destroyed || newPages.isEmpty()) {
+                return false;
+            }
+
+            // keep spooling until the spooled batches are drained, so pages are returned in order
+            if (spooledBatches.isEmpty() && !memoryManager.isFull()) {
+                for (SerializedPage page : newPages) {
+                    pages.add(createPageReference(page));
+                }
+                return false;
+            }
+
+            // the pages stay in memory until they are written, or for good if the spool of the node is full
+            batch = new SpooledBatch(spoolFile.reserve(newPages), newPages.stream().map(this::createPageReference).collect(toImmutableList()));
+            spooledBatches.add(batch);
+            if (!batch.isSpooled()) {
+                return false;
+            }
+            spoolMemoryManager.updateMemoryUsage(batch.getSizeInBytes());
+            pendingWriteMemoryManager.updateMemoryUsage(batch.getSizeInBytes());
+            spooledPages.addAndGet(newPages.size());
+            spooledBytes.addAndGet(batch.getSizeInBytes());
+        }
+
+        spoolExecutor.execute(() -> write(batch, newPages));
+        return true;
+    }
+
+    public synchronized void setNoMorePages()
+    {
+        noMorePages = true;
+    }
+
+    @Override
+    public synchronized boolean mayHaveMorePages()
+    {
+        return !noMorePages || !pages.isEmpty() || !spooledBatches.isEmpty();
+    }
+
+    @Override
+    public synchronized List<SerializedPageReference> getPages(DataSize maxSize)
+    {
+        if (readFailure != null) {
+            throw new PrestoException(GENERIC_INTERNAL_ERROR, "Failed to read output spool file", readFailure);
+        }
+
+        long maxBytes = maxSize.toBytes();
+        List<SerializedPageReference> result = new ArrayList<>();
+        long bytesRemoved = 0;
+
+        while (true) {
+            SerializedPageReference page = pages.peek();
+            if (page == null) {
+                // the in memory pages are drained, so continue with the next batch if it is in memory
+                SpooledBatch batch = spooledBatches.peek();
+                if (batch == null || !batch.isInMemory()) {
+                    break;
+                }
+                page = batch.getPages().get(0);
+                if (!result.isEmpty() && bytesRemoved + page.getRetainedSizeInBytes() > maxBytes) {
+                    break;
+                }
+                spooledBatches.poll();
+                pages.addAll(batch.getPages());
+                batch.clearPages();
+                releaseSpooledBatch(batch);
+            }
+            bytesRemoved += page.getRetainedSizeInBytes();
+            // break (and don't add) if this page would exceed the limit
+            if (!result.isEmpty() && bytesRemoved > maxBytes) {
+                break;
+            }
+            checkState(pages.poll() == page, "Page buffer corrupted");
+            result.add(page);
+        }
+
+        return ImmutableList.copyOf(result);
+    }
+
+    /**
+     * Starts loading the spooled batches that follow the pages held in memory, up to the specified size.
+     */
+    public void loadSpooledPages(DataSize maxSize)
+    {
+        checkState(!Thread.holdsLock(this), "Can not load spooled pages while holding a lock on this");
+
+        long maxBytes = maxSize.toBytes();
+        List<SpooledBatch> batchesToLoad = new ArrayList<>();
+        synchronized (this) {
+            long bytes = 0;
+            for (SpooledBatch batch : spooledBatches) {
+                if (bytes >= maxBytes) {
+                    break;
+                }
+                if (batch.startLoading()) {
+                    batchesToLoad.add(batch);
+                }
+                bytes += batch.getSizeInBytes();
+            }
+        }
+
+        if (!batchesToLoad.isEmpty()) {
+            spoolExecutor.execute(() -> load(batchesToLoad));
+        }
+    }
+
+    public void destroy()
+    {
+        checkState(!Thread.holdsLock(this), "Can not destroy spooling buffer while holding a lock on this");
+        List<SerializedPageReference> removedPages = new ArrayList<>();
+        List<SpooledBatch> removedBatches;
+        synchronized (this) {
+            destroyed = true;
+            removedPages.addAll(pages);
+            pages.clear();
+            removedBatches = ImmutableList.copyOf(spooledBatches);
+            spooledBatches.clear();
+            for (SpooledBatch batch : removedBatches) {
+                if (batch.isInMemory()) {
+                    removedPages.addAll(batch.getPages());
+                }
+                batch.clearPages();
+            }
+        }
+
+        // dereference outside of synchronized to avoid making a callback while holding a lock
+        removedPages.forEach(SerializedPageReference::dereferencePage);
+        removedBatches.forEach(this::releaseSpooledBatch);
+    }
+
+    public long getSpooledPages()
+    {
+        return spooledPages.get();
+    }
+
+    public long getSpooledBytes()
+    {
+        return spooledBytes.get();
+    }
+
+    private void write(SpooledBatch batch, List<SerializedPage> batchPages)
+    {
+        boolean written;
+        try {
+            written = spoolFile.write(batch.getSegment().get(), batchPages);
+        }
+        catch (Exception e) {
+            // the pages are still held in memory, so they are returned from there
+            log.warn(e, "Failed to write output spool file");
+            written = false;
+        }
+        finally {
+            pendingWriteMemoryManager.updateMemoryUsage(-batch.getSizeInBytes());
+        }
+
+        List<SerializedPageReference> writtenPages;
+        synchronized (this) {
+            // the batch may have been returned from memory while it was written
+            if (!written || !batch.isInMemory()) {
+                return;
+            }
+            writtenPages = batch.getPages();
+            batch.clearPages();
+        }
+
+        // dereference outside of synchronized to avoid making a callback while holding a lock
+        writtenPages.forEach(SerializedPageReference::dereferencePage);
+    }
+
+    private void load(List<SpooledBatch> batches)
+    {
+        for (SpooledBatch batch : batches) {
+            List<SerializedPage> loadedPages;
+            try {
+                loadedPages = spoolFile.read(batch.getSegment().get());
+            }
+            catch (Exception e) {
+                synchronized (this) {
+                    if (!destroyed) {
+                        readFailure = e;
+                    }
+                }
+                return;
+            }
+
+            synchronized (this) {
+                if (destroyed) {
+                    return;
+                }
+                batch.setPages(loadedPages.stream().map(this::createPageReference).collect(toImmutableList()));
+            }
+        }
+
+        // a client may be waiting for the loaded pages
+        clientBuffer.loadPagesIfNecessary(this);
+    }
+
+    private void releaseSpooledBatch(SpooledBatch batch)
+    {
+        if (batch.isSpooled()) {
+            spoolMemoryManager.updateMemoryUsage(-batch.getSizeInBytes());
+            // deleting the drained spool file is disk I/O, which does not belong on the threads reading pages
+            spoolExecutor.execute(() -> spoolFile.release(batch.getSegment().get()));
+        }
+    }
+
+    private SerializedPageReference createPageReference(SerializedPage page)
+    {
+        long retainedSize = page.getRetainedSizeInBytes();
+        memoryManager.updateMemoryUsage(retainedSize);
+        return new SerializedPageReference(page, 1, () -> memoryManager.updateMemoryUsage(-retainedSize));
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("spooledPages", spooledPages.get())
+                .add("spooledBytes", spooledBytes.get())
+                .toString();
+    }
+
+    /**
+     * Pages that follow the pages held in memory. The pages of a batch are in memory until they
+     * are written to the spool file, and again once they are loaded from the spool file. They are
+     * cleared once the batch is returned or destroyed.
+     */
+    private static class SpooledBatch
+    {
+        // empty if the spool of the node is full, in which case the pages stay in memory
+        private final Optional<Segment> segment;
+        private final long sizeInBytes;
+        private List<SerializedPageReference> pages;
+        private boolean loading;
+
+        public SpooledBatch(Optional<Segment> segment, List<SerializedPageReference> pages)
+        {
+            this.segment = requireNonNull(segment, "segment is null");
+            this.pages = requireNonNull(pages, "pages is null");
+            this.sizeInBytes = pages.stream().mapToLong(page -> page.getSerializedPage().getSizeInBytes()).sum();
+        }
+
+        public Optional<Segment> getSegment()
+        {
+            return segment;
+        }
+
+        public boolean isSpooled()
+        {
+            return segment.isPresent();
+        }
+
+        public long getSizeInBytes()
+        {
+            return sizeInBytes;
+        }
+
+        public boolean isInMemory()
+        {
+            return pages != null;
+        }
+
+        public List<SerializedPageReference> getPages()
+        {
+            checkState(pages != null, "pages are not in memory");
+            return pages;
+        }
+
+        public void setPages(List<SerializedPageReference> pages)
+        {
+            this.pages = requireNonNull(pages, "pages is null");
+            loading = false;
+        }
+
+        public void clearPages()
+        {
+            pages = null;
+        }
+
+        /**
+         * @return false if the pages are in memory or already loading
+         */
+        public boolean startLoading()
+        {
+            if (pages != null || loading) {
+                return false;
+            }
+            loading = true;
+            return true;
+        }
+    }
+}
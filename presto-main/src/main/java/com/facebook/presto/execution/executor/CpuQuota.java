@@ -0,0 +1,113 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution.executor;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Queue;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Limits the number of splits of a query that are processed on runner threads at the
+ * same time, which caps the number of cores the query uses on this node. Splits that
+ * are taken from the split queue while the query is at its limit are parked here and
+ * handed back one at a time as running splits of the query finish their quanta.
+ */
+@ThreadSafe
+class CpuQuota
+{
+    private final int maxRunningSplits;
+
+    @GuardedBy("this")
+    private final Queue<PrioritizedSplitRunner> throttledSplits = new ArrayDeque<>();
+    @GuardedBy("this")
+    private int runningSplits;
+    @GuardedBy("this")
+    private int tasks;
+
+    public CpuQuota(int maxRunningSplits)
+    {
+        checkArgument(maxRunningSplits > 0, "maxRunningSplits must be positive");
+        this.maxRunningSplits = maxRunningSplits;
+    }
+
+    public int getMaxRunningSplits()
+    {
+        return maxRunningSplits;
+    }
+
+    /**
+     * @return true if the split may run now; false if it was parked until the query has a free core
+     */
+    public synchronized boolean tryAcquire(PrioritizedSplitRunner split)
+    {
+        if (runningSplits < maxRunningSplits) {
+            runningSplits++;
+            return true;
+        }
+        throttledSplits.add(split);
+        return false;
+    }
+
+    /**
+     * @return a parked split that should be queued again, or null
+     */
+    public synchronized PrioritizedSplitRunner release()
+    {
+        checkState(runningSplits > 0, "No running splits");
+        runningSplits--;
+        return throttledSplits.poll();
+    }
+
+    public synchronized void removeAll(Collection<PrioritizedSplitRunner> splits)
+    {
+        throttledSplits.removeAll(splits);
+    }
+
+    public synchronized void addTask()
+    {
+        tasks++;
+    }
+
+    /**
+     * @return true if no task references this quota anymore
+     */
+    public synchronized boolean removeTask()
+    {
+        checkState(tasks > 0, "No tasks");
+        tasks--;
+        return tasks == 0;
+    }
+
+    public synchronized int getThrottledSplits()
+    {
+        return throttledSplits.size();
+    }
+
+    @Override
+    public synchronized String toString()
+    {
+        return toStringHelper(this)
+                .add("maxRunningSplits", maxRunningSplits)
+                .add("runningSplits", runningSplits)
+                .add("throttledSplits", throttledSplits.size())
+                .toString();
+    }
+}
@@ -16,6 +16,7 @@ package com.facebook.presto.execution.executor;
 import com.facebook.presto.execution.TaskId;
 import io.airlift.units.Duration;
 
+import java.util.Optional;
 import java.util.function.DoubleSupplier;
 
 import static com.facebook.presto.execution.executor.MultilevelSplitQueue.LEVEL_THRESHOLD_SECONDS;
@@ -30,6 +31,18 @@ public class LegacyTaskHandle
         super(taskId, splitQueue, utilizationSupplier, initialSplitConcurrency, splitConcurrencyAdjustFrequency);
     }
 
+    LegacyTaskHandle(
+            TaskId taskId,
+            MultilevelSplitQueue splitQueue,
+            DoubleSupplier utilizationSupplier,
+            int initialSplitConcurrency,
+            Duration splitConcurrencyAdjustFrequency,
+            Optional<CpuQuota> cpuQuota)
+    {
+        // legacy scheduling orders tasks by total scheduled time and does not support weights
+        super(taskId, splitQueue, utilizationSupplier, initialSplitConcurrency, splitConcurrencyAdjustFrequency, 1, cpuQuota);
+    }
+
     @Override
     public synchronized Priority addScheduledNanos(long durationNanos)
     {
@@ -17,6 +17,7 @@ import com.facebook.presto.execution.SplitRunner;
 import com.facebook.presto.execution.TaskId;
 import com.facebook.presto.execution.TaskManagerConfig;
 import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.QueryId;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Ticker;
 import com.google.common.collect.ComparisonChain;
@@ -38,21 +39,26 @@ import javax.annotation.concurrent.ThreadSafe;
 import javax.inject.Inject;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.function.DoubleSupplier;
@@ -68,6 +74,7 @@ import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
 import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 @ThreadSafe
@@ -86,6 +93,9 @@ public class TaskExecutor
     private final ExecutorService executor;
     private final ThreadPoolExecutorMBean executorMBean;
 
+    private final ThreadPoolExecutor blockingExecutor;
+    private final ThreadPoolExecutorMBean blockingExecutorMBean;
+
     private final int runnerThreads;
     private final int minimumNumberOfDrivers;
 
@@ -109,6 +119,21 @@ public class TaskExecutor
     @GuardedBy("this")
     private final Set<PrioritizedSplitRunner> intermediateSplits = new HashSet<>();
 
+    /**
+     * Running split limits of the queries that are capped to a number of cores on this node.
+     */
+    @GuardedBy("this")
+    private final Map<QueryId, CpuQuota> cpuQuotas = new HashMap<>();
+
+    /**
+     * Splits of sources that block while reading. These run on the blocking executor, so they
+     * do not hold on to the runner threads reserved for CPU bound splits.
+     */
+    @GuardedBy("this")
+    private final Set<PrioritizedSplitRunner> blockingSplits = new HashSet<>();
+
+    private final AtomicInteger runningBlockingSplits = new AtomicInteger();
+
     /**
      * Splits waiting for a runner thread.
      */
@@ -146,6 +171,13 @@ public class TaskExecutor
     private final CounterStat globalCpuTimeMicros = new CounterStat();
     private final CounterStat globalScheduledTimeMicros = new CounterStat();
 
+    private final CounterStat throttledQuanta = new CounterStat();
+
+    // accounted separately from the global stats so the utilization of the two executors can be told apart
+    private final CounterStat blockingCpuTimeMicros = new CounterStat();
+    private final CounterStat blockingScheduledTimeMicros = new CounterStat();
+    private final TimeDistribution blockingSplitWallTime = new TimeDistribution(MICROSECONDS);
+
     private final TimeStat blockedQuantaWallTime = new TimeStat(MICROSECONDS);
     private final TimeStat unblockedQuantaWallTime = new TimeStat(MICROSECONDS);
 
@@ -156,7 +188,13 @@ public class TaskExecutor
     @Inject
     public TaskExecutor(TaskManagerConfig config, MultilevelSplitQueue splitQueue)
     {
-        this(requireNonNull(config, "config is null").getMaxWorkerThreads(), config.getMinDrivers(), splitQueue, config.isLegacySchedulingBehavior(), Ticker.systemTicker());
+        this(
+                requireNonNull(config, "config is null").getMaxWorkerThreads(),
+                config.getMinDrivers(),
+                config.getMaxBlockingThreads(),
+                splitQueue,
+                config.isLegacySchedulingBehavior(),
+                Ticker.systemTicker());
     }
 
     @VisibleForTesting
@@ -173,14 +211,26 @@ public class TaskExecutor
 
     @VisibleForTesting
     public TaskExecutor(int runnerThreads, int minDrivers, MultilevelSplitQueue splitQueue, boolean legacySchedulingBehavior, Ticker ticker)
+    {
+        this(runnerThreads, minDrivers, runnerThreads, splitQueue, legacySchedulingBehavior, ticker);
+    }
+
+    @VisibleForTesting
+    public TaskExecutor(int runnerThreads, int minDrivers, int maxBlockingThreads, MultilevelSplitQueue splitQueue, boolean legacySchedulingBehavior, Ticker ticker)
     {
         checkArgument(runnerThreads > 0, "runnerThreads must be at least 1");
+        checkArgument(maxBlockingThreads > 0, "maxBlockingThreads must be at least 1");
 
         // we manage thread pool size directly, so create an unlimited pool
         this.executor = newCachedThreadPool(threadsNamed("task-processor-%s"));
         this.executorMBean = new ThreadPoolExecutorMBean((ThreadPoolExecutor) executor);
         this.runnerThreads = runnerThreads;
 
+        // threads are only started when blocking splits are queued, and exit once they have been idle for a while
+        this.blockingExecutor = new ThreadPoolExecutor(maxBlockingThreads, maxBlockingThreads, 1, MINUTES, new LinkedBlockingQueue<>(), threadsNamed("task-blocking-processor-%s"));
+        this.blockingExecutor.allowCoreThreadTimeOut(true);
+        this.blockingExecutorMBean = new ThreadPoolExecutorMBean(blockingExecutor);
+
         this.ticker = requireNonNull(ticker, "ticker is null");
 
         this.minimumNumberOfDrivers = minDrivers;
@@ -204,6 +254,7 @@ public class TaskExecutor
     {
         closed = true;
         executor.shutdownNow();
+        blockingExecutor.shutdownNow();
         splitMonitorExecutor.shutdownNow();
     }
 
@@ -217,6 +268,7 @@ public class TaskExecutor
                 .add("waitingSplits", waitingSplits.size())
                 .add("runningSplits", runningSplits.size())
                 .add("blockedSplits", blockedSplits.size())
+                .add("blockingSplits", blockingSplits.size())
                 .toString();
     }
 
@@ -229,20 +281,44 @@ public class TaskExecutor
         }
     }
 
-    public synchronized TaskHandle addTask(TaskId taskId, DoubleSupplier utilizationSupplier, int initialSplitConcurrency, Duration splitConcurrencyAdjustFrequency)
+    public TaskHandle addTask(TaskId taskId, DoubleSupplier utilizationSupplier, int initialSplitConcurrency, Duration splitConcurrencyAdjustFrequency)
+    {
+        return addTask(taskId, utilizationSupplier, initialSplitConcurrency, splitConcurrencyAdjustFrequency, 1, OptionalInt.empty());
+    }
+
+    /**
+     * @param schedulingWeight share of the runner threads relative to other tasks with work in the same level
+     * @param maxQueryRunningSplits maximum number of splits of the query, across all its tasks, that run at the same time
+     */
+    public synchronized TaskHandle addTask(
+            TaskId taskId,
+            DoubleSupplier utilizationSupplier,
+            int initialSplitConcurrency,
+            Duration splitConcurrencyAdjustFrequency,
+            int schedulingWeight,
+            OptionalInt maxQueryRunningSplits)
     {
         requireNonNull(taskId, "taskId is null");
         requireNonNull(utilizationSupplier, "utilizationSupplier is null");
+        requireNonNull(maxQueryRunningSplits, "maxQueryRunningSplits is null");
 
         log.debug("Task scheduled " + taskId);
 
+        Optional<CpuQuota> cpuQuota = Optional.empty();
+        if (maxQueryRunningSplits.isPresent()) {
+            // all tasks of a query share the limit of the first task
+            CpuQuota quota = cpuQuotas.computeIfAbsent(taskId.getQueryId(), queryId -> new CpuQuota(maxQueryRunningSplits.getAsInt()));
+            quota.addTask();
+            cpuQuota = Optional.of(quota);
+        }
+
         TaskHandle taskHandle;
 
         if (legacySchedulingBehavior) {
-            taskHandle = new LegacyTaskHandle(taskId, waitingSplits, utilizationSupplier, initialSplitConcurrency, splitConcurrencyAdjustFrequency);
+            taskHandle = new LegacyTaskHandle(taskId, waitingSplits, utilizationSupplier, initialSplitConcurrency, splitConcurrencyAdjustFrequency, cpuQuota);
         }
         else {
-            taskHandle = new TaskHandle(taskId, waitingSplits, utilizationSupplier, initialSplitConcurrency, splitConcurrencyAdjustFrequency);
+            taskHandle = new TaskHandle(taskId, waitingSplits, utilizationSupplier, initialSplitConcurrency, splitConcurrencyAdjustFrequency, schedulingWeight, cpuQuota);
         }
 
         tasks.add(taskHandle);
@@ -271,6 +347,14 @@ public class TaskExecutor
             intermediateSplits.removeAll(splits);
             blockedSplits.keySet().removeAll(splits);
             waitingSplits.removeAll(splits);
+            blockingSplits.removeAll(splits);
+
+            taskHandle.getCpuQuota().ifPresent(quota -> {
+                quota.removeAll(splits);
+                if (quota.removeTask()) {
+                    cpuQuotas.remove(taskHandle.getTaskId().getQueryId());
+                }
+            });
         }
 
         // call destroy outside of synchronized block as it is expensive and doesn't need a lock on the task executor
@@ -291,27 +375,7 @@ public class TaskExecutor
         List<ListenableFuture<?>> finishedFutures = new ArrayList<>(taskSplits.size());
         synchronized (this) {
             for (SplitRunner taskSplit : taskSplits) {
-                PrioritizedSplitRunner prioritizedSplitRunner;
-                if (legacySchedulingBehavior) {
-                    prioritizedSplitRunner = new LegacyPrioritizedSplitRunner(
-                            taskHandle,
-                            taskSplit,
-                            ticker,
-                            globalCpuTimeMicros,
-                            globalScheduledTimeMicros,
-                            blockedQuantaWallTime,
-                            unblockedQuantaWallTime);
-                }
-                else {
-                    prioritizedSplitRunner = new PrioritizedSplitRunner(
-                            taskHandle,
-                            taskSplit,
-                            ticker,
-                            globalCpuTimeMicros,
-                            globalScheduledTimeMicros,
-                            blockedQuantaWallTime,
-                            unblockedQuantaWallTime);
-                }
+                PrioritizedSplitRunner prioritizedSplitRunner = createPrioritizedSplitRunner(taskHandle, taskSplit, globalCpuTimeMicros, globalScheduledTimeMicros);
 
                 if (taskHandle.isDestroyed()) {
                     // If the handle is destroyed, we destroy the task splits to complete the future
@@ -341,6 +405,121 @@ public class TaskExecutor
         return finishedFutures;
     }
 
+    /**
+     * Enqueues splits of sources that block while reading (e.g. a JDBC result set).
+     * Each split is processed on a thread of the blocking executor, so the runner
+     * threads stay available for CPU bound splits.
+     */
+    public List<ListenableFuture<?>> enqueueBlockingSplits(TaskHandle taskHandle, List<? extends SplitRunner> taskSplits)
+    {
+        List<PrioritizedSplitRunner> splitsToDestroy = new ArrayList<>();
+        List<PrioritizedSplitRunner> splitsToStart = new ArrayList<>();
+        List<ListenableFuture<?>> finishedFutures = new ArrayList<>(taskSplits.size());
+        synchronized (this) {
+            for (SplitRunner taskSplit : taskSplits) {
+                PrioritizedSplitRunner prioritizedSplitRunner = createPrioritizedSplitRunner(taskHandle, taskSplit, blockingCpuTimeMicros, blockingScheduledTimeMicros);
+
+                if (taskHandle.isDestroyed()) {
+                    // If the handle is destroyed, we destroy the task splits to complete the future
+                    splitsToDestroy.add(prioritizedSplitRunner);
+                }
+                else {
+                    // blocking splits are not queued, so record them with the handle like intermediate splits
+                    taskHandle.recordIntermediateSplit(prioritizedSplitRunner);
+                    blockingSplits.add(prioritizedSplitRunner);
+                    splitsToStart.add(prioritizedSplitRunner);
+                }
+
+                finishedFutures.add(prioritizedSplitRunner.getFinishedFuture());
+            }
+        }
+        for (PrioritizedSplitRunner split : splitsToDestroy) {
+            split.destroy();
+        }
+        for (PrioritizedSplitRunner split : splitsToStart) {
+            startBlockingSplit(split);
+        }
+        return finishedFutures;
+    }
+
+    private PrioritizedSplitRunner createPrioritizedSplitRunner(TaskHandle taskHandle, SplitRunner taskSplit, CounterStat cpuTimeMicros, CounterStat scheduledTimeMicros)
+    {
+        if (legacySchedulingBehavior) {
+            return new LegacyPrioritizedSplitRunner(
+                    taskHandle,
+                    taskSplit,
+                    ticker,
+                    cpuTimeMicros,
+                    scheduledTimeMicros,
+                    blockedQuantaWallTime,
+                    unblockedQuantaWallTime);
+        }
+        return new PrioritizedSplitRunner(
+                taskHandle,
+                taskSplit,
+                ticker,
+                cpuTimeMicros,
+                scheduledTimeMicros,
+                blockedQuantaWallTime,
+                unblockedQuantaWallTime);
+    }
+
+    private void startBlockingSplit(PrioritizedSplitRunner split)
+    {
+        try {
+            blockingExecutor.execute(() -> runBlockingSplit(split));
+        }
+        catch (RejectedExecutionException e) {
+            // the executor has been stopped
+            blockingSplitFinished(split);
+        }
+    }
+
+    private void runBlockingSplit(PrioritizedSplitRunner split)
+    {
+        String threadId = split.getTaskHandle().getTaskId() + "-" + split.getSplitId();
+        try (SetThreadName splitName = new SetThreadName(threadId)) {
+            runningBlockingSplits.incrementAndGet();
+            try {
+                // keep the thread until the split waits on a future, as the thread would otherwise sit idle
+                while (!closed && !split.isFinished()) {
+                    ListenableFuture<?> blocked = split.process();
+                    if (!blocked.isDone() && !split.isFinished()) {
+                        blocked.addListener(() -> startBlockingSplit(split), executor);
+                        return;
+                    }
+                }
+            }
+            catch (Throwable t) {
+                // ignore random errors due to driver thread interruption
+                if (!split.isDestroyed()) {
+                    if (t instanceof PrestoException) {
+                        PrestoException e = (PrestoException) t;
+                        log.error("Error processing %s: %s: %s", split.getInfo(), e.getErrorCode().getName(), e.getMessage());
+                    }
+                    else {
+                        log.error(t, "Error processing %s", split.getInfo());
+                    }
+                }
+            }
+            finally {
+                runningBlockingSplits.decrementAndGet();
+            }
+            blockingSplitFinished(split);
+        }
+    }
+
+    private void blockingSplitFinished(PrioritizedSplitRunner split)
+    {
+        synchronized (this) {
+            blockingSplits.remove(split);
+            blockingSplitWallTime.add(System.nanoTime() - split.getCreatedNanos());
+            split.getTaskHandle().splitComplete(split);
+        }
+        // call destroy outside of synchronized block as it is expensive and doesn't need a lock on the task executor
+        split.destroy();
+    }
+
     private void splitFinished(PrioritizedSplitRunner split)
     {
         completedSplitsPerLevel.incrementAndGet(split.getPriority().getLevel());
@@ -481,6 +660,13 @@ public class TaskExecutor
                         return;
                     }
 
+                    // park the split if its query already uses all of its cores
+                    Optional<CpuQuota> cpuQuota = split.getTaskHandle().getCpuQuota();
+                    if (cpuQuota.isPresent() && !cpuQuota.get().tryAcquire(split)) {
+                        throttledQuanta.update(1);
+                        continue;
+                    }
+
                     String threadId = split.getTaskHandle().getTaskId() + "-" + split.getSplitId();
                     try (SetThreadName splitName = new SetThreadName(threadId)) {
                         RunningSplitInfo splitInfo = new RunningSplitInfo(ticker.read(), threadId, Thread.currentThread());
@@ -494,6 +680,9 @@ public class TaskExecutor
                         finally {
                             runningSplitInfos.remove(splitInfo);
                             runningSplits.remove(split);
+                            if (cpuQuota.isPresent()) {
+                                releaseCpuQuota(cpuQuota.get());
+                            }
                         }
 
                         if (split.isFinished()) {
@@ -539,6 +728,14 @@ public class TaskExecutor
         }
     }
 
+    private void releaseCpuQuota(CpuQuota cpuQuota)
+    {
+        PrioritizedSplitRunner throttledSplit = cpuQuota.release();
+        if (throttledSplit != null) {
+            waitingSplits.offer(throttledSplit);
+        }
+    }
+
     //
     // STATS
     //
@@ -591,6 +788,39 @@ public class TaskExecutor
         return blockedSplits.size();
     }
 
+    @Managed
+    public synchronized int getBlockingSplits()
+    {
+        return blockingSplits.size();
+    }
+
+    @Managed
+    public int getRunningBlockingSplits()
+    {
+        return runningBlockingSplits.get();
+    }
+
+    @Managed
+    public synchronized int getCpuQuotaQueries()
+    {
+        return cpuQuotas.size();
+    }
+
+    @Managed
+    public synchronized int getThrottledSplits()
+    {
+        return cpuQuotas.values().stream()
+                .mapToInt(CpuQuota::getThrottledSplits)
+                .sum();
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getThrottledQuanta()
+    {
+        return throttledQuanta;
+    }
+
     @Managed
     public long getCompletedTasksLevel0()
     {
@@ -772,6 +1002,27 @@ public class TaskExecutor
         return globalScheduledTimeMicros;
     }
 
+    @Managed
+    @Nested
+    public CounterStat getBlockingScheduledTimeMicros()
+    {
+        return blockingScheduledTimeMicros;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getBlockingCpuTimeMicros()
+    {
+        return blockingCpuTimeMicros;
+    }
+
+    @Managed
+    @Nested
+    public TimeDistribution getBlockingSplitWallTime()
+    {
+        return blockingSplitWallTime;
+    }
+
     @Managed
     @Nested
     public CounterStat getGlobalCpuTimeMicros()
@@ -857,4 +1108,11 @@ public class TaskExecutor
     {
         return executorMBean;
     }
+
+    @Managed(description = "Blocking split executor")
+    @Nested
+    public ThreadPoolExecutorMBean getBlockingExecutor()
+    {
+        return blockingExecutorMBean;
+    }
 }
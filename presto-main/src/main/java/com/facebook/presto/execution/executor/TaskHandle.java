@@ -24,12 +24,14 @@ import javax.annotation.concurrent.ThreadSafe;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.Queue;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.DoubleSupplier;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static java.util.Objects.requireNonNull;
 
@@ -38,6 +40,8 @@ public class TaskHandle
 {
     private final TaskId taskId;
     protected final DoubleSupplier utilizationSupplier;
+    protected final int schedulingWeight;
+    private final Optional<CpuQuota> cpuQuota;
 
     @GuardedBy("this")
     protected final Queue<PrioritizedSplitRunner> queuedLeafSplits = new ArrayDeque<>(10);
@@ -58,6 +62,18 @@ public class TaskHandle
     private final MultilevelSplitQueue splitQueue;
 
     public TaskHandle(TaskId taskId, MultilevelSplitQueue splitQueue, DoubleSupplier utilizationSupplier, int initialSplitConcurrency, Duration splitConcurrencyAdjustFrequency)
+    {
+        this(taskId, splitQueue, utilizationSupplier, initialSplitConcurrency, splitConcurrencyAdjustFrequency, 1, Optional.empty());
+    }
+
+    TaskHandle(
+            TaskId taskId,
+            MultilevelSplitQueue splitQueue,
+            DoubleSupplier utilizationSupplier,
+            int initialSplitConcurrency,
+            Duration splitConcurrencyAdjustFrequency,
+            int schedulingWeight,
+            Optional<CpuQuota> cpuQuota)
     {
         this.taskId = requireNonNull(taskId, "taskId is null");
         this.splitQueue = requireNonNull(splitQueue, "splitQueue is null");
@@ -65,6 +81,9 @@ public class TaskHandle
         this.concurrencyController = new SplitConcurrencyController(
                 initialSplitConcurrency,
                 requireNonNull(splitConcurrencyAdjustFrequency, "splitConcurrencyAdjustFrequency is null"));
+        checkArgument(schedulingWeight > 0, "schedulingWeight must be positive");
+        this.schedulingWeight = schedulingWeight;
+        this.cpuQuota = requireNonNull(cpuQuota, "cpuQuota is null");
     }
 
     public synchronized Priority addScheduledNanos(long durationNanos)
@@ -72,7 +91,9 @@ public class TaskHandle
         concurrencyController.update(durationNanos, utilizationSupplier.getAsDouble(), runningLeafSplits.size());
         scheduledNanos += durationNanos;
 
-        Priority newPriority = splitQueue.updatePriority(priority.get(), durationNanos, scheduledNanos);
+        // Tasks are charged their scheduled time divided by their weight, so a task with twice
+        // the weight stays in each level twice as long and gets twice the share within a level.
+        Priority newPriority = splitQueue.updatePriority(priority.get(), durationNanos / schedulingWeight, scheduledNanos / schedulingWeight);
 
         priority.set(newPriority);
         return newPriority;
@@ -80,7 +101,7 @@ public class TaskHandle
 
     public synchronized Priority resetLevelPriority()
     {
-        long levelMinPriority = splitQueue.getLevelMinPriority(priority.get().getLevel(), scheduledNanos);
+        long levelMinPriority = splitQueue.getLevelMinPriority(priority.get().getLevel(), scheduledNanos / schedulingWeight);
         if (priority.get().getLevelPriority() < levelMinPriority) {
             Priority newPriority = new Priority(priority.get().getLevel(), levelMinPriority);
             priority.set(newPriority);
@@ -105,6 +126,16 @@ public class TaskHandle
         return taskId;
     }
 
+    public int getSchedulingWeight()
+    {
+        return schedulingWeight;
+    }
+
+    Optional<CpuQuota> getCpuQuota()
+    {
+        return cpuQuota;
+    }
+
     // Returns any remaining splits. The caller must destroy these.
     public synchronized List<PrioritizedSplitRunner> destroy()
     {
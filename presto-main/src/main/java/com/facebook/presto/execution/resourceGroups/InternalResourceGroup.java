@@ -577,6 +577,7 @@ public class InternalResourceGroup
             checkState(subGroups.isEmpty(), "Cannot add queries to %s. It is not a leaf group.", id);
             // Check all ancestors for capacity
             query.setResourceGroup(id);
+            query.setSchedulingWeight(schedulingWeight);
             InternalResourceGroup group = this;
             boolean canQueue = true;
             boolean canRun = true;
@@ -47,4 +47,16 @@ public class BucketPartitionFunction
         int bucket = bucketFunction.getBucket(functionArguments, position);
         return bucketToPartition[bucket];
     }
+
+    /**
+     * @param functionArguments the arguments to bucketing function in order (no extra columns)
+     */
+    public int[] getPartitions(Page functionArguments)
+    {
+        int[] partitions = bucketFunction.getBuckets(functionArguments);
+        for (int position = 0; position < partitions.length; position++) {
+            partitions[position] = bucketToPartition[partitions[position]];
+        }
+        return partitions;
+    }
 }
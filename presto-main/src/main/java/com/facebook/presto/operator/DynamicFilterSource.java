@@ -0,0 +1,71 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.execution.Lifespan;
+import com.facebook.presto.spi.ColumnHandle;
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Links the probe side table scan of an inner or right lookup join to the build side of the
+ * join in the same task, so that the scan can apply the {@link JoinDynamicFilter} of the build.
+ * <p>
+ * The scan is planned before the build, so the lookup source factory is set once the build is planned.
+ */
+public class DynamicFilterSource
+{
+    private final List<Integer> joinChannels;
+    private final List<ColumnHandle> columns;
+    private LookupSourceFactoryManager lookupSourceFactoryManager;
+
+    /**
+     * @param joinChannels join channels that are read directly from a scan column
+     * @param columns scan column of each of the join channels
+     */
+    public DynamicFilterSource(List<Integer> joinChannels, List<ColumnHandle> columns)
+    {
+        this.joinChannels = ImmutableList.copyOf(requireNonNull(joinChannels, "joinChannels is null"));
+        this.columns = ImmutableList.copyOf(requireNonNull(columns, "columns is null"));
+        checkArgument(joinChannels.size() == columns.size(), "joinChannels and columns must have the same size");
+    }
+
+    public List<ColumnHandle> getColumns()
+    {
+        return columns;
+    }
+
+    public void setLookupSourceFactoryManager(LookupSourceFactoryManager lookupSourceFactoryManager)
+    {
+        requireNonNull(lookupSourceFactoryManager, "lookupSourceFactoryManager is null");
+        checkState(this.lookupSourceFactoryManager == null, "lookupSourceFactoryManager already set");
+        this.lookupSourceFactoryManager = lookupSourceFactoryManager;
+    }
+
+    /**
+     * Returns the filter of {@link #getColumns()}, which accepts every row until all partitions of the build side are built.
+     */
+    public JoinDynamicFilter getDynamicFilter(Lifespan lifespan)
+    {
+        checkState(lookupSourceFactoryManager != null, "lookupSourceFactoryManager not set");
+        return lookupSourceFactoryManager.forLifespan(lifespan)
+                .getDynamicFilter()
+                .project(joinChannels);
+    }
+}
@@ -26,23 +26,24 @@ import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
 
 import javax.annotation.Nullable;
-import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
 
 import java.io.Closeable;
 import java.net.URI;
-import java.util.ArrayList;
 import java.util.Deque;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executor;
-import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 
 import static com.facebook.presto.execution.buffer.PageCompression.UNCOMPRESSED;
 import static com.google.common.base.Preconditions.checkState;
@@ -64,33 +65,36 @@ public class ExchangeClient
     private final HttpClient httpClient;
     private final ScheduledExecutorService scheduler;
 
-    @GuardedBy("this")
-    private boolean noMoreLocations;
+    private volatile boolean noMoreLocations;
 
     private final ConcurrentMap<URI, HttpPageBufferClient> allClients = new ConcurrentHashMap<>();
 
-    @GuardedBy("this")
-    private final Deque<HttpPageBufferClient> queuedClients = new LinkedList<>();
+    private final Queue<HttpPageBufferClient> queuedClients = new ConcurrentLinkedQueue<>();
 
     private final Set<HttpPageBufferClient> completedClients = newConcurrentHashSet();
-    private final LinkedBlockingDeque<SerializedPage> pageBuffer = new LinkedBlockingDeque<>();
+    private final Deque<SerializedPage> pageBuffer = new ConcurrentLinkedDeque<>();
+    private final AtomicBoolean noMorePagesMarkerAdded = new AtomicBoolean();
 
-    @GuardedBy("this")
-    private final List<SettableFuture<?>> blockedCallers = new ArrayList<>();
+    private final Queue<SettableFuture<?>> blockedCallers = new ConcurrentLinkedQueue<>();
 
-    @GuardedBy("this")
-    private long bufferBytes;
-    @GuardedBy("this")
-    private long maxBufferBytes;
-    @GuardedBy("this")
-    private long successfulRequests;
-    @GuardedBy("this")
-    private long averageBytesPerRequest;
+    // Each scheduled request reserves buffer space for its response, which is released when the request completes.
+    // Requests are only sent when the buffer can accommodate their responses, so a slow consumer does not cause all
+    // the upstream clients to be requested whenever a little buffer space is freed.
+    private final ConcurrentMap<HttpPageBufferClient, Long> requestCredits = new ConcurrentHashMap<>();
+    private final AtomicLong reservedCreditBytes = new AtomicLong();
+
+    private final AtomicLong bufferBytes = new AtomicLong();
+    private final AtomicLong maxBufferBytes = new AtomicLong(Long.MIN_VALUE);
+    private final LongAdder successfulRequests = new LongAdder();
+    private final LongAdder totalResponseBytes = new LongAdder();
 
     private final AtomicBoolean closed = new AtomicBoolean();
     private final AtomicReference<Throwable> failure = new AtomicReference<>();
 
     private final SystemMemoryUsageListener systemMemoryUsageListener;
+    // memory usage updates are coalesced, so that the listener is never called concurrently
+    private final AtomicLong pendingMemoryUsageDelta = new AtomicLong();
+    private final AtomicBoolean memoryUsageUpdateInProgress = new AtomicBoolean();
     private final Executor pageBufferClientCallbackExecutor;
 
     // ExchangeClientStatus.mergeWith assumes all clients have the same bufferCapacity.
@@ -114,7 +118,6 @@ public class ExchangeClient
         this.httpClient = httpClient;
         this.scheduler = scheduler;
         this.systemMemoryUsageListener = systemMemoryUsageListener;
-        this.maxBufferBytes = Long.MIN_VALUE;
         this.pageBufferClientCallbackExecutor = requireNonNull(pageBufferClientCallbackExecutor, "pageBufferClientCallbackExecutor is null");
     }
 
@@ -128,13 +131,11 @@ public class ExchangeClient
             pageBufferClientStatusBuilder.add(client.getStatus());
         }
         List<PageBufferClientStatus> pageBufferClientStatus = pageBufferClientStatusBuilder.build();
-        synchronized (this) {
-            int bufferedPages = pageBuffer.size();
-            if (bufferedPages > 0 && pageBuffer.peekLast() == NO_MORE_PAGES) {
-                bufferedPages--;
-            }
-            return new ExchangeClientStatus(bufferBytes, maxBufferBytes, averageBytesPerRequest, successfulRequests, bufferedPages, noMoreLocations, pageBufferClientStatus);
+        int bufferedPages = pageBuffer.size();
+        if (bufferedPages > 0 && pageBuffer.peekLast() == NO_MORE_PAGES) {
+            bufferedPages--;
         }
+        return new ExchangeClientStatus(bufferBytes.get(), maxBufferBytes.get(), getAverageBytesPerRequest(), successfulRequests.sum(), bufferedPages, noMoreLocations, pageBufferClientStatus);
     }
 
     public synchronized void addLocation(URI location)
@@ -208,14 +209,9 @@ public class ExchangeClient
             return null;
         }
 
-        synchronized (this) {
-            if (!closed.get()) {
-                bufferBytes -= page.getRetainedSizeInBytes();
-                systemMemoryUsageListener.updateSystemMemoryUsage(-page.getRetainedSizeInBytes());
-                if (pageBuffer.peek() == NO_MORE_PAGES) {
-                    close();
-                }
-            }
+        releasePage(page);
+        if (pageBuffer.peek() == NO_MORE_PAGES) {
+            close();
         }
         scheduleRequestIfNecessary();
         return page;
@@ -243,16 +239,14 @@ public class ExchangeClient
         for (HttpPageBufferClient client : allClients.values()) {
             closeQuietly(client);
         }
-        pageBuffer.clear();
-        systemMemoryUsageListener.updateSystemMemoryUsage(-bufferBytes);
-        bufferBytes = 0;
-        if (pageBuffer.peekLast() != NO_MORE_PAGES) {
-            checkState(pageBuffer.add(NO_MORE_PAGES), "Could not add no more pages marker");
+        releaseBufferedPages();
+        if (noMorePagesMarkerAdded.compareAndSet(false, true)) {
+            pageBuffer.add(NO_MORE_PAGES);
         }
         notifyBlockedCallers();
     }
 
-    public synchronized void scheduleRequestIfNecessary()
+    public void scheduleRequestIfNecessary()
     {
         if (isFinished() || isFailed()) {
             return;
@@ -260,8 +254,8 @@ public class ExchangeClient
 
         // if finished, add the end marker
         if (noMoreLocations && completedClients.size() == allClients.size()) {
-            if (pageBuffer.peekLast() != NO_MORE_PAGES) {
-                checkState(pageBuffer.add(NO_MORE_PAGES), "Could not add no more pages marker");
+            if (noMorePagesMarkerAdded.compareAndSet(false, true)) {
+                pageBuffer.add(NO_MORE_PAGES);
             }
             if (pageBuffer.peek() == NO_MORE_PAGES) {
                 close();
@@ -270,94 +264,162 @@ public class ExchangeClient
             return;
         }
 
-        long neededBytes = bufferCapacity - bufferBytes;
+        long neededBytes = bufferCapacity - bufferBytes.get();
         if (neededBytes <= 0) {
             return;
         }
 
-        int clientCount = (int) ((1.0 * neededBytes / averageBytesPerRequest) * concurrentRequestMultiplier);
-        clientCount = Math.max(clientCount, 1);
-
-        int pendingClients = allClients.size() - queuedClients.size() - completedClients.size();
-        clientCount -= pendingClients;
-
-        for (int i = 0; i < clientCount; i++) {
+        long requestCredit = Math.max(getAverageBytesPerRequest() / concurrentRequestMultiplier, 1);
+        while (true) {
+            // always keep at least one request in flight, otherwise the exchange would stall
+            if (!requestCredits.isEmpty() && neededBytes - reservedCreditBytes.get() < requestCredit) {
+                return;
+            }
             HttpPageBufferClient client = queuedClients.poll();
             if (client == null) {
                 // no more clients available
                 return;
             }
+            Long previousCredit = requestCredits.put(client, requestCredit);
+            reservedCreditBytes.addAndGet(requestCredit - (previousCredit == null ? 0 : previousCredit));
             client.scheduleRequest();
         }
     }
 
-    public synchronized ListenableFuture<?> isBlocked()
+    public ListenableFuture<?> isBlocked()
     {
         if (isClosed() || isFailed() || pageBuffer.peek() != null) {
             return Futures.immediateFuture(true);
         }
         SettableFuture<?> future = SettableFuture.create();
         blockedCallers.add(future);
+        // the state may have changed before the future was registered, in which case nobody else will complete it
+        if (isClosed() || isFailed() || pageBuffer.peek() != null) {
+            notifyBlockedCallers();
+        }
         return future;
     }
 
-    private synchronized boolean addPages(List<SerializedPage> pages)
+    private boolean addPages(List<SerializedPage> pages)
     {
         if (isClosed() || isFailed()) {
             return false;
         }
 
+        long memorySize = pages.stream()
+                .mapToLong(SerializedPage::getRetainedSizeInBytes)
+                .sum();
+
+        // account the pages before they become visible to pollPage, which releases them
+        long currentBufferBytes = bufferBytes.addAndGet(memorySize);
+        maxBufferBytes.accumulateAndGet(currentBufferBytes, Math::max);
+        updateMemoryUsage(memorySize);
         pageBuffer.addAll(pages);
 
+        if (isClosed()) {
+            // close() may have released the buffer before the pages were added
+            releaseBufferedPages();
+            return false;
+        }
+
         if (!pages.isEmpty()) {
             // notify all blocked callers
             notifyBlockedCallers();
         }
 
-        long memorySize = pages.stream()
-                .mapToLong(SerializedPage::getRetainedSizeInBytes)
-                .sum();
-
-        bufferBytes += memorySize;
-        maxBufferBytes = Math.max(maxBufferBytes, bufferBytes);
-        systemMemoryUsageListener.updateSystemMemoryUsage(memorySize);
-        successfulRequests++;
-
         long responseSize = pages.stream()
                 .mapToLong(SerializedPage::getSizeInBytes)
                 .sum();
-        // AVG_n = AVG_(n-1) * (n-1)/n + VALUE_n / n
-        averageBytesPerRequest = (long) (1.0 * averageBytesPerRequest * (successfulRequests - 1) / successfulRequests + responseSize / successfulRequests);
+        totalResponseBytes.add(responseSize);
+        successfulRequests.increment();
 
         return true;
     }
 
-    private synchronized void notifyBlockedCallers()
+    private long getAverageBytesPerRequest()
+    {
+        long requests = successfulRequests.sum();
+        if (requests == 0) {
+            return 0;
+        }
+        return totalResponseBytes.sum() / requests;
+    }
+
+    private void releasePage(SerializedPage page)
+    {
+        bufferBytes.addAndGet(-page.getRetainedSizeInBytes());
+        updateMemoryUsage(-page.getRetainedSizeInBytes());
+    }
+
+    private void releaseBufferedPages()
+    {
+        // the end marker holds no memory, and is not needed once the client is closed
+        SerializedPage page;
+        while ((page = pageBuffer.poll()) != null) {
+            if (page != NO_MORE_PAGES) {
+                releasePage(page);
+            }
+        }
+    }
+
+    private void updateMemoryUsage(long deltaMemoryInBytes)
+    {
+        pendingMemoryUsageDelta.addAndGet(deltaMemoryInBytes);
+        // A thread which fails to become the updater leaves its delta to the current updater,
+        // which checks for pending deltas after it is done.
+        while (memoryUsageUpdateInProgress.compareAndSet(false, true)) {
+            try {
+                long delta = pendingMemoryUsageDelta.getAndSet(0);
+                if (delta != 0) {
+                    systemMemoryUsageListener.updateSystemMemoryUsage(delta);
+                }
+            }
+            finally {
+                memoryUsageUpdateInProgress.set(false);
+            }
+            if (pendingMemoryUsageDelta.get() == 0) {
+                return;
+            }
+        }
+    }
+
+    private void notifyBlockedCallers()
+    {
+        SettableFuture<?> blockedCaller = blockedCallers.poll();
+        while (blockedCaller != null) {
+            SettableFuture<?> caller = blockedCaller;
+            // Notify callers in a separate thread to avoid callbacks on the producer thread
+            scheduler.execute(() -> caller.set(null));
+            blockedCaller = blockedCallers.poll();
+        }
+    }
+
+    private void releaseRequestCredit(HttpPageBufferClient client)
     {
-        List<SettableFuture<?>> callers = ImmutableList.copyOf(blockedCallers);
-        blockedCallers.clear();
-        for (SettableFuture<?> blockedCaller : callers) {
-            // Notify callers in a separate thread to avoid callbacks while holding a lock
-            scheduler.execute(() -> blockedCaller.set(null));
+        Long credit = requestCredits.remove(client);
+        if (credit != null) {
+            reservedCreditBytes.addAndGet(-credit);
         }
     }
 
-    private synchronized void requestComplete(HttpPageBufferClient client)
+    private void requestComplete(HttpPageBufferClient client)
     {
+        releaseRequestCredit(client);
         if (!queuedClients.contains(client)) {
             queuedClients.add(client);
         }
         scheduleRequestIfNecessary();
     }
 
-    private synchronized void clientFinished(HttpPageBufferClient client)
+    private void clientFinished(HttpPageBufferClient client)
     {
         requireNonNull(client, "client is null");
+        releaseRequestCredit(client);
         completedClients.add(client);
         scheduleRequestIfNecessary();
     }
 
-    private synchronized void clientFailed(Throwable cause)
+    private void clientFailed(Throwable cause)
     {
         // TODO: properly handle the failed vs closed state
         // it is important not to treat failures as a successful close
@@ -52,6 +52,9 @@ public interface GroupByHash
         if (hashTypes.size() == 1 && hashTypes.get(0).equals(BIGINT) && hashChannels.length == 1) {
             return new BigintGroupByHash(hashChannels[0], inputHashChannel.isPresent(), expectedSize, updateMemory);
         }
+        if (hashTypes.size() > 1 && hashTypes.size() <= MultiBigintGroupByHash.MAX_CHANNELS && hashTypes.stream().allMatch(BIGINT::equals)) {
+            return new MultiBigintGroupByHash(hashChannels, inputHashChannel.isPresent(), expectedSize, updateMemory);
+        }
         return new MultiChannelGroupByHash(hashTypes, hashChannels, inputHashChannel, expectedSize, processDictionary, joinCompiler, updateMemory);
     }
 
@@ -17,6 +17,7 @@ import com.facebook.presto.operator.aggregation.Accumulator;
 import com.facebook.presto.operator.aggregation.AccumulatorFactory;
 import com.facebook.presto.operator.aggregation.builder.HashAggregationBuilder;
 import com.facebook.presto.operator.aggregation.builder.InMemoryHashAggregationBuilder;
+import com.facebook.presto.operator.aggregation.builder.SkipAggregationBuilder;
 import com.facebook.presto.operator.aggregation.builder.SpillableHashAggregationBuilder;
 import com.facebook.presto.operator.scalar.CombineHashFunction;
 import com.facebook.presto.spi.Page;
@@ -66,6 +67,7 @@ public class HashAggregationOperator
         private final int expectedGroups;
         private final List<Type> types;
         private final DataSize maxPartialMemory;
+        private final Optional<Integer> adaptivePartialAggregationMinRows;
         private final boolean spillEnabled;
         private final DataSize memoryLimitForMerge;
         private final DataSize memoryLimitForMergeWithMemory;
@@ -101,6 +103,7 @@ public class HashAggregationOperator
                     groupIdChannel,
                     expectedGroups,
                     maxPartialMemory,
+                    Optional.empty(),
                     false,
                     new DataSize(0, MEGABYTE),
                     new DataSize(0, MEGABYTE),
@@ -123,6 +126,7 @@ public class HashAggregationOperator
                 Optional<Integer> groupIdChannel,
                 int expectedGroups,
                 DataSize maxPartialMemory,
+                Optional<Integer> adaptivePartialAggregationMinRows,
                 boolean spillEnabled,
                 DataSize unspillMemoryLimit,
                 SpillerFactory spillerFactory,
@@ -140,6 +144,7 @@ public class HashAggregationOperator
                     groupIdChannel,
                     expectedGroups,
                     maxPartialMemory,
+                    adaptivePartialAggregationMinRows,
                     spillEnabled,
                     unspillMemoryLimit,
                     DataSize.succinctBytes((long) (unspillMemoryLimit.toBytes() * MERGE_WITH_MEMORY_RATIO)),
@@ -161,6 +166,7 @@ public class HashAggregationOperator
                 Optional<Integer> groupIdChannel,
                 int expectedGroups,
                 DataSize maxPartialMemory,
+                Optional<Integer> adaptivePartialAggregationMinRows,
                 boolean spillEnabled,
                 DataSize memoryLimitForMerge,
                 DataSize memoryLimitForMergeWithMemory,
@@ -179,6 +185,7 @@ public class HashAggregationOperator
             this.accumulatorFactories = ImmutableList.copyOf(accumulatorFactories);
             this.expectedGroups = expectedGroups;
             this.maxPartialMemory = requireNonNull(maxPartialMemory, "maxPartialMemory is null");
+            this.adaptivePartialAggregationMinRows = requireNonNull(adaptivePartialAggregationMinRows, "adaptivePartialAggregationMinRows is null");
             this.spillEnabled = spillEnabled;
             this.memoryLimitForMerge = requireNonNull(memoryLimitForMerge, "memoryLimitForMerge is null");
             this.memoryLimitForMergeWithMemory = requireNonNull(memoryLimitForMergeWithMemory, "memoryLimitForMergeWithMemory is null");
@@ -212,6 +219,7 @@ public class HashAggregationOperator
                     groupIdChannel,
                     expectedGroups,
                     maxPartialMemory,
+                    adaptivePartialAggregationMinRows,
                     spillEnabled,
                     memoryLimitForMerge,
                     memoryLimitForMergeWithMemory,
@@ -242,6 +250,7 @@ public class HashAggregationOperator
                     groupIdChannel,
                     expectedGroups,
                     maxPartialMemory,
+                    adaptivePartialAggregationMinRows,
                     spillEnabled,
                     memoryLimitForMerge,
                     memoryLimitForMergeWithMemory,
@@ -269,6 +278,7 @@ public class HashAggregationOperator
 
     private final List<Type> types;
     private final HashCollisionsCounter hashCollisionsCounter;
+    private final Optional<PartialAggregationController> partialAggregationController;
 
     private HashAggregationBuilder aggregationBuilder;
     private Iterator<Page> outputIterator;
@@ -276,6 +286,10 @@ public class HashAggregationOperator
     private boolean finishing;
     private boolean finished;
 
+    // rows added to the current hash aggregation builder, used to measure the partial aggregation reduction ratio
+    private long hashedInputRows;
+    private boolean flushRequested;
+
     // for yield when memory is not available
     private Work<?> unfinishedWork;
 
@@ -291,6 +305,7 @@ public class HashAggregationOperator
             Optional<Integer> groupIdChannel,
             int expectedGroups,
             DataSize maxPartialMemory,
+            Optional<Integer> adaptivePartialAggregationMinRows,
             boolean spillEnabled,
             DataSize memoryLimitForMerge,
             DataSize memoryLimitForMergeWithMemory,
@@ -320,6 +335,14 @@ public class HashAggregationOperator
         this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
         this.hashCollisionsCounter = new HashCollisionsCounter(operatorContext);
         operatorContext.setInfoSupplier(hashCollisionsCounter);
+
+        requireNonNull(adaptivePartialAggregationMinRows, "adaptivePartialAggregationMinRows is null");
+        if (step == Step.PARTIAL && !hasOrderBy()) {
+            this.partialAggregationController = adaptivePartialAggregationMinRows.map(PartialAggregationController::new);
+        }
+        else {
+            this.partialAggregationController = Optional.empty();
+        }
     }
 
     @Override
@@ -352,7 +375,7 @@ public class HashAggregationOperator
         if (finishing || outputIterator != null) {
             return false;
         }
-        else if (aggregationBuilder != null && aggregationBuilder.isFull()) {
+        else if (aggregationBuilder != null && (aggregationBuilder.isFull() || flushRequested)) {
             return false;
         }
         else {
@@ -369,8 +392,15 @@ public class HashAggregationOperator
         inputProcessed = true;
 
         if (aggregationBuilder == null) {
+            if (partialAggregationController.isPresent() && partialAggregationController.get().isPassThrough()) {
+                aggregationBuilder = new SkipAggregationBuilder(
+                        accumulatorFactories,
+                        groupByChannels,
+                        hashChannel,
+                        operatorContext);
+            }
             // TODO: We ignore spillEnabled here if any aggregate has ORDER BY clause because ORDER BY is not yet implemented for spilling.
-            if (step.isOutputPartial() || !spillEnabled || hasOrderBy()) {
+            else if (step.isOutputPartial() || !spillEnabled || hasOrderBy()) {
                 aggregationBuilder = new InMemoryHashAggregationBuilder(
                         accumulatorFactories,
                         step,
@@ -410,6 +440,29 @@ public class HashAggregationOperator
             unfinishedWork = null;
         }
         aggregationBuilder.updateMemory();
+
+        if (partialAggregationController.isPresent()) {
+            updatePartialAggregationController(page.getPositionCount());
+        }
+    }
+
+    private void updatePartialAggregationController(int positionCount)
+    {
+        PartialAggregationController controller = partialAggregationController.get();
+        if (aggregationBuilder instanceof SkipAggregationBuilder) {
+            controller.onPassThroughInput(positionCount);
+            return;
+        }
+
+        hashedInputRows += positionCount;
+        // group count is only accurate once the page has been fully processed
+        if (unfinishedWork == null) {
+            long groupCount = ((InMemoryHashAggregationBuilder) aggregationBuilder).getGroupCount();
+            if (controller.onHashedInput(hashedInputRows, groupCount)) {
+                // aggregation does not reduce rows, so flush what was hashed so far and pass following rows through
+                flushRequested = true;
+            }
+        }
     }
 
     private boolean hasOrderBy()
@@ -468,8 +521,8 @@ public class HashAggregationOperator
                 }
             }
 
-            // only flush if we are finishing or the aggregation builder is full
-            if (!finishing && (aggregationBuilder == null || !aggregationBuilder.isFull())) {
+            // only flush if we are finishing, the aggregation builder is full or partial aggregation switches to pass-through
+            if (!finishing && (aggregationBuilder == null || !(aggregationBuilder.isFull() || flushRequested))) {
                 return null;
             }
 
@@ -504,6 +557,8 @@ public class HashAggregationOperator
     private void closeAggregationBuilder()
     {
         outputIterator = null;
+        hashedInputRows = 0;
+        flushRequested = false;
         if (aggregationBuilder != null) {
             aggregationBuilder.recordHashCollisions(hashCollisionsCounter);
             aggregationBuilder.close();
@@ -38,6 +38,7 @@ import java.util.OptionalInt;
 import java.util.OptionalLong;
 import java.util.Queue;
 
+import static com.facebook.presto.SystemSessionProperties.isDynamicFilteringEnabled;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Verify.verify;
@@ -494,6 +495,10 @@ public class HashBuilderOperator
             return;
         }
 
+        if (isDynamicFilteringEnabled(operatorContext.getSession())) {
+            lookupSourceFactory.setPartitionDynamicFilter(partitionIndex, JoinDynamicFilter.create(index, hashChannels));
+        }
+
         LookupSourceSupplier partition = buildLookupSource();
         if (spillEnabled) {
             operatorContext.setRevocableMemoryReservation(partition.get().getInMemorySizeInBytes());
@@ -21,10 +21,32 @@ public interface HashGenerator
 {
     long hashPosition(int position, Page page);
 
+    default long[] hashPositions(Page page)
+    {
+        long[] hashes = new long[page.getPositionCount()];
+        for (int position = 0; position < hashes.length; position++) {
+            hashes[position] = hashPosition(position, page);
+        }
+        return hashes;
+    }
+
     default int getPartition(int partitionCount, int position, Page page)
     {
-        long rawHash = hashPosition(position, page);
+        return getPartition(partitionCount, hashPosition(position, page));
+    }
+
+    default int[] getPartitions(int partitionCount, Page page)
+    {
+        long[] hashes = hashPositions(page);
+        int[] partitions = new int[hashes.length];
+        for (int position = 0; position < hashes.length; position++) {
+            partitions[position] = getPartition(partitionCount, hashes[position]);
+        }
+        return partitions;
+    }
 
+    static int getPartition(int partitionCount, long rawHash)
+    {
         // clear the sign bit
         rawHash &= 0x7fff_ffff_ffff_ffffL;
 
@@ -320,6 +320,7 @@ public final class HttpPageBufferClient
                 backoff.success();
 
                 List<SerializedPage> pages;
+                boolean complete;
                 try {
                     synchronized (HttpPageBufferClient.this) {
                         if (taskInstanceId == null) {
@@ -334,9 +335,13 @@ public final class HttpPageBufferClient
                         if (result.getToken() == token) {
                             pages = result.getPages();
                             token = result.getNextToken();
+                            complete = result.isClientComplete();
                         }
                         else {
                             pages = ImmutableList.of();
+                            // the server may finish the buffer along with the last pages, so
+                            // only trust completion from a stale response if it carried no data
+                            complete = result.isClientComplete() && result.getPages().isEmpty();
                         }
                     }
                 }
@@ -361,7 +366,7 @@ public final class HttpPageBufferClient
 
                 synchronized (HttpPageBufferClient.this) {
                     // client is complete, acknowledge it by sending it a delete in the next request
-                    if (result.isClientComplete()) {
+                    if (complete) {
                         completed = true;
                     }
                     if (future == resultFuture) {
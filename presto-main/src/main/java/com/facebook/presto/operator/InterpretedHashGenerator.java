@@ -15,11 +15,15 @@ package com.facebook.presto.operator;
 
 import com.facebook.presto.operator.scalar.CombineHashFunction;
 import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.DictionaryBlock;
+import com.facebook.presto.spi.block.RunLengthEncodedBlock;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.sql.planner.optimizations.HashGenerationOptimizer;
 import com.facebook.presto.type.TypeUtils;
 import com.google.common.collect.ImmutableList;
 
+import java.util.Arrays;
 import java.util.List;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
@@ -55,6 +59,42 @@ public class InterpretedHashGenerator
         return result;
     }
 
+    @Override
+    public long[] hashPositions(Page page)
+    {
+        // hash a column at a time, so the type dispatch is not repeated for every value
+        long[] hashes = new long[page.getPositionCount()];
+        Arrays.fill(hashes, HashGenerationOptimizer.INITIAL_HASH_VALUE);
+        for (int i = 0; i < hashChannels.length; i++) {
+            Type type = hashChannelTypes.get(i);
+            Block block = page.getBlock(hashChannels[i]);
+            if (block instanceof RunLengthEncodedBlock) {
+                long hash = TypeUtils.hashPosition(type, ((RunLengthEncodedBlock) block).getValue(), 0);
+                for (int position = 0; position < hashes.length; position++) {
+                    hashes[position] = CombineHashFunction.getHash(hashes[position], hash);
+                }
+            }
+            else if (block instanceof DictionaryBlock && ((DictionaryBlock) block).getDictionary().getPositionCount() <= hashes.length) {
+                // hash each dictionary entry once
+                DictionaryBlock dictionaryBlock = (DictionaryBlock) block;
+                Block dictionary = dictionaryBlock.getDictionary();
+                long[] dictionaryHashes = new long[dictionary.getPositionCount()];
+                for (int id = 0; id < dictionaryHashes.length; id++) {
+                    dictionaryHashes[id] = TypeUtils.hashPosition(type, dictionary, id);
+                }
+                for (int position = 0; position < hashes.length; position++) {
+                    hashes[position] = CombineHashFunction.getHash(hashes[position], dictionaryHashes[dictionaryBlock.getId(position)]);
+                }
+            }
+            else {
+                for (int position = 0; position < hashes.length; position++) {
+                    hashes[position] = CombineHashFunction.getHash(hashes[position], TypeUtils.hashPosition(type, block, position));
+                }
+            }
+        }
+        return hashes;
+    }
+
     @Override
     public String toString()
     {
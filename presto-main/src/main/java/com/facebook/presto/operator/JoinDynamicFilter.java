@@ -0,0 +1,254 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.predicate.Domain;
+import com.facebook.presto.spi.predicate.Range;
+import com.facebook.presto.spi.predicate.TupleDomain;
+import com.facebook.presto.spi.predicate.ValueSet;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.base.MoreObjects.ToStringHelper;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import javax.annotation.concurrent.Immutable;
+
+import java.util.List;
+import java.util.Set;
+
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.DateType.DATE;
+import static com.facebook.presto.spi.type.IntegerType.INTEGER;
+import static com.facebook.presto.spi.type.SmallintType.SMALLINT;
+import static com.facebook.presto.spi.type.TinyintType.TINYINT;
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Summary (min/max) of the build side join keys, used by the probe side to reject
+ * rows that can not match any build row without probing the lookup source.
+ * <p>
+ * Only join channels of types whose {@code long} representation has the same ordering
+ * as the type itself are summarized. Other channels accept every value.
+ * <p>
+ * The filter is applied by the {@link JoinProbe} of the lookup join it was built for and,
+ * through a {@link DynamicFilterSource}, by the probe side table scan of the same task,
+ * which also passes it to the connector as a {@link TupleDomain}.
+ */
+@Immutable
+public final class JoinDynamicFilter
+{
+    private static final Set<Type> SUPPORTED_TYPES = ImmutableSet.of(BIGINT, INTEGER, SMALLINT, TINYINT, DATE);
+
+    private static final JoinDynamicFilter ALL = new JoinDynamicFilter(new Type[0], new long[0], new long[0]);
+
+    // null entries denote channels which are not summarized
+    private final Type[] types;
+    // min > max for a channel without non-null values, so that every probe row is rejected
+    private final long[] min;
+    private final long[] max;
+
+    private JoinDynamicFilter(Type[] types, long[] min, long[] max)
+    {
+        checkArgument(types.length == min.length && types.length == max.length, "types, min and max must have the same length");
+        this.types = types;
+        this.min = min;
+        this.max = max;
+    }
+
+    /**
+     * Filter which accepts every probe row.
+     */
+    public static JoinDynamicFilter all()
+    {
+        return ALL;
+    }
+
+    public static JoinDynamicFilter create(PagesIndex pagesIndex, List<Integer> joinChannels)
+    {
+        requireNonNull(pagesIndex, "pagesIndex is null");
+        requireNonNull(joinChannels, "joinChannels is null");
+
+        int channelCount = joinChannels.size();
+        Type[] types = new Type[channelCount];
+        long[] min = new long[channelCount];
+        long[] max = new long[channelCount];
+        boolean anySummarized = false;
+
+        for (int i = 0; i < channelCount; i++) {
+            Type type = pagesIndex.getType(joinChannels.get(i));
+            if (!SUPPORTED_TYPES.contains(type)) {
+                continue;
+            }
+            anySummarized = true;
+            types[i] = type;
+            min[i] = Long.MAX_VALUE;
+            max[i] = Long.MIN_VALUE;
+            for (Block block : pagesIndex.getChannel(joinChannels.get(i))) {
+                for (int position = 0; position < block.getPositionCount(); position++) {
+                    if (block.isNull(position)) {
+                        continue;
+                    }
+                    long value = type.getLong(block, position);
+                    min[i] = min(min[i], value);
+                    max[i] = max(max[i], value);
+                }
+            }
+        }
+
+        if (!anySummarized) {
+            return ALL;
+        }
+        return new JoinDynamicFilter(types, min, max);
+    }
+
+    /**
+     * Returns false only if the row at {@code position} can not match any build row.
+     * Probe rows containing nulls in the join channels are expected to be handled by the caller.
+     *
+     * @param joinBlocks blocks of the probe join channels, in the order of the build join channels
+     */
+    public boolean mayContain(Block[] joinBlocks, int position)
+    {
+        for (int i = 0; i < types.length; i++) {
+            Type type = types[i];
+            if (type == null) {
+                continue;
+            }
+            long value = type.getLong(joinBlocks[i], position);
+            if (value < min[i] || value > max[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean isAll()
+    {
+        return this == ALL;
+    }
+
+    /**
+     * Filter of the given join channels, in the given order.
+     */
+    public JoinDynamicFilter project(List<Integer> channels)
+    {
+        requireNonNull(channels, "channels is null");
+        if (isAll()) {
+            return ALL;
+        }
+
+        Type[] types = new Type[channels.size()];
+        long[] min = new long[channels.size()];
+        long[] max = new long[channels.size()];
+        boolean anySummarized = false;
+        for (int i = 0; i < channels.size(); i++) {
+            int channel = channels.get(i);
+            if (this.types[channel] == null) {
+                continue;
+            }
+            anySummarized = true;
+            types[i] = this.types[channel];
+            min[i] = this.min[channel];
+            max[i] = this.max[channel];
+        }
+
+        if (!anySummarized) {
+            return ALL;
+        }
+        return new JoinDynamicFilter(types, min, max);
+    }
+
+    /**
+     * Converts the filter to a tuple domain over the given keys, one per join channel.
+     * Nulls are excluded, as a null join key can not match any build row.
+     */
+    public <T> TupleDomain<T> toTupleDomain(List<T> keys)
+    {
+        requireNonNull(keys, "keys is null");
+        if (isAll()) {
+            return TupleDomain.all();
+        }
+        checkArgument(keys.size() == types.length, "expected %s keys, but got %s", types.length, keys.size());
+
+        // several join channels can refer to the same key
+        TupleDomain<T> tupleDomain = TupleDomain.all();
+        for (int i = 0; i < types.length; i++) {
+            Type type = types[i];
+            if (type == null) {
+                continue;
+            }
+            Domain domain;
+            if (min[i] > max[i]) {
+                domain = Domain.none(type);
+            }
+            else {
+                domain = Domain.create(ValueSet.ofRanges(Range.range(type, min[i], true, max[i], true)), false);
+            }
+            tupleDomain = tupleDomain.intersect(TupleDomain.withColumnDomains(ImmutableMap.of(keys.get(i), domain)));
+        }
+        return tupleDomain;
+    }
+
+    /**
+     * Combines summaries of different partitions of the same build side.
+     */
+    public JoinDynamicFilter union(JoinDynamicFilter other)
+    {
+        requireNonNull(other, "other is null");
+        if (isAll() || other.isAll()) {
+            return ALL;
+        }
+        checkArgument(types.length == other.types.length, "filters have different channel count");
+
+        int channelCount = types.length;
+        Type[] types = new Type[channelCount];
+        long[] min = new long[channelCount];
+        long[] max = new long[channelCount];
+        boolean anySummarized = false;
+        for (int i = 0; i < channelCount; i++) {
+            if (this.types[i] == null || other.types[i] == null) {
+                continue;
+            }
+            anySummarized = true;
+            types[i] = this.types[i];
+            min[i] = min(this.min[i], other.min[i]);
+            max[i] = max(this.max[i], other.max[i]);
+        }
+
+        if (!anySummarized) {
+            return ALL;
+        }
+        return new JoinDynamicFilter(types, min, max);
+    }
+
+    @Override
+    public String toString()
+    {
+        if (isAll()) {
+            return "ALL";
+        }
+        ToStringHelper helper = toStringHelper(this);
+        for (int i = 0; i < types.length; i++) {
+            if (types[i] != null) {
+                helper.add("channel" + i, min[i] <= max[i] ? "[" + min[i] + ", " + max[i] + "]" : "NONE");
+            }
+        }
+        return helper.toString();
+    }
+}
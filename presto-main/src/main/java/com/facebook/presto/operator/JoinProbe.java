@@ -21,6 +21,7 @@ import java.util.Optional;
 import java.util.OptionalInt;
 
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static java.util.Objects.requireNonNull;
 
 public class JoinProbe
 {
@@ -39,7 +40,12 @@ public class JoinProbe
 
         public JoinProbe createJoinProbe(Page page)
         {
-            return new JoinProbe(probeOutputChannels, page, probeJoinChannels, probeHashChannel);
+            return createJoinProbe(page, JoinDynamicFilter.all());
+        }
+
+        public JoinProbe createJoinProbe(Page page, JoinDynamicFilter dynamicFilter)
+        {
+            return new JoinProbe(probeOutputChannels, page, probeJoinChannels, probeHashChannel, dynamicFilter);
         }
     }
 
@@ -49,10 +55,11 @@ public class JoinProbe
     private final Page page;
     private final Page probePage;
     private final Optional<Block> probeHashBlock;
+    private final JoinDynamicFilter dynamicFilter;
 
     private int position = -1;
 
-    private JoinProbe(int[] probeOutputChannels, Page page, List<Integer> probeJoinChannels, OptionalInt probeHashChannel)
+    private JoinProbe(int[] probeOutputChannels, Page page, List<Integer> probeJoinChannels, OptionalInt probeHashChannel, JoinDynamicFilter dynamicFilter)
     {
         this.probeOutputChannels = probeOutputChannels;
         this.positionCount = page.getPositionCount();
@@ -64,6 +71,7 @@ public class JoinProbe
         this.page = page;
         this.probePage = new Page(page.getPositionCount(), probeBlocks);
         this.probeHashBlock = probeHashChannel.isPresent() ? Optional.of(page.getBlock(probeHashChannel.getAsInt())) : Optional.empty();
+        this.dynamicFilter = requireNonNull(dynamicFilter, "dynamicFilter is null");
     }
 
     public int[] getOutputChannels()
@@ -82,6 +90,9 @@ public class JoinProbe
         if (currentRowContainsNull()) {
             return -1;
         }
+        if (!dynamicFilter.mayContain(probeBlocks, position)) {
+            return -1;
+        }
         if (probeHashBlock.isPresent()) {
             long rawHash = BIGINT.getLong(probeHashBlock.get(), position);
             return lookupSource.getJoinPosition(position, probePage, page, rawHash);
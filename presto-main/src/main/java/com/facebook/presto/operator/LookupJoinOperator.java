@@ -70,6 +70,7 @@ public class LookupJoinOperator
 
     private final ListenableFuture<LookupSourceProvider> lookupSourceProviderFuture;
     private LookupSourceProvider lookupSourceProvider;
+    private JoinDynamicFilter dynamicFilter = JoinDynamicFilter.all();
     private JoinProbe probe;
 
     private Page outputPage;
@@ -220,7 +221,7 @@ public class LookupJoinOperator
 
         // create probe
         inputPageSpillEpoch = spillInfoSnapshot.getSpillEpoch();
-        probe = joinProbeFactory.createJoinProbe(page);
+        probe = joinProbeFactory.createJoinProbe(page, dynamicFilter);
 
         // initialize to invalid join position to force output code to advance the cursors
         joinPosition = -1;
@@ -233,6 +234,7 @@ public class LookupJoinOperator
                 return false;
             }
             lookupSourceProvider = requireNonNull(getDone(lookupSourceProviderFuture));
+            dynamicFilter = lookupSourceFactory.getDynamicFilter();
             statisticsCounter.updateLookupSourcePositions(lookupSourceProvider.withLease(lookupSourceLease -> lookupSourceLease.getLookupSource().getJoinPositionCount()));
         }
         return true;
@@ -66,6 +66,20 @@ public interface LookupSourceFactory
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Must be called before the partition lookup source is lent, so that the filter is known when {@link #createLookupSourceProvider()} is done.
+     */
+    default void setPartitionDynamicFilter(int partitionIndex, JoinDynamicFilter dynamicFilter) {}
+
+    /**
+     * Returns a filter accepting every row until the dynamic filters of all partitions are set,
+     * which is the case once {@link #createLookupSourceProvider()} is done.
+     */
+    default JoinDynamicFilter getDynamicFilter()
+    {
+        return JoinDynamicFilter.all();
+    }
+
     void destroy();
 
     default ListenableFuture<?> isDestroyed()
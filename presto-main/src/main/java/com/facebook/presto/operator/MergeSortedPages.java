@@ -0,0 +1,172 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.memory.AggregatedMemoryContext;
+import com.facebook.presto.memory.LocalMemoryContext;
+import com.facebook.presto.operator.MergeHashSort.PagePosition;
+import com.facebook.presto.operator.MergeHashSort.SingleChannelPagePositions;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.PageBuilder;
+import com.facebook.presto.spi.block.SortOrder;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
+import com.google.common.primitives.Ints;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * This class performs k-way merge of page streams which are each sorted on the same sort channels.
+ */
+public class MergeSortedPages
+        implements Closeable
+{
+    private final AggregatedMemoryContext memoryContext;
+
+    public MergeSortedPages(AggregatedMemoryContext memoryContext)
+    {
+        this.memoryContext = requireNonNull(memoryContext, "memoryContext is null");
+    }
+
+    /**
+     * Returned pages contain only the output channels, in the order they are listed.
+     */
+    public Iterator<Page> merge(
+            List<Type> sourceTypes,
+            List<Integer> sortChannels,
+            List<SortOrder> sortOrders,
+            List<Integer> outputChannels,
+            List<Iterator<Page>> sortedStreams)
+    {
+        checkArgument(sortChannels.size() == sortOrders.size(), "sortChannels and sortOrders must have the same size");
+
+        List<Iterator<PagePosition>> channelIterators = sortedStreams.stream()
+                .map(stream -> new SingleChannelPagePositions(stream, memoryContext.newLocalMemoryContext()))
+                .collect(toList());
+
+        PagePositionComparator comparator = new PagePositionComparator(sourceTypes, sortChannels, sortOrders);
+        return new SortedPageBuilderIterator(
+                sourceTypes,
+                Ints.toArray(outputChannels),
+                Iterators.mergeSorted(channelIterators, comparator::compare),
+                memoryContext.newLocalMemoryContext());
+    }
+
+    @Override
+    public void close()
+    {
+        memoryContext.close();
+    }
+
+    private static class PagePositionComparator
+    {
+        private final List<Type> sortTypes;
+        private final int[] sortChannels;
+        private final List<SortOrder> sortOrders;
+
+        public PagePositionComparator(List<Type> sourceTypes, List<Integer> sortChannels, List<SortOrder> sortOrders)
+        {
+            this.sortTypes = sortChannels.stream()
+                    .map(sourceTypes::get)
+                    .collect(toList());
+            this.sortChannels = Ints.toArray(sortChannels);
+            this.sortOrders = ImmutableList.copyOf(sortOrders);
+        }
+
+        public int compare(PagePosition left, PagePosition right)
+        {
+            // empty pages sort first, so they are skipped before any real position is produced
+            if (left.isPositionOutOfPage() && right.isPositionOutOfPage()) {
+                return 0;
+            }
+            if (left.isPositionOutOfPage()) {
+                return -1;
+            }
+            if (right.isPositionOutOfPage()) {
+                return 1;
+            }
+
+            for (int i = 0; i < sortChannels.length; i++) {
+                int channel = sortChannels[i];
+                int compare = sortOrders.get(i).compareBlockValue(
+                        sortTypes.get(i),
+                        left.getPage().getBlock(channel),
+                        left.getPosition(),
+                        right.getPage().getBlock(channel),
+                        right.getPosition());
+                if (compare != 0) {
+                    return compare;
+                }
+            }
+            return 0;
+        }
+    }
+
+    private static class SortedPageBuilderIterator
+            extends AbstractIterator<Page>
+    {
+        private final List<Type> sourceTypes;
+        private final int[] outputChannels;
+        private final Iterator<PagePosition> pagePositions;
+        private final PageBuilder pageBuilder;
+        private final LocalMemoryContext memoryContext;
+
+        public SortedPageBuilderIterator(List<Type> sourceTypes, int[] outputChannels, Iterator<PagePosition> pagePositions, LocalMemoryContext memoryContext)
+        {
+            this.sourceTypes = ImmutableList.copyOf(sourceTypes);
+            this.outputChannels = outputChannels;
+            this.pagePositions = pagePositions;
+            this.memoryContext = memoryContext;
+
+            ImmutableList.Builder<Type> outputTypes = ImmutableList.builder();
+            for (int channel : outputChannels) {
+                outputTypes.add(sourceTypes.get(channel));
+            }
+            this.pageBuilder = new PageBuilder(outputTypes.build());
+        }
+
+        @Override
+        protected Page computeNext()
+        {
+            pageBuilder.reset();
+            while (!pageBuilder.isFull() && pagePositions.hasNext()) {
+                PagePosition position = pagePositions.next();
+                if (position.isPositionOutOfPage()) {
+                    continue;
+                }
+
+                pageBuilder.declarePosition();
+                for (int i = 0; i < outputChannels.length; i++) {
+                    int channel = outputChannels[i];
+                    sourceTypes.get(channel).appendTo(position.getPage().getBlock(channel), position.getPosition(), pageBuilder.getBlockBuilder(i));
+                }
+            }
+            memoryContext.setBytes(pageBuilder.getRetainedSizeInBytes());
+
+            if (pageBuilder.isEmpty()) {
+                memoryContext.setBytes(0);
+                return endOfData();
+            }
+            return pageBuilder.build();
+        }
+    }
+}
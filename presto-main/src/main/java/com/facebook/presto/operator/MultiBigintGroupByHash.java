@@ -0,0 +1,485 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.PageBuilder;
+import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.block.LongArrayBlock;
+import com.facebook.presto.spi.type.AbstractLongType;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.annotations.VisibleForTesting;
+import org.openjdk.jol.info.ClassLayout;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static com.facebook.presto.spi.StandardErrorCode.GENERIC_INSUFFICIENT_RESOURCES;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.sql.planner.optimizations.HashGenerationOptimizer.INITIAL_HASH_VALUE;
+import static com.facebook.presto.type.TypeUtils.NULL_HASH_CODE;
+import static com.facebook.presto.util.HashCollisionsEstimator.estimateNumberOfHashCollisions;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static it.unimi.dsi.fastutil.HashCommon.arraySize;
+import static it.unimi.dsi.fastutil.HashCommon.murmurHash3;
+import static java.lang.Math.min;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Group by hash for groupings on multiple BIGINT columns.
+ * <p>
+ * Keys of a group are packed into a fixed width row of a single {@code long[]}. Input is processed
+ * in batches: the keys of a batch are first copied column by column into a primitive array while
+ * hashes are computed, and the hash table is then probed in a loop that does not touch the blocks.
+ * The hash table is grown before a batch is processed, so that the probe loop never rehashes.
+ * <p>
+ * Raw hashes are always computed from the key values. They are equal to the hashes produced by
+ * {@link InterpretedHashGenerator}, so a precomputed hash channel of the input is not read.
+ */
+// This implementation assumes arrays used in the hash are always a power of 2
+public class MultiBigintGroupByHash
+        implements GroupByHash
+{
+    public static final int MAX_CHANNELS = 8;
+
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(MultiBigintGroupByHash.class).instanceSize();
+    private static final float FILL_RATIO = 0.75f;
+    private static final int BATCH_SIZE = 1024;
+
+    private final int[] channels;
+    private final int channelCount;
+    private final boolean outputRawHash;
+    private final List<Type> types;
+
+    private int hashCapacity;
+    private int maxFill;
+    private int mask;
+
+    // the hash table from hash positions to groupIds
+    private int[] groupIdsByHash;
+
+    // packed keys of the groups, channelCount values per group; null values are stored as zero
+    private long[] keysByGroupId;
+    // bit i is set if the value of channel i is null
+    private byte[] nullMasksByGroupId;
+    private long[] rawHashByGroupId;
+
+    private int nextGroupId;
+    private long hashCollisions;
+    private double expectedHashCollisions;
+
+    // scratch space for the batch being processed
+    private final long[] batchKeys;
+    private final byte[] batchNullMasks;
+    private final long[] batchHashes;
+
+    // reserve enough memory before rehash
+    private final UpdateMemory updateMemory;
+    private long preallocatedMemoryInBytes;
+    private long currentPageSizeInBytes;
+
+    public MultiBigintGroupByHash(int[] hashChannels, boolean outputRawHash, int expectedSize, UpdateMemory updateMemory)
+    {
+        requireNonNull(hashChannels, "hashChannels is null");
+        checkArgument(hashChannels.length > 1 && hashChannels.length <= MAX_CHANNELS, "Expected between 2 and %s channels", MAX_CHANNELS);
+        checkArgument(expectedSize > 0, "expectedSize must be greater than zero");
+
+        this.channels = hashChannels.clone();
+        this.channelCount = hashChannels.length;
+        this.outputRawHash = outputRawHash;
+        this.types = Collections.<Type>nCopies(channelCount + (outputRawHash ? 1 : 0), BIGINT);
+
+        hashCapacity = arraySize(expectedSize, FILL_RATIO);
+        maxFill = calculateMaxFill(hashCapacity);
+        mask = hashCapacity - 1;
+        groupIdsByHash = new int[hashCapacity];
+        Arrays.fill(groupIdsByHash, -1);
+
+        keysByGroupId = new long[maxFill * channelCount];
+        nullMasksByGroupId = new byte[maxFill];
+        rawHashByGroupId = new long[maxFill];
+
+        batchKeys = new long[BATCH_SIZE * channelCount];
+        batchNullMasks = new byte[BATCH_SIZE];
+        batchHashes = new long[BATCH_SIZE];
+
+        // This interface is used for actively reserving memory (push model) for rehash.
+        // The caller can also query memory usage on this object (pull model)
+        this.updateMemory = requireNonNull(updateMemory, "updateMemory is null");
+    }
+
+    @Override
+    public long getEstimatedSize()
+    {
+        return INSTANCE_SIZE +
+                sizeOf(groupIdsByHash) +
+                sizeOf(keysByGroupId) +
+                sizeOf(nullMasksByGroupId) +
+                sizeOf(rawHashByGroupId) +
+                sizeOf(batchKeys) +
+                sizeOf(batchNullMasks) +
+                sizeOf(batchHashes) +
+                preallocatedMemoryInBytes;
+    }
+
+    @Override
+    public long getHashCollisions()
+    {
+        return hashCollisions;
+    }
+
+    @Override
+    public double getExpectedHashCollisions()
+    {
+        return expectedHashCollisions + estimateNumberOfHashCollisions(getGroupCount(), hashCapacity);
+    }
+
+    @Override
+    public List<Type> getTypes()
+    {
+        return types;
+    }
+
+    @Override
+    public int getGroupCount()
+    {
+        return nextGroupId;
+    }
+
+    @Override
+    public void appendValuesTo(int groupId, PageBuilder pageBuilder, int outputChannelOffset)
+    {
+        checkArgument(groupId >= 0, "groupId is negative");
+        int nullMask = nullMasksByGroupId[groupId];
+        int keyOffset = groupId * channelCount;
+        for (int channel = 0; channel < channelCount; channel++) {
+            BlockBuilder blockBuilder = pageBuilder.getBlockBuilder(outputChannelOffset + channel);
+            if ((nullMask & (1 << channel)) != 0) {
+                blockBuilder.appendNull();
+            }
+            else {
+                BIGINT.writeLong(blockBuilder, keysByGroupId[keyOffset + channel]);
+            }
+        }
+
+        if (outputRawHash) {
+            BIGINT.writeLong(pageBuilder.getBlockBuilder(outputChannelOffset + channelCount), rawHashByGroupId[groupId]);
+        }
+    }
+
+    @Override
+    public Work<?> addPage(Page page)
+    {
+        currentPageSizeInBytes = page.getRetainedSizeInBytes();
+        return new AddPageWork(getKeyBlocks(page, channels));
+    }
+
+    @Override
+    public Work<GroupByIdBlock> getGroupIds(Page page)
+    {
+        currentPageSizeInBytes = page.getRetainedSizeInBytes();
+        return new GetGroupIdsWork(getKeyBlocks(page, channels));
+    }
+
+    @Override
+    public boolean contains(int position, Page page, int[] hashChannels)
+    {
+        checkArgument(hashChannels.length == channelCount, "Expected %s hash channels", channelCount);
+        loadBatch(getKeyBlocks(page, hashChannels), position, 1);
+
+        int hashPosition = getHashPosition(batchHashes[0], mask);
+        while (groupIdsByHash[hashPosition] != -1) {
+            if (batchRowEqualsGroup(0, groupIdsByHash[hashPosition])) {
+                return true;
+            }
+            // increment position and mask to handle wrap around
+            hashPosition = (hashPosition + 1) & mask;
+        }
+        return false;
+    }
+
+    @Override
+    public long getRawHash(int groupId)
+    {
+        return rawHashByGroupId[groupId];
+    }
+
+    @VisibleForTesting
+    @Override
+    public int getCapacity()
+    {
+        return hashCapacity;
+    }
+
+    /**
+     * Copies keys of the positions {@code [offset, offset + length)} to the batch arrays and computes their hashes,
+     * one column at a time.
+     */
+    private void loadBatch(Block[] blocks, int offset, int length)
+    {
+        Arrays.fill(batchHashes, 0, length, INITIAL_HASH_VALUE);
+        Arrays.fill(batchNullMasks, 0, length, (byte) 0);
+
+        for (int channel = 0; channel < channelCount; channel++) {
+            Block block = blocks[channel];
+            byte nullBit = (byte) (1 << channel);
+            for (int i = 0, keyIndex = channel; i < length; i++, keyIndex += channelCount) {
+                long value;
+                long hash;
+                if (block.isNull(offset + i)) {
+                    batchNullMasks[i] |= nullBit;
+                    value = 0;
+                    hash = NULL_HASH_CODE;
+                }
+                else {
+                    value = block.getLong(offset + i, 0);
+                    hash = AbstractLongType.hash(value);
+                }
+                batchKeys[keyIndex] = value;
+                // same as CombineHashFunction.getHash
+                batchHashes[i] = 31 * batchHashes[i] + hash;
+            }
+        }
+    }
+
+    /**
+     * Finds or creates the groups of the loaded batch. The hash table must have room for {@code length} new groups.
+     */
+    private void putBatchIfAbsent(int length, long[] groupIds, int groupIdsOffset)
+    {
+        for (int i = 0; i < length; i++) {
+            long rawHash = batchHashes[i];
+            int hashPosition = getHashPosition(rawHash, mask);
+
+            // look for an empty slot or a slot containing this key
+            int groupId;
+            while (true) {
+                groupId = groupIdsByHash[hashPosition];
+                if (groupId == -1) {
+                    groupId = addNewGroup(hashPosition, i, rawHash);
+                    break;
+                }
+                if (rawHashByGroupId[groupId] == rawHash && batchRowEqualsGroup(i, groupId)) {
+                    break;
+                }
+                // increment position and mask to handle wrap around
+                hashPosition = (hashPosition + 1) & mask;
+                hashCollisions++;
+            }
+
+            if (groupIds != null) {
+                groupIds[groupIdsOffset + i] = groupId;
+            }
+        }
+    }
+
+    private boolean batchRowEqualsGroup(int batchRow, int groupId)
+    {
+        if (batchNullMasks[batchRow] != nullMasksByGroupId[groupId]) {
+            return false;
+        }
+        int batchOffset = batchRow * channelCount;
+        int groupOffset = groupId * channelCount;
+        for (int channel = 0; channel < channelCount; channel++) {
+            if (batchKeys[batchOffset + channel] != keysByGroupId[groupOffset + channel]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int addNewGroup(int hashPosition, int batchRow, long rawHash)
+    {
+        int groupId = nextGroupId++;
+        System.arraycopy(batchKeys, batchRow * channelCount, keysByGroupId, groupId * channelCount, channelCount);
+        nullMasksByGroupId[groupId] = batchNullMasks[batchRow];
+        rawHashByGroupId[groupId] = rawHash;
+        groupIdsByHash[hashPosition] = groupId;
+        return groupId;
+    }
+
+    /**
+     * Makes sure {@code newGroups} groups can be added without a rehash.
+     *
+     * @return false if memory for the rehash could not be reserved
+     */
+    private boolean ensureCapacity(int newGroups)
+    {
+        while (nextGroupId + newGroups > maxFill) {
+            if (!tryRehash()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean tryRehash()
+    {
+        long newCapacityLong = hashCapacity * 2L;
+        if (newCapacityLong > Integer.MAX_VALUE || calculateMaxFill(toIntExact(newCapacityLong)) * (long) channelCount > Integer.MAX_VALUE) {
+            throw new PrestoException(GENERIC_INSUFFICIENT_RESOURCES, "Size of hash table cannot exceed 1 billion entries");
+        }
+        int newCapacity = toIntExact(newCapacityLong);
+        int newMaxFill = calculateMaxFill(newCapacity);
+
+        // An estimate of how much extra memory is needed before we can go ahead and expand the hash table.
+        // This includes the new capacity for groupIdsByHash and the arrays indexed by group id as well as the size of the current page
+        long bytesPerGroup = channelCount * (long) Long.BYTES + Byte.BYTES + Long.BYTES;
+        preallocatedMemoryInBytes = (newCapacity - hashCapacity) * (long) Integer.BYTES + (newMaxFill - maxFill) * bytesPerGroup + currentPageSizeInBytes;
+        if (!updateMemory.update()) {
+            // reserved memory but has exceeded the limit
+            return false;
+        }
+        preallocatedMemoryInBytes = 0;
+
+        expectedHashCollisions += estimateNumberOfHashCollisions(getGroupCount(), hashCapacity);
+
+        int newMask = newCapacity - 1;
+        int[] newGroupIdsByHash = new int[newCapacity];
+        Arrays.fill(newGroupIdsByHash, -1);
+        for (int groupId = 0; groupId < nextGroupId; groupId++) {
+            // find an empty slot for the group
+            int hashPosition = getHashPosition(rawHashByGroupId[groupId], newMask);
+            while (newGroupIdsByHash[hashPosition] != -1) {
+                hashPosition = (hashPosition + 1) & newMask;
+                hashCollisions++;
+            }
+            newGroupIdsByHash[hashPosition] = groupId;
+        }
+
+        mask = newMask;
+        hashCapacity = newCapacity;
+        maxFill = newMaxFill;
+        groupIdsByHash = newGroupIdsByHash;
+        keysByGroupId = Arrays.copyOf(keysByGroupId, maxFill * channelCount);
+        nullMasksByGroupId = Arrays.copyOf(nullMasksByGroupId, maxFill);
+        rawHashByGroupId = Arrays.copyOf(rawHashByGroupId, maxFill);
+        return true;
+    }
+
+    private static Block[] getKeyBlocks(Page page, int[] channels)
+    {
+        Block[] blocks = new Block[channels.length];
+        for (int i = 0; i < channels.length; i++) {
+            blocks[i] = page.getBlock(channels[i]);
+        }
+        return blocks;
+    }
+
+    private static int getHashPosition(long rawHash, int mask)
+    {
+        return (int) (murmurHash3(rawHash) & mask);
+    }
+
+    private static int calculateMaxFill(int hashSize)
+    {
+        checkArgument(hashSize > 0, "hashSize must be greater than 0");
+        int maxFill = (int) Math.ceil(hashSize * FILL_RATIO);
+        if (maxFill == hashSize) {
+            maxFill--;
+        }
+        checkArgument(hashSize > maxFill, "hashSize must be larger than maxFill");
+        return maxFill;
+    }
+
+    private class AddPageWork
+            implements Work<Void>
+    {
+        private final Block[] blocks;
+        private final int positionCount;
+
+        private int lastPosition;
+
+        public AddPageWork(Block[] blocks)
+        {
+            this.blocks = requireNonNull(blocks, "blocks is null");
+            this.positionCount = blocks[0].getPositionCount();
+        }
+
+        @Override
+        public boolean process()
+        {
+            checkState(lastPosition <= positionCount, "position count out of bound");
+            while (lastPosition < positionCount) {
+                int length = min(BATCH_SIZE, positionCount - lastPosition);
+                // yield if the hash table can not grow because memory is not available
+                if (!ensureCapacity(length)) {
+                    return false;
+                }
+                loadBatch(blocks, lastPosition, length);
+                putBatchIfAbsent(length, null, 0);
+                lastPosition += length;
+            }
+            return true;
+        }
+
+        @Override
+        public Void getResult()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private class GetGroupIdsWork
+            implements Work<GroupByIdBlock>
+    {
+        private final Block[] blocks;
+        private final int positionCount;
+        private final long[] groupIds;
+
+        private boolean finished;
+        private int lastPosition;
+
+        public GetGroupIdsWork(Block[] blocks)
+        {
+            this.blocks = requireNonNull(blocks, "blocks is null");
+            this.positionCount = blocks[0].getPositionCount();
+            // we know the exact size required for the result
+            this.groupIds = new long[positionCount];
+        }
+
+        @Override
+        public boolean process()
+        {
+            checkState(lastPosition <= positionCount, "position count out of bound");
+            checkState(!finished);
+            while (lastPosition < positionCount) {
+                int length = min(BATCH_SIZE, positionCount - lastPosition);
+                // yield if the hash table can not grow because memory is not available
+                if (!ensureCapacity(length)) {
+                    return false;
+                }
+                loadBatch(blocks, lastPosition, length);
+                putBatchIfAbsent(length, groupIds, lastPosition);
+                lastPosition += length;
+            }
+            return true;
+        }
+
+        @Override
+        public GroupByIdBlock getResult()
+        {
+            checkState(lastPosition == positionCount, "process has not yet finished");
+            checkState(!finished, "result has produced");
+            finished = true;
+            return new GroupByIdBlock(nextGroupId, new LongArrayBlock(positionCount, new boolean[positionCount], groupIds));
+        }
+    }
+}
@@ -17,13 +17,22 @@ import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.PageBuilder;
 import com.facebook.presto.spi.block.SortOrder;
 import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spiller.Spiller;
+import com.facebook.presto.spiller.SpillerFactory;
 import com.facebook.presto.sql.planner.plan.PlanNodeId;
 import com.google.common.collect.ImmutableList;
+import com.google.common.io.Closer;
 import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.ListenableFuture;
 
+import java.io.IOException;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static io.airlift.concurrent.MoreFutures.checkSuccess;
 import static java.util.Objects.requireNonNull;
 
 public class OrderByOperator
@@ -42,6 +51,8 @@ public class OrderByOperator
         private final List<Type> types;
         private boolean closed;
         private final PagesIndex.Factory pagesIndexFactory;
+        private final boolean spillEnabled;
+        private final SpillerFactory spillerFactory;
 
         public OrderByOperatorFactory(
                 int operatorId,
@@ -52,6 +63,32 @@ public class OrderByOperator
                 List<Integer> sortChannels,
                 List<SortOrder> sortOrder,
                 PagesIndex.Factory pagesIndexFactory)
+        {
+            this(operatorId,
+                    planNodeId,
+                    sourceTypes,
+                    outputChannels,
+                    expectedPositions,
+                    sortChannels,
+                    sortOrder,
+                    pagesIndexFactory,
+                    false,
+                    (types, spillContext, memoryContext) -> {
+                        throw new UnsupportedOperationException();
+                    });
+        }
+
+        public OrderByOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                List<? extends Type> sourceTypes,
+                List<Integer> outputChannels,
+                int expectedPositions,
+                List<Integer> sortChannels,
+                List<SortOrder> sortOrder,
+                PagesIndex.Factory pagesIndexFactory,
+                boolean spillEnabled,
+                SpillerFactory spillerFactory)
         {
             this.operatorId = operatorId;
             this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
@@ -63,6 +100,8 @@ public class OrderByOperator
 
             this.types = toTypes(sourceTypes, outputChannels);
             this.pagesIndexFactory = requireNonNull(pagesIndexFactory, "pagesIndexFactory is null");
+            this.spillEnabled = spillEnabled;
+            this.spillerFactory = requireNonNull(spillerFactory, "spillerFactory is null");
         }
 
         @Override
@@ -84,7 +123,9 @@ public class OrderByOperator
                     expectedPositions,
                     sortChannels,
                     sortOrder,
-                    pagesIndexFactory);
+                    pagesIndexFactory,
+                    spillEnabled,
+                    spillerFactory);
         }
 
         @Override
@@ -96,7 +137,7 @@ public class OrderByOperator
         @Override
         public OperatorFactory duplicate()
         {
-            return new OrderByOperatorFactory(operatorId, planNodeId, sourceTypes, outputChannels, expectedPositions, sortChannels, sortOrder, pagesIndexFactory);
+            return new OrderByOperatorFactory(operatorId, planNodeId, sourceTypes, outputChannels, expectedPositions, sortChannels, sortOrder, pagesIndexFactory, spillEnabled, spillerFactory);
         }
     }
 
@@ -108,6 +149,7 @@ public class OrderByOperator
     }
 
     private final OperatorContext operatorContext;
+    private final List<Type> sourceTypes;
     private final List<Integer> sortChannels;
     private final List<SortOrder> sortOrder;
     private final int[] outputChannels;
@@ -118,6 +160,16 @@ public class OrderByOperator
     private final PageBuilder pageBuilder;
     private int currentPosition;
 
+    private final boolean spillEnabled;
+    private final SpillerFactory spillerFactory;
+
+    private Optional<Spiller> spiller = Optional.empty();
+    private ListenableFuture<?> spillInProgress = immediateFuture(null);
+    private Optional<Runnable> finishMemoryRevoke = Optional.empty();
+
+    private Optional<MergeSortedPages> mergeSortedPages = Optional.empty();
+    private Iterator<Page> mergedPages;
+
     private State state = State.NEEDS_INPUT;
 
     public OrderByOperator(
@@ -128,10 +180,35 @@ public class OrderByOperator
             List<Integer> sortChannels,
             List<SortOrder> sortOrder,
             PagesIndex.Factory pagesIndexFactory)
+    {
+        this(operatorContext,
+                sourceTypes,
+                outputChannels,
+                expectedPositions,
+                sortChannels,
+                sortOrder,
+                pagesIndexFactory,
+                false,
+                (types, spillContext, memoryContext) -> {
+                    throw new UnsupportedOperationException();
+                });
+    }
+
+    public OrderByOperator(
+            OperatorContext operatorContext,
+            List<Type> sourceTypes,
+            List<Integer> outputChannels,
+            int expectedPositions,
+            List<Integer> sortChannels,
+            List<SortOrder> sortOrder,
+            PagesIndex.Factory pagesIndexFactory,
+            boolean spillEnabled,
+            SpillerFactory spillerFactory)
     {
         requireNonNull(pagesIndexFactory, "pagesIndexFactory is null");
 
         this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
+        this.sourceTypes = ImmutableList.copyOf(requireNonNull(sourceTypes, "sourceTypes is null"));
         this.outputChannels = Ints.toArray(requireNonNull(outputChannels, "outputChannels is null"));
         this.types = toTypes(sourceTypes, outputChannels);
         this.sortChannels = ImmutableList.copyOf(requireNonNull(sortChannels, "sortChannels is null"));
@@ -140,6 +217,9 @@ public class OrderByOperator
         this.pageIndex = pagesIndexFactory.newPagesIndex(sourceTypes, expectedPositions);
 
         this.pageBuilder = new PageBuilder(this.types);
+
+        this.spillEnabled = spillEnabled;
+        this.spillerFactory = requireNonNull(spillerFactory, "spillerFactory is null");
     }
 
     @Override
@@ -157,11 +237,18 @@ public class OrderByOperator
     @Override
     public void finish()
     {
-        if (state == State.NEEDS_INPUT) {
-            state = State.HAS_OUTPUT;
+        if (state != State.NEEDS_INPUT || finishMemoryRevoke.isPresent()) {
+            return;
+        }
+        checkSuccess(spillInProgress, "spilling failed");
+        state = State.HAS_OUTPUT;
 
-            // sort the index
-            pageIndex.sort(sortChannels, sortOrder);
+        // sort the index
+        pageIndex.sort(sortChannels, sortOrder);
+
+        if (spiller.isPresent() && pageIndex.getPositionCount() > 0) {
+            // spill the last run as well, so that the output is a merge of sorted runs read back from disk
+            spillInProgress = spiller.get().spill(pageIndex.getSortedPages());
         }
     }
 
@@ -171,34 +258,86 @@ public class OrderByOperator
         return state == State.FINISHED;
     }
 
+    @Override
+    public ListenableFuture<?> isBlocked()
+    {
+        return spillInProgress;
+    }
+
     @Override
     public boolean needsInput()
     {
-        return state == State.NEEDS_INPUT;
+        return state == State.NEEDS_INPUT && spillInProgress.isDone() && !finishMemoryRevoke.isPresent();
     }
 
     @Override
     public void addInput(Page page)
     {
         checkState(state == State.NEEDS_INPUT, "Operator is already finishing");
+        checkState(!finishMemoryRevoke.isPresent(), "Memory revoke is in progress");
         requireNonNull(page, "page is null");
+        checkSuccess(spillInProgress, "spilling failed");
 
         pageIndex.addPage(page);
+        updateMemoryReservation();
+    }
 
-        if (!operatorContext.trySetMemoryReservation(pageIndex.getEstimatedSize().toBytes())) {
-            pageIndex.compact();
+    @Override
+    public ListenableFuture<?> startMemoryRevoke()
+    {
+        checkState(spillEnabled, "Spill not enabled, no revokable memory should be reserved");
+        checkState(!finishMemoryRevoke.isPresent(), "Previous memory revoke has not been finished");
+
+        // while the last run is being spilled or merged output is produced, the index is no longer revocable
+        if (state == State.FINISHED || (spiller.isPresent() && state == State.HAS_OUTPUT) || pageIndex.getPositionCount() == 0) {
+            finishMemoryRevoke = Optional.of(() -> {});
+            return immediateFuture(null);
         }
+        checkSuccess(spillInProgress, "spilling failed");
 
-        operatorContext.setMemoryReservation(pageIndex.getEstimatedSize().toBytes());
+        if (!spiller.isPresent()) {
+            spiller = Optional.of(spillerFactory.create(
+                    sourceTypes,
+                    operatorContext.getSpillContext(),
+                    operatorContext.getSystemMemoryContext().newAggregatedMemoryContext()));
+        }
+
+        if (state == State.NEEDS_INPUT) {
+            pageIndex.sort(sortChannels, sortOrder);
+            spillInProgress = spiller.get().spill(pageIndex.getSortedPages());
+        }
+        else {
+            // the index is already sorted, spill only the positions which were not produced yet
+            spillInProgress = spiller.get().spill(pageIndex.getSortedPages(currentPosition));
+        }
+
+        finishMemoryRevoke = Optional.of(() -> {
+            pageIndex.clear();
+            currentPosition = 0;
+            updateMemoryReservation();
+        });
+        return spillInProgress;
+    }
+
+    @Override
+    public void finishMemoryRevoke()
+    {
+        checkState(finishMemoryRevoke.isPresent(), "Cannot finish unknown revoking");
+        finishMemoryRevoke.get().run();
+        finishMemoryRevoke = Optional.empty();
     }
 
     @Override
     public Page getOutput()
     {
-        if (state != State.HAS_OUTPUT) {
+        if (state != State.HAS_OUTPUT || !spillInProgress.isDone() || finishMemoryRevoke.isPresent()) {
             return null;
         }
 
+        if (spiller.isPresent()) {
+            return getSpilledOutput();
+        }
+
         if (currentPosition >= pageIndex.getPositionCount()) {
             state = State.FINISHED;
             return null;
@@ -218,6 +357,58 @@ public class OrderByOperator
         return page;
     }
 
+    private Page getSpilledOutput()
+    {
+        checkSuccess(spillInProgress, "spilling failed");
+
+        if (mergedPages == null) {
+            // all input is on disk now
+            pageIndex.clear();
+            currentPosition = 0;
+            updateMemoryReservation();
+
+            mergeSortedPages = Optional.of(new MergeSortedPages(operatorContext.getSystemMemoryContext().newAggregatedMemoryContext()));
+            mergedPages = mergeSortedPages.get().merge(
+                    sourceTypes,
+                    sortChannels,
+                    sortOrder,
+                    Ints.asList(outputChannels),
+                    spiller.get().getSpills());
+        }
+
+        if (!mergedPages.hasNext()) {
+            state = State.FINISHED;
+            return null;
+        }
+        return mergedPages.next();
+    }
+
+    private void updateMemoryReservation()
+    {
+        if (spillEnabled) {
+            operatorContext.setRevocableMemoryReservation(pageIndex.getEstimatedSize().toBytes());
+            return;
+        }
+
+        if (!operatorContext.trySetMemoryReservation(pageIndex.getEstimatedSize().toBytes())) {
+            pageIndex.compact();
+        }
+
+        operatorContext.setMemoryReservation(pageIndex.getEstimatedSize().toBytes());
+    }
+
+    @Override
+    public void close()
+    {
+        try (Closer closer = Closer.create()) {
+            spiller.ifPresent(closer::register);
+            mergeSortedPages.ifPresent(closer::register);
+        }
+        catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     private static List<Type> toTypes(List<? extends Type> sourceTypes, List<Integer> outputChannels)
     {
         ImmutableList.Builder<Type> types = ImmutableList.builder();
@@ -0,0 +1,76 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Decides whether partial aggregation should hash its input or pass rows through.
+ * <p>
+ * Hashing is abandoned once at least {@code minRows} rows were aggregated and the number of
+ * groups is more than {@link #UNIQUE_ROWS_RATIO_THRESHOLD} of the number of input rows.
+ * After {@link #PASS_THROUGH_ROWS_FACTOR} times {@code minRows} rows were passed through,
+ * hashing is tried again, so that aggregation recovers when the input becomes more redundant.
+ */
+@NotThreadSafe
+class PartialAggregationController
+{
+    static final double UNIQUE_ROWS_RATIO_THRESHOLD = 0.8;
+    static final int PASS_THROUGH_ROWS_FACTOR = 10;
+
+    private final long minRows;
+
+    private boolean passThrough;
+    private long passThroughRows;
+
+    public PartialAggregationController(long minRows)
+    {
+        checkArgument(minRows > 0, "minRows must be positive");
+        this.minRows = minRows;
+    }
+
+    public boolean isPassThrough()
+    {
+        return passThrough;
+    }
+
+    /**
+     * @return true if the hashed rows should be flushed and partial aggregation should switch to pass-through
+     */
+    public boolean onHashedInput(long inputRows, long groupCount)
+    {
+        if (passThrough || inputRows < minRows) {
+            return false;
+        }
+        if (groupCount > inputRows * UNIQUE_ROWS_RATIO_THRESHOLD) {
+            passThrough = true;
+            passThroughRows = 0;
+            return true;
+        }
+        return false;
+    }
+
+    public void onPassThroughInput(long rows)
+    {
+        if (!passThrough) {
+            return;
+        }
+        passThroughRows += rows;
+        if (passThroughRows >= minRows * PASS_THROUGH_ROWS_FACTOR) {
+            passThrough = false;
+        }
+    }
+}
@@ -20,4 +20,13 @@ public interface PartitionFunction
     int getPartitionCount();
 
     int getPartition(Page page, int position);
+
+    default int[] getPartitions(Page page)
+    {
+        int[] partitions = new int[page.getPositionCount()];
+        for (int position = 0; position < partitions.length; position++) {
+            partitions[position] = getPartition(page, position);
+        }
+        return partitions;
+    }
 }
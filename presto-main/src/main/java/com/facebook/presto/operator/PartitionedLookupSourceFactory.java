@@ -66,6 +66,9 @@ public final class PartitionedLookupSourceFactory
     @GuardedBy("lock")
     private final Supplier<LookupSource>[] partitions;
 
+    @GuardedBy("lock")
+    private final JoinDynamicFilter[] partitionDynamicFilters;
+
     private final SettableFuture<?> partitionsNoLongerNeeded = SettableFuture.create();
 
     @GuardedBy("lock")
@@ -114,6 +117,7 @@ public final class PartitionedLookupSourceFactory
         this.layout = ImmutableMap.copyOf(layout);
         checkArgument(partitionCount > 0);
         this.partitions = (Supplier<LookupSource>[]) new Supplier<?>[partitionCount];
+        this.partitionDynamicFilters = new JoinDynamicFilter[partitionCount];
         this.outer = outer;
         spilledLookupSource = new SpilledLookupSource(outputTypes.size());
     }
@@ -192,6 +196,38 @@ public final class PartitionedLookupSourceFactory
         return partitionsNoLongerNeeded;
     }
 
+    @Override
+    public void setPartitionDynamicFilter(int partitionIndex, JoinDynamicFilter dynamicFilter)
+    {
+        requireNonNull(dynamicFilter, "dynamicFilter is null");
+
+        lock.writeLock().lock();
+        try {
+            checkState(partitionDynamicFilters[partitionIndex] == null, "Partition dynamic filter already set");
+            partitionDynamicFilters[partitionIndex] = dynamicFilter;
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public JoinDynamicFilter getDynamicFilter()
+    {
+        lock.readLock().lock();
+        try {
+            // partitions spilled before they were built have no filter
+            JoinDynamicFilter dynamicFilter = partitionDynamicFilters[0];
+            for (int partition = 1; dynamicFilter != null && partition < partitionDynamicFilters.length; partition++) {
+                dynamicFilter = partitionDynamicFilters[partition] == null ? null : dynamicFilter.union(partitionDynamicFilters[partition]);
+            }
+            return dynamicFilter == null ? JoinDynamicFilter.all() : dynamicFilter;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
     @Override
     public void setPartitionSpilledLookupSourceHandle(int partitionIndex, SpilledLookupSourceHandle spilledLookupSourceHandle)
     {
@@ -20,6 +20,9 @@ import com.facebook.presto.execution.buffer.SerializedPage;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.PageBuilder;
 import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.block.DictionaryBlock;
+import com.facebook.presto.spi.block.LazyBlock;
 import com.facebook.presto.spi.block.PageBuilderStatus;
 import com.facebook.presto.spi.block.RunLengthEncodedBlock;
 import com.facebook.presto.spi.predicate.NullableValue;
@@ -60,6 +63,7 @@ public class PartitionedOutputOperator
         private final boolean replicatesAnyRow;
         private final OptionalInt nullChannel;
         private final DataSize maxMemory;
+        private final boolean dictionaryPartitionedOutput;
 
         public PartitionedOutputFactory(
                 PartitionFunction partitionFunction,
@@ -68,7 +72,8 @@ public class PartitionedOutputOperator
                 boolean replicatesAnyRow,
                 OptionalInt nullChannel,
                 OutputBuffer outputBuffer,
-                DataSize maxMemory)
+                DataSize maxMemory,
+                boolean dictionaryPartitionedOutput)
         {
             this.partitionFunction = requireNonNull(partitionFunction, "partitionFunction is null");
             this.partitionChannels = requireNonNull(partitionChannels, "partitionChannels is null");
@@ -77,6 +82,7 @@ public class PartitionedOutputOperator
             this.nullChannel = requireNonNull(nullChannel, "nullChannel is null");
             this.outputBuffer = requireNonNull(outputBuffer, "outputBuffer is null");
             this.maxMemory = requireNonNull(maxMemory, "maxMemory is null");
+            this.dictionaryPartitionedOutput = dictionaryPartitionedOutput;
         }
 
         @Override
@@ -99,7 +105,8 @@ public class PartitionedOutputOperator
                     nullChannel,
                     outputBuffer,
                     serdeFactory,
-                    maxMemory);
+                    maxMemory,
+                    dictionaryPartitionedOutput);
         }
     }
 
@@ -118,6 +125,7 @@ public class PartitionedOutputOperator
         private final OutputBuffer outputBuffer;
         private final PagesSerdeFactory serdeFactory;
         private final DataSize maxMemory;
+        private final boolean dictionaryPartitionedOutput;
 
         public PartitionedOutputOperatorFactory(
                 int operatorId,
@@ -131,7 +139,8 @@ public class PartitionedOutputOperator
                 OptionalInt nullChannel,
                 OutputBuffer outputBuffer,
                 PagesSerdeFactory serdeFactory,
-                DataSize maxMemory)
+                DataSize maxMemory,
+                boolean dictionaryPartitionedOutput)
         {
             this.operatorId = operatorId;
             this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
@@ -145,6 +154,7 @@ public class PartitionedOutputOperator
             this.outputBuffer = requireNonNull(outputBuffer, "outputBuffer is null");
             this.serdeFactory = requireNonNull(serdeFactory, "serdeFactory is null");
             this.maxMemory = requireNonNull(maxMemory, "maxMemory is null");
+            this.dictionaryPartitionedOutput = dictionaryPartitionedOutput;
         }
 
         @Override
@@ -168,7 +178,8 @@ public class PartitionedOutputOperator
                     nullChannel,
                     outputBuffer,
                     serdeFactory,
-                    maxMemory);
+                    maxMemory,
+                    dictionaryPartitionedOutput);
         }
 
         @Override
@@ -191,7 +202,8 @@ public class PartitionedOutputOperator
                     nullChannel,
                     outputBuffer,
                     serdeFactory,
-                    maxMemory);
+                    maxMemory,
+                    dictionaryPartitionedOutput);
         }
     }
 
@@ -212,7 +224,8 @@ public class PartitionedOutputOperator
             OptionalInt nullChannel,
             OutputBuffer outputBuffer,
             PagesSerdeFactory serdeFactory,
-            DataSize maxMemory)
+            DataSize maxMemory,
+            boolean dictionaryPartitionedOutput)
     {
         this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
         this.pagePreprocessor = requireNonNull(pagePreprocessor, "pagePreprocessor is null");
@@ -225,7 +238,8 @@ public class PartitionedOutputOperator
                 outputBuffer,
                 serdeFactory,
                 sourceTypes,
-                maxMemory);
+                maxMemory,
+                dictionaryPartitionedOutput);
 
         operatorContext.setInfoSupplier(this::getInfo);
         // TODO: We should try to make this more accurate
@@ -303,6 +317,10 @@ public class PartitionedOutputOperator
 
     private static class PagePartitioner
     {
+        // a partition that receives at least this many positions of a page with dictionary or run length
+        // encoded blocks is sent as a page of its own, so the encoded blocks are not flattened
+        private static final int MIN_DICTIONARY_PARTITION_POSITIONS = 256;
+
         private final OutputBuffer outputBuffer;
         private final List<Type> sourceTypes;
         private final PartitionFunction partitionFunction;
@@ -312,6 +330,7 @@ public class PartitionedOutputOperator
         private final List<PageBuilder> pageBuilders;
         private final boolean replicatesAnyRow;
         private final OptionalInt nullChannel; // when present, send the position to every partition if this channel is null.
+        private final boolean dictionaryPartitionedOutput;
         private final AtomicLong rowsAdded = new AtomicLong();
         private final AtomicLong pagesAdded = new AtomicLong();
         private boolean hasAnyRowBeenReplicated;
@@ -325,7 +344,8 @@ public class PartitionedOutputOperator
                 OutputBuffer outputBuffer,
                 PagesSerdeFactory serdeFactory,
                 List<Type> sourceTypes,
-                DataSize maxMemory)
+                DataSize maxMemory,
+                boolean dictionaryPartitionedOutput)
         {
             this.partitionFunction = requireNonNull(partitionFunction, "partitionFunction is null");
             this.partitionChannels = requireNonNull(partitionChannels, "partitionChannels is null");
@@ -337,6 +357,7 @@ public class PartitionedOutputOperator
             this.outputBuffer = requireNonNull(outputBuffer, "outputBuffer is null");
             this.sourceTypes = requireNonNull(sourceTypes, "sourceTypes is null");
             this.serde = requireNonNull(serdeFactory, "serdeFactory is null").createPagesSerde();
+            this.dictionaryPartitionedOutput = dictionaryPartitionedOutput;
 
             int pageSize = Math.min(PageBuilderStatus.DEFAULT_MAX_PAGE_SIZE_IN_BYTES, ((int) maxMemory.toBytes()) / partitionFunction.getPartitionCount());
             pageSize = Math.max(1, pageSize);
@@ -366,6 +387,11 @@ public class PartitionedOutputOperator
             requireNonNull(page, "page is null");
 
             Page partitionFunctionArgs = getPartitionFunctionArguments(page);
+            int[] positionPartitions = partitionFunction.getPartitions(partitionFunctionArgs);
+
+            // group the positions by partition, replicated positions are sent to every partition right away
+            int partitionCount = pageBuilders.size();
+            int[] partitionPositionCounts = new int[partitionCount];
             for (int position = 0; position < page.getPositionCount(); position++) {
                 boolean shouldReplicate = (replicatesAnyRow && !hasAnyRowBeenReplicated) ||
                         nullChannel.isPresent() && page.getBlock(nullChannel.getAsInt()).isNull(position);
@@ -374,15 +400,79 @@ public class PartitionedOutputOperator
                         appendRow(pageBuilder, page, position);
                     }
                     hasAnyRowBeenReplicated = true;
+                    positionPartitions[position] = -1;
+                }
+                else {
+                    partitionPositionCounts[positionPartitions[position]]++;
+                }
+            }
+
+            int[][] partitionPositions = new int[partitionCount][];
+            for (int partition = 0; partition < partitionCount; partition++) {
+                partitionPositions[partition] = new int[partitionPositionCounts[partition]];
+                partitionPositionCounts[partition] = 0;
+            }
+            for (int position = 0; position < page.getPositionCount(); position++) {
+                int partition = positionPartitions[position];
+                if (partition >= 0) {
+                    partitionPositions[partition][partitionPositionCounts[partition]] = position;
+                    partitionPositionCounts[partition]++;
+                }
+            }
+
+            boolean keepEncodedBlocks = dictionaryPartitionedOutput && hasEncodedBlock(page);
+            List<ListenableFuture<?>> blockedFutures = new ArrayList<>();
+            for (int partition = 0; partition < partitionCount; partition++) {
+                int[] positions = partitionPositions[partition];
+                if (positions.length == 0) {
+                    continue;
+                }
+                if (keepEncodedBlocks && positions.length >= MIN_DICTIONARY_PARTITION_POSITIONS) {
+                    Block[] blocks = new Block[sourceTypes.size()];
+                    for (int channel = 0; channel < blocks.length; channel++) {
+                        Block block = getLoadedBlock(page, channel);
+                        if (block instanceof DictionaryBlock) {
+                            // keep the shared dictionary, it is compacted to the used entries when serialized
+                            blocks[channel] = block.getPositions(positions, 0, positions.length);
+                        }
+                        else {
+                            blocks[channel] = block.copyPositions(positions, 0, positions.length);
+                        }
+                    }
+                    blockedFutures.add(enqueuePage(partition, new Page(positions.length, blocks)));
                 }
                 else {
-                    int partition = partitionFunction.getPartition(partitionFunctionArgs, position);
+                    appendRows(pageBuilders.get(partition), page, positions);
+                }
+            }
+            blockedFutures.add(flush(false));
+
+            ListenableFuture<?> future = Futures.allAsList(blockedFutures);
+            if (future.isDone()) {
+                return NOT_BLOCKED;
+            }
+            return future;
+        }
 
-                    PageBuilder pageBuilder = pageBuilders.get(partition);
-                    appendRow(pageBuilder, page, position);
+        private boolean hasEncodedBlock(Page page)
+        {
+            for (int channel = 0; channel < sourceTypes.size(); channel++) {
+                Block block = getLoadedBlock(page, channel);
+                if (block instanceof DictionaryBlock || block instanceof RunLengthEncodedBlock) {
+                    return true;
                 }
             }
-            return flush(false);
+            return false;
+        }
+
+        private static Block getLoadedBlock(Page page, int channel)
+        {
+            // every position of the page is sent, so loading the lazy blocks here does not do extra work
+            Block block = page.getBlock(channel);
+            if (block instanceof LazyBlock) {
+                return ((LazyBlock) block).getBlock();
+            }
+            return block;
         }
 
         private Page getPartitionFunctionArguments(Page page)
@@ -400,6 +490,21 @@ public class PartitionedOutputOperator
             return new Page(page.getPositionCount(), blocks);
         }
 
+        private void appendRows(PageBuilder pageBuilder, Page page, int[] positions)
+        {
+            pageBuilder.declarePositions(positions.length);
+
+            // copy a column at a time, so the type dispatch is not repeated for every value
+            for (int channel = 0; channel < sourceTypes.size(); channel++) {
+                Type type = sourceTypes.get(channel);
+                Block block = page.getBlock(channel);
+                BlockBuilder blockBuilder = pageBuilder.getBlockBuilder(channel);
+                for (int position : positions) {
+                    type.appendTo(block, position, blockBuilder);
+                }
+            }
+        }
+
         private void appendRow(PageBuilder pageBuilder, Page page, int position)
         {
             pageBuilder.declarePosition();
@@ -420,13 +525,7 @@ public class PartitionedOutputOperator
                     Page pagePartition = partitionPageBuilder.build();
                     partitionPageBuilder.reset();
 
-                    List<SerializedPage> serializedPages = splitPage(pagePartition, DEFAULT_MAX_PAGE_SIZE_IN_BYTES).stream()
-                            .map(serde::serialize)
-                            .collect(toImmutableList());
-
-                    blockedFutures.add(outputBuffer.enqueue(partition, serializedPages));
-                    pagesAdded.incrementAndGet();
-                    rowsAdded.addAndGet(pagePartition.getPositionCount());
+                    blockedFutures.add(enqueuePage(partition, pagePartition));
                 }
             }
             ListenableFuture<?> future = Futures.allAsList(blockedFutures);
@@ -435,6 +534,17 @@ public class PartitionedOutputOperator
             }
             return future;
         }
+
+        private ListenableFuture<?> enqueuePage(int partition, Page pagePartition)
+        {
+            List<SerializedPage> serializedPages = splitPage(pagePartition, DEFAULT_MAX_PAGE_SIZE_IN_BYTES).stream()
+                    .map(serde::serialize)
+                    .collect(toImmutableList());
+
+            pagesAdded.incrementAndGet();
+            rowsAdded.addAndGet(pagePartition.getPositionCount());
+            return outputBuffer.enqueue(partition, serializedPages);
+        }
     }
 
     public static class PartitionedOutputInfo
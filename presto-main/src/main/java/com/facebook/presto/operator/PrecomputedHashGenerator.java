@@ -14,6 +14,7 @@
 package com.facebook.presto.operator;
 
 import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.type.BigintType;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
@@ -34,6 +35,17 @@ public class PrecomputedHashGenerator
         return BigintType.BIGINT.getLong(page.getBlock(hashChannel), position);
     }
 
+    @Override
+    public long[] hashPositions(Page page)
+    {
+        Block block = page.getBlock(hashChannel);
+        long[] hashes = new long[page.getPositionCount()];
+        for (int position = 0; position < hashes.length; position++) {
+            hashes[position] = BigintType.BIGINT.getLong(block, position);
+        }
+        return hashes;
+    }
+
     @Override
     public String toString()
     {
@@ -27,6 +27,8 @@ import com.facebook.presto.spi.PageBuilder;
 import com.facebook.presto.spi.RecordCursor;
 import com.facebook.presto.spi.RecordPageSource;
 import com.facebook.presto.spi.UpdatablePageSource;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.predicate.TupleDomain;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.split.EmptySplit;
 import com.facebook.presto.split.EmptySplitPageSource;
@@ -45,6 +47,7 @@ import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Supplier;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static io.airlift.concurrent.MoreFutures.toListenableFuture;
 import static java.util.Objects.requireNonNull;
@@ -64,7 +67,11 @@ public class ScanFilterAndProjectOperator
     private final LocalMemoryContext pageBuilderMemoryContext;
     private final SettableFuture<?> blocked = SettableFuture.create();
     private final MergingPageOutput mergingOutput;
+    private final Optional<DynamicFilterSource> dynamicFilterSource;
+    // channels of the dynamic filter columns
+    private final int[] dynamicFilterChannels;
 
+    private JoinDynamicFilter dynamicFilter = JoinDynamicFilter.all();
     private RecordCursor cursor;
     private ConnectorPageSource pageSource;
 
@@ -83,7 +90,8 @@ public class ScanFilterAndProjectOperator
             PageProcessor pageProcessor,
             Iterable<ColumnHandle> columns,
             Iterable<Type> types,
-            MergingPageOutput mergingOutput)
+            MergingPageOutput mergingOutput,
+            Optional<DynamicFilterSource> dynamicFilterSource)
     {
         this.cursorProcessor = requireNonNull(cursorProcessor, "cursorProcessor is null");
         this.pageProcessor = requireNonNull(pageProcessor, "pageProcessor is null");
@@ -95,6 +103,15 @@ public class ScanFilterAndProjectOperator
         this.pageSourceMemoryContext = operatorContext.getSystemMemoryContext().newLocalMemoryContext();
         this.pageBuilderMemoryContext = operatorContext.getSystemMemoryContext().newLocalMemoryContext();
         this.mergingOutput = requireNonNull(mergingOutput, "mergingOutput is null");
+        this.dynamicFilterSource = requireNonNull(dynamicFilterSource, "dynamicFilterSource is null");
+        this.dynamicFilterChannels = dynamicFilterSource
+                .map(source -> source.getColumns().stream()
+                        .mapToInt(this.columns::indexOf)
+                        .toArray())
+                .orElse(new int[0]);
+        for (int channel : dynamicFilterChannels) {
+            checkArgument(channel >= 0, "dynamic filter column is not scanned");
+        }
 
         this.pageBuilder = new PageBuilder(getTypes());
     }
@@ -221,7 +238,19 @@ public class ScanFilterAndProjectOperator
         }
 
         if (!finishing && pageSource == null && cursor == null) {
-            ConnectorPageSource source = pageSourceProvider.createPageSource(operatorContext.getSession(), split, columns);
+            // the join below this scan needs its lookup source before it asks for pages, so the build side is done by now
+            TupleDomain<ColumnHandle> dynamicPredicate = TupleDomain.all();
+            if (dynamicFilterSource.isPresent()) {
+                dynamicFilter = dynamicFilterSource.get().getDynamicFilter(operatorContext.getDriverContext().getLifespan());
+                dynamicPredicate = dynamicFilter.toTupleDomain(dynamicFilterSource.get().getColumns());
+            }
+            ConnectorPageSource source;
+            if (dynamicPredicate.isNone()) {
+                source = new EmptySplitPageSource();
+            }
+            else {
+                source = pageSourceProvider.createPageSource(operatorContext.getSession(), split, columns, dynamicPredicate);
+            }
             if (source instanceof RecordPageSource) {
                 cursor = ((RecordPageSource) source).getCursor();
             }
@@ -283,6 +312,7 @@ public class ScanFilterAndProjectOperator
                 completedBytes = endCompletedBytes;
                 readTimeNanos = endReadTimeNanos;
 
+                page = applyDynamicFilter(page);
                 PageProcessorOutput output = pageProcessor.process(operatorContext.getSession().toConnectorSession(), yieldSignal, page);
                 mergingOutput.addInput(output);
             }
@@ -297,6 +327,50 @@ public class ScanFilterAndProjectOperator
         return result;
     }
 
+    /**
+     * Removes the rows which can not match the build side of the join, in case the page source did not skip them.
+     */
+    private Page applyDynamicFilter(Page page)
+    {
+        if (dynamicFilterChannels.length == 0) {
+            return page;
+        }
+
+        Block[] filterBlocks = new Block[dynamicFilterChannels.length];
+        for (int i = 0; i < dynamicFilterChannels.length; i++) {
+            filterBlocks[i] = page.getBlock(dynamicFilterChannels[i]);
+        }
+
+        int[] retainedPositions = new int[page.getPositionCount()];
+        int retainedPositionCount = 0;
+        for (int position = 0; position < page.getPositionCount(); position++) {
+            if (!containsNull(filterBlocks, position) && dynamicFilter.mayContain(filterBlocks, position)) {
+                retainedPositions[retainedPositionCount] = position;
+                retainedPositionCount++;
+            }
+        }
+        if (retainedPositionCount == page.getPositionCount()) {
+            return page;
+        }
+
+        Block[] blocks = new Block[page.getChannelCount()];
+        for (int channel = 0; channel < page.getChannelCount(); channel++) {
+            blocks[channel] = page.getBlock(channel).getPositions(retainedPositions, 0, retainedPositionCount);
+        }
+        return new Page(retainedPositionCount, blocks);
+    }
+
+    // a null join key can not match any build row of an inner or right join
+    private static boolean containsNull(Block[] blocks, int position)
+    {
+        for (Block block : blocks) {
+            if (block.isNull(position)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public static class ScanFilterAndProjectOperatorFactory
             implements SourceOperatorFactory
     {
@@ -310,6 +384,7 @@ public class ScanFilterAndProjectOperator
         private final List<Type> types;
         private final DataSize minOutputPageSize;
         private final int minOutputPageRowCount;
+        private final Optional<DynamicFilterSource> dynamicFilterSource;
         private boolean closed;
 
         public ScanFilterAndProjectOperatorFactory(
@@ -323,6 +398,22 @@ public class ScanFilterAndProjectOperator
                 List<Type> types,
                 DataSize minOutputPageSize,
                 int minOutputPageRowCount)
+        {
+            this(operatorId, planNodeId, sourceId, pageSourceProvider, cursorProcessor, pageProcessor, columns, types, minOutputPageSize, minOutputPageRowCount, Optional.empty());
+        }
+
+        public ScanFilterAndProjectOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                PlanNodeId sourceId,
+                PageSourceProvider pageSourceProvider,
+                Supplier<CursorProcessor> cursorProcessor,
+                Supplier<PageProcessor> pageProcessor,
+                Iterable<ColumnHandle> columns,
+                List<Type> types,
+                DataSize minOutputPageSize,
+                int minOutputPageRowCount,
+                Optional<DynamicFilterSource> dynamicFilterSource)
         {
             this.operatorId = operatorId;
             this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
@@ -334,6 +425,7 @@ public class ScanFilterAndProjectOperator
             this.types = requireNonNull(types, "types is null");
             this.minOutputPageSize = requireNonNull(minOutputPageSize, "minOutputPageSize is null");
             this.minOutputPageRowCount = minOutputPageRowCount;
+            this.dynamicFilterSource = requireNonNull(dynamicFilterSource, "dynamicFilterSource is null");
         }
 
         @Override
@@ -361,7 +453,8 @@ public class ScanFilterAndProjectOperator
                     pageProcessor.get(),
                     columns,
                     types,
-                    new MergingPageOutput(types, minOutputPageSize.toBytes(), minOutputPageRowCount));
+                    new MergingPageOutput(types, minOutputPageSize.toBytes(), minOutputPageRowCount),
+                    dynamicFilterSource);
         }
 
         @Override
@@ -121,6 +121,18 @@ public class SharedLookupSourceFactory
         delegate.setPartitionSpilledLookupSourceHandle(partitionIndex, spilledLookupSourceHandle);
     }
 
+    @Override
+    public void setPartitionDynamicFilter(int partitionIndex, JoinDynamicFilter dynamicFilter)
+    {
+        delegate.setPartitionDynamicFilter(partitionIndex, dynamicFilter);
+    }
+
+    @Override
+    public JoinDynamicFilter getDynamicFilter()
+    {
+        return delegate.getDynamicFilter();
+    }
+
     @Override
     public ListenableFuture<?> isDestroyed()
     {
@@ -20,18 +20,24 @@ import com.facebook.presto.spi.PageBuilder;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.SortOrder;
 import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spiller.Spiller;
+import com.facebook.presto.spiller.SpillerFactory;
 import com.facebook.presto.sql.planner.plan.PlanNodeId;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import com.google.common.io.Closer;
 import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.ListenableFuture;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiPredicate;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static com.facebook.presto.spi.block.SortOrder.ASC_NULLS_LAST;
@@ -40,6 +46,8 @@ import static com.google.common.base.Preconditions.checkPositionIndex;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.Iterables.concat;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static io.airlift.concurrent.MoreFutures.checkSuccess;
 import static java.util.Collections.nCopies;
 import static java.util.Objects.requireNonNull;
 
@@ -63,6 +71,8 @@ public class WindowOperator
         private final List<Type> types;
         private boolean closed;
         private final PagesIndex.Factory pagesIndexFactory;
+        private final boolean spillEnabled;
+        private final SpillerFactory spillerFactory;
 
         public WindowOperatorFactory(
                 int operatorId,
@@ -77,6 +87,40 @@ public class WindowOperator
                 int preSortedChannelPrefix,
                 int expectedPositions,
                 PagesIndex.Factory pagesIndexFactory)
+        {
+            this(operatorId,
+                    planNodeId,
+                    sourceTypes,
+                    outputChannels,
+                    windowFunctionDefinitions,
+                    partitionChannels,
+                    preGroupedChannels,
+                    sortChannels,
+                    sortOrder,
+                    preSortedChannelPrefix,
+                    expectedPositions,
+                    pagesIndexFactory,
+                    false,
+                    (types, spillContext, memoryContext) -> {
+                        throw new UnsupportedOperationException();
+                    });
+        }
+
+        public WindowOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                List<? extends Type> sourceTypes,
+                List<Integer> outputChannels,
+                List<WindowFunctionDefinition> windowFunctionDefinitions,
+                List<Integer> partitionChannels,
+                List<Integer> preGroupedChannels,
+                List<Integer> sortChannels,
+                List<SortOrder> sortOrder,
+                int preSortedChannelPrefix,
+                int expectedPositions,
+                PagesIndex.Factory pagesIndexFactory,
+                boolean spillEnabled,
+                SpillerFactory spillerFactory)
         {
             requireNonNull(sourceTypes, "sourceTypes is null");
             requireNonNull(planNodeId, "planNodeId is null");
@@ -88,11 +132,14 @@ public class WindowOperator
             requireNonNull(sortChannels, "sortChannels is null");
             requireNonNull(sortOrder, "sortOrder is null");
             requireNonNull(pagesIndexFactory, "pagesIndexFactory is null");
+            requireNonNull(spillerFactory, "spillerFactory is null");
             checkArgument(sortChannels.size() == sortOrder.size(), "Must have same number of sort channels as sort orders");
             checkArgument(preSortedChannelPrefix <= sortChannels.size(), "Cannot have more pre-sorted channels than specified sorted channels");
             checkArgument(preSortedChannelPrefix == 0 || ImmutableSet.copyOf(preGroupedChannels).equals(ImmutableSet.copyOf(partitionChannels)), "preSortedChannelPrefix can only be greater than zero if all partition channels are pre-grouped");
 
             this.pagesIndexFactory = pagesIndexFactory;
+            this.spillEnabled = spillEnabled;
+            this.spillerFactory = spillerFactory;
             this.operatorId = operatorId;
             this.planNodeId = planNodeId;
             this.sourceTypes = ImmutableList.copyOf(sourceTypes);
@@ -135,7 +182,9 @@ public class WindowOperator
                     sortOrder,
                     preSortedChannelPrefix,
                     expectedPositions,
-                    pagesIndexFactory);
+                    pagesIndexFactory,
+                    spillEnabled,
+                    spillerFactory);
         }
 
         @Override
@@ -159,7 +208,9 @@ public class WindowOperator
                     sortOrder,
                     preSortedChannelPrefix,
                     expectedPositions,
-                    pagesIndexFactory);
+                    pagesIndexFactory,
+                    spillEnabled,
+                    spillerFactory);
         }
     }
 
@@ -172,6 +223,7 @@ public class WindowOperator
     }
 
     private final OperatorContext operatorContext;
+    private final List<Type> sourceTypes;
     private final int[] outputChannels;
     private final List<FramedWindowFunction> windowFunctions;
     private final List<Integer> orderChannels;
@@ -179,6 +231,7 @@ public class WindowOperator
     private final List<Type> types;
 
     private final int[] preGroupedChannels;
+    private final int[] unGroupedPartitionChannels;
 
     private final PagesHashStrategy preGroupedPartitionHashStrategy;
     private final PagesHashStrategy unGroupedPartitionHashStrategy;
@@ -198,6 +251,24 @@ public class WindowOperator
 
     private Page pendingInput;
 
+    private final boolean spillEnabled;
+    private final SpillerFactory spillerFactory;
+    // channels and ordering on which spilled runs of a group are sorted, partition channels which are not pre-grouped come first
+    private final List<Integer> spillSortChannels;
+    private final List<SortOrder> spillSortOrder;
+
+    // spiller of the group which is currently buffered or merged back
+    private Optional<Spiller> spiller = Optional.empty();
+    private ListenableFuture<?> spillInProgress = immediateFuture(null);
+    private Optional<Runnable> finishMemoryRevoke = Optional.empty();
+    // pre-grouped channel values of the buffered group, retained when its rows have been spilled
+    private Page spilledGroupKey;
+    private boolean unspillPending;
+
+    private Optional<MergeSortedPages> mergeSortedPages = Optional.empty();
+    private Iterator<Page> spilledPages;
+    private Page pendingSpilledPage;
+
     public WindowOperator(
             OperatorContext operatorContext,
             List<Type> sourceTypes,
@@ -210,6 +281,38 @@ public class WindowOperator
             int preSortedChannelPrefix,
             int expectedPositions,
             PagesIndex.Factory pagesIndexFactory)
+    {
+        this(operatorContext,
+                sourceTypes,
+                outputChannels,
+                windowFunctionDefinitions,
+                partitionChannels,
+                preGroupedChannels,
+                sortChannels,
+                sortOrder,
+                preSortedChannelPrefix,
+                expectedPositions,
+                pagesIndexFactory,
+                false,
+                (types, spillContext, memoryContext) -> {
+                    throw new UnsupportedOperationException();
+                });
+    }
+
+    public WindowOperator(
+            OperatorContext operatorContext,
+            List<Type> sourceTypes,
+            List<Integer> outputChannels,
+            List<WindowFunctionDefinition> windowFunctionDefinitions,
+            List<Integer> partitionChannels,
+            List<Integer> preGroupedChannels,
+            List<Integer> sortChannels,
+            List<SortOrder> sortOrder,
+            int preSortedChannelPrefix,
+            int expectedPositions,
+            PagesIndex.Factory pagesIndexFactory,
+            boolean spillEnabled,
+            SpillerFactory spillerFactory)
     {
         requireNonNull(operatorContext, "operatorContext is null");
         requireNonNull(outputChannels, "outputChannels is null");
@@ -220,11 +323,15 @@ public class WindowOperator
         requireNonNull(sortChannels, "sortChannels is null");
         requireNonNull(sortOrder, "sortOrder is null");
         requireNonNull(pagesIndexFactory, "pagesIndexFactory is null");
+        requireNonNull(spillerFactory, "spillerFactory is null");
         checkArgument(sortChannels.size() == sortOrder.size(), "Must have same number of sort channels as sort orders");
         checkArgument(preSortedChannelPrefix <= sortChannels.size(), "Cannot have more pre-sorted channels than specified sorted channels");
         checkArgument(preSortedChannelPrefix == 0 || ImmutableSet.copyOf(preGroupedChannels).equals(ImmutableSet.copyOf(partitionChannels)), "preSortedChannelPrefix can only be greater than zero if all partition channels are pre-grouped");
 
         this.operatorContext = operatorContext;
+        this.sourceTypes = ImmutableList.copyOf(sourceTypes);
+        this.spillEnabled = spillEnabled;
+        this.spillerFactory = spillerFactory;
         this.outputChannels = Ints.toArray(outputChannels);
         this.windowFunctions = windowFunctionDefinitions.stream()
                 .map(functionDefinition -> new FramedWindowFunction(functionDefinition.createWindowFunction(), functionDefinition.getFrameInfo()))
@@ -244,6 +351,7 @@ public class WindowOperator
                 .filter(channel -> !preGroupedChannels.contains(channel))
                 .collect(toImmutableList());
         this.unGroupedPartitionHashStrategy = pagesIndex.createPagesHashStrategy(unGroupedPartitionChannels, OptionalInt.empty());
+        this.unGroupedPartitionChannels = Ints.toArray(unGroupedPartitionChannels);
         List<Integer> preSortedChannels = sortChannels.stream()
                 .limit(preSortedChannelPrefix)
                 .collect(toImmutableList());
@@ -256,11 +364,18 @@ public class WindowOperator
             // This already implies that set(preGroupedChannels) == set(partitionChannels) (enforced with checkArgument)
             this.orderChannels = ImmutableList.copyOf(Iterables.skip(sortChannels, preSortedChannelPrefix));
             this.ordering = ImmutableList.copyOf(Iterables.skip(sortOrder, preSortedChannelPrefix));
+
+            // Input arrives sorted on the pre-sorted prefix, so each spilled run is sorted on all the sort channels
+            this.spillSortChannels = ImmutableList.copyOf(sortChannels);
+            this.spillSortOrder = ImmutableList.copyOf(sortOrder);
         }
         else {
             // Otherwise, we need to sort by the unGroupedPartitionChannels and all original sort channels
             this.orderChannels = ImmutableList.copyOf(concat(unGroupedPartitionChannels, sortChannels));
             this.ordering = ImmutableList.copyOf(concat(nCopies(unGroupedPartitionChannels.size(), ASC_NULLS_LAST), sortOrder));
+
+            this.spillSortChannels = orderChannels;
+            this.spillSortOrder = ordering;
         }
 
         windowInfo = new WindowInfo.DriverWindowInfoBuilder();
@@ -287,7 +402,7 @@ public class WindowOperator
     @Override
     public void finish()
     {
-        if (state == State.FINISHING || state == State.FINISHED) {
+        if (state == State.FINISHING || state == State.FINISHED || finishMemoryRevoke.isPresent()) {
             return;
         }
         if (state == State.NEEDS_INPUT) {
@@ -303,10 +418,16 @@ public class WindowOperator
         return state == State.FINISHED;
     }
 
+    @Override
+    public ListenableFuture<?> isBlocked()
+    {
+        return spillInProgress;
+    }
+
     @Override
     public boolean needsInput()
     {
-        return state == State.NEEDS_INPUT;
+        return state == State.NEEDS_INPUT && spillInProgress.isDone() && !finishMemoryRevoke.isPresent();
     }
 
     @Override
@@ -315,6 +436,8 @@ public class WindowOperator
         checkState(state == State.NEEDS_INPUT, "Operator can not take input at this time");
         requireNonNull(page, "page is null");
         checkState(pendingInput == null, "Operator already has pending input");
+        checkState(!finishMemoryRevoke.isPresent(), "Memory revoke is in progress");
+        checkSuccess(spillInProgress, "spilling failed");
 
         if (page.getPositionCount() == 0) {
             return;
@@ -324,7 +447,79 @@ public class WindowOperator
         if (processPendingInput()) {
             state = State.HAS_OUTPUT;
         }
-        operatorContext.setMemoryReservation(pagesIndex.getEstimatedSize().toBytes());
+        updateMemoryReservation();
+    }
+
+    @Override
+    public ListenableFuture<?> startMemoryRevoke()
+    {
+        checkState(spillEnabled, "Spill not enabled, no revokable memory should be reserved");
+        checkState(!finishMemoryRevoke.isPresent(), "Previous memory revoke has not been finished");
+
+        // only the group which is still being buffered can be spilled
+        if (state != State.NEEDS_INPUT || unspillPending || pagesIndex.getPositionCount() == 0) {
+            finishMemoryRevoke = Optional.of(() -> {});
+            return immediateFuture(null);
+        }
+        checkSuccess(spillInProgress, "spilling failed");
+
+        if (spilledGroupKey == null) {
+            spilledGroupKey = getGroupKey(pagesIndex, preGroupedChannels);
+        }
+        sortPagesIndexIfNecessary();
+        spillInProgress = getSpiller().spill(pagesIndex.getSortedPages());
+
+        finishMemoryRevoke = Optional.of(() -> {
+            pagesIndex.clear();
+            updateMemoryReservation();
+        });
+        return spillInProgress;
+    }
+
+    @Override
+    public void finishMemoryRevoke()
+    {
+        checkState(finishMemoryRevoke.isPresent(), "Cannot finish unknown revoking");
+        finishMemoryRevoke.get().run();
+        finishMemoryRevoke = Optional.empty();
+    }
+
+    private Spiller getSpiller()
+    {
+        if (!spiller.isPresent()) {
+            spiller = Optional.of(spillerFactory.create(
+                    sourceTypes,
+                    operatorContext.getSpillContext(),
+                    operatorContext.getSystemMemoryContext().newAggregatedMemoryContext()));
+        }
+        return spiller.get();
+    }
+
+    private static Page getGroupKey(PagesIndex pagesIndex, int[] channels)
+    {
+        Block[] blocks = new Block[channels.length];
+        for (int i = 0; i < channels.length; i++) {
+            blocks[i] = pagesIndex.getSingleValueBlock(channels[i], 0);
+        }
+        return new Page(1, blocks);
+    }
+
+    private void updateMemoryReservation()
+    {
+        long bytes = pagesIndex.getEstimatedSize().toBytes();
+        if (!spillEnabled) {
+            operatorContext.setMemoryReservation(bytes);
+            return;
+        }
+
+        if (state == State.NEEDS_INPUT || unspillPending) {
+            operatorContext.setMemoryReservation(0);
+            operatorContext.setRevocableMemoryReservation(bytes);
+        }
+        else {
+            operatorContext.setRevocableMemoryReservation(0);
+            operatorContext.setMemoryReservation(bytes);
+        }
     }
 
     /**
@@ -347,7 +542,7 @@ public class WindowOperator
 
     /**
      * @return the unused section of the page, or null if fully applied.
-     * pagesIndex guaranteed to have at least one row after this method returns
+     * pagesIndex guaranteed to have at least one row after this method returns, unless the rows of the current group have been spilled
      */
     private Page updatePagesIndex(Page page)
     {
@@ -355,7 +550,7 @@ public class WindowOperator
 
         // TODO: Fix pagesHashStrategy to allow specifying channels for comparison, it currently requires us to rearrange the right side blocks in consecutive channel order
         Page preGroupedPage = rearrangePage(page, preGroupedChannels);
-        if (pagesIndex.getPositionCount() == 0 || pagesIndex.positionEqualsRow(preGroupedPartitionHashStrategy, 0, 0, preGroupedPage)) {
+        if (isCurrentGroup(preGroupedPage)) {
             // Find the position where the pre-grouped columns change
             int groupEnd = findGroupEnd(preGroupedPage, preGroupedPartitionHashStrategy, 0);
 
@@ -377,6 +572,67 @@ public class WindowOperator
         }
     }
 
+    private boolean isCurrentGroup(Page preGroupedPage)
+    {
+        if (pagesIndex.getPositionCount() > 0) {
+            return pagesIndex.positionEqualsRow(preGroupedPartitionHashStrategy, 0, 0, preGroupedPage);
+        }
+        // rows buffered for the current group may have been spilled
+        return spilledGroupKey == null || preGroupedPartitionHashStrategy.rowEqualsRow(0, spilledGroupKey, 0, preGroupedPage);
+    }
+
+    /**
+     * Loads the next partition of the spilled group into the empty pagesIndex.
+     *
+     * @return true if a partition has been loaded, false if all partitions of the spilled group were processed
+     */
+    private boolean loadNextSpilledPartition()
+    {
+        checkState(pagesIndex.getPositionCount() == 0, "pagesIndex is not empty");
+
+        while (pendingSpilledPage != null || spilledPages.hasNext()) {
+            Page page = pendingSpilledPage != null ? pendingSpilledPage : spilledPages.next();
+            pendingSpilledPage = null;
+
+            Page partitionPage = rearrangePage(page, unGroupedPartitionChannels);
+            if (pagesIndex.getPositionCount() > 0 && !pagesIndex.positionEqualsRow(unGroupedPartitionHashStrategy, 0, 0, partitionPage)) {
+                pendingSpilledPage = page;
+                return true;
+            }
+
+            int partitionEnd = findGroupEnd(partitionPage, unGroupedPartitionHashStrategy, 0);
+            pagesIndex.addPage(page.getRegion(0, partitionEnd));
+            if (partitionEnd < page.getPositionCount()) {
+                pendingSpilledPage = page.getRegion(partitionEnd, page.getPositionCount() - partitionEnd);
+                return true;
+            }
+        }
+        return pagesIndex.getPositionCount() > 0;
+    }
+
+    private void startUnspill()
+    {
+        checkSuccess(spillInProgress, "spilling failed");
+        unspillPending = false;
+        partition = null;
+        pagesIndex.clear();
+
+        // spilled runs are merged back in the order of the pagesIndex sort
+        List<Integer> allChannels = IntStream.range(0, sourceTypes.size()).boxed().collect(toImmutableList());
+        mergeSortedPages = Optional.of(new MergeSortedPages(operatorContext.getSystemMemoryContext().newAggregatedMemoryContext()));
+        spilledPages = mergeSortedPages.get().merge(sourceTypes, spillSortChannels, spillSortOrder, allChannels, spiller.get().getSpills());
+    }
+
+    private void closeSpilledGroup()
+    {
+        spiller.ifPresent(Spiller::close);
+        spiller = Optional.empty();
+        mergeSortedPages.ifPresent(MergeSortedPages::close);
+        mergeSortedPages = Optional.empty();
+        spilledPages = null;
+        pendingSpilledPage = null;
+    }
+
     private static Page rearrangePage(Page page, int[] channels)
     {
         Block[] newBlocks = new Block[channels.length];
@@ -389,12 +645,16 @@ public class WindowOperator
     @Override
     public Page getOutput()
     {
-        if (state == State.NEEDS_INPUT || state == State.FINISHED) {
+        if (state == State.NEEDS_INPUT || state == State.FINISHED || !spillInProgress.isDone() || finishMemoryRevoke.isPresent()) {
             return null;
         }
 
+        if (unspillPending) {
+            startUnspill();
+        }
+
         Page page = extractOutput();
-        operatorContext.setMemoryReservation(pagesIndex.getEstimatedSize().toBytes());
+        updateMemoryReservation();
         return page;
     }
 
@@ -412,8 +672,25 @@ public class WindowOperator
                     partition = null;
                     pagesIndex.clear();
 
+                    if (spilledPages != null) {
+                        // Partitions of a spilled group are merged back from disk one at a time
+                        if (loadNextSpilledPartition()) {
+                            windowInfo.addIndex(pagesIndex);
+                        }
+                        else {
+                            closeSpilledGroup();
+                        }
+                    }
+
+                    if (pagesIndex.getPositionCount() > 0) {
+                        partitionStart = 0;
+                    }
                     // Try to extract more partitions from the pendingInput
-                    if (pendingInput != null && processPendingInput()) {
+                    else if (pendingInput != null && processPendingInput()) {
+                        if (unspillPending) {
+                            // The group has been spilled, its partitions are produced once the spill completes
+                            return null;
+                        }
                         partitionStart = 0;
                     }
                     else if (state == State.FINISHING) {
@@ -460,6 +737,26 @@ public class WindowOperator
     private void finishPagesIndex()
     {
         sortPagesIndexIfNecessary();
+
+        if (spillEnabled && !spiller.isPresent()) {
+            // The complete group is no longer revocable, spill it if it does not fit in memory
+            long bytes = pagesIndex.getEstimatedSize().toBytes();
+            operatorContext.setRevocableMemoryReservation(0);
+            if (!operatorContext.trySetMemoryReservation(bytes)) {
+                operatorContext.setRevocableMemoryReservation(bytes);
+                getSpiller();
+            }
+        }
+
+        if (spiller.isPresent()) {
+            // Part of the group is on disk, spill the rest as well and merge the sorted runs back
+            spilledGroupKey = null;
+            unspillPending = true;
+            if (pagesIndex.getPositionCount() > 0) {
+                spillInProgress = spiller.get().spill(pagesIndex.getSortedPages());
+            }
+            return;
+        }
         windowInfo.addIndex(pagesIndex);
     }
 
@@ -543,5 +840,9 @@ public class WindowOperator
             throws Exception
     {
         driverWindowInfo.set(Optional.of(windowInfo.build()));
+        try (Closer closer = Closer.create()) {
+            spiller.ifPresent(closer::register);
+            mergeSortedPages.ifPresent(closer::register);
+        }
     }
 }
@@ -113,6 +113,8 @@ public class LocalExchange
         }
         else if (partitioning.equals(FIXED_ARBITRARY_DISTRIBUTION)) {
             exchangerSupplier = () -> new RandomExchanger(buffers, memoryManager::updateMemoryUsage);
+            // any consumer may process any page, so idle consumers take pages from busy ones
+            this.sources.forEach(source -> source.enableWorkStealing(this.sources));
         }
         else if (partitioning.equals(FIXED_HASH_DISTRIBUTION)) {
             exchangerSupplier = () -> new PartitioningExchanger(buffers, memoryManager::updateMemoryUsage, types, partitionChannels, partitionHashChannel);
@@ -37,8 +37,9 @@ public class LocalExchangeMemoryManager
     private final long maxBufferedBytes;
     private final AtomicLong bufferedBytes = new AtomicLong();
 
+    // written while holding the lock, but read without it on the fast path
     @GuardedBy("this")
-    private SettableFuture<?> notFullFuture = NOT_FULL;
+    private volatile SettableFuture<?> notFullFuture = NOT_FULL;
 
     private final AtomicBoolean blockOnFull = new AtomicBoolean(true);
 
@@ -50,12 +51,17 @@ public class LocalExchangeMemoryManager
 
     public void updateMemoryUsage(long bytesAdded)
     {
+        // this is called for every page added to or removed from the exchange, so
+        // only take the lock when there may be a blocked writer to notify
+        long bufferedBytes = this.bufferedBytes.addAndGet(bytesAdded);
+        if (bufferedBytes > maxBufferedBytes || notFullFuture.isDone()) {
+            return;
+        }
+
         SettableFuture<?> future;
         synchronized (this) {
-            bufferedBytes.addAndGet(bytesAdded);
-
             // if we are full, then breakout
-            if (bufferedBytes.get() > maxBufferedBytes || notFullFuture.isDone()) {
+            if (this.bufferedBytes.get() > maxBufferedBytes || notFullFuture.isDone()) {
                 return;
             }
 
@@ -68,13 +74,26 @@ public class LocalExchangeMemoryManager
         future.set(null);
     }
 
-    public synchronized ListenableFuture<?> getNotFullFuture()
+    public ListenableFuture<?> getNotFullFuture()
     {
-        // if we are full and still blocking and the current not full future is already complete, create a new one
-        if (bufferedBytes.get() > maxBufferedBytes && blockOnFull.get() && notFullFuture.isDone()) {
-            notFullFuture = SettableFuture.create();
+        SettableFuture<?> future;
+        synchronized (this) {
+            // if we are full and still blocking and the current not full future is already complete, create a new one
+            if (bufferedBytes.get() > maxBufferedBytes && blockOnFull.get() && notFullFuture.isDone()) {
+                notFullFuture = SettableFuture.create();
+            }
+            future = notFullFuture;
+
+            // memory may have been released without the lock before the future was installed
+            if (future.isDone() || bufferedBytes.get() > maxBufferedBytes) {
+                return future;
+            }
+            notFullFuture = NOT_FULL;
         }
-        return notFullFuture;
+
+        // complete future outside of lock since this can invoke callbacks
+        future.set(null);
+        return future;
     }
 
     public void setNoBlockOnFull()
@@ -19,19 +19,23 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
 
-import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
-import static com.google.common.base.Preconditions.checkState;
 import static java.util.Objects.requireNonNull;
 
+/**
+ * Buffer of pages for a single consumer of a local exchange. Pages are added and removed
+ * without taking a lock, so many drivers can feed and drain the exchange concurrently.
+ */
 @ThreadSafe
 public class LocalExchangeSource
 {
@@ -45,16 +49,17 @@ public class LocalExchangeSource
     private final List<Type> types;
     private final Consumer<LocalExchangeSource> onFinish;
 
-    private final BlockingQueue<PageReference> buffer = new LinkedBlockingDeque<>();
+    private final Queue<PageReference> buffer = new ConcurrentLinkedQueue<>();
     private final AtomicLong bufferedBytes = new AtomicLong();
+    private final AtomicInteger bufferedPages = new AtomicInteger();
 
-    private final Object lock = new Object();
+    private final AtomicReference<SettableFuture<?>> notEmptyFuture = new AtomicReference<>(NOT_EMPTY);
 
-    @GuardedBy("lock")
-    private SettableFuture<?> notEmptyFuture = NOT_EMPTY;
+    private volatile boolean finishing;
+    private volatile boolean closed;
 
-    @GuardedBy("lock")
-    private boolean finishing;
+    // sources this source may take pages from when its own buffer is empty
+    private volatile List<LocalExchangeSource> workStealingSources = ImmutableList.of();
 
     public LocalExchangeSource(List<? extends Type> types, Consumer<LocalExchangeSource> onFinish)
     {
@@ -71,54 +76,54 @@ public class LocalExchangeSource
     {
         // This must be lock free to assure task info creation is fast
         // Note: the stats my be internally inconsistent
-        return new LocalExchangeBufferInfo(bufferedBytes.get(), buffer.size());
+        return new LocalExchangeBufferInfo(bufferedBytes.get(), bufferedPages.get());
     }
 
-    void addPage(PageReference pageReference)
+    /**
+     * Allows this source to remove pages buffered for the other sources once its own buffer
+     * is drained. This is only valid when pages may be delivered to any consumer in any order.
+     */
+    void enableWorkStealing(List<LocalExchangeSource> sources)
     {
-        checkNotHoldsLock();
-
-        boolean added = false;
-        SettableFuture<?> notEmptyFuture;
-        synchronized (lock) {
-            // ignore pages after finish
-            if (!finishing) {
-                // buffered bytes must be updated before adding to the buffer to assure
-                // the count does not go negative
-                bufferedBytes.addAndGet(pageReference.getRetainedSizeInBytes());
-                buffer.add(pageReference);
-                added = true;
-            }
+        this.workStealingSources = ImmutableList.copyOf(requireNonNull(sources, "sources is null"));
+    }
 
-            // we just added a page (or we are finishing) so we are not empty
-            notEmptyFuture = this.notEmptyFuture;
-            this.notEmptyFuture = NOT_EMPTY;
+    void addPage(PageReference pageReference)
+    {
+        // ignore pages after finish
+        if (finishing) {
+            pageReference.removePage();
+            return;
         }
 
-        if (!added) {
-            // dereference the page outside of lock
-            pageReference.removePage();
+        // buffered bytes must be updated before adding to the buffer to assure
+        // the count does not go negative
+        bufferedBytes.addAndGet(pageReference.getRetainedSizeInBytes());
+        bufferedPages.incrementAndGet();
+        buffer.add(pageReference);
+
+        // close may have drained the buffer before the page was added
+        if (closed) {
+            freeBufferedPages();
         }
 
-        // notify readers outside of lock since this may result in a callback
-        notEmptyFuture.set(null);
+        // we just added a page so we are not empty
+        notifyNotEmpty();
     }
 
     public Page removePage()
     {
-        checkNotHoldsLock();
-
-        // NOTE: there is no need to acquire a lock here. The buffer is concurrent
-        // and buffered bytes is not expected to be consistent with the buffer (only
-        // best effort).
-        PageReference pageReference = buffer.poll();
+        // NOTE: buffered bytes is not expected to be consistent with the buffer (only best effort).
+        PageReference pageReference = pollPage();
         if (pageReference == null) {
-            return null;
+            pageReference = stealPage();
+            if (pageReference == null) {
+                return null;
+            }
         }
 
-        // dereference the page outside of lock, since may trigger a callback
+        // dereference the page, which may trigger a callback
         Page page = pageReference.removePage();
-        bufferedBytes.addAndGet(-page.getRetainedSizeInBytes());
 
         checkFinished();
 
@@ -127,87 +132,129 @@ public class LocalExchangeSource
 
     public ListenableFuture<?> waitForReading()
     {
-        checkNotHoldsLock();
+        if (finishing || !buffer.isEmpty() || hasPagesToSteal()) {
+            return NOT_EMPTY;
+        }
 
-        synchronized (lock) {
-            // if we need to block readers, and the current future is complete, create a new one
-            if (!finishing && buffer.isEmpty() && notEmptyFuture.isDone()) {
-                notEmptyFuture = SettableFuture.create();
-            }
-            return notEmptyFuture;
+        // if we need to block readers, and the current future is complete, create a new one
+        SettableFuture<?> future = notEmptyFuture.get();
+        if (future.isDone()) {
+            SettableFuture<?> newFuture = SettableFuture.create();
+            future = notEmptyFuture.compareAndSet(future, newFuture) ? newFuture : notEmptyFuture.get();
+        }
+
+        // a page may have been added, or the source finished, before the future was installed
+        if (finishing || !buffer.isEmpty()) {
+            notifyNotEmpty();
         }
+        return future;
     }
 
     public boolean isFinished()
     {
-        synchronized (lock) {
-            return finishing && buffer.isEmpty();
-        }
+        return finishing && buffer.isEmpty();
     }
 
     public void finish()
     {
-        checkNotHoldsLock();
-
-        SettableFuture<?> notEmptyFuture;
-        synchronized (lock) {
-            if (finishing) {
-                return;
-            }
-            finishing = true;
-
-            notEmptyFuture = this.notEmptyFuture;
-            this.notEmptyFuture = NOT_EMPTY;
+        if (finishing) {
+            return;
         }
+        finishing = true;
 
-        // notify readers outside of lock since this may result in a callback
-        notEmptyFuture.set(null);
+        // notify readers, which may result in a callback
+        notifyNotEmpty();
 
         checkFinished();
     }
 
     public void close()
     {
-        checkNotHoldsLock();
+        finishing = true;
+        closed = true;
+
+        // free all the remaining pages
+        freeBufferedPages();
+
+        // notify readers, which may result in a callback
+        notifyNotEmpty();
+
+        // this will fire the finished event unless a concurrent writer is still freeing its page
+        checkFinished();
+    }
 
-        List<PageReference> remainingPages = new ArrayList<>();
-        SettableFuture<?> notEmptyFuture;
-        synchronized (lock) {
-            finishing = true;
+    private PageReference pollPage()
+    {
+        PageReference pageReference = buffer.poll();
+        if (pageReference != null) {
+            bufferedPages.decrementAndGet();
+            bufferedBytes.addAndGet(-pageReference.getRetainedSizeInBytes());
+        }
+        return pageReference;
+    }
 
-            buffer.drainTo(remainingPages);
-            bufferedBytes.addAndGet(-remainingPages.stream().mapToLong(PageReference::getRetainedSizeInBytes).sum());
+    private PageReference stealPage()
+    {
+        List<LocalExchangeSource> sources = workStealingSources;
+        if (sources.isEmpty() || finishing) {
+            return null;
+        }
 
-            notEmptyFuture = this.notEmptyFuture;
-            this.notEmptyFuture = NOT_EMPTY;
+        // start at a random source so idle consumers do not all contend on the same buffer
+        int start = ThreadLocalRandom.current().nextInt(sources.size());
+        for (int i = 0; i < sources.size(); i++) {
+            LocalExchangeSource source = sources.get((start + i) % sources.size());
+            if (source == this) {
+                continue;
+            }
+            PageReference pageReference = source.pollPage();
+            if (pageReference != null) {
+                // the other source may have just been drained
+                source.checkFinished();
+                return pageReference;
+            }
         }
+        return null;
+    }
 
-        // free all the remaining pages
-        remainingPages.forEach(PageReference::removePage);
+    private boolean hasPagesToSteal()
+    {
+        for (LocalExchangeSource source : workStealingSources) {
+            if (source != this && !source.buffer.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
 
-        // notify readers outside of lock since this may result in a callback
-        notEmptyFuture.set(null);
+    private void freeBufferedPages()
+    {
+        while (true) {
+            PageReference pageReference = pollPage();
+            if (pageReference == null) {
+                return;
+            }
+            pageReference.removePage();
+        }
+    }
 
-        // this will always fire the finished event
-        checkState(isFinished(), "Expected buffer to be finished");
-        checkFinished();
+    private void notifyNotEmpty()
+    {
+        // avoid the write when no reader is waiting, which is the common case while pages are flowing
+        if (notEmptyFuture.get() == NOT_EMPTY) {
+            return;
+        }
+        notEmptyFuture.getAndSet(NOT_EMPTY).set(null);
     }
 
     private void checkFinished()
     {
-        checkNotHoldsLock();
-
         if (isFinished()) {
-            // notify finish listener outside of lock, since it may make a callback
+            // notify finish listener, since it may make a callback
             // NOTE: due the race in this method, the onFinish may be called multiple times
             // it is expected that the implementer handles this (which is why this source
             // is passed to the function)
             onFinish.accept(this);
         }
     }
-
-    private void checkNotHoldsLock()
-    {
-        checkState(!Thread.holdsLock(lock), "Can not execute this method while holding the lock");
-    }
 }
@@ -46,6 +46,16 @@ public class LocalPartitionGenerator
         return processRawHash(rawHash) & hashMask;
     }
 
+    public int[] getPartitions(Page page)
+    {
+        long[] hashes = hashGenerator.hashPositions(page);
+        int[] partitions = new int[hashes.length];
+        for (int position = 0; position < hashes.length; position++) {
+            partitions[position] = processRawHash(hashes[position]) & hashMask;
+        }
+        return partitions;
+    }
+
     public long getRawHash(Page page, int position)
     {
         return hashGenerator.hashPosition(position, page);
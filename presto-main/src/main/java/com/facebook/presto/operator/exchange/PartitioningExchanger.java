@@ -77,9 +77,9 @@ class PartitioningExchanger
         }
 
         // assign each row to a partition
-        for (int position = 0; position < page.getPositionCount(); position++) {
-            int partition = partitionGenerator.getPartition(page, position);
-            partitionAssignments[partition].add(position);
+        int[] partitions = partitionGenerator.getPartitions(page);
+        for (int position = 0; position < partitions.length; position++) {
+            partitionAssignments[partitions[position]].add(position);
         }
 
         // build a page for each partition
@@ -271,7 +271,7 @@ public class TaskResource
                     .header(PRESTO_TASK_INSTANCE_ID, result.getTaskInstanceId())
                     .header(PRESTO_PAGE_TOKEN, result.getToken())
                     .header(PRESTO_PAGE_NEXT_TOKEN, result.getNextToken())
-                    .header(PRESTO_BUFFER_COMPLETE, result.isBufferComplete())
+                    .header(PRESTO_BUFFER_COMPLETE, result.isNoMorePages())
                     .build();
         });
 
@@ -14,7 +14,6 @@
 package com.facebook.presto.spiller;
 
 import com.facebook.presto.execution.buffer.PagesSerde;
-import com.facebook.presto.execution.buffer.PagesSerdeUtil;
 import com.facebook.presto.execution.buffer.SerializedPage;
 import com.facebook.presto.memory.LocalMemoryContext;
 import com.facebook.presto.operator.SpillContext;
@@ -22,7 +21,9 @@ import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.util.PrestoIterators;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
 import com.google.common.io.Closer;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
@@ -39,15 +40,18 @@ import java.io.InputStream;
 import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
+import static com.facebook.presto.execution.buffer.PagesSerdeUtil.readSerializedPages;
 import static com.facebook.presto.execution.buffer.PagesSerdeUtil.writeSerializedPage;
 import static com.facebook.presto.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
 import static com.facebook.presto.spiller.FileSingleStreamSpillerFactory.SPILL_FILE_PREFIX;
 import static com.facebook.presto.spiller.FileSingleStreamSpillerFactory.SPILL_FILE_SUFFIX;
-import static com.facebook.presto.util.PrestoCloseables.combineCloseables;
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static io.airlift.concurrent.MoreFutures.getFutureValue;
 import static java.nio.file.StandardOpenOption.APPEND;
 import static java.util.Objects.requireNonNull;
 
@@ -57,8 +61,12 @@ public class FileSingleStreamSpiller
 {
     @VisibleForTesting
     static final int BUFFER_SIZE = 4 * 1024;
+    @VisibleForTesting
+    static final int READ_AHEAD_BYTES = 1024 * 1024;
 
-    private final FileHolder targetFile;
+    // pages are written to the stripes round robin
+    private final List<FileHolder> targetFiles;
+    private final boolean readAheadEnabled;
     private final Closer closer = Closer.create();
     private final PagesSerde serde;
     private final SpillerStats spillerStats;
@@ -69,6 +77,7 @@ public class FileSingleStreamSpiller
 
     private boolean writable = true;
     private long spilledPagesInMemorySize;
+    private long spilledPagesCount;
     private ListenableFuture<?> spillInProgress = Futures.immediateFuture(null);
 
     public FileSingleStreamSpiller(
@@ -78,14 +87,33 @@ public class FileSingleStreamSpiller
             SpillerStats spillerStats,
             SpillContext spillContext,
             LocalMemoryContext memoryContext)
+    {
+        this(serde, executor, ImmutableList.of(spillPath), false, spillerStats, spillContext, memoryContext);
+    }
+
+    public FileSingleStreamSpiller(
+            PagesSerde serde,
+            ListeningExecutorService executor,
+            List<Path> spillPaths,
+            boolean readAheadEnabled,
+            SpillerStats spillerStats,
+            SpillContext spillContext,
+            LocalMemoryContext memoryContext)
     {
         this.serde = requireNonNull(serde, "serde is null");
         this.executor = requireNonNull(executor, "executor is null");
+        this.readAheadEnabled = readAheadEnabled;
         this.spillerStats = requireNonNull(spillerStats, "spillerStats is null");
         this.localSpillContext = spillContext.newLocalSpillContext();
         this.memoryContext = requireNonNull(memoryContext, "memoryContext can not be null");
+        requireNonNull(spillPaths, "spillPaths is null");
+        checkArgument(!spillPaths.isEmpty(), "spillPaths is empty");
         try {
-            this.targetFile = closer.register(new FileHolder(Files.createTempFile(spillPath, SPILL_FILE_PREFIX, SPILL_FILE_SUFFIX)));
+            ImmutableList.Builder<FileHolder> targetFiles = ImmutableList.builder();
+            for (Path spillPath : spillPaths) {
+                targetFiles.add(closer.register(new FileHolder(Files.createTempFile(spillPath, SPILL_FILE_PREFIX, SPILL_FILE_SUFFIX))));
+            }
+            this.targetFiles = targetFiles.build();
         }
         catch (IOException e) {
             throw new PrestoException(GENERIC_INTERNAL_ERROR, "Failed to create spill file", e);
@@ -124,8 +152,13 @@ public class FileSingleStreamSpiller
     {
         checkState(writable, "Spilling no longer allowed. The spiller has been made non-writable on first read for subsequent reads to be consistent");
 
-        try (SliceOutput output = new OutputStreamSliceOutput(targetFile.newOutputStream(APPEND), BUFFER_SIZE)) {
-            memoryContext.setBytes(BUFFER_SIZE);
+        long start = System.nanoTime();
+        try (Closer outputs = Closer.create()) {
+            SliceOutput[] stripes = new SliceOutput[targetFiles.size()];
+            for (int i = 0; i < stripes.length; i++) {
+                stripes[i] = outputs.register(new OutputStreamSliceOutput(targetFiles.get(i).newOutputStream(APPEND), BUFFER_SIZE));
+            }
+            memoryContext.setBytes(BUFFER_SIZE * stripes.length);
             while (pageIterator.hasNext()) {
                 Page page = pageIterator.next();
                 spilledPagesInMemorySize += page.getSizeInBytes();
@@ -133,7 +166,9 @@ public class FileSingleStreamSpiller
                 long pageSize = serializedPage.getSizeInBytes();
                 localSpillContext.updateBytes(pageSize);
                 spillerStats.addToTotalSpilledBytes(pageSize);
-                writeSerializedPage(output, serializedPage);
+                spillerStats.addToTotalUncompressedSpilledBytes(serializedPage.getUncompressedSizeInBytes());
+                writeSerializedPage(stripes[(int) (spilledPagesCount % stripes.length)], serializedPage);
+                spilledPagesCount++;
             }
         }
         catch (UncheckedIOException | IOException e) {
@@ -141,6 +176,7 @@ public class FileSingleStreamSpiller
         }
         finally {
             memoryContext.setBytes(0);
+            spillerStats.addSpillTime(System.nanoTime() - start);
         }
     }
 
@@ -150,10 +186,26 @@ public class FileSingleStreamSpiller
         writable = false;
 
         try {
-            InputStream input = targetFile.newInputStream();
-            Closeable resources = closer.register(combineCloseables(input, () -> memoryContext.setBytes(0)));
-            memoryContext.setBytes(BUFFER_SIZE);
-            Iterator<Page> pages = PagesSerdeUtil.readPages(serde, new InputStreamSliceInput(input, BUFFER_SIZE));
+            Closer resources = closer.register(Closer.create());
+            resources.register(() -> memoryContext.setBytes(0));
+
+            List<Iterator<SerializedPage>> stripes = new ArrayList<>();
+            for (FileHolder targetFile : targetFiles) {
+                InputStream input = resources.register(targetFile.newInputStream());
+                stripes.add(readSerializedPages(new InputStreamSliceInput(input, BUFFER_SIZE)));
+            }
+
+            Iterator<SerializedPage> serializedPages = stripes.size() == 1 ? stripes.get(0) : new StripedPagesIterator(stripes, spilledPagesCount);
+            long memoryBytes = BUFFER_SIZE * stripes.size();
+            if (readAheadEnabled) {
+                // at most two batches are buffered, the one which is consumed and the one which is read
+                ReadAheadIterator readAheadIterator = resources.register(new ReadAheadIterator(serializedPages));
+                serializedPages = readAheadIterator;
+                memoryBytes += 2 * READ_AHEAD_BYTES;
+            }
+            memoryContext.setBytes(memoryBytes);
+
+            Iterator<Page> pages = Iterators.transform(serializedPages, serde::deserialize);
             return PrestoIterators.closeWhenExhausted(pages, resources);
         }
         catch (IOException e) {
@@ -181,4 +233,83 @@ public class FileSingleStreamSpiller
     {
         checkState(spillInProgress.isDone(), "spill in progress");
     }
+
+    private static class StripedPagesIterator
+            extends AbstractIterator<SerializedPage>
+    {
+        private final List<Iterator<SerializedPage>> stripes;
+        private final long pagesCount;
+        private long position;
+
+        public StripedPagesIterator(List<Iterator<SerializedPage>> stripes, long pagesCount)
+        {
+            this.stripes = ImmutableList.copyOf(stripes);
+            this.pagesCount = pagesCount;
+        }
+
+        @Override
+        protected SerializedPage computeNext()
+        {
+            if (position >= pagesCount) {
+                return endOfData();
+            }
+            SerializedPage page = stripes.get((int) (position % stripes.size())).next();
+            position++;
+            return page;
+        }
+    }
+
+    /**
+     * Reads batches of serialized pages on the spiller executor, one batch ahead of the consumer.
+     */
+    private class ReadAheadIterator
+            extends AbstractIterator<SerializedPage>
+            implements Closeable
+    {
+        private final Iterator<SerializedPage> source;
+        private Iterator<SerializedPage> currentBatch = ImmutableList.<SerializedPage>of().iterator();
+        private ListenableFuture<List<SerializedPage>> nextBatch;
+
+        public ReadAheadIterator(Iterator<SerializedPage> source)
+        {
+            this.source = requireNonNull(source, "source is null");
+            this.nextBatch = readNextBatch();
+        }
+
+        @Override
+        protected SerializedPage computeNext()
+        {
+            if (!currentBatch.hasNext()) {
+                long start = System.nanoTime();
+                List<SerializedPage> batch = getFutureValue(nextBatch);
+                spillerStats.addUnspillWaitTime(System.nanoTime() - start);
+                if (batch.isEmpty()) {
+                    return endOfData();
+                }
+                currentBatch = batch.iterator();
+                nextBatch = readNextBatch();
+            }
+            return currentBatch.next();
+        }
+
+        private ListenableFuture<List<SerializedPage>> readNextBatch()
+        {
+            return executor.submit(() -> {
+                ImmutableList.Builder<SerializedPage> batch = ImmutableList.builder();
+                long batchBytes = 0;
+                while (batchBytes < READ_AHEAD_BYTES && source.hasNext()) {
+                    SerializedPage page = source.next();
+                    batchBytes += page.getRetainedSizeInBytes();
+                    batch.add(page);
+                }
+                return batch.build();
+            });
+        }
+
+        @Override
+        public void close()
+        {
+            nextBatch.cancel(true);
+        }
+    }
 }
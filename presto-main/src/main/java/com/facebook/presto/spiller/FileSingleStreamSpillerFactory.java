@@ -13,7 +13,6 @@
  */
 package com.facebook.presto.spiller;
 
-import com.facebook.presto.execution.buffer.PagesSerdeFactory;
 import com.facebook.presto.memory.LocalMemoryContext;
 import com.facebook.presto.operator.SpillContext;
 import com.facebook.presto.spi.PrestoException;
@@ -58,8 +57,12 @@ public class FileSingleStreamSpillerFactory
     private static final String SPILL_FILE_GLOB = "spill*.bin";
 
     private final ListeningExecutorService executor;
-    private final PagesSerdeFactory serdeFactory;
+    private final BlockEncodingSerde blockEncodingSerde;
+    private final SpillCompressionCodec compressionCodec;
     private final List<Path> spillPaths;
+    private final boolean stripingEnabled;
+    private final boolean readAheadEnabled;
+    private final boolean packValues;
     private final SpillerStats spillerStats;
     private final double maxUsedSpaceThreshold;
     private int roundRobinIndex;
@@ -74,7 +77,11 @@ public class FileSingleStreamSpillerFactory
                 blockEncodingSerde,
                 spillerStats,
                 requireNonNull(featuresConfig, "featuresConfig is null").getSpillerSpillPaths(),
-                requireNonNull(featuresConfig, "featuresConfig is null").getSpillMaxUsedSpaceThreshold());
+                requireNonNull(featuresConfig, "featuresConfig is null").getSpillMaxUsedSpaceThreshold(),
+                featuresConfig.getSpillCompressionCodec(),
+                featuresConfig.isSpillerStripingEnabled(),
+                featuresConfig.isSpillerReadAheadEnabled(),
+                featuresConfig.isPackedValuesEncodingEnabled());
     }
 
     @VisibleForTesting
@@ -85,7 +92,26 @@ public class FileSingleStreamSpillerFactory
             List<Path> spillPaths,
             double maxUsedSpaceThreshold)
     {
-        this.serdeFactory = new PagesSerdeFactory(requireNonNull(blockEncodingSerde, "blockEncodingSerde is null"), false);
+        this(executor, blockEncodingSerde, spillerStats, spillPaths, maxUsedSpaceThreshold, SpillCompressionCodec.NONE, false, false, false);
+    }
+
+    @VisibleForTesting
+    public FileSingleStreamSpillerFactory(
+            ListeningExecutorService executor,
+            BlockEncodingSerde blockEncodingSerde,
+            SpillerStats spillerStats,
+            List<Path> spillPaths,
+            double maxUsedSpaceThreshold,
+            SpillCompressionCodec compressionCodec,
+            boolean stripingEnabled,
+            boolean readAheadEnabled,
+            boolean packValues)
+    {
+        this.blockEncodingSerde = requireNonNull(blockEncodingSerde, "blockEncodingSerde is null");
+        this.compressionCodec = requireNonNull(compressionCodec, "compressionCodec is null");
+        this.stripingEnabled = stripingEnabled;
+        this.readAheadEnabled = readAheadEnabled;
+        this.packValues = packValues;
         this.executor = requireNonNull(executor, "executor is null");
         this.spillerStats = requireNonNull(spillerStats, "spillerStats can not be null");
         requireNonNull(spillPaths, "spillPaths is null");
@@ -140,7 +166,35 @@ public class FileSingleStreamSpillerFactory
     @Override
     public SingleStreamSpiller create(List<Type> types, SpillContext spillContext, LocalMemoryContext memoryContext)
     {
-        return new FileSingleStreamSpiller(serdeFactory.createPagesSerde(), executor, getNextSpillPath(), spillerStats, spillContext, memoryContext);
+        return new FileSingleStreamSpiller(
+                compressionCodec.createPagesSerde(blockEncodingSerde, packValues),
+                executor,
+                stripingEnabled ? getSpillStripePaths() : ImmutableList.of(getNextSpillPath()),
+                readAheadEnabled,
+                spillerStats,
+                spillContext,
+                memoryContext);
+    }
+
+    /**
+     * Returns all spill paths with enough free space, starting from the next path in round robin order.
+     */
+    private synchronized List<Path> getSpillStripePaths()
+    {
+        int spillPathsCount = spillPaths.size();
+        ImmutableList.Builder<Path> stripePaths = ImmutableList.builder();
+        for (int i = 0; i < spillPathsCount; ++i) {
+            Path path = spillPaths.get((roundRobinIndex + i) % spillPathsCount);
+            if (hasEnoughDiskSpace(path)) {
+                stripePaths.add(path);
+            }
+        }
+        List<Path> paths = stripePaths.build();
+        if (paths.isEmpty()) {
+            throw new PrestoException(OUT_OF_SPILL_SPACE, "No free space available for spill");
+        }
+        roundRobinIndex = (roundRobinIndex + 1) % spillPathsCount;
+        return paths;
     }
 
     private synchronized Path getNextSpillPath()
@@ -0,0 +1,55 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spiller;
+
+import com.facebook.presto.execution.buffer.PagesSerde;
+import com.facebook.presto.spi.block.BlockEncodingSerde;
+import io.airlift.compress.lz4.Lz4Compressor;
+import io.airlift.compress.lz4.Lz4Decompressor;
+import io.airlift.compress.snappy.SnappyCompressor;
+import io.airlift.compress.snappy.SnappyDecompressor;
+
+import java.util.Optional;
+
+public enum SpillCompressionCodec
+{
+    NONE {
+        @Override
+        public PagesSerde createPagesSerde(BlockEncodingSerde blockEncodingSerde, boolean packValues)
+        {
+            return new PagesSerde(blockEncodingSerde, Optional.empty(), Optional.empty(), packValues);
+        }
+    },
+    LZ4 {
+        @Override
+        public PagesSerde createPagesSerde(BlockEncodingSerde blockEncodingSerde, boolean packValues)
+        {
+            return new PagesSerde(blockEncodingSerde, Optional.of(new Lz4Compressor()), Optional.of(new Lz4Decompressor()), packValues);
+        }
+    },
+    SNAPPY {
+        @Override
+        public PagesSerde createPagesSerde(BlockEncodingSerde blockEncodingSerde, boolean packValues)
+        {
+            return new PagesSerde(blockEncodingSerde, Optional.of(new SnappyCompressor()), Optional.of(new SnappyDecompressor()), packValues);
+        }
+    };
+
+    public PagesSerde createPagesSerde(BlockEncodingSerde blockEncodingSerde)
+    {
+        return createPagesSerde(blockEncodingSerde, false);
+    }
+
+    public abstract PagesSerde createPagesSerde(BlockEncodingSerde blockEncodingSerde, boolean packValues);
+}
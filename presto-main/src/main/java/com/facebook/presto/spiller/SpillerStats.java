@@ -13,13 +13,21 @@
  */
 package com.facebook.presto.spiller;
 
+import io.airlift.stats.TimeStat;
 import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
 
 import java.util.concurrent.atomic.AtomicLong;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
 public class SpillerStats
 {
     protected final AtomicLong totalSpilledBytes = new AtomicLong();
+    protected final AtomicLong totalUncompressedSpilledBytes = new AtomicLong();
+    private final TimeStat spillTime = new TimeStat(MILLISECONDS);
+    private final TimeStat unspillWaitTime = new TimeStat(MILLISECONDS);
 
     @Managed
     public long getTotalSpilledBytes()
@@ -27,8 +35,53 @@ public class SpillerStats
         return totalSpilledBytes.get();
     }
 
+    @Managed
+    public long getTotalUncompressedSpilledBytes()
+    {
+        return totalUncompressedSpilledBytes.get();
+    }
+
+    @Managed
+    public double getCompressionRatio()
+    {
+        long spilledBytes = totalSpilledBytes.get();
+        if (spilledBytes == 0) {
+            return 1.0;
+        }
+        return totalUncompressedSpilledBytes.get() / (double) spilledBytes;
+    }
+
+    @Managed
+    @Nested
+    public TimeStat getSpillTime()
+    {
+        return spillTime;
+    }
+
+    @Managed
+    @Nested
+    public TimeStat getUnspillWaitTime()
+    {
+        return unspillWaitTime;
+    }
+
     public void addToTotalSpilledBytes(long delta)
     {
         totalSpilledBytes.addAndGet(delta);
     }
+
+    public void addToTotalUncompressedSpilledBytes(long delta)
+    {
+        totalUncompressedSpilledBytes.addAndGet(delta);
+    }
+
+    public void addSpillTime(long nanos)
+    {
+        spillTime.add(nanos, NANOSECONDS);
+    }
+
+    public void addUnspillWaitTime(long nanos)
+    {
+        unspillWaitTime.add(nanos, NANOSECONDS);
+    }
 }
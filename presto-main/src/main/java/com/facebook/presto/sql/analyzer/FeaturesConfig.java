@@ -13,6 +13,8 @@
  */
 package com.facebook.presto.sql.analyzer;
 
+import com.facebook.presto.spiller.SpillCompressionCodec;
+import com.facebook.presto.util.PowerOfTwo;
 import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableList;
 import io.airlift.configuration.Config;
@@ -24,6 +26,7 @@ import io.airlift.units.MaxDataSize;
 
 import javax.validation.constraints.DecimalMax;
 import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 
@@ -31,6 +34,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
 
+import static com.facebook.presto.SystemSessionProperties.MAX_JOIN_SPILL_PARTITION_FANOUT;
 import static com.facebook.presto.sql.analyzer.RegexLibrary.JONI;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static io.airlift.units.DataSize.Unit.KILOBYTE;
@@ -57,6 +61,7 @@ public class FeaturesConfig
     private boolean enableIntermediateAggregations;
     private boolean pushTableWriteThroughUnion = true;
     private boolean exchangeCompressionEnabled;
+    private boolean packedValuesEncodingEnabled;
     private boolean legacyArrayAgg;
     private boolean legacyOrderBy;
     private boolean legacyTimestamp = true;
@@ -86,6 +91,17 @@ public class FeaturesConfig
 
     private DataSize filterAndProjectMinOutputPageSize = new DataSize(25, KILOBYTE);
     private int filterAndProjectMinOutputPageRowCount = 256;
+    private boolean dynamicFilteringEnabled;
+    private boolean costBasedJoinReorderingEnabled;
+    private boolean costBasedJoinDistributionEnabled;
+    private int maxReorderedJoins = 9;
+    private boolean adaptivePartialAggregationEnabled;
+    private int adaptivePartialAggregationMinRows = 100_000;
+    private SpillCompressionCodec spillCompressionCodec = SpillCompressionCodec.NONE;
+    private boolean spillerStripingEnabled;
+    private boolean spillerReadAheadEnabled = true;
+    private int joinSpillPartitionFanout = 1;
+    private boolean dictionaryPartitionedOutput;
 
     public boolean isResourceGroupsEnabled()
     {
@@ -485,6 +501,19 @@ public class FeaturesConfig
         return this;
     }
 
+    public boolean isPackedValuesEncodingEnabled()
+    {
+        return packedValuesEncodingEnabled;
+    }
+
+    @Config("experimental.packed-values-encoding-enabled")
+    @ConfigDescription("Experimental: Bit pack long, int and dictionary blocks in exchanges and spills. All nodes must support the packed encodings")
+    public FeaturesConfig setPackedValuesEncodingEnabled(boolean packedValuesEncodingEnabled)
+    {
+        this.packedValuesEncodingEnabled = packedValuesEncodingEnabled;
+        return this;
+    }
+
     public boolean isEnableIntermediateAggregations()
     {
         return enableIntermediateAggregations;
@@ -570,4 +599,146 @@ public class FeaturesConfig
         this.filterAndProjectMinOutputPageRowCount = filterAndProjectMinOutputPageRowCount;
         return this;
     }
+
+    public boolean isDynamicFilteringEnabled()
+    {
+        return dynamicFilteringEnabled;
+    }
+
+    @Config("experimental.dynamic-filtering-enabled")
+    public FeaturesConfig setDynamicFilteringEnabled(boolean dynamicFilteringEnabled)
+    {
+        this.dynamicFilteringEnabled = dynamicFilteringEnabled;
+        return this;
+    }
+
+    public boolean isCostBasedJoinReorderingEnabled()
+    {
+        return costBasedJoinReorderingEnabled;
+    }
+
+    @Config("optimizer.cost-based-join-reordering-enabled")
+    @ConfigDescription("Experimental: Reorder joins based on estimated cost")
+    public FeaturesConfig setCostBasedJoinReorderingEnabled(boolean costBasedJoinReorderingEnabled)
+    {
+        this.costBasedJoinReorderingEnabled = costBasedJoinReorderingEnabled;
+        return this;
+    }
+
+    public boolean isCostBasedJoinDistributionEnabled()
+    {
+        return costBasedJoinDistributionEnabled;
+    }
+
+    @Config("optimizer.cost-based-join-distribution-enabled")
+    @ConfigDescription("Experimental: Choose join distribution type based on estimated cost")
+    public FeaturesConfig setCostBasedJoinDistributionEnabled(boolean costBasedJoinDistributionEnabled)
+    {
+        this.costBasedJoinDistributionEnabled = costBasedJoinDistributionEnabled;
+        return this;
+    }
+
+    @Min(2)
+    @Max(20)
+    public int getMaxReorderedJoins()
+    {
+        return maxReorderedJoins;
+    }
+
+    @Config("optimizer.max-reordered-joins")
+    public FeaturesConfig setMaxReorderedJoins(int maxReorderedJoins)
+    {
+        this.maxReorderedJoins = maxReorderedJoins;
+        return this;
+    }
+
+    public boolean isAdaptivePartialAggregationEnabled()
+    {
+        return adaptivePartialAggregationEnabled;
+    }
+
+    @Config("experimental.adaptive-partial-aggregation-enabled")
+    public FeaturesConfig setAdaptivePartialAggregationEnabled(boolean adaptivePartialAggregationEnabled)
+    {
+        this.adaptivePartialAggregationEnabled = adaptivePartialAggregationEnabled;
+        return this;
+    }
+
+    @Min(1)
+    public int getAdaptivePartialAggregationMinRows()
+    {
+        return adaptivePartialAggregationMinRows;
+    }
+
+    @Config("experimental.adaptive-partial-aggregation-min-rows")
+    public FeaturesConfig setAdaptivePartialAggregationMinRows(int adaptivePartialAggregationMinRows)
+    {
+        this.adaptivePartialAggregationMinRows = adaptivePartialAggregationMinRows;
+        return this;
+    }
+
+    @NotNull
+    public SpillCompressionCodec getSpillCompressionCodec()
+    {
+        return spillCompressionCodec;
+    }
+
+    @Config("experimental.spill-compression-codec")
+    public FeaturesConfig setSpillCompressionCodec(SpillCompressionCodec spillCompressionCodec)
+    {
+        this.spillCompressionCodec = spillCompressionCodec;
+        return this;
+    }
+
+    public boolean isSpillerStripingEnabled()
+    {
+        return spillerStripingEnabled;
+    }
+
+    @Config("experimental.spiller-striping-enabled")
+    public FeaturesConfig setSpillerStripingEnabled(boolean spillerStripingEnabled)
+    {
+        this.spillerStripingEnabled = spillerStripingEnabled;
+        return this;
+    }
+
+    public boolean isSpillerReadAheadEnabled()
+    {
+        return spillerReadAheadEnabled;
+    }
+
+    @Config("experimental.spiller-read-ahead-enabled")
+    public FeaturesConfig setSpillerReadAheadEnabled(boolean spillerReadAheadEnabled)
+    {
+        this.spillerReadAheadEnabled = spillerReadAheadEnabled;
+        return this;
+    }
+
+    @Min(1)
+    @Max(MAX_JOIN_SPILL_PARTITION_FANOUT)
+    @PowerOfTwo
+    public int getJoinSpillPartitionFanout()
+    {
+        return joinSpillPartitionFanout;
+    }
+
+    @Config("experimental.join-spill-partition-fanout")
+    @ConfigDescription("Experimental: Number of lookup source partitions per build driver of a join with spill enabled")
+    public FeaturesConfig setJoinSpillPartitionFanout(int joinSpillPartitionFanout)
+    {
+        this.joinSpillPartitionFanout = joinSpillPartitionFanout;
+        return this;
+    }
+
+    public boolean isDictionaryPartitionedOutput()
+    {
+        return dictionaryPartitionedOutput;
+    }
+
+    @Config("experimental.dictionary-partitioned-output")
+    public FeaturesConfig setDictionaryPartitionedOutput(boolean dictionaryPartitionedOutput)
+    {
+        this.dictionaryPartitionedOutput = dictionaryPartitionedOutput;
+        return this;
+    }
 }
@@ -28,6 +28,7 @@ import com.facebook.presto.operator.AggregationOperator.AggregationOperatorFacto
 import com.facebook.presto.operator.AssignUniqueIdOperator;
 import com.facebook.presto.operator.DeleteOperator.DeleteOperatorFactory;
 import com.facebook.presto.operator.DriverFactory;
+import com.facebook.presto.operator.DynamicFilterSource;
 import com.facebook.presto.operator.EnforceSingleRowOperator;
 import com.facebook.presto.operator.ExchangeClientSupplier;
 import com.facebook.presto.operator.ExchangeOperator.ExchangeOperatorFactory;
@@ -157,6 +158,7 @@ import com.facebook.presto.sql.tree.FunctionCall;
 import com.facebook.presto.sql.tree.NodeRef;
 import com.facebook.presto.sql.tree.OrderBy;
 import com.facebook.presto.sql.tree.SortItem;
+import com.facebook.presto.sql.tree.SymbolReference;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
@@ -188,12 +190,18 @@ import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+import static com.facebook.presto.SystemSessionProperties.getAdaptivePartialAggregationMinRows;
 import static com.facebook.presto.SystemSessionProperties.getAggregationOperatorUnspillMemoryLimit;
 import static com.facebook.presto.SystemSessionProperties.getFilterAndProjectMinOutputPageRowCount;
 import static com.facebook.presto.SystemSessionProperties.getFilterAndProjectMinOutputPageSize;
+import static com.facebook.presto.SystemSessionProperties.getJoinSpillPartitionFanout;
 import static com.facebook.presto.SystemSessionProperties.getTaskConcurrency;
 import static com.facebook.presto.SystemSessionProperties.getTaskWriterCount;
+import static com.facebook.presto.SystemSessionProperties.isAdaptivePartialAggregationEnabled;
+import static com.facebook.presto.SystemSessionProperties.isDictionaryPartitionedOutputEnabled;
+import static com.facebook.presto.SystemSessionProperties.isDynamicFilteringEnabled;
 import static com.facebook.presto.SystemSessionProperties.isExchangeCompressionEnabled;
+import static com.facebook.presto.SystemSessionProperties.isPackedValuesEncodingEnabled;
 import static com.facebook.presto.SystemSessionProperties.isSpillEnabled;
 import static com.facebook.presto.metadata.FunctionKind.SCALAR;
 import static com.facebook.presto.operator.DistinctLimitOperator.DistinctLimitOperatorFactory;
@@ -217,6 +225,7 @@ import static com.facebook.presto.sql.planner.SystemPartitioningHandle.FIXED_BRO
 import static com.facebook.presto.sql.planner.SystemPartitioningHandle.SINGLE_DISTRIBUTION;
 import static com.facebook.presto.sql.planner.plan.ExchangeNode.Scope.LOCAL;
 import static com.facebook.presto.sql.planner.plan.JoinNode.Type.FULL;
+import static com.facebook.presto.sql.planner.plan.JoinNode.Type.INNER;
 import static com.facebook.presto.sql.planner.plan.JoinNode.Type.RIGHT;
 import static com.facebook.presto.sql.planner.plan.TableWriterNode.CreateHandle;
 import static com.facebook.presto.sql.planner.plan.TableWriterNode.InsertHandle;
@@ -392,7 +401,8 @@ public class LocalExecutionPlanner
                         partitioningScheme.isReplicateNullsAndAny(),
                         nullChannel,
                         outputBuffer,
-                        maxPagePartitioningBufferSize));
+                        maxPagePartitioningBufferSize,
+                        isDictionaryPartitionedOutputEnabled(taskContext.getSession())));
     }
 
     public LocalExecutionPlan plan(
@@ -425,7 +435,7 @@ public class LocalExecutionPlanner
                                 plan.getId(),
                                 outputTypes,
                                 pagePreprocessor,
-                                new PagesSerdeFactory(blockEncodingSerde, isExchangeCompressionEnabled(session))))
+                                new PagesSerdeFactory(blockEncodingSerde, isExchangeCompressionEnabled(session), isPackedValuesEncodingEnabled(session))))
                         .build(),
                 context.getDriverInstanceCount(),
                 physicalOperation.getPipelineExecutionStrategy());
@@ -482,6 +492,8 @@ public class LocalExecutionPlanner
 
         // this is shared with all subContexts
         private AtomicInteger nextPipelineId;
+        // dynamic filters of table scans by table scan node, shared with all subContexts
+        private final Map<PlanNodeId, DynamicFilterSource> dynamicFilterSources;
 
         private int nextOperatorId;
         private boolean inputDriver = true;
@@ -489,7 +501,7 @@ public class LocalExecutionPlanner
 
         public LocalExecutionPlanContext(TaskContext taskContext, Map<Symbol, Type> types)
         {
-            this(taskContext, types, new ArrayList<>(), Optional.empty(), new AtomicInteger(0));
+            this(taskContext, types, new ArrayList<>(), Optional.empty(), new AtomicInteger(0), new HashMap<>());
         }
 
         private LocalExecutionPlanContext(
@@ -497,13 +509,15 @@ public class LocalExecutionPlanner
                 Map<Symbol, Type> types,
                 List<DriverFactory> driverFactories,
                 Optional<IndexSourceContext> indexSourceContext,
-                AtomicInteger nextPipelineId)
+                AtomicInteger nextPipelineId,
+                Map<PlanNodeId, DynamicFilterSource> dynamicFilterSources)
         {
             this.taskContext = taskContext;
             this.types = types;
             this.driverFactories = driverFactories;
             this.indexSourceContext = indexSourceContext;
             this.nextPipelineId = nextPipelineId;
+            this.dynamicFilterSources = dynamicFilterSources;
         }
 
         public void addDriverFactory(boolean inputDriver, boolean outputDriver, List<OperatorFactory> operatorFactories, OptionalInt driverInstances, PipelineExecutionStrategy pipelineExecutionStrategy)
@@ -568,12 +582,22 @@ public class LocalExecutionPlanner
         public LocalExecutionPlanContext createSubContext()
         {
             checkState(!indexSourceContext.isPresent(), "index build plan can not have sub-contexts");
-            return new LocalExecutionPlanContext(taskContext, types, driverFactories, indexSourceContext, nextPipelineId);
+            return new LocalExecutionPlanContext(taskContext, types, driverFactories, indexSourceContext, nextPipelineId, dynamicFilterSources);
         }
 
         public LocalExecutionPlanContext createIndexSourceSubContext(IndexSourceContext indexSourceContext)
         {
-            return new LocalExecutionPlanContext(taskContext, types, driverFactories, Optional.of(indexSourceContext), nextPipelineId);
+            return new LocalExecutionPlanContext(taskContext, types, driverFactories, Optional.of(indexSourceContext), nextPipelineId, dynamicFilterSources);
+        }
+
+        public void addDynamicFilterSource(PlanNodeId tableScanNodeId, DynamicFilterSource dynamicFilterSource)
+        {
+            checkState(dynamicFilterSources.put(tableScanNodeId, dynamicFilterSource) == null, "Dynamic filter of %s already set", tableScanNodeId);
+        }
+
+        public Optional<DynamicFilterSource> getDynamicFilterSource(PlanNodeId tableScanNodeId)
+        {
+            return Optional.ofNullable(dynamicFilterSources.get(tableScanNodeId));
         }
 
         public OptionalInt getDriverInstanceCount()
@@ -843,7 +867,9 @@ public class LocalExecutionPlanner
                     sortOrder,
                     node.getPreSortedOrderPrefix(),
                     10_000,
-                    pagesIndexFactory);
+                    pagesIndexFactory,
+                    isSpillEnabled(context.getSession()),
+                    spillerFactory);
 
             return new PhysicalOperation(operatorFactory, outputMappings.build(), source);
         }
@@ -900,7 +926,9 @@ public class LocalExecutionPlanner
                     10_000,
                     orderByChannels,
                     sortOrder.build(),
-                    pagesIndexFactory);
+                    pagesIndexFactory,
+                    isSpillEnabled(context.getSession()),
+                    spillerFactory);
 
             return new PhysicalOperation(operator, source.getLayout(), source);
         }
@@ -1137,7 +1165,8 @@ public class LocalExecutionPlanner
                             columns,
                             getTypes(rewrittenProjections, expressionTypes),
                             getFilterAndProjectMinOutputPageSize(session),
-                            getFilterAndProjectMinOutputPageRowCount(session));
+                            getFilterAndProjectMinOutputPageRowCount(session),
+                            context.getDynamicFilterSource(sourceNode.getId()));
 
                     return new PhysicalOperation(operatorFactory, outputMappings, groupEnumerable ? GROUPED_EXECUTION : UNGROUPED_EXECUTION);
                 }
@@ -1193,7 +1222,8 @@ public class LocalExecutionPlanner
                         columns,
                         getTypes(rewrittenProjections, expressionTypes),
                         getFilterAndProjectMinOutputPageSize(session),
-                        getFilterAndProjectMinOutputPageRowCount(session));
+                        getFilterAndProjectMinOutputPageRowCount(session),
+                        context.getDynamicFilterSource(sourceNode.getId()));
 
                 return new PhysicalOperation(operatorFactory, outputMappings, groupEnumerable ? GROUPED_EXECUTION : UNGROUPED_EXECUTION);
             }
@@ -1242,6 +1272,11 @@ public class LocalExecutionPlanner
         @Override
         public PhysicalOperation visitTableScan(TableScanNode node, LocalExecutionPlanContext context)
         {
+            if (context.getDynamicFilterSource(node.getId()).isPresent()) {
+                // only the scan, filter and project operator applies dynamic filters
+                return visitScanFilterAndProject(context, node.getId(), node, Optional.empty(), Assignments.identity(node.getOutputSymbols()), node.getOutputSymbols());
+            }
+
             List<ColumnHandle> columns = new ArrayList<>();
             for (Symbol symbol : node.getOutputSymbols()) {
                 columns.add(node.getAssignments().get(symbol));
@@ -1614,12 +1649,15 @@ public class LocalExecutionPlanner
                 Optional<Symbol> buildHashSymbol,
                 LocalExecutionPlanContext context)
         {
+            Optional<DynamicFilterSource> dynamicFilterSource = createDynamicFilterSource(node, probeNode, probeSymbols, context);
+
             // Plan probe
             PhysicalOperation probeSource = probeNode.accept(this, context);
 
             // Plan build
             LookupSourceFactoryManager lookupSourceFactory =
                     createLookupSourceFactory(node, buildNode, buildSymbols, buildHashSymbol, probeSource, context);
+            dynamicFilterSource.ifPresent(source -> source.setLookupSourceFactoryManager(lookupSourceFactory));
 
             OperatorFactory operator = createLookupJoin(node, probeSource, probeSymbols, probeHashSymbol, lookupSourceFactory, context);
 
@@ -1633,6 +1671,61 @@ public class LocalExecutionPlanner
             return new PhysicalOperation(operator, outputMappings.build(), probeSource);
         }
 
+        /**
+         * Registers a dynamic filter for the table scan the probe join keys are read from, if the
+         * probe rows not matching the build side are dropped by the join. The scan must be planned
+         * in the same pipeline as the join, so that it is only read once the build side is done.
+         */
+        private Optional<DynamicFilterSource> createDynamicFilterSource(JoinNode node, PlanNode probeNode, List<Symbol> probeSymbols, LocalExecutionPlanContext context)
+        {
+            if (!isDynamicFilteringEnabled(session) || (node.getType() != INNER && node.getType() != RIGHT)) {
+                return Optional.empty();
+            }
+
+            // join channel of each symbol of the current plan node
+            Map<Symbol, Integer> joinChannels = new HashMap<>();
+            for (int channel = 0; channel < probeSymbols.size(); channel++) {
+                joinChannels.putIfAbsent(probeSymbols.get(channel), channel);
+            }
+
+            PlanNode current = probeNode;
+            while (!(current instanceof TableScanNode)) {
+                if (current instanceof ProjectNode) {
+                    // follow the symbols which are passed through
+                    Assignments assignments = ((ProjectNode) current).getAssignments();
+                    Map<Symbol, Integer> sourceJoinChannels = new HashMap<>();
+                    for (Map.Entry<Symbol, Integer> entry : joinChannels.entrySet()) {
+                        Expression expression = assignments.get(entry.getKey());
+                        if (expression instanceof SymbolReference) {
+                            sourceJoinChannels.putIfAbsent(Symbol.from(expression), entry.getValue());
+                        }
+                    }
+                    joinChannels = sourceJoinChannels;
+                    current = ((ProjectNode) current).getSource();
+                }
+                else if (current instanceof FilterNode) {
+                    current = ((FilterNode) current).getSource();
+                }
+                else {
+                    return Optional.empty();
+                }
+            }
+            if (joinChannels.isEmpty()) {
+                return Optional.empty();
+            }
+
+            TableScanNode tableScan = (TableScanNode) current;
+            ImmutableList.Builder<Integer> channels = ImmutableList.builder();
+            ImmutableList.Builder<ColumnHandle> columns = ImmutableList.builder();
+            for (Map.Entry<Symbol, Integer> entry : joinChannels.entrySet()) {
+                channels.add(entry.getValue());
+                columns.add(tableScan.getAssignments().get(entry.getKey()));
+            }
+            DynamicFilterSource dynamicFilterSource = new DynamicFilterSource(channels.build(), columns.build());
+            context.addDynamicFilterSource(tableScan.getId(), dynamicFilterSource);
+            return Optional.of(dynamicFilterSource);
+        }
+
         private LookupSourceFactoryManager createLookupSourceFactory(
                 JoinNode node,
                 PlanNode buildNode,
@@ -1641,7 +1734,17 @@ public class LocalExecutionPlanner
                 PhysicalOperation probeSource,
                 LocalExecutionPlanContext context)
         {
+            boolean spillEnabled = isSpillEnabled(context.getSession());
+            boolean buildOuter = node.getType() == RIGHT || node.getType() == FULL;
+
             LocalExecutionPlanContext buildContext = context.createSubContext();
+            int spillPartitionFanout = getJoinSpillPartitionFanout(session);
+            if (spillEnabled && spillPartitionFanout > 1 && !buildOuter && isLocalRepartitioning(buildNode) && getTaskConcurrency(session) > 1) {
+                // Each build driver is a separately spillable partition of the lookup source. Using more, smaller partitions
+                // makes memory revoking spill only the partitions which overflow, and makes it more likely that a spilled
+                // partition fits in memory again when it is unspilled.
+                buildContext.setDriverInstanceCount(getTaskConcurrency(session) * spillPartitionFanout);
+            }
             PhysicalOperation buildSource = buildNode.accept(this, buildContext);
 
             if (buildSource.getPipelineExecutionStrategy() == GROUPED_EXECUTION) {
@@ -1658,8 +1761,6 @@ public class LocalExecutionPlanner
             OptionalInt buildHashChannel = buildHashSymbol.map(channelGetter(buildSource))
                     .map(OptionalInt::of).orElse(OptionalInt.empty());
 
-            boolean spillEnabled = isSpillEnabled(context.getSession());
-            boolean buildOuter = node.getType() == RIGHT || node.getType() == FULL;
             int partitionCount = buildContext.getDriverInstanceCount().orElse(1);
 
             Optional<JoinFilterFunctionFactory> filterFunctionFactory = node.getFilter()
@@ -1736,6 +1837,13 @@ public class LocalExecutionPlanner
             return lookupSourceFactoryManager;
         }
 
+        private boolean isLocalRepartitioning(PlanNode node)
+        {
+            return node instanceof ExchangeNode
+                    && ((ExchangeNode) node).getScope() == LOCAL
+                    && ((ExchangeNode) node).getType() == ExchangeNode.Type.REPARTITION;
+        }
+
         private JoinFilterFunctionFactory compileJoinFilterFunction(
                 Expression filterExpression,
                 Map<Symbol, Integer> probeLayout,
@@ -2170,6 +2278,11 @@ public class LocalExecutionPlanner
 
             Optional<Integer> hashChannel = node.getHashSymbol().map(channelGetter(source));
 
+            Optional<Integer> adaptivePartialAggregationMinRows = Optional.empty();
+            if (isAdaptivePartialAggregationEnabled(session)) {
+                adaptivePartialAggregationMinRows = Optional.of(getAdaptivePartialAggregationMinRows(session));
+            }
+
             Map<Symbol, Integer> mappings = outputMappings.build();
             OperatorFactory operatorFactory = new HashAggregationOperatorFactory(
                     operatorId,
@@ -2184,6 +2297,7 @@ public class LocalExecutionPlanner
                     node.getGroupIdSymbol().map(mappings::get),
                     10_000,
                     maxPartialAggregationMemorySize,
+                    adaptivePartialAggregationMinRows,
                     spillEnabled,
                     unspillMemoryLimit,
                     spillerFactory,
@@ -279,6 +279,12 @@ public final class SystemPartitioningHandle
                 return generator.getPartition(bucketCount, position, page);
             }
 
+            @Override
+            public int[] getBuckets(Page page)
+            {
+                return generator.getPartitions(bucketCount, page);
+            }
+
             @Override
             public String toString()
             {
@@ -61,7 +61,8 @@ public class EliminateCrossJoins
     @Override
     public boolean isEnabled(Session session)
     {
-        return SystemSessionProperties.isJoinReorderingEnabled(session);
+        // cost based join reordering takes care of eliminating cross joins, also when it can not estimate the cost
+        return SystemSessionProperties.isJoinReorderingEnabled(session) && !SystemSessionProperties.isCostBasedJoinReorderingEnabled(session);
     }
 
     @Override
@@ -0,0 +1,353 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.planner.iterative.rule;
+
+import com.facebook.presto.Session;
+import com.facebook.presto.cost.CostCalculator;
+import com.facebook.presto.cost.CostComparator;
+import com.facebook.presto.cost.PlanNodeCost;
+import com.facebook.presto.cost.PlanNodeStatsEstimate;
+import com.facebook.presto.cost.StatsCalculator;
+import com.facebook.presto.matching.Captures;
+import com.facebook.presto.matching.Pattern;
+import com.facebook.presto.spi.statistics.Estimate;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.sql.planner.Symbol;
+import com.facebook.presto.sql.planner.iterative.Rule;
+import com.facebook.presto.sql.planner.optimizations.joins.JoinGraph;
+import com.facebook.presto.sql.planner.plan.ExchangeNode;
+import com.facebook.presto.sql.planner.plan.JoinNode;
+import com.facebook.presto.sql.planner.plan.PlanNode;
+import com.facebook.presto.sql.planner.plan.PlanNodeId;
+import com.google.common.collect.ImmutableList;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.facebook.presto.SystemSessionProperties.getMaxReorderedJoins;
+import static com.facebook.presto.SystemSessionProperties.isCostBasedJoinReorderingEnabled;
+import static com.facebook.presto.SystemSessionProperties.isJoinReorderingEnabled;
+import static com.facebook.presto.sql.planner.iterative.rule.EliminateCrossJoins.buildJoinTree;
+import static com.facebook.presto.sql.planner.iterative.rule.EliminateCrossJoins.getJoinOrder;
+import static com.facebook.presto.sql.planner.iterative.rule.EliminateCrossJoins.isOriginalOrder;
+import static com.facebook.presto.sql.planner.plan.ExchangeNode.Scope.REMOTE;
+import static com.facebook.presto.sql.planner.plan.ExchangeNode.partitionedExchange;
+import static com.facebook.presto.sql.planner.plan.ExchangeNode.replicatedExchange;
+import static com.facebook.presto.sql.planner.plan.JoinNode.DistributionType.PARTITIONED;
+import static com.facebook.presto.sql.planner.plan.JoinNode.DistributionType.REPLICATED;
+import static com.facebook.presto.sql.planner.plan.Patterns.join;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reorders a graph of inner joins based on estimated statistics of the joined relations.
+ * <p>
+ * All left-deep join trees are enumerated with dynamic programming over subsets of the joined
+ * relations. The relation added in each step becomes the build side. Cross joins are only
+ * considered when no relation can be joined with an equi join condition. Join orders are
+ * compared by their cpu, memory and network cost with {@link CostComparator}, estimated by
+ * {@link CostCalculator} for the cheaper distribution type of every join.
+ * A join tree is replaced only when the best order is estimated to be strictly cheaper than
+ * the current one. When statistics are not known for all the relations, the graph is larger
+ * than {@code max_reordered_joins} or the cost can not be estimated, the relations are
+ * reordered only to eliminate cross joins, the same way {@link EliminateCrossJoins} does.
+ */
+public class ReorderJoins
+        implements Rule<JoinNode>
+{
+    private static final Pattern<JoinNode> PATTERN = join();
+
+    private final StatsCalculator statsCalculator;
+    private final CostCalculator costCalculator;
+    private final CostComparator costComparator = new CostComparator();
+
+    public ReorderJoins(StatsCalculator statsCalculator, CostCalculator costCalculator)
+    {
+        this.statsCalculator = requireNonNull(statsCalculator, "statsCalculator is null");
+        this.costCalculator = requireNonNull(costCalculator, "costCalculator is null");
+    }
+
+    @Override
+    public Pattern<JoinNode> getPattern()
+    {
+        return PATTERN;
+    }
+
+    @Override
+    public boolean isEnabled(Session session)
+    {
+        return isCostBasedJoinReorderingEnabled(session);
+    }
+
+    @Override
+    public Result apply(JoinNode node, Captures captures, Context context)
+    {
+        JoinGraph joinGraph = JoinGraph.buildShallowFrom(node, context.getLookup());
+        if (joinGraph.size() < 2) {
+            return Result.empty();
+        }
+        if (joinGraph.size() > getMaxReorderedJoins(context.getSession())) {
+            return eliminateCrossJoins(node, joinGraph, context);
+        }
+
+        Map<Symbol, Type> types = context.getSymbolAllocator().getTypes();
+        List<PlanNodeStatsEstimate> sourceStats = joinGraph.getNodes().stream()
+                .map(source -> statsCalculator.calculateStats(source, context.getLookup(), context.getSession(), types))
+                .collect(toImmutableList());
+        if (sourceStats.stream().anyMatch(PlanNodeStatsEstimate::isOutputRowCountUnknown)) {
+            return eliminateCrossJoins(node, joinGraph, context);
+        }
+
+        JoinEnumerator enumerator = new JoinEnumerator(joinGraph, costCalculator, costComparator, context);
+        JoinOrder best = enumerator.findBestOrder();
+        if (best == null) {
+            return eliminateCrossJoins(node, joinGraph, context);
+        }
+        if (isOriginalOrder(best.getOrder())) {
+            return Result.empty();
+        }
+        JoinOrder original = enumerator.getOriginalOrder();
+        if (original != null && costComparator.compare(best.getCost(), original.getCost()) >= 0) {
+            return Result.empty();
+        }
+
+        PlanNode replacement = buildJoinTree(node.getOutputSymbols(), joinGraph, best.getOrder(), context.getIdAllocator());
+        return Result.ofPlanNode(replacement);
+    }
+
+    private static Result eliminateCrossJoins(JoinNode node, JoinGraph joinGraph, Context context)
+    {
+        if (joinGraph.size() < 3 || !isJoinReorderingEnabled(context.getSession())) {
+            return Result.empty();
+        }
+
+        List<Integer> joinOrder = getJoinOrder(joinGraph);
+        if (isOriginalOrder(joinOrder)) {
+            return Result.empty();
+        }
+
+        PlanNode replacement = buildJoinTree(node.getOutputSymbols(), joinGraph, joinOrder, context.getIdAllocator());
+        return Result.ofPlanNode(replacement);
+    }
+
+    private static class JoinEnumerator
+    {
+        private final JoinGraph graph;
+        private final CostCalculator costCalculator;
+        private final CostComparator costComparator;
+        private final Context context;
+        private final Map<Symbol, Type> types;
+        private final Map<PlanNodeId, Integer> sourceIndexes = new HashMap<>();
+
+        public JoinEnumerator(JoinGraph graph, CostCalculator costCalculator, CostComparator costComparator, Context context)
+        {
+            this.graph = requireNonNull(graph, "graph is null");
+            this.costCalculator = requireNonNull(costCalculator, "costCalculator is null");
+            this.costComparator = requireNonNull(costComparator, "costComparator is null");
+            this.context = requireNonNull(context, "context is null");
+            this.types = context.getSymbolAllocator().getTypes();
+            for (int i = 0; i < graph.size(); i++) {
+                sourceIndexes.put(graph.getNode(i).getId(), i);
+            }
+        }
+
+        /**
+         * Returns the cheapest left-deep join order or null when the cost can not be estimated.
+         */
+        public JoinOrder findBestOrder()
+        {
+            int size = graph.size();
+            JoinOrder[] bestOrders = new JoinOrder[1 << size];
+            for (int i = 0; i < size; i++) {
+                bestOrders[1 << i] = initialOrder(i);
+            }
+
+            for (int subset = 1; subset < bestOrders.length; subset++) {
+                JoinOrder current = bestOrders[subset];
+                if (current == null) {
+                    continue;
+                }
+                boolean connectedExtensionExists = false;
+                for (int source = 0; source < size; source++) {
+                    if ((subset & (1 << source)) == 0 && isConnected(subset, source)) {
+                        connectedExtensionExists = true;
+                    }
+                }
+                for (int source = 0; source < size; source++) {
+                    if ((subset & (1 << source)) != 0 || (connectedExtensionExists && !isConnected(subset, source))) {
+                        continue;
+                    }
+                    JoinOrder extended = extend(current, subset, source);
+                    if (extended == null) {
+                        return null;
+                    }
+                    int extendedSubset = subset | (1 << source);
+                    if (bestOrders[extendedSubset] == null || costComparator.compare(extended.getCost(), bestOrders[extendedSubset].getCost()) < 0) {
+                        bestOrders[extendedSubset] = extended;
+                    }
+                }
+            }
+            return bestOrders[bestOrders.length - 1];
+        }
+
+        /**
+         * Returns the join order of the sources as they appear in the graph or null when the cost can not be estimated.
+         */
+        public JoinOrder getOriginalOrder()
+        {
+            JoinOrder current = initialOrder(0);
+            int subset = 1;
+            for (int source = 1; source < graph.size() && current != null; source++) {
+                current = extend(current, subset, source);
+                subset |= 1 << source;
+            }
+            return current;
+        }
+
+        /**
+         * Joins the source as the build side of the current order. The join is costed with both distribution
+         * types and the remote exchanges they require, like {@link com.facebook.presto.sql.planner.optimizations.DetermineJoinDistributionType}
+         * does, and the cheaper one is used.
+         */
+        private JoinOrder extend(JoinOrder current, int subset, int source)
+        {
+            ImmutableList.Builder<JoinNode.EquiJoinClause> criteriaBuilder = ImmutableList.builder();
+            for (JoinGraph.Edge edge : graph.getEdges(graph.getNode(source))) {
+                if ((subset & (1 << sourceIndexes.get(edge.getTargetNode().getId()))) != 0) {
+                    criteriaBuilder.add(new JoinNode.EquiJoinClause(edge.getTargetSymbol(), edge.getSourceSymbol()));
+                }
+            }
+            List<JoinNode.EquiJoinClause> criteria = criteriaBuilder.build();
+
+            PlanNode probe = current.getPlan();
+            PlanNode build = graph.getNode(source);
+            PlanNodeCost cost = getJoinCost(
+                    probe,
+                    replicatedExchange(context.getIdAllocator().getNextId(), REMOTE, build),
+                    criteria,
+                    REPLICATED);
+            // a cross join is always replicated
+            if (!criteria.isEmpty()) {
+                PlanNodeCost partitionedCost = getJoinCost(
+                        partitionedExchange(
+                                context.getIdAllocator().getNextId(),
+                                REMOTE,
+                                probe,
+                                criteria.stream().map(JoinNode.EquiJoinClause::getLeft).collect(toImmutableList()),
+                                Optional.empty()),
+                        partitionedExchange(
+                                context.getIdAllocator().getNextId(),
+                                REMOTE,
+                                build,
+                                criteria.stream().map(JoinNode.EquiJoinClause::getRight).collect(toImmutableList()),
+                                Optional.empty()),
+                        criteria,
+                        PARTITIONED);
+                if (partitionedCost.hasUnknownComponents() || costComparator.compare(partitionedCost, cost) < 0) {
+                    cost = partitionedCost;
+                }
+            }
+            if (cost.hasUnknownComponents()) {
+                return null;
+            }
+
+            List<Integer> order = ImmutableList.<Integer>builder()
+                    .addAll(current.getOrder())
+                    .add(source)
+                    .build();
+            return new JoinOrder(order, createJoin(probe, build, criteria, Optional.empty()), current.getCost().add(cost));
+        }
+
+        private PlanNodeCost getJoinCost(PlanNode probe, PlanNode build, List<JoinNode.EquiJoinClause> criteria, JoinNode.DistributionType distributionType)
+        {
+            JoinNode join = createJoin(probe, build, criteria, Optional.of(distributionType));
+            PlanNodeCost cost = costCalculator.calculateCost(join, context.getLookup(), context.getSession(), types);
+            for (PlanNode source : join.getSources()) {
+                if (source instanceof ExchangeNode) {
+                    cost = cost.add(costCalculator.calculateCost(source, context.getLookup(), context.getSession(), types));
+                }
+            }
+            return cost;
+        }
+
+        private JoinNode createJoin(PlanNode probe, PlanNode build, List<JoinNode.EquiJoinClause> criteria, Optional<JoinNode.DistributionType> distributionType)
+        {
+            return new JoinNode(
+                    context.getIdAllocator().getNextId(),
+                    JoinNode.Type.INNER,
+                    probe,
+                    build,
+                    criteria,
+                    ImmutableList.<Symbol>builder()
+                            .addAll(probe.getOutputSymbols())
+                            .addAll(build.getOutputSymbols())
+                            .build(),
+                    Optional.empty(),
+                    Optional.empty(),
+                    Optional.empty(),
+                    distributionType);
+        }
+
+        private JoinOrder initialOrder(int source)
+        {
+            PlanNodeCost noCost = PlanNodeCost.builder()
+                    .setCpuCost(Estimate.zeroValue())
+                    .setMemoryCost(Estimate.zeroValue())
+                    .setNetworkCost(Estimate.zeroValue())
+                    .build();
+            return new JoinOrder(ImmutableList.of(source), graph.getNode(source), noCost);
+        }
+
+        private boolean isConnected(int subset, int source)
+        {
+            for (JoinGraph.Edge edge : graph.getEdges(graph.getNode(source))) {
+                if ((subset & (1 << sourceIndexes.get(edge.getTargetNode().getId()))) != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static class JoinOrder
+    {
+        private final List<Integer> order;
+        private final PlanNode plan;
+        private final PlanNodeCost cost;
+
+        public JoinOrder(List<Integer> order, PlanNode plan, PlanNodeCost cost)
+        {
+            this.order = ImmutableList.copyOf(requireNonNull(order, "order is null"));
+            this.plan = requireNonNull(plan, "plan is null");
+            this.cost = requireNonNull(cost, "cost is null");
+        }
+
+        public List<Integer> getOrder()
+        {
+            return order;
+        }
+
+        public PlanNode getPlan()
+        {
+            return plan;
+        }
+
+        public PlanNodeCost getCost()
+        {
+            return cost;
+        }
+    }
+}
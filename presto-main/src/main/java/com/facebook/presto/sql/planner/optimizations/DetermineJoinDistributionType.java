@@ -14,11 +14,16 @@
 package com.facebook.presto.sql.planner.optimizations;
 
 import com.facebook.presto.Session;
+import com.facebook.presto.cost.CostCalculator;
+import com.facebook.presto.cost.CostComparator;
+import com.facebook.presto.cost.PlanNodeCost;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.sql.planner.PlanNodeIdAllocator;
 import com.facebook.presto.sql.planner.Symbol;
 import com.facebook.presto.sql.planner.SymbolAllocator;
+import com.facebook.presto.sql.planner.iterative.Lookup;
 import com.facebook.presto.sql.planner.plan.DeleteNode;
+import com.facebook.presto.sql.planner.plan.ExchangeNode;
 import com.facebook.presto.sql.planner.plan.JoinNode;
 import com.facebook.presto.sql.planner.plan.PlanNode;
 import com.facebook.presto.sql.planner.plan.SemiJoinNode;
@@ -27,34 +32,57 @@ import com.facebook.presto.sql.planner.plan.SimplePlanRewriter;
 import java.util.Map;
 import java.util.Optional;
 
+import static com.facebook.presto.SystemSessionProperties.isCostBasedJoinDistributionEnabled;
 import static com.facebook.presto.SystemSessionProperties.isDistributedJoinEnabled;
 import static com.facebook.presto.sql.planner.optimizations.QueryCardinalityUtil.isAtMostScalar;
+import static com.facebook.presto.sql.planner.plan.ExchangeNode.Scope.REMOTE;
+import static com.facebook.presto.sql.planner.plan.ExchangeNode.partitionedExchange;
+import static com.facebook.presto.sql.planner.plan.ExchangeNode.replicatedExchange;
 import static com.facebook.presto.sql.planner.plan.JoinNode.Type.FULL;
 import static com.facebook.presto.sql.planner.plan.JoinNode.Type.INNER;
+import static com.facebook.presto.sql.planner.plan.JoinNode.Type.LEFT;
 import static com.facebook.presto.sql.planner.plan.JoinNode.Type.RIGHT;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static java.util.Objects.requireNonNull;
 
 public class DetermineJoinDistributionType
         implements PlanOptimizer
 {
+    private final CostCalculator costCalculator;
+    private final CostComparator costComparator = new CostComparator();
+
+    public DetermineJoinDistributionType(CostCalculator costCalculator)
+    {
+        this.costCalculator = requireNonNull(costCalculator, "costCalculator is null");
+    }
+
     @Override
     public PlanNode optimize(PlanNode plan, Session session, Map<Symbol, Type> types, SymbolAllocator symbolAllocator, PlanNodeIdAllocator idAllocator)
     {
         requireNonNull(plan, "plan is null");
         requireNonNull(session, "session is null");
 
-        return SimplePlanRewriter.rewriteWith(new Rewriter(session), plan);
+        return SimplePlanRewriter.rewriteWith(new Rewriter(session, types, idAllocator, costCalculator, costComparator), plan);
     }
 
     private static class Rewriter
             extends SimplePlanRewriter<Void>
     {
         private final Session session;
+        private final Map<Symbol, Type> types;
+        private final PlanNodeIdAllocator idAllocator;
+        private final CostCalculator costCalculator;
+        private final CostComparator costComparator;
         private boolean isDeleteQuery;
 
-        public Rewriter(Session session)
+        public Rewriter(Session session, Map<Symbol, Type> types, PlanNodeIdAllocator idAllocator, CostCalculator costCalculator, CostComparator costComparator)
         {
             this.session = session;
+            this.types = types;
+            this.idAllocator = idAllocator;
+            this.costCalculator = costCalculator;
+            this.costComparator = costComparator;
         }
 
         @Override
@@ -113,13 +141,86 @@ public class DetermineJoinDistributionType
         {
             // The implementation of full outer join only works if the data is hash partitioned. See LookupJoinOperators#buildSideOuterJoinUnvisitedPositions
             JoinNode.Type type = node.getType();
-            if (type == RIGHT || type == FULL || (isDistributedJoinEnabled(session) && !mustBroadcastJoin(node))) {
+            if (type == RIGHT || type == FULL) {
+                return JoinNode.DistributionType.PARTITIONED;
+            }
+            if (mustBroadcastJoin(node)) {
+                return JoinNode.DistributionType.REPLICATED;
+            }
+            if (isCostBasedJoinDistributionEnabled(session)) {
+                Optional<JoinNode.DistributionType> costBasedDistributionType = getCostBasedJoinDistributionType(node);
+                if (costBasedDistributionType.isPresent()) {
+                    return costBasedDistributionType.get();
+                }
+            }
+            if (isDistributedJoinEnabled(session)) {
                 return JoinNode.DistributionType.PARTITIONED;
             }
 
             return JoinNode.DistributionType.REPLICATED;
         }
 
+        /**
+         * Compares cost of the join together with the remote exchanges each distribution type requires.
+         * Returns empty when the cost can not be estimated.
+         */
+        private Optional<JoinNode.DistributionType> getCostBasedJoinDistributionType(JoinNode node)
+        {
+            checkArgument(node.getType() == INNER || node.getType() == LEFT, "Unexpected join type: %s", node.getType());
+
+            PlanNodeCost replicatedCost = getJoinCost(
+                    node,
+                    JoinNode.DistributionType.REPLICATED,
+                    node.getLeft(),
+                    replicatedExchange(idAllocator.getNextId(), REMOTE, node.getRight()));
+            PlanNodeCost partitionedCost = getJoinCost(
+                    node,
+                    JoinNode.DistributionType.PARTITIONED,
+                    partitionedExchange(
+                            idAllocator.getNextId(),
+                            REMOTE,
+                            node.getLeft(),
+                            node.getCriteria().stream().map(JoinNode.EquiJoinClause::getLeft).collect(toImmutableList()),
+                            node.getLeftHashSymbol()),
+                    partitionedExchange(
+                            idAllocator.getNextId(),
+                            REMOTE,
+                            node.getRight(),
+                            node.getCriteria().stream().map(JoinNode.EquiJoinClause::getRight).collect(toImmutableList()),
+                            node.getRightHashSymbol()));
+            if (replicatedCost.hasUnknownComponents() || partitionedCost.hasUnknownComponents()) {
+                return Optional.empty();
+            }
+
+            if (costComparator.compare(replicatedCost, partitionedCost) < 0) {
+                return Optional.of(JoinNode.DistributionType.REPLICATED);
+            }
+            return Optional.of(JoinNode.DistributionType.PARTITIONED);
+        }
+
+        private PlanNodeCost getJoinCost(JoinNode node, JoinNode.DistributionType distributionType, PlanNode left, PlanNode right)
+        {
+            JoinNode join = new JoinNode(
+                    node.getId(),
+                    node.getType(),
+                    left,
+                    right,
+                    node.getCriteria(),
+                    node.getOutputSymbols(),
+                    node.getFilter(),
+                    node.getLeftHashSymbol(),
+                    node.getRightHashSymbol(),
+                    Optional.of(distributionType));
+
+            PlanNodeCost cost = costCalculator.calculateCost(join, Lookup.noLookup(), session, types);
+            for (PlanNode source : join.getSources()) {
+                if (source instanceof ExchangeNode) {
+                    cost = cost.add(costCalculator.calculateCost(source, Lookup.noLookup(), session, types));
+                }
+            }
+            return cost;
+        }
+
         private static boolean mustBroadcastJoin(JoinNode node)
         {
             return isAtMostScalar(node.getRight()) || isCrossJoin(node);
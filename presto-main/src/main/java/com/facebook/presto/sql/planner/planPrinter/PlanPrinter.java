@@ -1309,9 +1309,17 @@ public class PlanPrinter
             PlanNodeCost cost = costs.getOrDefault(node.getId(), UNKNOWN_COST);
             Estimate outputRowCount = cost.getOutputRowCount();
             Estimate outputSizeInBytes = cost.getOutputSizeInBytes();
-            return String.format("{rows: %s, bytes: %s}",
+            return String.format("{rows: %s, bytes: %s, cpu: %s, memory: %s, network: %s}",
                     outputRowCount.isValueUnknown() ? "?" : String.valueOf((long) outputRowCount.getValue()),
-                    outputSizeInBytes.isValueUnknown() ? "?" : succinctBytes((long) outputSizeInBytes.getValue()));
+                    formatEstimateAsDataSize(outputSizeInBytes),
+                    formatEstimateAsDataSize(cost.getCpuCost()),
+                    formatEstimateAsDataSize(cost.getMemoryCost()),
+                    formatEstimateAsDataSize(cost.getNetworkCost()));
+        }
+
+        private String formatEstimateAsDataSize(Estimate estimate)
+        {
+            return estimate.isValueUnknown() ? "?" : succinctBytes((long) estimate.getValue()).toString();
         }
     }
 
@@ -0,0 +1,93 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto;
+
+import com.facebook.presto.execution.QueryManagerConfig;
+import com.facebook.presto.execution.TaskManagerConfig;
+import com.facebook.presto.memory.MemoryManagerConfig;
+import com.facebook.presto.metadata.SessionPropertyManager;
+import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.sql.analyzer.FeaturesConfig;
+import org.testng.annotations.Test;
+
+import java.util.OptionalInt;
+import java.util.function.Function;
+
+import static com.facebook.presto.SystemSessionProperties.JOIN_SPILL_PARTITION_FANOUT;
+import static com.facebook.presto.SystemSessionProperties.QUERY_MAX_CORES_PER_NODE;
+import static com.facebook.presto.SystemSessionProperties.TASK_SCHEDULING_WEIGHT;
+import static com.facebook.presto.SystemSessionProperties.getJoinSpillPartitionFanout;
+import static com.facebook.presto.SystemSessionProperties.getQueryMaxCoresPerNode;
+import static com.facebook.presto.SystemSessionProperties.getTaskSchedulingWeight;
+import static com.facebook.presto.spi.StandardErrorCode.INVALID_SESSION_PROPERTY;
+import static com.facebook.presto.testing.TestingSession.testSessionBuilder;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+public class TestSystemSessionProperties
+{
+    private static final SessionPropertyManager SESSION_PROPERTY_MANAGER = new SessionPropertyManager(new SystemSessionProperties(
+            new QueryManagerConfig(),
+            new TaskManagerConfig().setMaxWorkerThreads(8),
+            new MemoryManagerConfig(),
+            new FeaturesConfig()));
+
+    @Test
+    public void testTaskSchedulingWeight()
+    {
+        assertEquals(getTaskSchedulingWeight(session(TASK_SCHEDULING_WEIGHT, "1")), 1);
+        assertEquals(getTaskSchedulingWeight(session(TASK_SCHEDULING_WEIGHT, "1000")), 1000);
+        assertInvalid(SystemSessionProperties::getTaskSchedulingWeight, TASK_SCHEDULING_WEIGHT, "0", "task_scheduling_weight must be between 1 and 1000: 0");
+        assertInvalid(SystemSessionProperties::getTaskSchedulingWeight, TASK_SCHEDULING_WEIGHT, "1001", "task_scheduling_weight must be between 1 and 1000: 1001");
+    }
+
+    @Test
+    public void testQueryMaxCoresPerNode()
+    {
+        assertEquals(getQueryMaxCoresPerNode(session(QUERY_MAX_CORES_PER_NODE, "0")), OptionalInt.empty());
+        assertEquals(getQueryMaxCoresPerNode(session(QUERY_MAX_CORES_PER_NODE, "8")), OptionalInt.of(8));
+        assertInvalid(SystemSessionProperties::getQueryMaxCoresPerNode, QUERY_MAX_CORES_PER_NODE, "-1", "query_max_cores_per_node must be between 0 and 8: -1");
+        assertInvalid(SystemSessionProperties::getQueryMaxCoresPerNode, QUERY_MAX_CORES_PER_NODE, "9", "query_max_cores_per_node must be between 0 and 8: 9");
+    }
+
+    @Test
+    public void testJoinSpillPartitionFanout()
+    {
+        assertEquals(getJoinSpillPartitionFanout(session(JOIN_SPILL_PARTITION_FANOUT, "1")), 1);
+        assertEquals(getJoinSpillPartitionFanout(session(JOIN_SPILL_PARTITION_FANOUT, "64")), 64);
+        assertInvalid(SystemSessionProperties::getJoinSpillPartitionFanout, JOIN_SPILL_PARTITION_FANOUT, "0", "join_spill_partition_fanout must be a power of 2 between 1 and 64: 0");
+        assertInvalid(SystemSessionProperties::getJoinSpillPartitionFanout, JOIN_SPILL_PARTITION_FANOUT, "-4", "join_spill_partition_fanout must be a power of 2 between 1 and 64: -4");
+        assertInvalid(SystemSessionProperties::getJoinSpillPartitionFanout, JOIN_SPILL_PARTITION_FANOUT, "6", "join_spill_partition_fanout must be a power of 2 between 1 and 64: 6");
+        assertInvalid(SystemSessionProperties::getJoinSpillPartitionFanout, JOIN_SPILL_PARTITION_FANOUT, "128", "join_spill_partition_fanout must be a power of 2 between 1 and 64: 128");
+    }
+
+    private static void assertInvalid(Function<Session, ?> getter, String property, String value, String message)
+    {
+        try {
+            getter.apply(session(property, value));
+            fail("expected exception");
+        }
+        catch (PrestoException e) {
+            assertEquals(e.getErrorCode(), INVALID_SESSION_PROPERTY.toErrorCode());
+            assertEquals(e.getMessage(), message);
+        }
+    }
+
+    private static Session session(String property, String value)
+    {
+        return testSessionBuilder(SESSION_PROPERTY_MANAGER)
+                .setSystemProperty(property, value)
+                .build();
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.cost;
+
+import com.facebook.presto.sql.planner.Symbol;
+import com.facebook.presto.sql.planner.plan.JoinNode;
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.Test;
+
+import static com.facebook.presto.cost.DefaultStatsCalculator.UNKNOWN_FILTER_COEFFICIENT;
+import static com.facebook.presto.cost.DefaultStatsCalculator.estimateInnerJoin;
+import static com.facebook.presto.cost.DefaultStatsCalculator.filter;
+import static com.facebook.presto.sql.planner.iterative.rule.test.PlanBuilder.expression;
+import static org.testng.Assert.assertEquals;
+
+public class TestDefaultStatsCalculator
+{
+    private static final double DELTA = 0.0001;
+
+    private static final Symbol X = new Symbol("x");
+    private static final Symbol Y = new Symbol("y");
+
+    private static final PlanNodeStatsEstimate SOURCE_STATS = PlanNodeStatsEstimate.builder()
+            .setOutputRowCount(1000)
+            .addSymbolStatistics(X, SymbolStatsEstimate.builder()
+                    .setLowValue(0)
+                    .setHighValue(100)
+                    .setDistinctValuesCount(50)
+                    .setNullsFraction(0.1)
+                    .setAverageRowSize(8)
+                    .build())
+            .build();
+
+    @Test
+    public void testFilterRange()
+    {
+        PlanNodeStatsEstimate stats = filter(SOURCE_STATS, expression("x < 50"));
+        assertEquals(stats.getOutputRowCount(), 450, DELTA);
+        SymbolStatsEstimate symbolStats = stats.getSymbolStatistics(X);
+        assertEquals(symbolStats.getLowValue(), 0, DELTA);
+        assertEquals(symbolStats.getHighValue(), 50, DELTA);
+        assertEquals(symbolStats.getDistinctValuesCount(), 25, DELTA);
+        assertEquals(symbolStats.getNullsFraction(), 0, DELTA);
+
+        assertEquals(filter(SOURCE_STATS, expression("x BETWEEN 25 AND 75")).getOutputRowCount(), 450, DELTA);
+        assertEquals(filter(SOURCE_STATS, expression("x > 200")).getOutputRowCount(), 0, DELTA);
+    }
+
+    @Test
+    public void testFilterEquality()
+    {
+        PlanNodeStatsEstimate stats = filter(SOURCE_STATS, expression("x = 10"));
+        assertEquals(stats.getOutputRowCount(), 18, DELTA);
+        assertEquals(stats.getSymbolStatistics(X).getDistinctValuesCount(), 1, DELTA);
+        assertEquals(stats.getSymbolStatistics(X).getLowValue(), 10, DELTA);
+        assertEquals(stats.getSymbolStatistics(X).getHighValue(), 10, DELTA);
+
+        assertEquals(filter(SOURCE_STATS, expression("10 = x")).getOutputRowCount(), 18, DELTA);
+        assertEquals(filter(SOURCE_STATS, expression("x = 200")).getOutputRowCount(), 0, DELTA);
+    }
+
+    @Test
+    public void testFilterNulls()
+    {
+        assertEquals(filter(SOURCE_STATS, expression("x IS NULL")).getOutputRowCount(), 100, DELTA);
+        assertEquals(filter(SOURCE_STATS, expression("x IS NOT NULL")).getOutputRowCount(), 900, DELTA);
+    }
+
+    @Test
+    public void testFilterWithoutStatistics()
+    {
+        assertEquals(filter(SOURCE_STATS, expression("y > 10")).getOutputRowCount(), 1000 * UNKNOWN_FILTER_COEFFICIENT, DELTA);
+        assertEquals(filter(SOURCE_STATS, expression("x > 10 AND y > 10")).getOutputRowCount(), 810 * UNKNOWN_FILTER_COEFFICIENT, DELTA);
+    }
+
+    @Test
+    public void testInnerJoin()
+    {
+        PlanNodeStatsEstimate rightStats = PlanNodeStatsEstimate.builder()
+                .setOutputRowCount(100)
+                .addSymbolStatistics(Y, SymbolStatsEstimate.builder()
+                        .setDistinctValuesCount(100)
+                        .setNullsFraction(0)
+                        .build())
+                .build();
+
+        PlanNodeStatsEstimate stats = estimateInnerJoin(SOURCE_STATS, rightStats, ImmutableList.of(new JoinNode.EquiJoinClause(X, Y)));
+        assertEquals(stats.getOutputRowCount(), 900, DELTA);
+        assertEquals(stats.getSymbolStatistics(X).getDistinctValuesCount(), 50, DELTA);
+        assertEquals(stats.getSymbolStatistics(Y).getDistinctValuesCount(), 50, DELTA);
+
+        PlanNodeStatsEstimate crossJoinStats = estimateInnerJoin(SOURCE_STATS, rightStats, ImmutableList.of());
+        assertEquals(crossJoinStats.getOutputRowCount(), 100000, DELTA);
+    }
+}
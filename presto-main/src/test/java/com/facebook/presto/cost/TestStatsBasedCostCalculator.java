@@ -0,0 +1,172 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.cost;
+
+import com.facebook.presto.Session;
+import com.facebook.presto.client.NodeVersion;
+import com.facebook.presto.connector.ConnectorId;
+import com.facebook.presto.metadata.InMemoryNodeManager;
+import com.facebook.presto.metadata.PrestoNode;
+import com.facebook.presto.spi.statistics.Estimate;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.sql.planner.Symbol;
+import com.facebook.presto.sql.planner.iterative.Lookup;
+import com.facebook.presto.sql.planner.plan.ExchangeNode;
+import com.facebook.presto.sql.planner.plan.JoinNode;
+import com.facebook.presto.sql.planner.plan.PlanNode;
+import com.facebook.presto.sql.planner.plan.PlanNodeId;
+import com.facebook.presto.sql.planner.plan.ValuesNode;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.facebook.presto.cost.PlanNodeStatsEstimate.UNKNOWN_STATS_ESTIMATE;
+import static com.facebook.presto.cost.StatsBasedCostCalculator.currentNumberOfWorkerNodes;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.sql.planner.plan.ExchangeNode.Scope.REMOTE;
+import static com.facebook.presto.sql.planner.plan.ExchangeNode.replicatedExchange;
+import static com.facebook.presto.testing.TestingSession.testSessionBuilder;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestStatsBasedCostCalculator
+{
+    private static final Session SESSION = testSessionBuilder().build();
+
+    private static final Symbol A = new Symbol("a");
+    private static final Symbol B = new Symbol("b");
+    private static final Map<Symbol, Type> TYPES = ImmutableMap.of(A, BIGINT, B, BIGINT);
+
+    private final ValuesNode left = new ValuesNode(new PlanNodeId("left"), ImmutableList.of(A), ImmutableList.of());
+    private final ValuesNode right = new ValuesNode(new PlanNodeId("right"), ImmutableList.of(B), ImmutableList.of());
+
+    @Test
+    public void testJoin()
+    {
+        JoinNode join = join(JoinNode.DistributionType.PARTITIONED, right);
+        StatsBasedCostCalculator costCalculator = costCalculator(ImmutableMap.of(
+                "left", rowCount(1000),
+                "right", rowCount(100),
+                "join", rowCount(500)));
+
+        PlanNodeCost cost = costCalculator.calculateCost(join, Lookup.noLookup(), SESSION, TYPES);
+        assertEquals(cost.getOutputRowCount(), new Estimate(500));
+        assertEquals(cost.getOutputSizeInBytes(), new Estimate(500 * 16));
+        assertEquals(cost.getCpuCost(), new Estimate(1000 * 8 + 100 * 8 + 500 * 16));
+        assertEquals(cost.getMemoryCost(), new Estimate(100 * 8));
+        assertEquals(cost.getNetworkCost(), new Estimate(0));
+    }
+
+    @Test
+    public void testReplicatedJoin()
+    {
+        ExchangeNode exchange = replicatedExchange(new PlanNodeId("exchange"), REMOTE, right);
+        JoinNode join = join(JoinNode.DistributionType.REPLICATED, exchange);
+        StatsBasedCostCalculator costCalculator = costCalculator(ImmutableMap.of(
+                "left", rowCount(1000),
+                "right", rowCount(100),
+                "exchange", rowCount(100),
+                "join", rowCount(500)));
+
+        Map<PlanNodeId, PlanNodeCost> costs = costCalculator.calculateCostForPlan(SESSION, TYPES, join);
+        PlanNodeCost joinCost = costs.get(join.getId());
+        assertEquals(joinCost.getMemoryCost(), new Estimate(100 * 8 * 4));
+        assertEquals(joinCost.getNetworkCost(), new Estimate(0));
+
+        PlanNodeCost exchangeCost = costs.get(exchange.getId());
+        assertEquals(exchangeCost.getCpuCost(), new Estimate(100 * 8));
+        assertEquals(exchangeCost.getNetworkCost(), new Estimate(100 * 8 * 4));
+
+        assertEquals(costs.get(left.getId()).getCpuCost(), new Estimate(0));
+    }
+
+    @Test
+    public void testNumberOfWorkerNodes()
+    {
+        InMemoryNodeManager nodeManager = new InMemoryNodeManager();
+        assertEquals(currentNumberOfWorkerNodes(true, nodeManager).getAsInt(), 1);
+        // the coordinator is still counted as a single node until workers announce themselves
+        assertEquals(currentNumberOfWorkerNodes(false, nodeManager).getAsInt(), 1);
+
+        nodeManager.addNode(
+                new ConnectorId("test"),
+                new PrestoNode("worker1", URI.create("http://worker1"), NodeVersion.UNKNOWN, false),
+                new PrestoNode("worker2", URI.create("http://worker2"), NodeVersion.UNKNOWN, false));
+        assertEquals(currentNumberOfWorkerNodes(true, nodeManager).getAsInt(), 3);
+        assertEquals(currentNumberOfWorkerNodes(false, nodeManager).getAsInt(), 2);
+    }
+
+    @Test
+    public void testUnknownStatistics()
+    {
+        JoinNode join = join(JoinNode.DistributionType.PARTITIONED, right);
+        StatsBasedCostCalculator costCalculator = costCalculator(ImmutableMap.of(
+                "left", UNKNOWN_STATS_ESTIMATE,
+                "right", rowCount(100),
+                "join", UNKNOWN_STATS_ESTIMATE));
+
+        PlanNodeCost cost = costCalculator.calculateCost(join, Lookup.noLookup(), SESSION, TYPES);
+        assertTrue(cost.getOutputRowCount().isValueUnknown());
+        assertTrue(cost.getCpuCost().isValueUnknown());
+        assertTrue(cost.hasUnknownComponents());
+    }
+
+    @Test
+    public void testCostComparator()
+    {
+        PlanNodeCost cheap = PlanNodeCost.builder()
+                .setCpuCost(new Estimate(100))
+                .setMemoryCost(new Estimate(100))
+                .setNetworkCost(new Estimate(100))
+                .build();
+        PlanNodeCost expensive = cheap.add(cheap);
+        assertEquals(expensive.getCpuCost(), new Estimate(200));
+
+        CostComparator comparator = new CostComparator();
+        assertTrue(comparator.compare(cheap, expensive) < 0);
+        assertTrue(comparator.compare(expensive, cheap) > 0);
+        assertEquals(comparator.compare(cheap, cheap), 0);
+    }
+
+    private JoinNode join(JoinNode.DistributionType distributionType, PlanNode buildSource)
+    {
+        return new JoinNode(
+                new PlanNodeId("join"),
+                JoinNode.Type.INNER,
+                left,
+                buildSource,
+                ImmutableList.of(new JoinNode.EquiJoinClause(A, B)),
+                ImmutableList.of(A, B),
+                Optional.empty(),
+                Optional.empty(),
+                Optional.empty(),
+                Optional.of(distributionType));
+    }
+
+    private static PlanNodeStatsEstimate rowCount(double rowCount)
+    {
+        return PlanNodeStatsEstimate.builder()
+                .setOutputRowCount(rowCount)
+                .build();
+    }
+
+    private static StatsBasedCostCalculator costCalculator(Map<String, PlanNodeStatsEstimate> stats)
+    {
+        return new StatsBasedCostCalculator((node, lookup, session, types) -> stats.get(node.getId().toString()), () -> 4);
+    }
+}
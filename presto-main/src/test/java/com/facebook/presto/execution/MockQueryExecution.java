@@ -58,6 +58,7 @@ public class MockQueryExecution
     private QueryState state = QUEUED;
     private Throwable failureCause;
     private Optional<ResourceGroupId> resourceGroupId;
+    private int schedulingWeight = 1;
 
     public MockQueryExecution(long memoryUsage)
     {
@@ -241,6 +242,17 @@ public class MockQueryExecution
         this.resourceGroupId = Optional.of(requireNonNull(resourceGroupId, "resourceGroupId is null"));
     }
 
+    @Override
+    public void setSchedulingWeight(int schedulingWeight)
+    {
+        this.schedulingWeight = schedulingWeight;
+    }
+
+    public int getSchedulingWeight()
+    {
+        return schedulingWeight;
+    }
+
     @Override
     public void start()
     {
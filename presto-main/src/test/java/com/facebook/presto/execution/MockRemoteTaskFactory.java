@@ -186,6 +186,8 @@ public class MockRemoteTaskFactory
                     TASK_INSTANCE_ID,
                     executor,
                     requireNonNull(new DataSize(1, BYTE), "maxBufferSize is null"),
+                    Optional.empty(),
+                    new DataSize(1, GIGABYTE),
                     new UpdateSystemMemory(queryContext));
 
             this.fragment = requireNonNull(fragment, "fragment is null");
@@ -17,7 +17,8 @@ import com.facebook.presto.OutputBuffers;
 import com.facebook.presto.ScheduledSplit;
 import com.facebook.presto.TaskSource;
 import com.facebook.presto.connector.ConnectorId;
-import com.facebook.presto.cost.CoefficientBasedCostCalculator;
+import com.facebook.presto.cost.DefaultStatsCalculator;
+import com.facebook.presto.cost.StatsBasedCostCalculator;
 import com.facebook.presto.execution.TestSqlTaskManager.MockExchangeClientSupplier;
 import com.facebook.presto.execution.scheduler.LegacyNetworkTopology;
 import com.facebook.presto.execution.scheduler.NodeScheduler;
@@ -126,7 +127,7 @@ public final class TaskTestUtils
         return new LocalExecutionPlanner(
                 metadata,
                 new SqlParser(),
-                new CoefficientBasedCostCalculator(metadata),
+                new StatsBasedCostCalculator(new DefaultStatsCalculator(metadata), () -> 1),
                 Optional.empty(),
                 pageSourceManager,
                 new IndexManager(),
@@ -46,6 +46,7 @@ import org.testng.annotations.Test;
 import java.net.URI;
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ScheduledExecutorService;
@@ -293,6 +294,8 @@ public class TestMemoryRevokingScheduler
                 sqlTaskExecutionFactory,
                 executor,
                 Functions.<SqlTask>identity(),
-                new DataSize(32, MEGABYTE));
+                new DataSize(32, MEGABYTE),
+                Optional.empty(),
+                new DataSize(1, GIGABYTE));
     }
 }
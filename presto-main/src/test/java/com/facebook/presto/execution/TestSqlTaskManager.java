@@ -42,6 +42,8 @@ import org.testng.annotations.AfterClass;
 import org.testng.annotations.Test;
 
 import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
@@ -52,11 +54,15 @@ import static com.facebook.presto.execution.TaskTestUtils.PLAN_FRAGMENT;
 import static com.facebook.presto.execution.TaskTestUtils.SPLIT;
 import static com.facebook.presto.execution.TaskTestUtils.TABLE_SCAN_NODE_ID;
 import static com.facebook.presto.execution.TaskTestUtils.createTestingPlanner;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
 import static io.airlift.json.JsonCodec.jsonCodec;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotEquals;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
 
 @Test
 public class TestSqlTaskManager
@@ -275,6 +281,25 @@ public class TestSqlTaskManager
         }
     }
 
+    @Test
+    public void testDeleteStaleSpoolFiles()
+            throws Exception
+    {
+        Path spoolPath = Files.createTempDirectory("spool");
+        try {
+            Path staleSpoolFile = Files.createFile(spoolPath.resolve("output-spool123.bin"));
+            Path otherFile = Files.createFile(spoolPath.resolve("other.bin"));
+
+            try (SqlTaskManager ignored = createSqlTaskManager(new TaskManagerConfig().setSinkSpoolPath(spoolPath.toString()))) {
+                assertFalse(Files.exists(staleSpoolFile));
+                assertTrue(Files.exists(otherFile));
+            }
+        }
+        finally {
+            deleteRecursively(spoolPath, ALLOW_INSECURE);
+        }
+    }
+
     public SqlTaskManager createSqlTaskManager(TaskManagerConfig config)
     {
         return new SqlTaskManager(
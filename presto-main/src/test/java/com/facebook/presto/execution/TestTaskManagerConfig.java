@@ -41,12 +41,18 @@ public class TestTaskManagerConfig
                 .setTaskCpuTimerEnabled(true)
                 .setMaxWorkerThreads(Runtime.getRuntime().availableProcessors() * 2)
                 .setMinDrivers(Runtime.getRuntime().availableProcessors() * 2 * 2)
+                .setMaxBlockingThreads(100)
+                .setBlockingSplitCatalogs("")
                 .setInfoMaxAge(new Duration(15, TimeUnit.MINUTES))
                 .setClientTimeout(new Duration(2, TimeUnit.MINUTES))
                 .setMaxIndexMemoryUsage(new DataSize(64, Unit.MEGABYTE))
                 .setShareIndexLoading(false)
                 .setMaxPartialAggregationMemoryUsage(new DataSize(16, Unit.MEGABYTE))
                 .setSinkMaxBufferSize(new DataSize(32, Unit.MEGABYTE))
+                .setSinkSpoolPath(null)
+                .setSinkMaxSpoolSize(new DataSize(1, Unit.GIGABYTE))
+                .setSinkMaxSpoolSizePerNode(new DataSize(100, Unit.GIGABYTE))
+                .setSinkSpoolThreads(4)
                 .setMaxPagePartitioningBufferSize(new DataSize(32, Unit.MEGABYTE))
                 .setWriterCount(1)
                 .setTaskConcurrency(16)
@@ -74,9 +80,15 @@ public class TestTaskManagerConfig
                 .put("task.max-partial-aggregation-memory", "32MB")
                 .put("task.max-worker-threads", "3")
                 .put("task.min-drivers", "2")
+                .put("task.max-blocking-threads", "20")
+                .put("task.blocking-split-catalogs", "mysql, cassandra")
                 .put("task.info.max-age", "22m")
                 .put("task.client.timeout", "10s")
                 .put("sink.max-buffer-size", "42MB")
+                .put("sink.spool-path", "/tmp/spool")
+                .put("sink.max-spool-size", "2GB")
+                .put("sink.max-spool-size-per-node", "50GB")
+                .put("sink.spool-threads", "8")
                 .put("driver.max-page-partitioning-buffer-size", "40MB")
                 .put("task.writer-count", "4")
                 .put("task.concurrency", "8")
@@ -101,9 +113,15 @@ public class TestTaskManagerConfig
                 .setMaxPartialAggregationMemoryUsage(new DataSize(32, Unit.MEGABYTE))
                 .setMaxWorkerThreads(3)
                 .setMinDrivers(2)
+                .setMaxBlockingThreads(20)
+                .setBlockingSplitCatalogs("mysql,cassandra")
                 .setInfoMaxAge(new Duration(22, TimeUnit.MINUTES))
                 .setClientTimeout(new Duration(10, TimeUnit.SECONDS))
                 .setSinkMaxBufferSize(new DataSize(42, Unit.MEGABYTE))
+                .setSinkSpoolPath("/tmp/spool")
+                .setSinkMaxSpoolSize(new DataSize(2, Unit.GIGABYTE))
+                .setSinkMaxSpoolSizePerNode(new DataSize(50, Unit.GIGABYTE))
+                .setSinkSpoolThreads(8)
                 .setMaxPagePartitioningBufferSize(new DataSize(40, Unit.MEGABYTE))
                 .setWriterCount(4)
                 .setTaskConcurrency(8)
@@ -0,0 +1,180 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution.buffer;
+
+import com.facebook.presto.block.BlockEncodingManager;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.PageBuilder;
+import com.facebook.presto.spi.block.BlockEncodingSerde;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spiller.SpillCompressionCodec;
+import com.facebook.presto.type.TypeRegistry;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import io.airlift.tpch.LineItem;
+import io.airlift.tpch.LineItemGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.DateType.DATE;
+import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
+import static com.facebook.presto.spi.type.IntegerType.INTEGER;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+@State(Scope.Thread)
+@OutputTimeUnit(SECONDS)
+@Fork(3)
+@Warmup(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+public class BenchmarkPagesSerde
+{
+    private static final List<Type> TYPES = ImmutableList.of(BIGINT, BIGINT, INTEGER, DOUBLE, DOUBLE, VARCHAR, DATE);
+    private static final BlockEncodingSerde BLOCK_ENCODING_MANAGER = new BlockEncodingManager(new TypeRegistry(ImmutableSet.copyOf(TYPES)));
+
+    @Benchmark
+    public List<SerializedPage> serialize(BenchmarkData data)
+    {
+        ImmutableList.Builder<SerializedPage> serializedPages = ImmutableList.builder();
+        for (Page page : data.getPages()) {
+            serializedPages.add(data.getPagesSerde().serialize(page));
+        }
+        return serializedPages.build();
+    }
+
+    @Benchmark
+    public List<Page> deserialize(BenchmarkData data)
+    {
+        ImmutableList.Builder<Page> pages = ImmutableList.builder();
+        for (SerializedPage serializedPage : data.getSerializedPages()) {
+            pages.add(data.getPagesSerde().deserialize(serializedPage));
+        }
+        return pages.build();
+    }
+
+    @State(Scope.Thread)
+    public static class BenchmarkData
+    {
+        @Param({"NONE", "LZ4"})
+        private String compression = "NONE";
+
+        @Param({"10000"})
+        private int rowsPerPage = 10000;
+
+        @Param({"10"})
+        private int pagesCount = 10;
+
+        private PagesSerde pagesSerde;
+        private List<Page> pages;
+        private List<SerializedPage> serializedPages;
+
+        @Setup
+        public void setup()
+        {
+            pagesSerde = SpillCompressionCodec.valueOf(compression).createPagesSerde(BLOCK_ENCODING_MANAGER);
+            pages = createInputPages();
+
+            ImmutableList.Builder<SerializedPage> serializedPages = ImmutableList.builder();
+            for (Page page : pages) {
+                serializedPages.add(pagesSerde.serialize(page));
+            }
+            this.serializedPages = serializedPages.build();
+        }
+
+        private List<Page> createInputPages()
+        {
+            ImmutableList.Builder<Page> pages = ImmutableList.builder();
+
+            PageBuilder pageBuilder = new PageBuilder(TYPES);
+            LineItemGenerator lineItemGenerator = new LineItemGenerator(1, 1, 1);
+            Iterator<LineItem> iterator = lineItemGenerator.iterator();
+            for (int j = 0; j < pagesCount; j++) {
+                for (int i = 0; i < rowsPerPage; i++) {
+                    pageBuilder.declarePosition();
+
+                    LineItem lineItem = iterator.next();
+                    BIGINT.writeLong(pageBuilder.getBlockBuilder(0), lineItem.getOrderKey());
+                    BIGINT.writeLong(pageBuilder.getBlockBuilder(1), lineItem.getPartKey());
+                    INTEGER.writeLong(pageBuilder.getBlockBuilder(2), lineItem.getQuantity());
+                    DOUBLE.writeDouble(pageBuilder.getBlockBuilder(3), lineItem.getDiscount());
+                    DOUBLE.writeDouble(pageBuilder.getBlockBuilder(4), lineItem.getExtendedPrice());
+                    VARCHAR.writeString(pageBuilder.getBlockBuilder(5), lineItem.getReturnFlag());
+                    DATE.writeLong(pageBuilder.getBlockBuilder(6), lineItem.getShipDate());
+                }
+                pages.add(pageBuilder.build());
+                pageBuilder.reset();
+            }
+
+            return pages.build();
+        }
+
+        public PagesSerde getPagesSerde()
+        {
+            return pagesSerde;
+        }
+
+        public List<Page> getPages()
+        {
+            return pages;
+        }
+
+        public List<SerializedPage> getSerializedPages()
+        {
+            return serializedPages;
+        }
+
+        public double getCompressionRatio()
+        {
+            long pageBytes = pages.stream().mapToLong(Page::getSizeInBytes).sum();
+            long serializedBytes = serializedPages.stream().mapToLong(SerializedPage::getSizeInBytes).sum();
+            return (double) pageBytes / serializedBytes;
+        }
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        for (String compression : ImmutableList.of("NONE", "LZ4")) {
+            BenchmarkData data = new BenchmarkData();
+            data.compression = compression;
+            data.setup();
+            System.out.println(format("%s: page bytes / serialized bytes = %.2f", compression, data.getCompressionRatio()));
+        }
+
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkPagesSerde.class.getSimpleName() + ".*")
+                .build();
+
+        new Runner(options).run();
+    }
+}
@@ -182,6 +182,38 @@ public class TestClientBuffer
         assertBufferDestroyed(buffer, 6);
     }
 
+    @Test
+    public void testLastPagesCompleteBuffer()
+    {
+        ClientBuffer buffer = new ClientBuffer(TASK_INSTANCE_ID, BUFFER_ID);
+
+        for (int i = 0; i < 3; i++) {
+            addPage(buffer, createPage(i));
+        }
+
+        // more pages may still be added
+        BufferResult result = getBufferResult(buffer, 0, sizeOfPages(10), NO_WAIT);
+        assertFalse(result.isBufferComplete());
+        assertFalse(result.isNoMorePages());
+
+        buffer.setNoMorePages();
+
+        // a partial read of a finished buffer is not the last result
+        result = getBufferResult(buffer, 0, sizeOfPages(1), NO_WAIT);
+        assertBufferResultEquals(TYPES, result, bufferResult(0, createPage(0)));
+        assertFalse(result.isNoMorePages());
+
+        // reading the remaining pages of a finished buffer is
+        result = getBufferResult(buffer, 1, sizeOfPages(10), NO_WAIT);
+        assertBufferResultEquals(TYPES, result, bufferResult(1, createPage(1), createPage(2)));
+        assertFalse(result.isBufferComplete());
+        assertTrue(result.isNoMorePages());
+
+        // the client can destroy the buffer without acknowledging the last pages
+        buffer.destroy();
+        assertBufferDestroyed(buffer, 1);
+    }
+
     @Test
     public void testDuplicateRequests()
     {
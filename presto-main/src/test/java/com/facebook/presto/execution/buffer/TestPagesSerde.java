@@ -17,6 +17,9 @@ import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.BlockBuilder;
 import com.facebook.presto.spi.block.BlockBuilderStatus;
+import com.facebook.presto.spi.block.DictionaryBlock;
+import com.facebook.presto.spi.block.TestingBlockEncodingSerde;
+import com.facebook.presto.spi.type.TestingTypeManager;
 import com.facebook.presto.spi.type.Type;
 import com.google.common.collect.ImmutableList;
 import io.airlift.slice.DynamicSliceOutput;
@@ -25,11 +28,13 @@ import org.testng.annotations.Test;
 
 import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 
 import static com.facebook.presto.execution.buffer.PagesSerdeUtil.readPages;
 import static com.facebook.presto.execution.buffer.PagesSerdeUtil.writePages;
 import static com.facebook.presto.operator.PageAssertions.assertPageEquals;
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.IntegerType.INTEGER;
 import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
@@ -106,9 +111,64 @@ public class TestPagesSerde
         assertEquals(secondValueSize, 4 + 3); // length + "bob" (null shared with first entry)
     }
 
+    @Test
+    public void testPackedRoundTrip()
+    {
+        BlockBuilder bigintBuilder = BIGINT.createBlockBuilder(new BlockBuilderStatus(), 5);
+        BlockBuilder integerBuilder = INTEGER.createBlockBuilder(new BlockBuilderStatus(), 5);
+        for (int i = 0; i < 100; i++) {
+            if (i % 7 == 0) {
+                bigintBuilder.appendNull();
+                integerBuilder.appendNull();
+            }
+            else {
+                BIGINT.writeLong(bigintBuilder, -1_000_000_000_000L + i * 3);
+                INTEGER.writeLong(integerBuilder, 50 - i);
+            }
+        }
+        Block bigintBlock = bigintBuilder.build();
+        Block dictionaryBlock = new DictionaryBlock(bigintBlock, new int[] {3, 2, 1, 0, 0, 1, 2, 3});
+
+        Page expectedPage = new Page(bigintBlock, integerBuilder.build());
+        serializedSize(packedPagesSerde(), ImmutableList.of(BIGINT, INTEGER), expectedPage);
+        serializedSize(packedPagesSerde(), ImmutableList.of(BIGINT), new Page(dictionaryBlock));
+    }
+
+    @Test
+    public void testPackedBigintSerializedSize()
+    {
+        BlockBuilder builder = BIGINT.createBlockBuilder(new BlockBuilderStatus(), 5);
+
+        // empty page
+        Page page = new Page(builder.build());
+        int pageSize = serializedSize(packedPagesSerde(), ImmutableList.of(BIGINT), page);
+        assertEquals(pageSize, 43); // page overhead, including the longer encoding name and the value encoding tag
+
+        // page with one value
+        BIGINT.writeLong(builder, 123);
+        page = new Page(builder.build());
+        int firstValueSize = serializedSize(packedPagesSerde(), ImmutableList.of(BIGINT), page) - pageSize;
+        assertEquals(firstValueSize, 9); // value size + value overhead
+
+        // page with two values
+        BIGINT.writeLong(builder, 456);
+        page = new Page(builder.build());
+        int secondValueSize = serializedSize(packedPagesSerde(), ImmutableList.of(BIGINT), page) - (pageSize + firstValueSize);
+        assertEquals(secondValueSize, 4); // minimum + width + 2 * 9 bits, instead of two 8 byte values
+    }
+
+    private static PagesSerde packedPagesSerde()
+    {
+        return new PagesSerde(new TestingBlockEncodingSerde(new TestingTypeManager()), Optional.empty(), Optional.empty(), true);
+    }
+
     private static int serializedSize(List<? extends Type> types, Page expectedPage)
     {
-        PagesSerde serde = new TestingPagesSerdeFactory().createPagesSerde();
+        return serializedSize(new TestingPagesSerdeFactory().createPagesSerde(), types, expectedPage);
+    }
+
+    private static int serializedSize(PagesSerde serde, List<? extends Type> types, Page expectedPage)
+    {
         DynamicSliceOutput sliceOutput = new DynamicSliceOutput(1024);
         writePages(serde, sliceOutput, expectedPage);
         Slice slice = sliceOutput.slice();
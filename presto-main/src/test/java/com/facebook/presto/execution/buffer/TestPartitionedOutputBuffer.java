@@ -20,6 +20,7 @@ import com.facebook.presto.execution.StateMachine;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.type.BigintType;
 import com.google.common.collect.ImmutableList;
+import com.google.common.io.Files;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
@@ -27,8 +28,10 @@ import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.stream.Collectors;
@@ -43,9 +46,14 @@ import static com.facebook.presto.execution.buffer.TestClientBuffer.getFuture;
 import static com.facebook.presto.execution.buffer.TestingPagesSerdeFactory.testingPagesSerde;
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.MoreFiles.listFiles;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
 import static io.airlift.concurrent.MoreFutures.tryGetFutureValue;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.airlift.units.DataSize.Unit.GIGABYTE;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
@@ -61,6 +69,9 @@ public class TestPartitionedOutputBuffer
     private static final Duration NO_WAIT = new Duration(0, MILLISECONDS);
     private static final Duration MAX_WAIT = new Duration(1, SECONDS);
     private static final DataSize BUFFERED_PAGE_SIZE = new DataSize(PAGES_SERDE.serialize(createPage(42)).getRetainedSizeInBytes(), BYTE);
+    private static final DataSize SPOOLED_PAGE_SIZE = new DataSize(PAGES_SERDE.serialize(createPage(42)).getSizeInBytes(), BYTE);
+    // position count, compression marker, uncompressed size and size
+    private static final int SPOOLED_PAGE_HEADER_SIZE = 13;
 
     private static final String TASK_INSTANCE_ID = "task-instance-id";
     private static final ImmutableList<BigintType> TYPES = ImmutableList.of(BIGINT);
@@ -376,6 +387,187 @@ public class TestPartitionedOutputBuffer
         assertQueueState(buffer, SECOND, 1, 0);
     }
 
+    @Test
+    public void testSpoolFullBuffer()
+            throws Exception
+    {
+        File spoolPath = Files.createTempDir();
+        try {
+            PartitionedOutputBuffer buffer = createPartitionedBuffer(
+                    createInitialEmptyOutputBuffers(PARTITIONED)
+                            .withBuffer(FIRST, 0)
+                            .withNoMoreBufferIds(),
+                    sizeOfBufferedPages(2),
+                    Optional.of(createSpool(spoolPath, new DataSize(1, GIGABYTE))));
+
+            // pages that do not fit in the buffer are spooled and do not block the writer
+            for (int i = 0; i < 10; i++) {
+                addPage(buffer, createPage(i));
+            }
+            assertEquals(listFiles(spoolPath.toPath()).size(), 1);
+
+            // pages held in memory are returned first
+            assertBufferResultEquals(TYPES, getBufferResult(buffer, FIRST, 0, sizeOfBufferedPages(3), NO_WAIT), bufferResult(0, createPage(0), createPage(1), createPage(2)));
+
+            // followed by the spooled pages in the order they were added
+            assertBufferResultEquals(TYPES, getBufferResult(buffer, FIRST, 3, sizeOfBufferedPages(10), NO_WAIT), bufferResult(
+                    3,
+                    createPage(3),
+                    createPage(4),
+                    createPage(5),
+                    createPage(6),
+                    createPage(7),
+                    createPage(8),
+                    createPage(9)));
+
+            // the spool file is removed once it is drained
+            assertEquals(listFiles(spoolPath.toPath()).size(), 0);
+
+            buffer.setNoMorePages();
+            assertBufferResultEquals(TYPES, getBufferResult(buffer, FIRST, 10, sizeOfBufferedPages(10), NO_WAIT), emptyResults(TASK_INSTANCE_ID, 10, true));
+            buffer.abort(FIRST);
+            assertFinished(buffer);
+        }
+        finally {
+            deleteRecursively(spoolPath.toPath(), ALLOW_INSECURE);
+        }
+    }
+
+    @Test
+    public void testSpoolBackPressure()
+            throws Exception
+    {
+        File spoolPath = Files.createTempDir();
+        try {
+            PartitionedOutputBuffer buffer = createPartitionedBuffer(
+                    createInitialEmptyOutputBuffers(PARTITIONED)
+                            .withBuffer(FIRST, 0)
+                            .withNoMoreBufferIds(),
+                    sizeOfBufferedPages(2),
+                    Optional.of(createSpool(spoolPath, new DataSize(1, GIGABYTE))),
+                    new DataSize(SPOOLED_PAGE_SIZE.toBytes() * 2, BYTE));
+
+            // the first three pages fill the buffer, and the next two pages fill the spool
+            for (int i = 0; i < 5; i++) {
+                addPage(buffer, createPage(i));
+            }
+
+            // writer is blocked once the spool is full
+            ListenableFuture<?> future = enqueuePage(buffer, createPage(5));
+
+            // reading the pages held in memory does not unblock the writer
+            assertBufferResultEquals(TYPES, getBufferResult(buffer, FIRST, 0, sizeOfBufferedPages(3), NO_WAIT), bufferResult(0, createPage(0), createPage(1), createPage(2)));
+            assertFalse(future.isDone());
+
+            // reading a spooled page makes room in the spool
+            assertBufferResultEquals(TYPES, getBufferResult(buffer, FIRST, 3, sizeOfBufferedPages(1), NO_WAIT), bufferResult(3, createPage(3)));
+            assertFutureIsDone(future);
+
+            buffer.destroy();
+            assertFinished(buffer);
+            assertEquals(listFiles(spoolPath.toPath()).size(), 0);
+        }
+        finally {
+            deleteRecursively(spoolPath.toPath(), ALLOW_INSECURE);
+        }
+    }
+
+    @Test
+    public void testSpoolFileIsSharedByPartitions()
+            throws Exception
+    {
+        File spoolPath = Files.createTempDir();
+        try {
+            PartitionedOutputBuffer buffer = createPartitionedBuffer(
+                    createInitialEmptyOutputBuffers(PARTITIONED)
+                            .withBuffer(FIRST, 0)
+                            .withBuffer(SECOND, 1)
+                            .withNoMoreBufferIds(),
+                    sizeOfBufferedPages(2),
+                    Optional.of(createSpool(spoolPath, new DataSize(1, GIGABYTE))));
+
+            for (int i = 0; i < 5; i++) {
+                addPage(buffer, createPage(i), 0);
+                addPage(buffer, createPage(i), 1);
+            }
+
+            // both partitions spool to the same file
+            assertEquals(listFiles(spoolPath.toPath()).size(), 1);
+
+            assertBufferResultEquals(TYPES, getBufferResult(buffer, FIRST, 0, sizeOfBufferedPages(10), NO_WAIT), bufferResult(
+                    0,
+                    createPage(0),
+                    createPage(1),
+                    createPage(2),
+                    createPage(3),
+                    createPage(4)));
+
+            // the file is deleted once the pages of all partitions are read
+            assertEquals(listFiles(spoolPath.toPath()).size(), 1);
+            assertBufferResultEquals(TYPES, getBufferResult(buffer, SECOND, 0, sizeOfBufferedPages(10), NO_WAIT), bufferResult(
+                    0,
+                    createPage(0),
+                    createPage(1),
+                    createPage(2),
+                    createPage(3),
+                    createPage(4)));
+            assertEquals(listFiles(spoolPath.toPath()).size(), 0);
+
+            buffer.destroy();
+            assertFinished(buffer);
+        }
+        finally {
+            deleteRecursively(spoolPath.toPath(), ALLOW_INSECURE);
+        }
+    }
+
+    @Test
+    public void testSpoolFullNode()
+            throws Exception
+    {
+        File spoolPath = Files.createTempDir();
+        try {
+            // the spool of the node only fits a single page
+            OutputBufferSpool spool = createSpool(spoolPath, new DataSize((SPOOLED_PAGE_SIZE.toBytes() + SPOOLED_PAGE_HEADER_SIZE) * 2, BYTE));
+            PartitionedOutputBuffer buffer = createPartitionedBuffer(
+                    createInitialEmptyOutputBuffers(PARTITIONED)
+                            .withBuffer(FIRST, 0)
+                            .withNoMoreBufferIds(),
+                    sizeOfBufferedPages(2),
+                    Optional.of(spool));
+
+            // the first three pages fill the buffer, and the next page fills the spool of the node
+            for (int i = 0; i < 4; i++) {
+                addPage(buffer, createPage(i));
+            }
+            assertEquals(listFiles(spoolPath.toPath()).size(), 1);
+
+            // pages that do not fit in the spool are held in memory and block the writer
+            ListenableFuture<?> future = enqueuePage(buffer, createPage(4));
+
+            // pages are returned in the order they were added
+            assertBufferResultEquals(TYPES, getBufferResult(buffer, FIRST, 0, sizeOfBufferedPages(10), NO_WAIT), bufferResult(
+                    0,
+                    createPage(0),
+                    createPage(1),
+                    createPage(2),
+                    createPage(3),
+                    createPage(4)));
+
+            // acknowledging the pages unblocks the writer, and frees the spool of the node
+            assertBufferResultEquals(TYPES, getBufferResult(buffer, FIRST, 5, sizeOfBufferedPages(10), NO_WAIT), emptyResults(TASK_INSTANCE_ID, 5, false));
+            assertFutureIsDone(future);
+            assertEquals(spool.getSpoolSpaceTracker().getCurrentBytes(), 0);
+            assertEquals(listFiles(spoolPath.toPath()).size(), 0);
+
+            buffer.destroy();
+            assertFinished(buffer);
+        }
+        finally {
+            deleteRecursively(spoolPath.toPath(), ALLOW_INSECURE);
+        }
+    }
+
     @Test
     public void testAbort()
     {
@@ -787,12 +979,30 @@ public class TestPartitionedOutputBuffer
     }
 
     private PartitionedOutputBuffer createPartitionedBuffer(OutputBuffers buffers, DataSize dataSize)
+    {
+        return createPartitionedBuffer(buffers, dataSize, Optional.empty());
+    }
+
+    private static OutputBufferSpool createSpool(File spoolPath, DataSize maxSpoolSize)
+    {
+        // run the spool I/O on the calling thread, so spooled pages are loaded before the results are checked
+        return new OutputBufferSpool(spoolPath.toPath(), maxSpoolSize, newDirectExecutorService());
+    }
+
+    private PartitionedOutputBuffer createPartitionedBuffer(OutputBuffers buffers, DataSize dataSize, Optional<OutputBufferSpool> spool)
+    {
+        return createPartitionedBuffer(buffers, dataSize, spool, new DataSize(1, GIGABYTE));
+    }
+
+    private PartitionedOutputBuffer createPartitionedBuffer(OutputBuffers buffers, DataSize dataSize, Optional<OutputBufferSpool> spool, DataSize maxSpoolSize)
     {
         return new PartitionedOutputBuffer(
                 TASK_INSTANCE_ID,
                 new StateMachine<>("bufferState", stateNotificationExecutor, OPEN, TERMINAL_BUFFER_STATES),
                 buffers,
                 dataSize,
+                spool,
+                maxSpoolSize,
                 ignored -> {},
                 stateNotificationExecutor);
     }
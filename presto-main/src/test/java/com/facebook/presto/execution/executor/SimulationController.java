@@ -230,8 +230,15 @@ class SimulationController
         private final int numConcurrentTasks;
         private final int numSplitsPerTask;
         private final SplitGenerator splitGenerator;
+        private final int schedulingWeight;
+        private final OptionalInt maxCores;
 
         TaskSpecification(Type type, String name, OptionalInt totalTasks, int numConcurrentTasks, int numSplitsPerTask, SplitGenerator splitGenerator)
+        {
+            this(type, name, totalTasks, numConcurrentTasks, numSplitsPerTask, splitGenerator, 1, OptionalInt.empty());
+        }
+
+        TaskSpecification(Type type, String name, OptionalInt totalTasks, int numConcurrentTasks, int numSplitsPerTask, SplitGenerator splitGenerator, int schedulingWeight, OptionalInt maxCores)
         {
             this.type = type;
             this.name = name;
@@ -239,6 +246,8 @@ class SimulationController
             this.numConcurrentTasks = numConcurrentTasks;
             this.numSplitsPerTask = numSplitsPerTask;
             this.splitGenerator = splitGenerator;
+            this.schedulingWeight = schedulingWeight;
+            this.maxCores = maxCores;
         }
 
         Type getType()
@@ -266,6 +275,16 @@ class SimulationController
             return totalTasks;
         }
 
+        int getSchedulingWeight()
+        {
+            return schedulingWeight;
+        }
+
+        OptionalInt getMaxCores()
+        {
+            return maxCores;
+        }
+
         SplitSpecification nextSpecification()
         {
             return splitGenerator.next();
@@ -104,6 +104,7 @@ public class TaskExecutorSimulator
         // runExperimentOverloadedCluster(controller);
         // runExperimentMisbehavingQuanta(controller);
         // runExperimentStarveSlowSplits(controller);
+        // runExperimentWeightedMixedWorkload(controller);
         runExperimentWithinLevelFairness(controller);
 
         System.out.println("Stopped scheduling new tasks. Ending simulation..");
@@ -274,6 +275,45 @@ public class TaskExecutorSimulator
         System.out.println("Level fairness experiment completed.");
     }
 
+    private void runExperimentWeightedMixedWorkload(SimulationController controller)
+            throws InterruptedException
+    {
+        /*
+        Designed to simulate a mixed workload where long running ETL queries share the node with
+        short interactive dashboard queries. The dashboard tasks are given a larger scheduling
+        weight, and the ETL query is limited in the number of cores it may use on the node.
+
+        Desired result:
+        Dashboard tasks should accrue scheduled time at a higher rate than ETL tasks with the same
+        accrued time, and the ETL query should never run more splits at once than its core limit,
+        leaving the remaining runner threads for the dashboard queries.
+        */
+
+        System.out.println("Weighted mixed workload experiment started.");
+
+        TaskSpecification etlSpec = new TaskSpecification(LEAF, "etl", OptionalInt.empty(), 16, 16, new SimpleLeafSplitGenerator(MINUTES.toNanos(4), SECONDS.toNanos(1)), 1, OptionalInt.of(8));
+        controller.addTaskSpecification(etlSpec);
+
+        TaskSpecification dashboardSpec = new TaskSpecification(LEAF, "dashboard", OptionalInt.empty(), 16, 4, new FastLeafSplitGenerator(), 4, OptionalInt.empty());
+        controller.addTaskSpecification(dashboardSpec);
+
+        controller.enableSpecification(etlSpec);
+        controller.run();
+
+        // let the etl tasks saturate the node before the dashboard queries arrive
+        MINUTES.sleep(1);
+        controller.runCallback();
+
+        controller.enableSpecification(dashboardSpec);
+
+        for (int i = 0; i < 10; i++) {
+            SECONDS.sleep(20);
+            controller.clearPendingQueue();
+        }
+
+        System.out.println("Weighted mixed workload experiment completed.");
+    }
+
     private void scheduleStatusPrinter(long start)
     {
         overallStatusPrintExecutor.scheduleAtFixedRate(() -> {
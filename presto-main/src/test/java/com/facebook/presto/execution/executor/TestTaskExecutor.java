@@ -15,6 +15,7 @@ package com.facebook.presto.execution.executor;
 
 import com.facebook.presto.execution.SplitRunner;
 import com.facebook.presto.execution.TaskId;
+import com.google.common.base.Ticker;
 import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
@@ -23,7 +24,12 @@ import io.airlift.testing.TestingTicker;
 import io.airlift.units.Duration;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Future;
 import java.util.concurrent.Phaser;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -39,6 +45,7 @@ import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.MINUTES;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
 public class TestTaskExecutor
@@ -427,6 +434,186 @@ public class TestTaskExecutor
         }
     }
 
+    @Test
+    public void testSchedulingWeight()
+    {
+        MultilevelSplitQueue splitQueue = new MultilevelSplitQueue(false, 2);
+        TaskHandle handle0 = new TaskHandle(new TaskId("test0", 0, 0), splitQueue, () -> 1, 1, new Duration(1, SECONDS), 1, Optional.empty());
+        TaskHandle handle1 = new TaskHandle(new TaskId("test1", 0, 0), splitQueue, () -> 1, 1, new Duration(1, SECONDS), 2, Optional.empty());
+
+        long quantaNanos = MILLISECONDS.toNanos(1500);
+        handle0.addScheduledNanos(quantaNanos);
+        handle1.addScheduledNanos(quantaNanos);
+
+        // the task with twice the weight is charged half of its scheduled time
+        assertEquals(handle0.getScheduledNanos(), handle1.getScheduledNanos());
+        assertEquals(handle0.getPriority().getLevel(), 1);
+        assertEquals(handle1.getPriority().getLevel(), 0);
+        assertEquals(handle1.getPriority().getLevelPriority(), quantaNanos / 2);
+    }
+
+    @Test(invocationCount = 10)
+    public void testQueryCpuQuota()
+            throws Exception
+    {
+        TaskExecutor taskExecutor = new TaskExecutor(4, 8);
+        taskExecutor.start();
+
+        try {
+            // two tasks of the same query share a limit of two cores
+            TaskHandle[] taskHandles = {
+                    taskExecutor.addTask(new TaskId("test", 0, 0), () -> 0, 10, new Duration(1, MILLISECONDS), 1, OptionalInt.of(2)),
+                    taskExecutor.addTask(new TaskId("test", 1, 0), () -> 0, 10, new Duration(1, MILLISECONDS), 1, OptionalInt.of(2))
+            };
+            assertEquals(taskExecutor.getCpuQuotaQueries(), 1);
+
+            AtomicInteger runningJobs = new AtomicInteger();
+            AtomicInteger maxRunningJobs = new AtomicInteger();
+            List<ListenableFuture<?>> futures = new ArrayList<>();
+            for (TaskHandle taskHandle : taskHandles) {
+                List<ConcurrencyTrackingJob> jobs = ImmutableList.of(
+                        new ConcurrencyTrackingJob(runningJobs, maxRunningJobs, 20),
+                        new ConcurrencyTrackingJob(runningJobs, maxRunningJobs, 20),
+                        new ConcurrencyTrackingJob(runningJobs, maxRunningJobs, 20));
+                futures.addAll(taskExecutor.enqueueSplits(taskHandle, true, jobs));
+            }
+
+            Futures.allAsList(futures).get(10, SECONDS);
+            assertLessThanOrEqual(maxRunningJobs.get(), 2);
+            assertEquals(taskExecutor.getThrottledSplits(), 0);
+
+            taskExecutor.removeTask(taskHandles[0]);
+            taskExecutor.removeTask(taskHandles[1]);
+            assertEquals(taskExecutor.getCpuQuotaQueries(), 0);
+        }
+        finally {
+            taskExecutor.stop();
+        }
+    }
+
+    @Test(timeOut = 30_000)
+    public void testBlockingSplits()
+            throws Exception
+    {
+        TaskExecutor taskExecutor = new TaskExecutor(1, 2, 2, new MultilevelSplitQueue(false, 2), false, Ticker.systemTicker());
+        taskExecutor.start();
+
+        try {
+            TaskHandle taskHandle = taskExecutor.addTask(new TaskId("test", 0, 0), () -> 0, 10, new Duration(1, MILLISECONDS));
+
+            // the blocking splits hold on to their threads until the latch is released
+            CountDownLatch latch = new CountDownLatch(1);
+            List<ListenableFuture<?>> blockingFutures = taskExecutor.enqueueBlockingSplits(taskHandle, ImmutableList.of(new BlockingJob(latch), new BlockingJob(latch)));
+            assertEquals(taskExecutor.getBlockingSplits(), 2);
+
+            // the only runner thread is still available for other splits
+            AtomicInteger runningJobs = new AtomicInteger();
+            AtomicInteger maxRunningJobs = new AtomicInteger();
+            List<ListenableFuture<?>> futures = taskExecutor.enqueueSplits(taskHandle, false, ImmutableList.of(new ConcurrencyTrackingJob(runningJobs, maxRunningJobs, 5)));
+            Futures.allAsList(futures).get(10, SECONDS);
+            assertFalse(Futures.allAsList(blockingFutures).isDone());
+
+            latch.countDown();
+            Futures.allAsList(blockingFutures).get(10, SECONDS);
+            // the finished future completes before the split is unregistered
+            while (taskExecutor.getBlockingSplits() > 0) {
+                MILLISECONDS.sleep(10);
+            }
+            assertEquals(taskExecutor.getRunningBlockingSplits(), 0);
+
+            taskExecutor.removeTask(taskHandle);
+        }
+        finally {
+            taskExecutor.stop();
+        }
+    }
+
+    private static class ConcurrencyTrackingJob
+            implements SplitRunner
+    {
+        private final AtomicInteger runningJobs;
+        private final AtomicInteger maxRunningJobs;
+        private final int requiredQuanta;
+        private final AtomicInteger completedQuanta = new AtomicInteger();
+
+        public ConcurrencyTrackingJob(AtomicInteger runningJobs, AtomicInteger maxRunningJobs, int requiredQuanta)
+        {
+            this.runningJobs = runningJobs;
+            this.maxRunningJobs = maxRunningJobs;
+            this.requiredQuanta = requiredQuanta;
+        }
+
+        @Override
+        public ListenableFuture<?> processFor(Duration duration)
+                throws Exception
+        {
+            maxRunningJobs.accumulateAndGet(runningJobs.incrementAndGet(), Math::max);
+            try {
+                MILLISECONDS.sleep(1);
+            }
+            finally {
+                runningJobs.decrementAndGet();
+            }
+            completedQuanta.incrementAndGet();
+            return Futures.immediateFuture(null);
+        }
+
+        @Override
+        public String getInfo()
+        {
+            return "concurrency-tracking-split";
+        }
+
+        @Override
+        public boolean isFinished()
+        {
+            return completedQuanta.get() >= requiredQuanta;
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+
+    private static class BlockingJob
+            implements SplitRunner
+    {
+        private final CountDownLatch latch;
+        private volatile boolean finished;
+
+        public BlockingJob(CountDownLatch latch)
+        {
+            this.latch = latch;
+        }
+
+        @Override
+        public ListenableFuture<?> processFor(Duration duration)
+                throws Exception
+        {
+            latch.await();
+            finished = true;
+            return Futures.immediateFuture(null);
+        }
+
+        @Override
+        public String getInfo()
+        {
+            return "blocking-split";
+        }
+
+        @Override
+        public boolean isFinished()
+        {
+            return finished;
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+
     private static class TestingJob
             implements SplitRunner
     {
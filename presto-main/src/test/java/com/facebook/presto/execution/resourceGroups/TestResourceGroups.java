@@ -385,6 +385,26 @@ public class TestResourceGroups
         assertGreaterThan(group2Ran, lowerBound);
     }
 
+    @Test(timeOut = 10_000)
+    public void testQuerySchedulingWeight()
+    {
+        RootInternalResourceGroup root = new RootInternalResourceGroup("root", (group, export) -> {}, directExecutor());
+        root.setSoftMemoryLimit(new DataSize(1, MEGABYTE));
+        root.setMaxQueuedQueries(1);
+        root.setHardConcurrencyLimit(1);
+        InternalResourceGroup group = root.getOrCreateSubGroup("1");
+        group.setSoftMemoryLimit(new DataSize(1, MEGABYTE));
+        group.setMaxQueuedQueries(1);
+        group.setHardConcurrencyLimit(1);
+        group.setSchedulingWeight(5);
+
+        // the tasks of a query are weighted by the group that runs it
+        MockQueryExecution query = new MockQueryExecution(0);
+        group.run(query);
+        assertEquals(query.getState(), RUNNING);
+        assertEquals(query.getSchedulingWeight(), 5);
+    }
+
     @Test(timeOut = 10_000)
     public void testWeightedSharesScheduling()
     {
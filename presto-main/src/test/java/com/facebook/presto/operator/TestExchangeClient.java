@@ -29,10 +29,13 @@ import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.facebook.presto.execution.buffer.TestingPagesSerdeFactory.testingPagesSerde;
 import static com.google.common.collect.Maps.uniqueIndex;
@@ -245,6 +248,41 @@ public class TestExchangeClient
         assertStatus(exchangeClient.getStatus().getPageBufferClientStatuses().get(0), location, "closed", 3, 5, 5, "not scheduled");
     }
 
+    @Test
+    public void testMemoryUsageWithManyLocations()
+            throws Exception
+    {
+        DataSize maxResponseSize = new DataSize(1, Unit.BYTE);
+        MockExchangeRequestProcessor processor = new MockExchangeRequestProcessor(maxResponseSize);
+
+        int locationCount = 10;
+        List<URI> locations = new ArrayList<>();
+        for (int i = 0; i < locationCount; i++) {
+            URI location = URI.create("http://localhost:" + (8080 + i));
+            processor.addPage(location, createPage(1));
+            processor.addPage(location, createPage(2));
+            processor.setComplete(location);
+            locations.add(location);
+        }
+
+        AtomicLong memoryUsage = new AtomicLong();
+        @SuppressWarnings("resource")
+        ExchangeClient exchangeClient = new ExchangeClient(new DataSize(1, Unit.KILOBYTE), maxResponseSize, 1, new Duration(1, TimeUnit.MINUTES), new Duration(1, TimeUnit.MINUTES), new TestingHttpClient(processor, newCachedThreadPool(daemonThreadsNamed("test-%s"))), scheduler, memoryUsage::addAndGet, pageBufferClientCallbackExecutor);
+        locations.forEach(exchangeClient::addLocation);
+        exchangeClient.noMoreLocations();
+
+        int pageCount = 0;
+        while (getNextPage(exchangeClient) != null) {
+            pageCount++;
+            assertTrue(memoryUsage.get() >= 0);
+        }
+
+        assertEquals(pageCount, 2 * locationCount);
+        assertEquals(exchangeClient.isClosed(), true);
+        assertEquals(exchangeClient.getStatus().getBufferedBytes(), 0);
+        assertEquals(memoryUsage.get(), 0);
+    }
+
     @Test
     public void testClose()
             throws Exception
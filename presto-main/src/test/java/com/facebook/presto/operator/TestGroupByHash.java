@@ -256,6 +256,62 @@ public class TestGroupByHash
         }
     }
 
+    @Test
+    public void testMultipleBigintChannels()
+            throws Exception
+    {
+        List<Long> firstValues = new ArrayList<>();
+        List<Long> secondValues = new ArrayList<>();
+        for (long i = 0; i < 5_000; i++) {
+            firstValues.add(i % 1_000);
+            secondValues.add(i % 7 == 0 ? null : i % 2_000);
+        }
+        Block firstBlock = createLongsBlock(firstValues);
+        Block secondBlock = createLongsBlock(secondValues);
+        Block hashBlock = getHashBlock(ImmutableList.of(BIGINT, BIGINT), firstBlock, secondBlock);
+        Page page = new Page(firstBlock, secondBlock, hashBlock);
+
+        // small expected size forces rehashes
+        GroupByHash groupByHash = createGroupByHash(TEST_SESSION, ImmutableList.of(BIGINT, BIGINT), new int[] {0, 1}, Optional.of(2), 4, JOIN_COMPILER);
+        assertTrue(groupByHash instanceof MultiBigintGroupByHash);
+        assertEquals(groupByHash.getTypes(), ImmutableList.of(BIGINT, BIGINT, BIGINT));
+
+        Work<GroupByIdBlock> work = groupByHash.getGroupIds(page);
+        assertTrue(work.process());
+        GroupByIdBlock groupIds = work.getResult();
+        assertEquals(groupIds.getPositionCount(), page.getPositionCount());
+        int groupCount = groupByHash.getGroupCount();
+        assertEquals(groupIds.getGroupCount(), groupCount);
+
+        // adding the same rows again does not create new groups
+        assertTrue(groupByHash.addPage(page).process());
+        assertEquals(groupByHash.getGroupCount(), groupCount);
+
+        PageBuilder pageBuilder = new PageBuilder(groupByHash.getTypes());
+        for (int groupId = 0; groupId < groupCount; groupId++) {
+            pageBuilder.declarePosition();
+            groupByHash.appendValuesTo(groupId, pageBuilder, 0);
+        }
+        Page groups = pageBuilder.build();
+
+        for (int position = 0; position < page.getPositionCount(); position++) {
+            int groupId = (int) groupIds.getGroupId(position);
+            assertEquals(groups.getBlock(0).getLong(groupId, 0), firstBlock.getLong(position, 0));
+            assertEquals(groups.getBlock(1).isNull(groupId), secondBlock.isNull(position));
+            if (!secondBlock.isNull(position)) {
+                assertEquals(groups.getBlock(1).getLong(groupId, 0), secondBlock.getLong(position, 0));
+            }
+            // output and raw hash are the same as the precomputed hash
+            assertEquals(groups.getBlock(2).getLong(groupId, 0), hashBlock.getLong(position, 0));
+            assertEquals(groupByHash.getRawHash(groupId), hashBlock.getLong(position, 0));
+            assertTrue(groupByHash.contains(position, page, new int[] {0, 1}));
+        }
+
+        Block testFirstBlock = createLongsBlock(1L);
+        Block testSecondBlock = createLongsBlock(1_002L);
+        assertFalse(groupByHash.contains(0, new Page(testFirstBlock, testSecondBlock), new int[] {0, 1}));
+    }
+
     @Test(dataProvider = "dataType")
     public void testUpdateMemory(Type type)
             throws Exception
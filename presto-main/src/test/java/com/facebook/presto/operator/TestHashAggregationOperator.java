@@ -22,6 +22,7 @@ import com.facebook.presto.operator.HashAggregationOperator.HashAggregationOpera
 import com.facebook.presto.operator.aggregation.InternalAggregationFunction;
 import com.facebook.presto.operator.aggregation.builder.HashAggregationBuilder;
 import com.facebook.presto.operator.aggregation.builder.InMemoryHashAggregationBuilder;
+import com.facebook.presto.operator.aggregation.builder.SkipAggregationBuilder;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.block.BlockBuilder;
 import com.facebook.presto.spi.block.BlockBuilderStatus;
@@ -185,6 +186,7 @@ public class TestHashAggregationOperator
                 Optional.empty(),
                 100_000,
                 new DataSize(16, MEGABYTE),
+                Optional.empty(),
                 spillEnabled,
                 succinctBytes(memoryLimitForMerge),
                 succinctBytes(memoryLimitForMergeWithMemory),
@@ -246,6 +248,7 @@ public class TestHashAggregationOperator
                 groupIdChannel,
                 100_000,
                 new DataSize(16, MEGABYTE),
+                Optional.empty(),
                 memoryLimitForMerge > 0,
                 succinctBytes(memoryLimitForMerge),
                 succinctBytes(memoryLimitForMergeWithMemory),
@@ -293,6 +296,7 @@ public class TestHashAggregationOperator
                 Optional.empty(),
                 100_000,
                 new DataSize(16, MEGABYTE),
+                Optional.empty(),
                 memoryLimitForMerge > 0,
                 succinctBytes(memoryLimitForMerge),
                 succinctBytes(memoryLimitForMergeWithMemory),
@@ -373,6 +377,7 @@ public class TestHashAggregationOperator
                 Optional.empty(),
                 100_000,
                 new DataSize(16, MEGABYTE),
+                Optional.empty(),
                 memoryLimitForMerge > 0,
                 succinctBytes(memoryLimitForMerge),
                 succinctBytes(memoryLimitForMergeWithMemory),
@@ -564,6 +569,76 @@ public class TestHashAggregationOperator
         }
     }
 
+    @Test(dataProvider = "hashEnabled")
+    public void testAdaptivePartialAggregation(boolean hashEnabled)
+            throws Exception
+    {
+        List<Integer> hashChannels = Ints.asList(0);
+        RowPagesBuilder rowPagesBuilder = rowPagesBuilder(hashEnabled, hashChannels, BIGINT);
+        int pageCount = PartialAggregationController.PASS_THROUGH_ROWS_FACTOR + 2;
+        for (int i = 0; i < pageCount; i++) {
+            rowPagesBuilder.addSequencePage(100, i * 100);
+        }
+        List<Page> input = rowPagesBuilder.build();
+
+        HashAggregationOperatorFactory operatorFactory = new HashAggregationOperatorFactory(
+                0,
+                new PlanNodeId("test"),
+                ImmutableList.of(BIGINT),
+                hashChannels,
+                ImmutableList.of(),
+                Step.PARTIAL,
+                false,
+                ImmutableList.of(LONG_SUM.bind(ImmutableList.of(0), Optional.empty())),
+                rowPagesBuilder.getHashChannel(),
+                Optional.empty(),
+                100_000,
+                new DataSize(16, MEGABYTE),
+                Optional.of(100),
+                false,
+                succinctBytes(0),
+                succinctBytes(0),
+                spillerFactory,
+                joinCompiler);
+
+        DriverContext driverContext = createDriverContext();
+
+        try (HashAggregationOperator operator = (HashAggregationOperator) operatorFactory.createOperator(driverContext)) {
+            List<Page> outputPages = new ArrayList<>();
+            for (int i = 0; i < pageCount; i++) {
+                assertTrue(operator.needsInput());
+                operator.addInput(input.get(i));
+                if (i == 0 || i == pageCount - 1) {
+                    // all keys are unique, so hashing is abandoned after the first page and retried after enough rows were passed through
+                    assertTrue(operator.getAggregationBuilder() instanceof InMemoryHashAggregationBuilder);
+                }
+                else {
+                    assertTrue(operator.getAggregationBuilder() instanceof SkipAggregationBuilder);
+                }
+
+                while (!operator.needsInput()) {
+                    Page output = operator.getOutput();
+                    if (output == null) {
+                        break;
+                    }
+                    outputPages.add(output);
+                }
+            }
+            outputPages.addAll(toPages(operator, ImmutableList.<Page>of().iterator()));
+
+            List<Type> types = operator.getTypes();
+            if (hashEnabled) {
+                outputPages = dropChannel(outputPages, ImmutableList.of(1));
+                types = without(types, ImmutableList.of(1));
+            }
+            MaterializedResult actual = toMaterializedResult(operator.getOperatorContext().getSession(), types, outputPages);
+            MaterializedResult expected = resultBuilder(driverContext.getSession(), BIGINT, BIGINT)
+                    .pages(rowPagesBuilder(BIGINT, BIGINT).addSequencePage(pageCount * 100, 0, 0).build())
+                    .build();
+            assertEqualsIgnoreOrder(actual.getMaterializedRows(), expected.getMaterializedRows());
+        }
+    }
+
     @Test
     public void testMergeWithMemorySpill()
     {
@@ -590,6 +665,7 @@ public class TestHashAggregationOperator
                 Optional.empty(),
                 1,
                 new DataSize(16, MEGABYTE),
+                Optional.empty(),
                 true,
                 new DataSize(smallPagesSpillThresholdSize, Unit.BYTE),
                 succinctBytes(Integer.MAX_VALUE),
@@ -646,6 +722,7 @@ public class TestHashAggregationOperator
                 Optional.empty(),
                 100_000,
                 new DataSize(16, MEGABYTE),
+                Optional.empty(),
                 true,
                 succinctBytes(8),
                 succinctBytes(Integer.MAX_VALUE),
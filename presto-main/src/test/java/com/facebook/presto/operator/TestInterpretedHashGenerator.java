@@ -0,0 +1,57 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.block.RunLengthEncodedBlock;
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.Test;
+
+import static com.facebook.presto.block.BlockAssertions.createLongDictionaryBlock;
+import static com.facebook.presto.block.BlockAssertions.createLongSequenceBlock;
+import static com.facebook.presto.block.BlockAssertions.createLongsBlock;
+import static com.facebook.presto.block.BlockAssertions.createStringDictionaryBlock;
+import static com.facebook.presto.block.BlockAssertions.createStringsBlock;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static org.testng.Assert.assertEquals;
+
+public class TestInterpretedHashGenerator
+{
+    private static final int POSITION_COUNT = 100;
+
+    @Test
+    public void testHashPositions()
+    {
+        Page page = new Page(
+                createLongSequenceBlock(0, POSITION_COUNT),
+                createStringDictionaryBlock(0, POSITION_COUNT),
+                createLongDictionaryBlock(10, POSITION_COUNT),
+                new RunLengthEncodedBlock(createStringsBlock("value"), POSITION_COUNT),
+                new RunLengthEncodedBlock(createLongsBlock((Long) null), POSITION_COUNT));
+
+        HashGenerator hashGenerator = new InterpretedHashGenerator(
+                ImmutableList.of(BIGINT, VARCHAR, BIGINT, VARCHAR, BIGINT),
+                new int[] {0, 1, 2, 3, 4});
+
+        long[] hashes = hashGenerator.hashPositions(page);
+        int[] partitions = hashGenerator.getPartitions(7, page);
+        assertEquals(hashes.length, POSITION_COUNT);
+        assertEquals(partitions.length, POSITION_COUNT);
+        for (int position = 0; position < POSITION_COUNT; position++) {
+            assertEquals(hashes[position], hashGenerator.hashPosition(position, page));
+            assertEquals(partitions[position], hashGenerator.getPartition(7, position, page));
+        }
+    }
+}
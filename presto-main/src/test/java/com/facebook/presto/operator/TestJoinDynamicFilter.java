@@ -0,0 +1,205 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.operator.JoinProbe.JoinProbeFactory;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.PageBuilder;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.predicate.Domain;
+import com.facebook.presto.spi.predicate.Range;
+import com.facebook.presto.spi.predicate.TupleDomain;
+import com.facebook.presto.spi.predicate.ValueSet;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalInt;
+
+import static com.facebook.presto.block.BlockAssertions.createLongsBlock;
+import static com.facebook.presto.block.BlockAssertions.createStringsBlock;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestJoinDynamicFilter
+{
+    @Test
+    public void testMinMax()
+    {
+        JoinDynamicFilter filter = JoinDynamicFilter.create(buildIndex(createLongsBlock(10L, 20L, null, 15L)), ImmutableList.of(0));
+        assertFalse(filter.isAll());
+
+        Block[] probe = {createLongsBlock(9L, 10L, 17L, 20L, 21L)};
+        assertFalse(filter.mayContain(probe, 0));
+        assertTrue(filter.mayContain(probe, 1));
+        assertTrue(filter.mayContain(probe, 2));
+        assertTrue(filter.mayContain(probe, 3));
+        assertFalse(filter.mayContain(probe, 4));
+    }
+
+    @Test
+    public void testUnsupportedType()
+    {
+        PagesIndex index = new PagesIndex.TestingFactory(false).newPagesIndex(ImmutableList.of(VARCHAR), 10);
+        index.addPage(new Page(createStringsBlock("a", "b")));
+        assertTrue(JoinDynamicFilter.create(index, ImmutableList.of(0)).isAll());
+    }
+
+    @Test
+    public void testEmptyBuild()
+    {
+        JoinDynamicFilter filter = JoinDynamicFilter.create(buildIndex(createLongsBlock((Long) null)), ImmutableList.of(0));
+        assertFalse(filter.mayContain(new Block[] {createLongsBlock(0L)}, 0));
+        assertFalse(filter.mayContain(new Block[] {createLongsBlock(Long.MAX_VALUE)}, 0));
+        assertFalse(filter.mayContain(new Block[] {createLongsBlock(Long.MIN_VALUE)}, 0));
+    }
+
+    @Test
+    public void testUnion()
+    {
+        JoinDynamicFilter first = JoinDynamicFilter.create(buildIndex(createLongsBlock(1L, 5L)), ImmutableList.of(0));
+        JoinDynamicFilter second = JoinDynamicFilter.create(buildIndex(createLongsBlock(100L)), ImmutableList.of(0));
+        JoinDynamicFilter empty = JoinDynamicFilter.create(buildIndex(createLongsBlock((Long) null)), ImmutableList.of(0));
+
+        JoinDynamicFilter union = first.union(empty).union(second);
+        Block[] probe = {createLongsBlock(0L, 1L, 50L, 100L, 101L)};
+        assertFalse(union.mayContain(probe, 0));
+        assertTrue(union.mayContain(probe, 1));
+        assertTrue(union.mayContain(probe, 2));
+        assertTrue(union.mayContain(probe, 3));
+        assertFalse(union.mayContain(probe, 4));
+
+        assertTrue(first.union(JoinDynamicFilter.all()).isAll());
+    }
+
+    @Test
+    public void testProjectAndTupleDomain()
+    {
+        PagesIndex index = new PagesIndex.TestingFactory(false).newPagesIndex(ImmutableList.of(VARCHAR, BIGINT, BIGINT), 10);
+        index.addPage(new Page(createStringsBlock("a", "b"), createLongsBlock(1L, 3L), createLongsBlock(null, null)));
+        JoinDynamicFilter filter = JoinDynamicFilter.create(index, ImmutableList.of(0, 1, 2));
+
+        JoinDynamicFilter projected = filter.project(ImmutableList.of(1));
+        Block[] probe = {createLongsBlock(0L, 2L)};
+        assertFalse(projected.mayContain(probe, 0));
+        assertTrue(projected.mayContain(probe, 1));
+        assertTrue(filter.project(ImmutableList.of(0)).isAll());
+
+        assertEquals(
+                filter.project(ImmutableList.of(0, 1)).toTupleDomain(ImmutableList.of("a", "b")),
+                TupleDomain.withColumnDomains(ImmutableMap.of("b", Domain.create(ValueSet.ofRanges(Range.range(BIGINT, 1L, true, 3L, true)), false))));
+        assertTrue(filter.toTupleDomain(ImmutableList.of("a", "b", "c")).isNone());
+        assertEquals(JoinDynamicFilter.all().toTupleDomain(ImmutableList.of("a")), TupleDomain.all());
+    }
+
+    @Test
+    public void testJoinProbeSkipsLookup()
+    {
+        JoinDynamicFilter filter = JoinDynamicFilter.create(buildIndex(createLongsBlock(10L, 12L)), ImmutableList.of(0));
+        Page page = new Page(createLongsBlock(9L, 10L, null, 11L, 12L, 13L));
+        JoinProbe probe = new JoinProbeFactory(new int[] {0}, ImmutableList.of(0), OptionalInt.empty()).createJoinProbe(page, filter);
+
+        // rows rejected by the filter and rows with null keys never reach the lookup source
+        RecordingLookupSource lookupSource = new RecordingLookupSource();
+        List<Long> joinPositions = new ArrayList<>();
+        while (probe.advanceNextPosition()) {
+            joinPositions.add(probe.getCurrentJoinPosition(lookupSource));
+        }
+        assertEquals(joinPositions, ImmutableList.of(-1L, 0L, -1L, 0L, 0L, -1L));
+        assertEquals(lookupSource.getProbedPositions(), ImmutableList.of(1, 3, 4));
+    }
+
+    private static PagesIndex buildIndex(Block block)
+    {
+        PagesIndex index = new PagesIndex.TestingFactory(false).newPagesIndex(ImmutableList.of(BIGINT), 10);
+        index.addPage(new Page(block));
+        return index;
+    }
+
+    private static class RecordingLookupSource
+            implements LookupSource
+    {
+        private final List<Integer> probedPositions = new ArrayList<>();
+
+        public List<Integer> getProbedPositions()
+        {
+            return probedPositions;
+        }
+
+        @Override
+        public long getJoinPosition(int position, Page hashChannelsPage, Page allChannelsPage, long rawHash)
+        {
+            return getJoinPosition(position, hashChannelsPage, allChannelsPage);
+        }
+
+        @Override
+        public long getJoinPosition(int position, Page hashChannelsPage, Page allChannelsPage)
+        {
+            probedPositions.add(position);
+            return 0;
+        }
+
+        @Override
+        public int getChannelCount()
+        {
+            return 1;
+        }
+
+        @Override
+        public long getInMemorySizeInBytes()
+        {
+            return 0;
+        }
+
+        @Override
+        public long getJoinPositionCount()
+        {
+            return 1;
+        }
+
+        @Override
+        public long joinPositionWithinPartition(long joinPosition)
+        {
+            return joinPosition;
+        }
+
+        @Override
+        public long getNextJoinPosition(long currentJoinPosition, int probePosition, Page allProbeChannelsPage)
+        {
+            return -1;
+        }
+
+        @Override
+        public void appendTo(long position, PageBuilder pageBuilder, int outputChannelOffset)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isJoinPositionEligible(long currentJoinPosition, int probePosition, Page allProbeChannelsPage)
+        {
+            return true;
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+}
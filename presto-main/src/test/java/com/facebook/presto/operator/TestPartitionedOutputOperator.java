@@ -0,0 +1,340 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.OutputBuffers;
+import com.facebook.presto.OutputBuffers.OutputBufferId;
+import com.facebook.presto.execution.StateMachine.StateChangeListener;
+import com.facebook.presto.execution.buffer.BufferResult;
+import com.facebook.presto.execution.buffer.BufferState;
+import com.facebook.presto.execution.buffer.OutputBuffer;
+import com.facebook.presto.execution.buffer.OutputBufferInfo;
+import com.facebook.presto.execution.buffer.PagesSerde;
+import com.facebook.presto.execution.buffer.SerializedPage;
+import com.facebook.presto.execution.buffer.TestingPagesSerdeFactory;
+import com.facebook.presto.operator.PartitionedOutputOperator.PartitionedOutputOperatorFactory;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.block.BlockBuilderStatus;
+import com.facebook.presto.spi.block.DictionaryBlock;
+import com.facebook.presto.spi.block.RunLengthEncodedBlock;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.sql.planner.plan.PlanNodeId;
+import com.facebook.presto.testing.MaterializedRow;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.airlift.units.DataSize;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Function;
+
+import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
+import static com.facebook.presto.block.BlockAssertions.createLongSequenceBlock;
+import static com.facebook.presto.block.BlockAssertions.createRLEBlock;
+import static com.facebook.presto.block.BlockAssertions.createStringsBlock;
+import static com.facebook.presto.operator.OperatorAssertion.toMaterializedResult;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static com.facebook.presto.testing.MaterializedResult.DEFAULT_PRECISION;
+import static com.facebook.presto.testing.TestingTaskContext.createTaskContext;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.testing.Assertions.assertEqualsIgnoreOrder;
+import static io.airlift.testing.Assertions.assertInstanceOf;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.Executors.newScheduledThreadPool;
+import static org.testng.Assert.assertFalse;
+
+@Test(singleThreaded = true)
+public class TestPartitionedOutputOperator
+{
+    private static final int PARTITION_COUNT = 2;
+    private static final int POSITION_COUNT = 1000;
+    private static final List<Type> TYPES = ImmutableList.of(BIGINT, VARCHAR, BIGINT);
+    private static final String[] DICTIONARY = {"a", "b", "c", "d", "e", "f", "g", "h", "i", "j"};
+
+    private ExecutorService executor;
+    private ScheduledExecutorService scheduledExecutor;
+
+    @BeforeClass
+    public void setUp()
+    {
+        executor = newCachedThreadPool(daemonThreadsNamed("test-executor-%s"));
+        scheduledExecutor = newScheduledThreadPool(2, daemonThreadsNamed("test-scheduledExecutor-%s"));
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+    {
+        executor.shutdownNow();
+        scheduledExecutor.shutdownNow();
+    }
+
+    @DataProvider
+    public Object[][] dictionaryPartitionedOutput()
+    {
+        return new Object[][] {{true}, {false}};
+    }
+
+    @Test(dataProvider = "dictionaryPartitionedOutput")
+    public void testEncodedBlocks(boolean dictionaryPartitionedOutput)
+    {
+        Page page = new Page(createLongSequenceBlock(0, POSITION_COUNT), createDictionaryBlock(), createRLEBlock(7L, POSITION_COUNT));
+        TestingOutputBuffer outputBuffer = partition(page, false, OptionalInt.empty(), dictionaryPartitionedOutput);
+
+        for (int partition = 0; partition < PARTITION_COUNT; partition++) {
+            List<MaterializedRow> expected = new ArrayList<>();
+            for (int position = partition; position < POSITION_COUNT; position += PARTITION_COUNT) {
+                expected.add(row((long) position));
+            }
+            assertEqualsIgnoreOrder(getRows(outputBuffer.getPages(partition)), expected);
+
+            for (Page partitionPage : outputBuffer.getPages(partition)) {
+                if (dictionaryPartitionedOutput) {
+                    // every partition receives enough positions to be sent without flattening the encoded blocks
+                    assertInstanceOf(partitionPage.getBlock(1), DictionaryBlock.class);
+                    assertInstanceOf(partitionPage.getBlock(2), RunLengthEncodedBlock.class);
+                }
+                else {
+                    assertFalse(partitionPage.getBlock(1) instanceof DictionaryBlock);
+                    assertFalse(partitionPage.getBlock(2) instanceof RunLengthEncodedBlock);
+                }
+            }
+        }
+    }
+
+    @Test(dataProvider = "dictionaryPartitionedOutput")
+    public void testReplicateNulls(boolean dictionaryPartitionedOutput)
+    {
+        BlockBuilder keys = BIGINT.createBlockBuilder(new BlockBuilderStatus(), POSITION_COUNT);
+        for (int position = 0; position < POSITION_COUNT; position++) {
+            if (position % 10 == 0) {
+                keys.appendNull();
+            }
+            else {
+                BIGINT.writeLong(keys, position);
+            }
+        }
+        Page page = new Page(keys.build(), createDictionaryBlock(), createRLEBlock(7L, POSITION_COUNT));
+        TestingOutputBuffer outputBuffer = partition(page, false, OptionalInt.of(0), dictionaryPartitionedOutput);
+
+        for (int partition = 0; partition < PARTITION_COUNT; partition++) {
+            List<MaterializedRow> expected = new ArrayList<>();
+            for (int position = 0; position < POSITION_COUNT; position++) {
+                if (position % 10 == 0) {
+                    // rows with a null partitioning key are sent to every partition
+                    expected.add(row(null, position));
+                }
+                else if (position % PARTITION_COUNT == partition) {
+                    expected.add(row((long) position));
+                }
+            }
+            assertEqualsIgnoreOrder(getRows(outputBuffer.getPages(partition)), expected);
+        }
+    }
+
+    @Test(dataProvider = "dictionaryPartitionedOutput")
+    public void testReplicateAnyRow(boolean dictionaryPartitionedOutput)
+    {
+        Page page = new Page(createLongSequenceBlock(0, POSITION_COUNT), createDictionaryBlock(), createRLEBlock(7L, POSITION_COUNT));
+        TestingOutputBuffer outputBuffer = partition(page, true, OptionalInt.empty(), dictionaryPartitionedOutput);
+
+        for (int partition = 0; partition < PARTITION_COUNT; partition++) {
+            List<MaterializedRow> expected = new ArrayList<>();
+            // the first row is sent to every partition, and only once to its own partition
+            expected.add(row(0L));
+            for (int position = 1; position < POSITION_COUNT; position++) {
+                if (position % PARTITION_COUNT == partition) {
+                    expected.add(row((long) position));
+                }
+            }
+            assertEqualsIgnoreOrder(getRows(outputBuffer.getPages(partition)), expected);
+        }
+    }
+
+    private TestingOutputBuffer partition(Page page, boolean replicatesAnyRow, OptionalInt nullChannel, boolean dictionaryPartitionedOutput)
+    {
+        TestingOutputBuffer outputBuffer = new TestingOutputBuffer();
+        PartitionedOutputOperatorFactory operatorFactory = new PartitionedOutputOperatorFactory(
+                0,
+                new PlanNodeId("test"),
+                TYPES,
+                Function.identity(),
+                new ModuloPartitionFunction(),
+                ImmutableList.of(0),
+                ImmutableList.of(Optional.empty()),
+                replicatesAnyRow,
+                nullChannel,
+                outputBuffer,
+                new TestingPagesSerdeFactory(),
+                new DataSize(1, MEGABYTE),
+                dictionaryPartitionedOutput);
+        DriverContext driverContext = createTaskContext(executor, scheduledExecutor, TEST_SESSION)
+                .addPipelineContext(0, true, true)
+                .addDriverContext();
+
+        Operator operator = operatorFactory.createOperator(driverContext);
+        operator.addInput(page);
+        operator.finish();
+        return outputBuffer;
+    }
+
+    private static Block createDictionaryBlock()
+    {
+        int[] ids = new int[POSITION_COUNT];
+        for (int position = 0; position < POSITION_COUNT; position++) {
+            ids[position] = position % DICTIONARY.length;
+        }
+        return new DictionaryBlock(createStringsBlock(DICTIONARY), ids);
+    }
+
+    private static MaterializedRow row(long key)
+    {
+        return row(key, (int) key);
+    }
+
+    private static MaterializedRow row(Long key, int position)
+    {
+        return new MaterializedRow(DEFAULT_PRECISION, key, DICTIONARY[position % DICTIONARY.length], 7L);
+    }
+
+    private static List<MaterializedRow> getRows(List<Page> pages)
+    {
+        return toMaterializedResult(TEST_SESSION, TYPES, pages).getMaterializedRows();
+    }
+
+    private static class ModuloPartitionFunction
+            implements PartitionFunction
+    {
+        @Override
+        public int getPartitionCount()
+        {
+            return PARTITION_COUNT;
+        }
+
+        @Override
+        public int getPartition(Page page, int position)
+        {
+            return (int) (page.getBlock(0).getLong(position, 0) % PARTITION_COUNT);
+        }
+    }
+
+    private static class TestingOutputBuffer
+            implements OutputBuffer
+    {
+        private final PagesSerde serde = new TestingPagesSerdeFactory().createPagesSerde();
+        private final List<List<Page>> partitions = new ArrayList<>();
+
+        public TestingOutputBuffer()
+        {
+            for (int partition = 0; partition < PARTITION_COUNT; partition++) {
+                partitions.add(new ArrayList<>());
+            }
+        }
+
+        public List<Page> getPages(int partition)
+        {
+            return partitions.get(partition);
+        }
+
+        @Override
+        public ListenableFuture<?> enqueue(int partition, List<SerializedPage> pages)
+        {
+            for (SerializedPage page : pages) {
+                partitions.get(partition).add(serde.deserialize(page));
+            }
+            return Futures.immediateFuture(null);
+        }
+
+        @Override
+        public ListenableFuture<?> enqueue(List<SerializedPage> pages)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public OutputBufferInfo getInfo()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isFinished()
+        {
+            return false;
+        }
+
+        @Override
+        public double getUtilization()
+        {
+            return 0;
+        }
+
+        @Override
+        public boolean isOverutilized()
+        {
+            return false;
+        }
+
+        @Override
+        public void addStateChangeListener(StateChangeListener<BufferState> stateChangeListener)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void setOutputBuffers(OutputBuffers newOutputBuffers)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ListenableFuture<BufferResult> get(OutputBufferId bufferId, long token, DataSize maxSize)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void abort(OutputBufferId bufferId)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void setNoMorePages()
+        {
+        }
+
+        @Override
+        public void destroy()
+        {
+        }
+
+        @Override
+        public void fail()
+        {
+        }
+    }
+}
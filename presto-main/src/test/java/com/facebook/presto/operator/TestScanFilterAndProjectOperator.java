@@ -14,6 +14,7 @@
 package com.facebook.presto.operator;
 
 import com.facebook.presto.SequencePageBuilder;
+import com.facebook.presto.Session;
 import com.facebook.presto.block.BlockAssertions;
 import com.facebook.presto.connector.ConnectorId;
 import com.facebook.presto.metadata.Metadata;
@@ -27,23 +28,32 @@ import com.facebook.presto.operator.project.PageProcessor;
 import com.facebook.presto.operator.project.TestPageProcessor.LazyPagePageProjection;
 import com.facebook.presto.operator.project.TestPageProcessor.SelectAllFilter;
 import com.facebook.presto.operator.scalar.AbstractTestFunctions;
+import com.facebook.presto.spi.ColumnHandle;
 import com.facebook.presto.spi.ConnectorPageSource;
 import com.facebook.presto.spi.FixedPageSource;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.RecordPageSource;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.LazyBlock;
+import com.facebook.presto.spi.predicate.Domain;
+import com.facebook.presto.spi.predicate.Range;
+import com.facebook.presto.spi.predicate.TupleDomain;
+import com.facebook.presto.spi.predicate.ValueSet;
+import com.facebook.presto.split.PageSourceProvider;
 import com.facebook.presto.sql.gen.ExpressionCompiler;
 import com.facebook.presto.sql.gen.PageFunctionCompiler;
 import com.facebook.presto.sql.planner.plan.PlanNodeId;
 import com.facebook.presto.sql.relational.RowExpression;
 import com.facebook.presto.testing.MaterializedResult;
+import com.facebook.presto.testing.TestingMetadata.TestingColumnHandle;
 import com.facebook.presto.testing.TestingSplit;
 import com.facebook.presto.testing.TestingTransactionHandle;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import io.airlift.units.DataSize;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.ExecutorService;
@@ -52,6 +62,7 @@ import java.util.function.Supplier;
 
 import static com.facebook.presto.RowPagesBuilder.rowPagesBuilder;
 import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
+import static com.facebook.presto.block.BlockAssertions.createLongsBlock;
 import static com.facebook.presto.block.BlockAssertions.toValues;
 import static com.facebook.presto.metadata.MetadataManager.createTestMetadataManager;
 import static com.facebook.presto.metadata.Signature.internalScalarFunction;
@@ -64,6 +75,7 @@ import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
 import static com.facebook.presto.sql.relational.Expressions.call;
 import static com.facebook.presto.sql.relational.Expressions.constant;
 import static com.facebook.presto.sql.relational.Expressions.field;
+import static com.facebook.presto.testing.MaterializedResult.resultBuilder;
 import static com.facebook.presto.testing.TestingTaskContext.createTaskContext;
 import static com.facebook.presto.testing.assertions.Assert.assertEquals;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
@@ -365,6 +377,84 @@ public class TestScanFilterAndProjectOperator
         assertEquals(toValues(BIGINT, output.getBlock(0)), toValues(BIGINT, input.getBlock(0)));
     }
 
+    @Test
+    public void testDynamicFilter()
+    {
+        ColumnHandle column = new TestingColumnHandle("key");
+        List<TupleDomain<ColumnHandle>> dynamicPredicates = new ArrayList<>();
+        PageSourceProvider pageSourceProvider = new PageSourceProvider()
+        {
+            @Override
+            public ConnectorPageSource createPageSource(Session session, Split split, List<ColumnHandle> columns)
+            {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public ConnectorPageSource createPageSource(Session session, Split split, List<ColumnHandle> columns, TupleDomain<ColumnHandle> dynamicFilter)
+            {
+                dynamicPredicates.add(dynamicFilter);
+                return new FixedPageSource(ImmutableList.of(new Page(createLongsBlock(9L, 10L, null, 11L, 12L, 13L))));
+            }
+        };
+
+        SourceOperator operator = createDynamicFilterOperator(pageSourceProvider, column, createLongsBlock(10L, 12L));
+        operator.addSplit(new Split(new ConnectorId("test"), TestingTransactionHandle.create(), TestingSplit.createLocalSplit()));
+        operator.noMoreSplits();
+
+        // the connector may ignore the dynamic filter, so the operator removes the rows it rejects and rows with null keys
+        MaterializedResult actual = toMaterializedResult(TEST_SESSION, ImmutableList.of(BIGINT), toPages(operator));
+        assertEquals(actual, resultBuilder(TEST_SESSION, BIGINT).row(10L).row(11L).row(12L).build());
+        assertEquals(dynamicPredicates, ImmutableList.of(TupleDomain.withColumnDomains(ImmutableMap.of(
+                column,
+                Domain.create(ValueSet.ofRanges(Range.range(BIGINT, 10L, true, 12L, true)), false)))));
+    }
+
+    @Test
+    public void testEmptyDynamicFilter()
+    {
+        PageSourceProvider pageSourceProvider = (session, split, columns) -> {
+            throw new AssertionError("page source must not be created for an empty build side");
+        };
+
+        SourceOperator operator = createDynamicFilterOperator(pageSourceProvider, new TestingColumnHandle("key"), createLongsBlock((Long) null));
+        operator.addSplit(new Split(new ConnectorId("test"), TestingTransactionHandle.create(), TestingSplit.createLocalSplit()));
+        operator.noMoreSplits();
+
+        assertEquals(toPages(operator), ImmutableList.of());
+    }
+
+    private SourceOperator createDynamicFilterOperator(PageSourceProvider pageSourceProvider, ColumnHandle column, Block buildKeys)
+    {
+        PagesIndex buildIndex = new PagesIndex.TestingFactory(false).newPagesIndex(ImmutableList.of(BIGINT), 10);
+        buildIndex.addPage(new Page(buildKeys));
+        PartitionedLookupSourceFactory lookupSourceFactory = new PartitionedLookupSourceFactory(
+                ImmutableList.of(BIGINT),
+                ImmutableList.of(BIGINT),
+                ImmutableList.of(BIGINT),
+                1,
+                ImmutableMap.of(),
+                false);
+        lookupSourceFactory.setPartitionDynamicFilter(0, JoinDynamicFilter.create(buildIndex, ImmutableList.of(0)));
+        DynamicFilterSource dynamicFilterSource = new DynamicFilterSource(ImmutableList.of(0), ImmutableList.of(column));
+        dynamicFilterSource.setLookupSourceFactoryManager(LookupSourceFactoryManager.allAtOnce(lookupSourceFactory));
+
+        List<RowExpression> projections = ImmutableList.of(field(0, BIGINT));
+        ScanFilterAndProjectOperator.ScanFilterAndProjectOperatorFactory factory = new ScanFilterAndProjectOperator.ScanFilterAndProjectOperatorFactory(
+                0,
+                new PlanNodeId("test"),
+                new PlanNodeId("0"),
+                pageSourceProvider,
+                expressionCompiler.compileCursorProcessor(Optional.empty(), projections, "key"),
+                expressionCompiler.compilePageProcessor(Optional.empty(), projections),
+                ImmutableList.of(column),
+                ImmutableList.of(BIGINT),
+                new DataSize(0, BYTE),
+                0,
+                Optional.of(dynamicFilterSource));
+        return factory.createOperator(newDriverContext());
+    }
+
     private static List<Page> toPages(Operator operator)
     {
         ImmutableList.Builder<Page> outputPages = ImmutableList.builder();
@@ -0,0 +1,195 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.exchange;
+
+import com.facebook.presto.SequencePageBuilder;
+import com.facebook.presto.execution.Lifespan;
+import com.facebook.presto.operator.exchange.LocalExchange.LocalExchangeFactory;
+import com.facebook.presto.operator.exchange.LocalExchange.LocalExchangeSinkFactory;
+import com.facebook.presto.operator.exchange.LocalExchange.LocalExchangeSinkFactoryId;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.facebook.presto.operator.PipelineExecutionStrategy.UNGROUPED_EXECUTION;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.sql.planner.SystemPartitioningHandle.FIXED_ARBITRARY_DISTRIBUTION;
+import static io.airlift.concurrent.MoreFutures.getFutureValue;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+
+@SuppressWarnings("MethodMayBeStatic")
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(2)
+@Warmup(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@BenchmarkMode(Mode.AverageTime)
+public class BenchmarkLocalExchange
+{
+    private static final int PAGES = 10_000;
+    private static final List<Type> TYPES = ImmutableList.of(BIGINT);
+
+    @Benchmark
+    @OperationsPerInvocation(PAGES)
+    public long randomExchange(BenchmarkData data)
+            throws Exception
+    {
+        LocalExchangeFactory localExchangeFactory = new LocalExchangeFactory(
+                FIXED_ARBITRARY_DISTRIBUTION,
+                data.getDriverCount(),
+                TYPES,
+                ImmutableList.of(),
+                Optional.empty(),
+                UNGROUPED_EXECUTION);
+        LocalExchangeSinkFactoryId sinkFactoryId = localExchangeFactory.newSinkFactoryId();
+        localExchangeFactory.noMoreSinkFactories();
+
+        LocalExchange exchange = localExchangeFactory.getLocalExchange(Lifespan.taskWide());
+        LocalExchangeSinkFactory sinkFactory = exchange.getSinkFactory(sinkFactoryId);
+        List<LocalExchangeSink> sinks = new ArrayList<>();
+        for (int i = 0; i < data.getDriverCount(); i++) {
+            sinks.add(sinkFactory.createSink());
+        }
+        sinkFactory.close();
+        sinkFactory.noMoreSinkFactories();
+
+        List<Future<Long>> consumers = new ArrayList<>();
+        for (int i = 0; i < data.getDriverCount(); i++) {
+            LocalExchangeSource source = exchange.getSource(i);
+            consumers.add(data.getExecutor().submit(() -> consume(source)));
+        }
+
+        int pagesPerSink = PAGES / data.getDriverCount();
+        List<Future<?>> producers = new ArrayList<>();
+        for (LocalExchangeSink sink : sinks) {
+            producers.add(data.getExecutor().submit(() -> produce(sink, data.getPage(), pagesPerSink)));
+        }
+
+        for (Future<?> producer : producers) {
+            producer.get();
+        }
+        long positions = 0;
+        for (Future<Long> consumer : consumers) {
+            positions += consumer.get();
+        }
+        return positions;
+    }
+
+    private static void produce(LocalExchangeSink sink, Page page, int pages)
+    {
+        for (int i = 0; i < pages; i++) {
+            ListenableFuture<?> writeFuture = sink.waitForWriting();
+            if (!writeFuture.isDone()) {
+                getFutureValue(writeFuture);
+            }
+            sink.addPage(page);
+        }
+        sink.finish();
+    }
+
+    private static long consume(LocalExchangeSource source)
+    {
+        long positions = 0;
+        while (!source.isFinished()) {
+            Page page = source.removePage();
+            if (page == null) {
+                getFutureValue(source.waitForReading());
+                continue;
+            }
+            positions += page.getPositionCount();
+        }
+        return positions;
+    }
+
+    @SuppressWarnings("FieldMayBeFinal")
+    @State(Scope.Thread)
+    public static class BenchmarkData
+    {
+        @Param({"1", "4", "16", "64"})
+        private int driverCount = 16;
+
+        private ExecutorService executor;
+        private Page page;
+
+        @Setup
+        public void setup()
+        {
+            executor = newCachedThreadPool(daemonThreadsNamed("local-exchange-%s"));
+            page = SequencePageBuilder.createSequencePage(TYPES, 1024, 0);
+        }
+
+        @TearDown
+        public void tearDown()
+        {
+            executor.shutdownNow();
+        }
+
+        public int getDriverCount()
+        {
+            return driverCount;
+        }
+
+        public ExecutorService getExecutor()
+        {
+            return executor;
+        }
+
+        public Page getPage()
+        {
+            return page;
+        }
+    }
+
+    public static void main(String[] args)
+            throws Exception
+    {
+        // assure the benchmarks are valid before running
+        BenchmarkData data = new BenchmarkData();
+        data.setup();
+        new BenchmarkLocalExchange().randomExchange(data);
+        data.tearDown();
+
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkLocalExchange.class.getSimpleName() + ".*")
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -265,6 +265,48 @@ public class TestLocalExchange
         });
     }
 
+    @Test(dataProvider = "executionStrategy")
+    public void testRandomWorkStealing(PipelineExecutionStrategy executionStrategy)
+    {
+        LocalExchangeFactory localExchangeFactory = new LocalExchangeFactory(
+                FIXED_ARBITRARY_DISTRIBUTION,
+                2,
+                TYPES,
+                ImmutableList.of(),
+                Optional.empty(),
+                executionStrategy);
+        LocalExchangeSinkFactoryId localExchangeSinkFactoryId = localExchangeFactory.newSinkFactoryId();
+        localExchangeFactory.noMoreSinkFactories();
+
+        run(localExchangeFactory, executionStrategy, exchange -> {
+            LocalExchangeSinkFactory sinkFactory = exchange.getSinkFactory(localExchangeSinkFactoryId);
+            LocalExchangeSink sink = sinkFactory.createSink();
+            sinkFactory.close();
+            sinkFactory.noMoreSinkFactories();
+
+            LocalExchangeSource sourceA = exchange.getSource(0);
+            LocalExchangeSource sourceB = exchange.getSource(1);
+
+            for (int i = 0; i < 100; i++) {
+                sink.addPage(createPage(0));
+            }
+            assertTrue(sourceB.getBufferInfo().getBufferedPages() > 0);
+
+            // a single consumer drains the pages of both buffers
+            for (int i = 0; i < 100; i++) {
+                assertRemovePage(sourceA, createPage(0));
+            }
+            assertSource(sourceA, 0);
+            assertSource(sourceB, 0);
+            assertExchangeTotalBufferedBytes(exchange, 0);
+
+            sink.finish();
+            assertSinkFinished(sink);
+            assertSourceFinished(sourceA);
+            assertSourceFinished(sourceB);
+        });
+    }
+
     @Test(dataProvider = "executionStrategy")
     public void testPartition(PipelineExecutionStrategy executionStrategy)
     {
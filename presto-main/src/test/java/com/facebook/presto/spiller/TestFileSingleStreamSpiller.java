@@ -30,9 +30,11 @@ import com.google.common.collect.Iterators;
 import com.google.common.io.Files;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import java.io.File;
+import java.nio.file.Path;
 import java.util.Iterator;
 import java.util.List;
 
@@ -44,15 +46,24 @@ import static com.google.common.io.MoreFiles.listFiles;
 import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
 import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
 import static java.lang.Double.doubleToLongBits;
+import static java.nio.file.Files.createDirectories;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 public class TestFileSingleStreamSpiller
 {
     private static final List<Type> TYPES = ImmutableList.of(BIGINT, DOUBLE, VARBINARY);
 
-    private final ListeningExecutorService executor = listeningDecorator(newCachedThreadPool());
-    private final File spillPath = Files.createTempDir();
+    private ListeningExecutorService executor;
+    private File spillPath;
+
+    @BeforeMethod
+    public void setUp()
+    {
+        executor = listeningDecorator(newCachedThreadPool());
+        spillPath = Files.createTempDir();
+    }
 
     @AfterMethod
     public void tearDown()
@@ -97,6 +108,50 @@ public class TestFileSingleStreamSpiller
         assertEquals(memoryContext.getBytes(), 0);
     }
 
+    @Test
+    public void testSpillCompressedStripedWithReadAhead()
+            throws Exception
+    {
+        BlockEncodingManager blockEncodingSerde = new BlockEncodingManager(new TypeRegistry(ImmutableSet.copyOf(TYPES)));
+        PagesSerde serde = SpillCompressionCodec.LZ4.createPagesSerde(blockEncodingSerde);
+        SpillerStats spillerStats = new SpillerStats();
+        LocalMemoryContext memoryContext = new AggregatedMemoryContext().newLocalMemoryContext();
+        Path firstStripe = createDirectories(spillPath.toPath().resolve("first"));
+        Path secondStripe = createDirectories(spillPath.toPath().resolve("second"));
+        FileSingleStreamSpiller spiller = new FileSingleStreamSpiller(
+                serde,
+                executor,
+                ImmutableList.of(firstStripe, secondStripe),
+                true,
+                spillerStats,
+                bytes -> {},
+                memoryContext);
+
+        Page page = buildPage();
+
+        spiller.spill(page).get();
+        spiller.spill(Iterators.forArray(page, page, page, page)).get();
+        assertEquals(listFiles(firstStripe).size(), 1);
+        assertEquals(listFiles(secondStripe).size(), 1);
+        assertEquals(memoryContext.getBytes(), 0);
+        assertTrue(spillerStats.getTotalSpilledBytes() > 0);
+        assertTrue(spillerStats.getTotalUncompressedSpilledBytes() > 0);
+
+        Iterator<Page> spilledPagesIterator = spiller.getSpilledPages();
+        assertEquals(memoryContext.getBytes(), 2 * FileSingleStreamSpiller.BUFFER_SIZE + 2 * FileSingleStreamSpiller.READ_AHEAD_BYTES);
+        ImmutableList<Page> spilledPages = ImmutableList.copyOf(spilledPagesIterator);
+        assertEquals(memoryContext.getBytes(), 0);
+
+        assertEquals(spilledPages.size(), 5);
+        for (Page spilledPage : spilledPages) {
+            PageAssertions.assertPageEquals(TYPES, page, spilledPage);
+        }
+
+        spiller.close();
+        assertEquals(listFiles(firstStripe).size(), 0);
+        assertEquals(listFiles(secondStripe).size(), 0);
+    }
+
     private Page buildPage()
     {
         BlockBuilder col1 = BIGINT.createBlockBuilder(new BlockBuilderStatus(), 1);
@@ -23,6 +23,7 @@ import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.type.TypeRegistry;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterators;
 import com.google.common.io.Closer;
 import com.google.common.io.Files;
 import com.google.common.util.concurrent.ListeningExecutorService;
@@ -105,6 +106,43 @@ public class TestFileSingleStreamSpillerFactory
         assertEquals(listFiles(spillPath2.toPath()).size(), 0);
     }
 
+    @Test
+    public void testStripesSpillOverAllPaths()
+            throws Exception
+    {
+        List<Type> types = ImmutableList.of(BIGINT);
+        BlockEncodingSerde blockEncodingSerde = new BlockEncodingManager(new TypeRegistry(ImmutableSet.copyOf(types)));
+        List<Path> spillPaths = ImmutableList.of(spillPath1.toPath(), spillPath2.toPath());
+        FileSingleStreamSpillerFactory spillerFactory = new FileSingleStreamSpillerFactory(
+                executor, // executor won't be closed, because we don't call destroy() on the spiller factory
+                blockEncodingSerde,
+                new SpillerStats(),
+                spillPaths,
+                1.0,
+                SpillCompressionCodec.SNAPPY,
+                true,
+                true,
+                true);
+
+        Page page = buildPage();
+        List<SingleStreamSpiller> spillers = new ArrayList<>();
+        for (int i = 0; i < 3; ++i) {
+            SingleStreamSpiller singleStreamSpiller = spillerFactory.create(types, bytes -> {}, new AggregatedMemoryContext().newLocalMemoryContext());
+            getUnchecked(singleStreamSpiller.spill(Iterators.forArray(page, page, page)));
+            spillers.add(singleStreamSpiller);
+        }
+        assertEquals(listFiles(spillPath1.toPath()).size(), 3);
+        assertEquals(listFiles(spillPath2.toPath()).size(), 3);
+
+        for (SingleStreamSpiller spiller : spillers) {
+            assertEquals(ImmutableList.copyOf(spiller.getSpilledPages()).size(), 3);
+        }
+
+        spillers.forEach(SingleStreamSpiller::close);
+        assertEquals(listFiles(spillPath1.toPath()).size(), 0);
+        assertEquals(listFiles(spillPath2.toPath()).size(), 0);
+    }
+
     private Page buildPage()
     {
         BlockBuilder col1 = BIGINT.createBlockBuilder(new BlockBuilderStatus(), 1);
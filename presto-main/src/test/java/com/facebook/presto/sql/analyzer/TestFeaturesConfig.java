@@ -13,18 +13,23 @@
  */
 package com.facebook.presto.sql.analyzer;
 
+import com.facebook.presto.spiller.SpillCompressionCodec;
 import com.google.common.collect.ImmutableMap;
 import io.airlift.configuration.testing.ConfigAssertions;
 import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
 import org.testng.annotations.Test;
 
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+
 import java.util.Map;
 
 import static com.facebook.presto.sql.analyzer.RegexLibrary.JONI;
 import static com.facebook.presto.sql.analyzer.RegexLibrary.RE2J;
 import static io.airlift.configuration.testing.ConfigAssertions.assertFullMapping;
 import static io.airlift.configuration.testing.ConfigAssertions.assertRecordedDefaults;
+import static io.airlift.testing.ValidationAssertions.assertFailsValidation;
 import static io.airlift.units.DataSize.Unit.GIGABYTE;
 import static io.airlift.units.DataSize.Unit.KILOBYTE;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
@@ -68,6 +73,7 @@ public class TestFeaturesConfig
                 .setIterativeOptimizerEnabled(true)
                 .setIterativeOptimizerTimeout(new Duration(3, MINUTES))
                 .setExchangeCompressionEnabled(false)
+                .setPackedValuesEncodingEnabled(false)
                 .setLegacyTimestamp(true)
                 .setEnableIntermediateAggregations(false)
                 .setPushAggregationThroughJoin(true)
@@ -75,7 +81,18 @@ public class TestFeaturesConfig
                 .setForceSingleNodeOutput(true)
                 .setPagesIndexEagerCompactionEnabled(false)
                 .setFilterAndProjectMinOutputPageSize(new DataSize(25, KILOBYTE))
-                .setFilterAndProjectMinOutputPageRowCount(256));
+                .setFilterAndProjectMinOutputPageRowCount(256)
+                .setDynamicFilteringEnabled(false)
+                .setCostBasedJoinReorderingEnabled(false)
+                .setCostBasedJoinDistributionEnabled(false)
+                .setMaxReorderedJoins(9)
+                .setAdaptivePartialAggregationEnabled(false)
+                .setAdaptivePartialAggregationMinRows(100_000)
+                .setSpillCompressionCodec(SpillCompressionCodec.NONE)
+                .setSpillerStripingEnabled(false)
+                .setSpillerReadAheadEnabled(true)
+                .setJoinSpillPartitionFanout(1)
+                .setDictionaryPartitionedOutput(false));
     }
 
     @Test
@@ -114,6 +131,7 @@ public class TestFeaturesConfig
                 .put("experimental.memory-revoking-threshold", "0.2")
                 .put("experimental.memory-revoking-target", "0.8")
                 .put("exchange.compression-enabled", "true")
+                .put("experimental.packed-values-encoding-enabled", "true")
                 .put("deprecated.legacy-timestamp", "false")
                 .put("optimizer.enable-intermediate-aggregations", "true")
                 .put("parse-decimal-literals-as-double", "false")
@@ -121,6 +139,17 @@ public class TestFeaturesConfig
                 .put("pages-index.eager-compaction-enabled", "true")
                 .put("experimental.filter-and-project-min-output-page-size", "1MB")
                 .put("experimental.filter-and-project-min-output-page-row-count", "2048")
+                .put("experimental.dynamic-filtering-enabled", "true")
+                .put("optimizer.cost-based-join-reordering-enabled", "true")
+                .put("optimizer.cost-based-join-distribution-enabled", "true")
+                .put("optimizer.max-reordered-joins", "5")
+                .put("experimental.adaptive-partial-aggregation-enabled", "true")
+                .put("experimental.adaptive-partial-aggregation-min-rows", "10000")
+                .put("experimental.spill-compression-codec", "LZ4")
+                .put("experimental.spiller-striping-enabled", "true")
+                .put("experimental.spiller-read-ahead-enabled", "false")
+                .put("experimental.join-spill-partition-fanout", "8")
+                .put("experimental.dictionary-partitioned-output", "true")
                 .build();
 
         FeaturesConfig expected = new FeaturesConfig()
@@ -156,14 +185,34 @@ public class TestFeaturesConfig
                 .setMemoryRevokingTarget(0.8)
                 .setLegacyOrderBy(true)
                 .setExchangeCompressionEnabled(true)
+                .setPackedValuesEncodingEnabled(true)
                 .setLegacyTimestamp(false)
                 .setEnableIntermediateAggregations(true)
                 .setParseDecimalLiteralsAsDouble(false)
                 .setForceSingleNodeOutput(false)
                 .setPagesIndexEagerCompactionEnabled(true)
                 .setFilterAndProjectMinOutputPageSize(new DataSize(1, MEGABYTE))
-                .setFilterAndProjectMinOutputPageRowCount(2048);
+                .setFilterAndProjectMinOutputPageRowCount(2048)
+                .setDynamicFilteringEnabled(true)
+                .setCostBasedJoinReorderingEnabled(true)
+                .setCostBasedJoinDistributionEnabled(true)
+                .setMaxReorderedJoins(5)
+                .setAdaptivePartialAggregationEnabled(true)
+                .setAdaptivePartialAggregationMinRows(10_000)
+                .setSpillCompressionCodec(SpillCompressionCodec.LZ4)
+                .setSpillerStripingEnabled(true)
+                .setSpillerReadAheadEnabled(false)
+                .setJoinSpillPartitionFanout(8)
+                .setDictionaryPartitionedOutput(true);
 
         assertFullMapping(properties, expected);
     }
+
+    @Test
+    public void testValidation()
+    {
+        assertFailsValidation(new FeaturesConfig().setAdaptivePartialAggregationMinRows(0), "adaptivePartialAggregationMinRows", "must be greater than or equal to 1", Min.class);
+        assertFailsValidation(new FeaturesConfig().setMaxReorderedJoins(1), "maxReorderedJoins", "must be greater than or equal to 2", Min.class);
+        assertFailsValidation(new FeaturesConfig().setMaxReorderedJoins(21), "maxReorderedJoins", "must be less than or equal to 20", Max.class);
+    }
 }
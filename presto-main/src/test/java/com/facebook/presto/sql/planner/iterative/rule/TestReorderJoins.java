@@ -0,0 +1,241 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.planner.iterative.rule;
+
+import com.facebook.presto.Session;
+import com.facebook.presto.cost.PlanNodeStatsEstimate;
+import com.facebook.presto.cost.StatsBasedCostCalculator;
+import com.facebook.presto.cost.StatsCalculator;
+import com.facebook.presto.cost.SymbolStatsEstimate;
+import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.sql.planner.Symbol;
+import com.facebook.presto.sql.planner.assertions.PlanMatchPattern;
+import com.facebook.presto.sql.planner.iterative.Lookup;
+import com.facebook.presto.sql.planner.iterative.rule.test.BaseRuleTest;
+import com.facebook.presto.sql.planner.iterative.rule.test.PlanBuilder;
+import com.facebook.presto.sql.planner.plan.ExchangeNode;
+import com.facebook.presto.sql.planner.plan.JoinNode;
+import com.facebook.presto.sql.planner.plan.JoinNode.EquiJoinClause;
+import com.facebook.presto.sql.planner.plan.PlanNode;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+
+import static com.facebook.presto.SystemSessionProperties.COST_BASED_JOIN_REORDERING_ENABLED;
+import static com.facebook.presto.SystemSessionProperties.MAX_REORDERED_JOINS;
+import static com.facebook.presto.SystemSessionProperties.REORDER_JOINS;
+import static com.facebook.presto.cost.DefaultStatsCalculator.estimateInnerJoin;
+import static com.facebook.presto.cost.PlanNodeStatsEstimate.UNKNOWN_STATS_ESTIMATE;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.sql.planner.assertions.PlanMatchPattern.join;
+import static com.facebook.presto.sql.planner.assertions.PlanMatchPattern.values;
+import static com.facebook.presto.sql.planner.plan.JoinNode.Type.INNER;
+import static com.google.common.collect.Iterables.getOnlyElement;
+
+@Test(singleThreaded = true)
+public class TestReorderJoins
+        extends BaseRuleTest
+{
+    private static final Map<String, PlanNodeStatsEstimate> STATS = ImmutableMap.of(
+            "a", stats("a", 10_000),
+            "b", stats("b", 10),
+            "c", stats("c", 100));
+
+    @Test
+    public void testLargestRelationBecomesProbe()
+    {
+        tester().assertThat(reorderJoins(STATS))
+                .setSystemProperty(COST_BASED_JOIN_REORDERING_ENABLED, "true")
+                .on(TestReorderJoins::smallRelationProbingLargeOne)
+                .matches(
+                        join(INNER,
+                                ImmutableList.of(aliases -> new EquiJoinClause(new Symbol("a"), new Symbol("c"))),
+                                join(INNER,
+                                        ImmutableList.of(aliases -> new EquiJoinClause(new Symbol("a"), new Symbol("b"))),
+                                        values(ImmutableMap.of("a", 0)),
+                                        values(ImmutableMap.of("b", 0))),
+                                values(ImmutableMap.of("c", 0))));
+    }
+
+    @Test
+    public void testDoesNotFireWhenDisabled()
+    {
+        tester().assertThat(reorderJoins(STATS))
+                .setSystemProperty(COST_BASED_JOIN_REORDERING_ENABLED, "false")
+                .on(TestReorderJoins::smallRelationProbingLargeOne)
+                .doesNotFire();
+    }
+
+    @Test
+    public void testDoesNotFireForCheapestOrder()
+    {
+        tester().assertThat(reorderJoins(STATS))
+                .setSystemProperty(COST_BASED_JOIN_REORDERING_ENABLED, "true")
+                .on(p -> {
+                    Symbol a = p.symbol("a", BIGINT);
+                    Symbol b = p.symbol("b", BIGINT);
+                    Symbol c = p.symbol("c", BIGINT);
+                    return p.join(
+                            INNER,
+                            p.join(INNER, p.values(a), p.values(b), new EquiJoinClause(a, b)),
+                            p.values(c),
+                            new EquiJoinClause(a, c));
+                })
+                .doesNotFire();
+    }
+
+    @Test
+    public void testDoesNotFireWithUnknownStatistics()
+    {
+        tester().assertThat(reorderJoins(ImmutableMap.of("a", stats("a", 10_000), "b", stats("b", 10))))
+                .setSystemProperty(COST_BASED_JOIN_REORDERING_ENABLED, "true")
+                .on(TestReorderJoins::smallRelationProbingLargeOne)
+                .doesNotFire();
+    }
+
+    @Test
+    public void testDoesNotFireAboveMaxReorderedJoins()
+    {
+        tester().assertThat(reorderJoins(STATS))
+                .setSystemProperty(COST_BASED_JOIN_REORDERING_ENABLED, "true")
+                .setSystemProperty(MAX_REORDERED_JOINS, "2")
+                .on(TestReorderJoins::smallRelationProbingLargeOne)
+                .doesNotFire();
+    }
+
+    @Test
+    public void testEliminatesCrossJoinWithUnknownStatistics()
+    {
+        tester().assertThat(reorderJoins(ImmutableMap.of()))
+                .setSystemProperty(COST_BASED_JOIN_REORDERING_ENABLED, "true")
+                .on(TestReorderJoins::crossJoinedRelations)
+                .matches(crossJoinEliminated());
+    }
+
+    @Test
+    public void testEliminatesCrossJoinAboveMaxReorderedJoins()
+    {
+        tester().assertThat(reorderJoins(STATS))
+                .setSystemProperty(COST_BASED_JOIN_REORDERING_ENABLED, "true")
+                .setSystemProperty(MAX_REORDERED_JOINS, "2")
+                .on(TestReorderJoins::crossJoinedRelations)
+                .matches(crossJoinEliminated());
+    }
+
+    @Test
+    public void testDoesNotEliminateCrossJoinWhenJoinReorderingDisabled()
+    {
+        tester().assertThat(reorderJoins(ImmutableMap.of()))
+                .setSystemProperty(COST_BASED_JOIN_REORDERING_ENABLED, "true")
+                .setSystemProperty(REORDER_JOINS, "false")
+                .on(TestReorderJoins::crossJoinedRelations)
+                .doesNotFire();
+    }
+
+    @Test(expectedExceptions = PrestoException.class, expectedExceptionsMessageRegExp = "max_reordered_joins must be between 2 and 20: 21")
+    public void testMaxReorderedJoinsIsBounded()
+    {
+        tester().assertThat(reorderJoins(STATS))
+                .setSystemProperty(COST_BASED_JOIN_REORDERING_ENABLED, "true")
+                .setSystemProperty(MAX_REORDERED_JOINS, "21")
+                .on(TestReorderJoins::smallRelationProbingLargeOne)
+                .doesNotFire();
+    }
+
+    private static PlanNode smallRelationProbingLargeOne(PlanBuilder p)
+    {
+        Symbol a = p.symbol("a", BIGINT);
+        Symbol b = p.symbol("b", BIGINT);
+        Symbol c = p.symbol("c", BIGINT);
+        return p.join(
+                INNER,
+                p.join(INNER, p.values(b), p.values(a), new EquiJoinClause(b, a)),
+                p.values(c),
+                new EquiJoinClause(a, c));
+    }
+
+    private static PlanNode crossJoinedRelations(PlanBuilder p)
+    {
+        Symbol a = p.symbol("a", BIGINT);
+        Symbol b = p.symbol("b", BIGINT);
+        Symbol c = p.symbol("c", BIGINT);
+        return p.join(
+                INNER,
+                p.join(INNER, p.values(a), p.values(b)),
+                p.values(c),
+                new EquiJoinClause(a, c),
+                new EquiJoinClause(b, c));
+    }
+
+    private static PlanMatchPattern crossJoinEliminated()
+    {
+        return join(INNER,
+                ImmutableList.of(aliases -> new EquiJoinClause(new Symbol("c"), new Symbol("b"))),
+                join(INNER,
+                        ImmutableList.of(aliases -> new EquiJoinClause(new Symbol("a"), new Symbol("c"))),
+                        values(ImmutableMap.of("a", 0)),
+                        values(ImmutableMap.of("c", 0))),
+                values(ImmutableMap.of("b", 0)));
+    }
+
+    private static PlanNodeStatsEstimate stats(String symbol, double rowCount)
+    {
+        return PlanNodeStatsEstimate.builder()
+                .setOutputRowCount(rowCount)
+                .addSymbolStatistics(new Symbol(symbol), SymbolStatsEstimate.builder()
+                        .setAverageRowSize(8)
+                        .setNullsFraction(0)
+                        .setDistinctValuesCount(rowCount)
+                        .build())
+                .build();
+    }
+
+    private static ReorderJoins reorderJoins(Map<String, PlanNodeStatsEstimate> stats)
+    {
+        StatsCalculator statsCalculator = new SourceStatsCalculator(stats);
+        return new ReorderJoins(statsCalculator, new StatsBasedCostCalculator(statsCalculator, () -> 4));
+    }
+
+    private static class SourceStatsCalculator
+            implements StatsCalculator
+    {
+        private final Map<String, PlanNodeStatsEstimate> sourceStats;
+
+        public SourceStatsCalculator(Map<String, PlanNodeStatsEstimate> sourceStats)
+        {
+            this.sourceStats = sourceStats;
+        }
+
+        @Override
+        public PlanNodeStatsEstimate calculateStats(PlanNode planNode, Lookup lookup, Session session, Map<Symbol, Type> types)
+        {
+            PlanNode resolved = lookup.resolve(planNode);
+            if (resolved instanceof JoinNode) {
+                JoinNode join = (JoinNode) resolved;
+                return estimateInnerJoin(
+                        calculateStats(join.getLeft(), lookup, session, types),
+                        calculateStats(join.getRight(), lookup, session, types),
+                        join.getCriteria());
+            }
+            if (resolved instanceof ExchangeNode) {
+                return calculateStats(getOnlyElement(resolved.getSources()), lookup, session, types);
+            }
+            // every relation outputs a single symbol named after the relation
+            return sourceStats.getOrDefault(getOnlyElement(resolved.getOutputSymbols()).getName(), UNKNOWN_STATS_ESTIMATE);
+        }
+    }
+}
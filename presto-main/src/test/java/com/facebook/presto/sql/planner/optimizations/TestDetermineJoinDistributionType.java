@@ -0,0 +1,161 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.planner.optimizations;
+
+import com.facebook.presto.Session;
+import com.facebook.presto.cost.PlanNodeStatsEstimate;
+import com.facebook.presto.cost.StatsBasedCostCalculator;
+import com.facebook.presto.cost.StatsCalculator;
+import com.facebook.presto.cost.SymbolStatsEstimate;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.sql.planner.PlanNodeIdAllocator;
+import com.facebook.presto.sql.planner.Symbol;
+import com.facebook.presto.sql.planner.SymbolAllocator;
+import com.facebook.presto.sql.planner.iterative.Lookup;
+import com.facebook.presto.sql.planner.plan.ExchangeNode;
+import com.facebook.presto.sql.planner.plan.JoinNode;
+import com.facebook.presto.sql.planner.plan.PlanNode;
+import com.facebook.presto.sql.planner.plan.PlanNodeId;
+import com.facebook.presto.sql.planner.plan.ValuesNode;
+import com.facebook.presto.sql.tree.LongLiteral;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static com.facebook.presto.SystemSessionProperties.COST_BASED_JOIN_DISTRIBUTION_ENABLED;
+import static com.facebook.presto.cost.DefaultStatsCalculator.estimateInnerJoin;
+import static com.facebook.presto.cost.PlanNodeStatsEstimate.UNKNOWN_STATS_ESTIMATE;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.sql.planner.plan.JoinNode.DistributionType.PARTITIONED;
+import static com.facebook.presto.sql.planner.plan.JoinNode.DistributionType.REPLICATED;
+import static com.facebook.presto.testing.TestingSession.testSessionBuilder;
+import static com.google.common.collect.Iterables.getOnlyElement;
+import static org.testng.Assert.assertEquals;
+
+public class TestDetermineJoinDistributionType
+{
+    private static final Session SESSION = testSessionBuilder()
+            .setSystemProperty(COST_BASED_JOIN_DISTRIBUTION_ENABLED, "true")
+            .build();
+
+    private static final Symbol A = new Symbol("a");
+    private static final Symbol B = new Symbol("b");
+    private static final Map<Symbol, Type> TYPES = ImmutableMap.of(A, BIGINT, B, BIGINT);
+
+    @Test
+    public void testReplicateSmallBuildSide()
+    {
+        assertEquals(determineDistributionType(SESSION, stats(10_000, 10)), REPLICATED);
+    }
+
+    @Test
+    public void testPartitionLargeBuildSide()
+    {
+        assertEquals(determineDistributionType(SESSION, stats(10, 10_000)), PARTITIONED);
+    }
+
+    @Test
+    public void testUnknownStatistics()
+    {
+        Map<Symbol, PlanNodeStatsEstimate> stats = ImmutableMap.of(A, rowCount(A, 10_000), B, UNKNOWN_STATS_ESTIMATE);
+        assertEquals(determineDistributionType(SESSION, stats), PARTITIONED);
+    }
+
+    @Test
+    public void testCostBasedDistributionDisabled()
+    {
+        Session session = Session.builder(SESSION)
+                .setSystemProperty(COST_BASED_JOIN_DISTRIBUTION_ENABLED, "false")
+                .build();
+        assertEquals(determineDistributionType(session, stats(10_000, 10)), PARTITIONED);
+    }
+
+    private static JoinNode.DistributionType determineDistributionType(Session session, Map<Symbol, PlanNodeStatsEstimate> stats)
+    {
+        JoinNode join = new JoinNode(
+                new PlanNodeId("join"),
+                JoinNode.Type.INNER,
+                values("left", A),
+                values("right", B),
+                ImmutableList.of(new JoinNode.EquiJoinClause(A, B)),
+                ImmutableList.of(A, B),
+                Optional.empty(),
+                Optional.empty(),
+                Optional.empty(),
+                Optional.empty());
+
+        DetermineJoinDistributionType optimizer = new DetermineJoinDistributionType(new StatsBasedCostCalculator(new SourceStatsCalculator(stats), () -> 4));
+        PlanNode optimized = optimizer.optimize(join, session, TYPES, new SymbolAllocator(TYPES), new PlanNodeIdAllocator());
+        return ((JoinNode) optimized).getDistributionType().get();
+    }
+
+    private static ValuesNode values(String id, Symbol symbol)
+    {
+        // more than one row, so that the build side is not broadcast as a scalar
+        return new ValuesNode(
+                new PlanNodeId(id),
+                ImmutableList.of(symbol),
+                ImmutableList.of(ImmutableList.of(new LongLiteral("1")), ImmutableList.of(new LongLiteral("2"))));
+    }
+
+    private static Map<Symbol, PlanNodeStatsEstimate> stats(double leftRowCount, double rightRowCount)
+    {
+        return ImmutableMap.of(A, rowCount(A, leftRowCount), B, rowCount(B, rightRowCount));
+    }
+
+    private static PlanNodeStatsEstimate rowCount(Symbol symbol, double rowCount)
+    {
+        return PlanNodeStatsEstimate.builder()
+                .setOutputRowCount(rowCount)
+                .addSymbolStatistics(symbol, SymbolStatsEstimate.builder()
+                        .setAverageRowSize(8)
+                        .setNullsFraction(0)
+                        .setDistinctValuesCount(rowCount)
+                        .build())
+                .build();
+    }
+
+    /**
+     * Provides statistics of single column join sources and propagates them through exchanges and joins.
+     */
+    private static class SourceStatsCalculator
+            implements StatsCalculator
+    {
+        private final Map<Symbol, PlanNodeStatsEstimate> sourceStats;
+
+        public SourceStatsCalculator(Map<Symbol, PlanNodeStatsEstimate> sourceStats)
+        {
+            this.sourceStats = sourceStats;
+        }
+
+        @Override
+        public PlanNodeStatsEstimate calculateStats(PlanNode planNode, Lookup lookup, Session session, Map<Symbol, Type> types)
+        {
+            if (planNode instanceof JoinNode) {
+                JoinNode join = (JoinNode) planNode;
+                return estimateInnerJoin(
+                        calculateStats(join.getLeft(), lookup, session, types),
+                        calculateStats(join.getRight(), lookup, session, types),
+                        join.getCriteria());
+            }
+            if (planNode instanceof ExchangeNode) {
+                return calculateStats(getOnlyElement(planNode.getSources()), lookup, session, types);
+            }
+            return sourceStats.get(getOnlyElement(planNode.getOutputSymbols()));
+        }
+    }
+}
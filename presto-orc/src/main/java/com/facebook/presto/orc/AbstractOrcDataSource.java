@@ -25,15 +25,29 @@ import io.airlift.units.DataSize;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 
 import static com.facebook.presto.orc.OrcDataSourceUtils.getDiskRangeSlice;
 import static com.facebook.presto.orc.OrcDataSourceUtils.mergeAdjacentDiskRanges;
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Throwables.propagateIfPossible;
 import static com.google.common.base.Verify.verify;
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static java.lang.Math.min;
 import static java.lang.Math.toIntExact;
 import static java.util.Objects.requireNonNull;
 
@@ -46,10 +60,29 @@ public abstract class AbstractOrcDataSource
     private final DataSize maxBufferSize;
     private final DataSize streamBufferSize;
     private final boolean lazyReadSmallRanges;
-    private long readTimeNanos;
-    private long readBytes;
+    private final OrcReadScheduler readScheduler;
+    private final AtomicLong readTimeNanos = new AtomicLong();
+    private final AtomicLong readBytes = new AtomicLong();
+    private final Set<Queue<LazyBufferLoader>> readAheadQueues = ConcurrentHashMap.newKeySet();
+    private volatile boolean closed;
 
     public AbstractOrcDataSource(OrcDataSourceId id, long size, DataSize maxMergeDistance, DataSize maxBufferSize, DataSize streamBufferSize, boolean lazyReadSmallRanges)
+    {
+        this(id, size, maxMergeDistance, maxBufferSize, streamBufferSize, lazyReadSmallRanges, OrcReadScheduler.SEQUENTIAL);
+    }
+
+    /**
+     * When the read scheduler allows concurrent reads, {@link #readInternal} is called
+     * concurrently from the threads of the scheduler executor.
+     */
+    public AbstractOrcDataSource(
+            OrcDataSourceId id,
+            long size,
+            DataSize maxMergeDistance,
+            DataSize maxBufferSize,
+            DataSize streamBufferSize,
+            boolean lazyReadSmallRanges,
+            OrcReadScheduler readScheduler)
     {
         this.id = requireNonNull(id, "id is null");
 
@@ -60,11 +93,39 @@ public abstract class AbstractOrcDataSource
         this.maxBufferSize = requireNonNull(maxBufferSize, "maxBufferSize is null");
         this.streamBufferSize = requireNonNull(streamBufferSize, "streamBufferSize is null");
         this.lazyReadSmallRanges = lazyReadSmallRanges;
+        this.readScheduler = requireNonNull(readScheduler, "readScheduler is null");
     }
 
     protected abstract void readInternal(long position, byte[] buffer, int bufferOffset, int bufferLength)
             throws IOException;
 
+    /**
+     * Returns true when {@link #readInternal} reports the reads that reach the underlying
+     * storage with {@link #recordStorageRead}. Data sources that serve some reads from a
+     * local cache do so, because the merge distance must not adapt to the speed of the cache.
+     */
+    protected boolean recordsStorageReads()
+    {
+        return false;
+    }
+
+    protected final void recordStorageRead(long bytes, long readNanos)
+    {
+        readScheduler.recordRead(bytes, readNanos);
+    }
+
+    /**
+     * Stops reading ahead. Subclasses that override this method must call it before
+     * releasing the underlying storage.
+     */
+    @Override
+    public void close()
+            throws IOException
+    {
+        closed = true;
+        cancelReadAhead();
+    }
+
     @Override
     public OrcDataSourceId getId()
     {
@@ -74,13 +135,13 @@ public abstract class AbstractOrcDataSource
     @Override
     public final long getReadBytes()
     {
-        return readBytes;
+        return readBytes.get();
     }
 
     @Override
     public final long getReadTimeNanos()
     {
-        return readTimeNanos;
+        return readTimeNanos.get();
     }
 
     @Override
@@ -104,8 +165,12 @@ public abstract class AbstractOrcDataSource
 
         readInternal(position, buffer, bufferOffset, bufferLength);
 
-        readTimeNanos += System.nanoTime() - start;
-        readBytes += bufferLength;
+        long readNanos = System.nanoTime() - start;
+        readTimeNanos.addAndGet(readNanos);
+        readBytes.addAndGet(bufferLength);
+        if (!recordsStorageReads()) {
+            readScheduler.recordRead(bufferLength, readNanos);
+        }
     }
 
     @Override
@@ -152,15 +217,21 @@ public abstract class AbstractOrcDataSource
             return ImmutableMap.of();
         }
 
-        Iterable<DiskRange> mergedRanges = mergeAdjacentDiskRanges(diskRanges.values(), maxMergeDistance, maxBufferSize);
+        long mergeDistance = readScheduler.getMergeDistance(maxMergeDistance.toBytes(), maxBufferSize.toBytes());
+        Iterable<DiskRange> mergedRanges = mergeAdjacentDiskRanges(diskRanges.values(), new DataSize(mergeDistance, BYTE), maxBufferSize);
+
+        List<LazyBufferLoader> loaders = new ArrayList<>();
+        for (DiskRange mergedRange : mergedRanges) {
+            loaders.add(new LazyBufferLoader(mergedRange));
+        }
+        readAhead(loaders);
 
         ImmutableMap.Builder<K, FixedLengthSliceInput> slices = ImmutableMap.builder();
         if (lazyReadSmallRanges) {
-            for (DiskRange mergedRange : mergedRanges) {
-                LazyBufferLoader mergedRangeLazyLoader = new LazyBufferLoader(mergedRange);
+            for (LazyBufferLoader mergedRangeLazyLoader : loaders) {
                 for (Entry<K, DiskRange> diskRangeEntry : diskRanges.entrySet()) {
                     DiskRange diskRange = diskRangeEntry.getValue();
-                    if (mergedRange.contains(diskRange)) {
+                    if (mergedRangeLazyLoader.getDiskRange().contains(diskRange)) {
                         slices.put(diskRangeEntry.getKey(), new LazySliceInput(diskRange.getLength(), new LazySliceLoader(diskRange, mergedRangeLazyLoader)));
                     }
                 }
@@ -168,11 +239,9 @@ public abstract class AbstractOrcDataSource
         }
         else {
             Map<DiskRange, byte[]> buffers = new LinkedHashMap<>();
-            for (DiskRange mergedRange : mergedRanges) {
-                // read full range in one request
-                byte[] buffer = new byte[mergedRange.getLength()];
-                readFully(mergedRange.getOffset(), buffer);
-                buffers.put(mergedRange, buffer);
+            for (LazyBufferLoader loader : loaders) {
+                // read full range in one request, unless it is already read ahead
+                buffers.put(loader.getDiskRange(), loader.getBuffer());
             }
 
             for (Entry<K, DiskRange> entry : diskRanges.entrySet()) {
@@ -185,6 +254,49 @@ public abstract class AbstractOrcDataSource
         return sliceStreams;
     }
 
+    private void readAhead(List<LazyBufferLoader> loaders)
+    {
+        int readers = min(readScheduler.getMaxConcurrentReadsPerFile(), loaders.size());
+        if (readers <= 1 || closed) {
+            return;
+        }
+
+        // the ranges are read in order by a bounded number of readers; a range
+        // that is needed before a reader gets to it is read by the caller
+        Queue<LazyBufferLoader> pending = new ConcurrentLinkedQueue<>(loaders);
+        readAheadQueues.add(pending);
+        if (closed) {
+            // the data source was closed concurrently
+            cancelReadAhead();
+            return;
+        }
+        Runnable reader = () -> {
+            LazyBufferLoader loader = pending.poll();
+            while (loader != null) {
+                loader.tryLoad();
+                loader = pending.poll();
+            }
+            readAheadQueues.remove(pending);
+        };
+        try {
+            for (int i = 0; i < readers; i++) {
+                readScheduler.getExecutor().execute(reader);
+            }
+        }
+        catch (RejectedExecutionException ignored) {
+            // remaining ranges are read on demand
+        }
+    }
+
+    private void cancelReadAhead()
+    {
+        // ranges that are not read yet are read on demand
+        for (Queue<LazyBufferLoader> pending : readAheadQueues) {
+            pending.clear();
+            readAheadQueues.remove(pending);
+        }
+    }
+
     private <K> Map<K, FixedLengthSliceInput> readLargeDiskRanges(Map<K, DiskRange> diskRanges)
             throws IOException
     {
@@ -209,34 +321,60 @@ public abstract class AbstractOrcDataSource
     private final class LazyBufferLoader
     {
         private final DiskRange diskRange;
-        private Slice bufferSlice;
+        private final AtomicBoolean loadStarted = new AtomicBoolean();
+        private final CompletableFuture<byte[]> buffer = new CompletableFuture<>();
 
         public LazyBufferLoader(DiskRange diskRange)
         {
             this.diskRange = requireNonNull(diskRange, "diskRange is null");
         }
 
+        public DiskRange getDiskRange()
+        {
+            return diskRange;
+        }
+
         public Slice loadNestedDiskRangeBuffer(DiskRange nestedDiskRange)
         {
-            load();
+            byte[] buffer;
+            try {
+                buffer = getBuffer();
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
 
             checkArgument(diskRange.contains(nestedDiskRange));
             int offset = toIntExact(nestedDiskRange.getOffset() - diskRange.getOffset());
-            return bufferSlice.slice(offset, nestedDiskRange.getLength());
+            return Slices.wrappedBuffer(buffer, offset, nestedDiskRange.getLength());
+        }
+
+        public byte[] getBuffer()
+                throws IOException
+        {
+            tryLoad();
+            try {
+                return buffer.join();
+            }
+            catch (CompletionException e) {
+                propagateIfPossible(e.getCause(), IOException.class);
+                throw new RuntimeException(e.getCause());
+            }
         }
 
-        private void load()
+        public void tryLoad()
         {
-            if (bufferSlice != null) {
+            // the range is read once, either ahead by a reader of the scheduler or on demand
+            if (!loadStarted.compareAndSet(false, true)) {
                 return;
             }
             try {
-                byte[] buffer = new byte[diskRange.getLength()];
-                readFully(diskRange.getOffset(), buffer);
-                bufferSlice = Slices.wrappedBuffer(buffer);
+                byte[] data = new byte[diskRange.getLength()];
+                readFully(diskRange.getOffset(), data);
+                buffer.complete(data);
             }
-            catch (IOException e) {
-                throw new UncheckedIOException(e);
+            catch (Throwable t) {
+                buffer.completeExceptionally(t);
             }
         }
     }
@@ -0,0 +1,68 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc;
+
+import java.util.Objects;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Identifies a version of an ORC file for caching metadata. Files that are modified
+ * in place must get a new modification time, so stale metadata is never used.
+ */
+public final class OrcFileKey
+{
+    private final OrcDataSourceId id;
+    private final long size;
+    private final long modificationTime;
+
+    public OrcFileKey(OrcDataSourceId id, long size, long modificationTime)
+    {
+        this.id = requireNonNull(id, "id is null");
+        this.size = size;
+        this.modificationTime = modificationTime;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        OrcFileKey that = (OrcFileKey) o;
+        return size == that.size &&
+                modificationTime == that.modificationTime &&
+                Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(id, size, modificationTime);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("id", id)
+                .add("size", size)
+                .add("modificationTime", modificationTime)
+                .toString();
+    }
+}
@@ -0,0 +1,262 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc;
+
+import com.facebook.presto.orc.metadata.RowGroupIndex;
+import com.facebook.presto.orc.metadata.StripeFooter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.airlift.units.DataSize;
+import org.weakref.jmx.Managed;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.function.ToLongFunction;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Throwables.propagateIfPossible;
+import static io.airlift.slice.SizeOf.sizeOfObjectArray;
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Caches decoded file tails, stripe footers and row group indexes of ORC files, so
+ * splits of the same file, and repeated queries over the same files, do not read
+ * and decode them again. The cache is bounded by the estimated retained size of the
+ * decoded entries, which is several times the size of the metadata in the file.
+ */
+public class OrcMetadataCache
+{
+    public static final OrcMetadataCache NO_CACHE = new OrcMetadataCache(new DataSize(0, BYTE));
+
+    private final DataSize maxSize;
+    // null when the cache is disabled
+    private final Cache<CacheKey, CacheEntry> cache;
+
+    public OrcMetadataCache(DataSize maxSize)
+    {
+        this.maxSize = requireNonNull(maxSize, "maxSize is null");
+        if (maxSize.toBytes() == 0) {
+            this.cache = null;
+        }
+        else {
+            this.cache = CacheBuilder.newBuilder()
+                    .maximumWeight(maxSize.toBytes())
+                    .weigher((CacheKey key, CacheEntry entry) -> entry.getWeight())
+                    .recordStats()
+                    .build();
+        }
+    }
+
+    public boolean isEnabled()
+    {
+        return cache != null;
+    }
+
+    OrcFileTail getFileTail(OrcFileKey file, MetadataLoader<OrcFileTail> loader)
+            throws IOException
+    {
+        return get(new CacheKey(file, EntryKind.FILE_TAIL, 0, 0), loader, OrcFileTail::getRetainedSizeInBytes);
+    }
+
+    StripeFooter getStripeFooter(OrcFileKey file, long stripeOffset, MetadataLoader<StripeFooter> loader)
+            throws IOException
+    {
+        return get(new CacheKey(file, EntryKind.STRIPE_FOOTER, stripeOffset, 0), loader, StripeFooter::getRetainedSizeInBytes);
+    }
+
+    Optional<List<RowGroupIndex>> getRowGroupIndexes(OrcFileKey file, long stripeOffset, int column)
+    {
+        if (cache == null) {
+            return Optional.empty();
+        }
+        CacheEntry entry = cache.getIfPresent(new CacheKey(file, EntryKind.ROW_GROUP_INDEXES, stripeOffset, column));
+        if (entry == null) {
+            return Optional.empty();
+        }
+        @SuppressWarnings("unchecked")
+        List<RowGroupIndex> rowGroupIndexes = (List<RowGroupIndex>) entry.getValue();
+        return Optional.of(rowGroupIndexes);
+    }
+
+    void putRowGroupIndexes(OrcFileKey file, long stripeOffset, int column, List<RowGroupIndex> rowGroupIndexes)
+    {
+        if (cache != null) {
+            long retainedSize = sizeOfObjectArray(rowGroupIndexes.size());
+            for (RowGroupIndex rowGroupIndex : rowGroupIndexes) {
+                retainedSize += rowGroupIndex.getRetainedSizeInBytes();
+            }
+            cache.put(new CacheKey(file, EntryKind.ROW_GROUP_INDEXES, stripeOffset, column), new CacheEntry(ImmutableList.copyOf(rowGroupIndexes), retainedSize));
+        }
+    }
+
+    private <T> T get(CacheKey key, MetadataLoader<T> loader, ToLongFunction<T> weigher)
+            throws IOException
+    {
+        if (cache == null) {
+            return loader.load();
+        }
+        try {
+            @SuppressWarnings("unchecked")
+            T value = (T) cache.get(key, () -> {
+                T loaded = loader.load();
+                return new CacheEntry(loaded, weigher.applyAsLong(loaded));
+            }).getValue();
+            return value;
+        }
+        catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
+            propagateIfPossible(e.getCause(), IOException.class);
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    @Managed
+    public void flushCache()
+    {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    @Managed
+    public long getMaxSizeInBytes()
+    {
+        return maxSize.toBytes();
+    }
+
+    @Managed
+    public long getSize()
+    {
+        return cache == null ? 0 : cache.size();
+    }
+
+    @Managed
+    public long getHitCount()
+    {
+        return getStats().hitCount();
+    }
+
+    @Managed
+    public long getMissCount()
+    {
+        return getStats().missCount();
+    }
+
+    @Managed
+    public double getHitRate()
+    {
+        return getStats().hitRate();
+    }
+
+    @Managed
+    public long getEvictionCount()
+    {
+        return getStats().evictionCount();
+    }
+
+    private CacheStats getStats()
+    {
+        return cache == null ? new CacheStats(0, 0, 0, 0, 0, 0) : cache.stats();
+    }
+
+    interface MetadataLoader<T>
+    {
+        T load()
+                throws IOException;
+    }
+
+    private enum EntryKind
+    {
+        FILE_TAIL, STRIPE_FOOTER, ROW_GROUP_INDEXES
+    }
+
+    private static final class CacheKey
+    {
+        private final OrcFileKey file;
+        private final EntryKind kind;
+        private final long stripeOffset;
+        private final int column;
+
+        public CacheKey(OrcFileKey file, EntryKind kind, long stripeOffset, int column)
+        {
+            this.file = requireNonNull(file, "file is null");
+            this.kind = requireNonNull(kind, "kind is null");
+            this.stripeOffset = stripeOffset;
+            this.column = column;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            CacheKey that = (CacheKey) o;
+            return stripeOffset == that.stripeOffset &&
+                    column == that.column &&
+                    kind == that.kind &&
+                    Objects.equals(file, that.file);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(file, kind, stripeOffset, column);
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("file", file)
+                    .add("kind", kind)
+                    .add("stripeOffset", stripeOffset)
+                    .add("column", column)
+                    .toString();
+        }
+    }
+
+    private static final class CacheEntry
+    {
+        private final Object value;
+        private final int weight;
+
+        public CacheEntry(Object value, long retainedSize)
+        {
+            this.value = requireNonNull(value, "value is null");
+            this.weight = Ints.saturatedCast(retainedSize);
+        }
+
+        public Object getValue()
+        {
+            return value;
+        }
+
+        public int getWeight()
+        {
+            return weight;
+        }
+    }
+}
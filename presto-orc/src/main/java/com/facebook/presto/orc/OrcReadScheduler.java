@@ -0,0 +1,132 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc;
+
+import org.weakref.jmx.Managed;
+
+import javax.annotation.concurrent.GuardedBy;
+
+import java.util.concurrent.Executor;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Controls how {@link AbstractOrcDataSource} issues the merged disk ranges of a read.
+ * <p>
+ * When more than one concurrent read per file is allowed, the merged ranges are read
+ * ahead on the executor, which should be bounded to limit the reads of the whole node.
+ * When the merge distance is adaptive, it is derived from the observed latency and
+ * throughput of the reads: ranges closer than the number of bytes that can be transferred
+ * during the latency of one request are cheaper to read together than separately.
+ */
+public class OrcReadScheduler
+{
+    public static final OrcReadScheduler SEQUENTIAL = new OrcReadScheduler(directExecutor(), 1, false);
+
+    // the time of reads up to this size is dominated by the latency of the request
+    private static final long LATENCY_READ_BYTES = 64 * 1024;
+    // the time of reads of at least this size is dominated by the transfer
+    private static final long THROUGHPUT_READ_BYTES = 1024 * 1024;
+    private static final double DECAY = 0.1;
+
+    private final Executor executor;
+    private final int maxConcurrentReadsPerFile;
+    private final boolean adaptiveMergeDistance;
+
+    @GuardedBy("this")
+    private double latencyNanos = Double.NaN;
+    @GuardedBy("this")
+    private double bytesPerNano = Double.NaN;
+
+    public OrcReadScheduler(Executor executor, int maxConcurrentReadsPerFile, boolean adaptiveMergeDistance)
+    {
+        this.executor = requireNonNull(executor, "executor is null");
+        checkArgument(maxConcurrentReadsPerFile >= 1, "maxConcurrentReadsPerFile must be at least 1");
+        this.maxConcurrentReadsPerFile = maxConcurrentReadsPerFile;
+        this.adaptiveMergeDistance = adaptiveMergeDistance;
+    }
+
+    Executor getExecutor()
+    {
+        return executor;
+    }
+
+    @Managed
+    public int getMaxConcurrentReadsPerFile()
+    {
+        return maxConcurrentReadsPerFile;
+    }
+
+    @Managed
+    public boolean isAdaptiveMergeDistance()
+    {
+        return adaptiveMergeDistance;
+    }
+
+    void recordRead(long bytes, long nanos)
+    {
+        if (!adaptiveMergeDistance) {
+            return;
+        }
+        synchronized (this) {
+            if (bytes <= LATENCY_READ_BYTES) {
+                latencyNanos = decay(latencyNanos, nanos);
+            }
+            else if (bytes >= THROUGHPUT_READ_BYTES) {
+                double transferNanos = nanos;
+                if (!Double.isNaN(latencyNanos)) {
+                    transferNanos -= latencyNanos;
+                }
+                bytesPerNano = decay(bytesPerNano, bytes / max(transferNanos, 1.0));
+            }
+        }
+    }
+
+    long getMergeDistance(long defaultMergeDistance, long maxMergeDistance)
+    {
+        if (!adaptiveMergeDistance) {
+            return defaultMergeDistance;
+        }
+        synchronized (this) {
+            if (Double.isNaN(latencyNanos) || Double.isNaN(bytesPerNano)) {
+                return defaultMergeDistance;
+            }
+            return min((long) (latencyNanos * bytesPerNano), maxMergeDistance);
+        }
+    }
+
+    @Managed
+    public synchronized double getEstimatedLatencyNanos()
+    {
+        return latencyNanos;
+    }
+
+    @Managed
+    public synchronized double getEstimatedBytesPerSecond()
+    {
+        return bytesPerNano * 1_000_000_000;
+    }
+
+    private static double decay(double average, double value)
+    {
+        if (Double.isNaN(average)) {
+            return value;
+        }
+        return average + (value - average) * DECAY;
+    }
+}
@@ -31,6 +31,8 @@ import com.facebook.presto.orc.reader.StreamReaders;
 import com.facebook.presto.orc.stream.InputStreamSources;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.block.BlockBuilderStatus;
 import com.facebook.presto.spi.type.Type;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Predicate;
@@ -46,6 +48,7 @@ import org.joda.time.DateTimeZone;
 import java.io.Closeable;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
@@ -60,6 +63,7 @@ import static com.facebook.presto.orc.OrcRecordReader.LinearProbeRangeFinder.cre
 import static com.facebook.presto.orc.OrcWriteValidation.StatisticsValidation.createWriteStatisticsBuilder;
 import static com.facebook.presto.orc.OrcWriteValidation.WriteChecksumBuilder.createWriteChecksumBuilder;
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
 import static java.lang.Math.max;
 import static java.lang.Math.min;
 import static java.lang.Math.toIntExact;
@@ -69,9 +73,14 @@ import static java.util.Objects.requireNonNull;
 public class OrcRecordReader
         implements Closeable
 {
+    // positions are copied out of the decoded rows when at least this fraction of the rows is read
+    private static final double MIN_DENSE_POSITIONS_RATIO = 0.5;
+
     private final OrcDataSource orcDataSource;
 
     private final StreamReader[] streamReaders;
+    // row within the current row group up to which each column has been read or skipped
+    private final long[] columnReadPositions;
     private final long[] maxBytesPerCell;
     private long maxCombinedBytesPerRow;
 
@@ -98,6 +107,7 @@ public class OrcRecordReader
     private int currentRowGroup = -1;
     private long currentGroupRowCount;
     private long nextRowInGroup;
+    private long currentBatchRowInGroup;
 
     private final Map<String, Slice> userMetadata;
 
@@ -130,6 +140,8 @@ public class OrcRecordReader
             DataSize maxBlockSize,
             Map<String, Slice> userMetadata,
             AbstractAggregatedMemoryContext systemMemoryUsage,
+            OrcMetadataCache metadataCache,
+            OrcFileKey fileKey,
             Optional<OrcWriteValidation> writeValidation)
             throws IOException
     {
@@ -224,9 +236,12 @@ public class OrcRecordReader
                 predicate,
                 hiveWriterVersion,
                 metadataReader,
+                metadataCache,
+                fileKey,
                 writeValidation);
 
         streamReaders = createStreamReaders(orcDataSource, types, hiveStorageTimeZone, presentColumnsAndTypes.build());
+        columnReadPositions = new long[streamReaders.length];
         maxBytesPerCell = new long[streamReaders.length];
     }
 
@@ -367,11 +382,8 @@ public class OrcRecordReader
 
         currentBatchSize = toIntExact(min(maxBatchSize, currentGroupRowCount - nextRowInGroup));
 
-        for (StreamReader column : streamReaders) {
-            if (column != null) {
-                column.prepareNextRead(currentBatchSize);
-            }
-        }
+        // columns are positioned when they are read, so columns that are never read are skipped in bulk
+        currentBatchRowInGroup = nextRowInGroup;
         nextRowInGroup += currentBatchSize;
         validateWritePageChecksum();
         return currentBatchSize;
@@ -380,7 +392,86 @@ public class OrcRecordReader
     public Block readBlock(Type type, int columnIndex)
             throws IOException
     {
-        Block block = streamReaders[columnIndex].readBlock(type);
+        Block block = readRange(type, columnIndex, 0, currentBatchSize);
+        updateMaxBytesPerCell(columnIndex, block);
+        return block;
+    }
+
+    /**
+     * Reads only the specified positions of the current batch. When the positions are dense, the rows
+     * from the first to the last position are decoded and the positions are copied out of them.
+     * Otherwise the rows between the runs of positions are skipped in the column streams instead of
+     * being decoded.
+     *
+     * @param positions positions in the current batch, in increasing order
+     */
+    public Block readBlock(Type type, int columnIndex, int[] positions, int positionCount)
+            throws IOException
+    {
+        checkArgument(positionCount <= currentBatchSize, "positionCount is larger than the batch");
+
+        if (positionCount == 0) {
+            return type.createBlockBuilder(new BlockBuilderStatus(), 0).build();
+        }
+
+        int first = positions[0];
+        int length = positions[positionCount - 1] - first + 1;
+        if (positionCount == length) {
+            Block block = readRange(type, columnIndex, first, length);
+            updateMaxBytesPerCell(columnIndex, block);
+            return block;
+        }
+
+        Block block;
+        if (positionCount >= length * MIN_DENSE_POSITIONS_RATIO) {
+            Block range = readRange(type, columnIndex, first, length);
+            int[] rangePositions = new int[positionCount];
+            for (int i = 0; i < positionCount; i++) {
+                rangePositions[i] = positions[i] - first;
+            }
+            block = range.copyPositions(rangePositions, 0, positionCount);
+        }
+        else {
+            BlockBuilder builder = type.createBlockBuilder(new BlockBuilderStatus(), positionCount);
+            int index = 0;
+            while (index < positionCount) {
+                int start = positions[index];
+                int end = start + 1;
+                index++;
+                while (index < positionCount && positions[index] == end) {
+                    end++;
+                    index++;
+                }
+                Block run = readRange(type, columnIndex, start, end - start);
+                for (int position = 0; position < run.getPositionCount(); position++) {
+                    type.appendTo(run, position, builder);
+                }
+            }
+            block = builder.build();
+        }
+        updateMaxBytesPerCell(columnIndex, block);
+        return block;
+    }
+
+    private Block readRange(Type type, int columnIndex, int offset, int length)
+            throws IOException
+    {
+        StreamReader streamReader = streamReaders[columnIndex];
+        long start = currentBatchRowInGroup + offset;
+        checkState(columnReadPositions[columnIndex] <= start, "Column %s has already been read past position %s", columnIndex, start);
+
+        // a prepared read that is not consumed is skipped by the next read of the stream reader
+        long skip = start - columnReadPositions[columnIndex];
+        if (skip > 0) {
+            streamReader.prepareNextRead(toIntExact(skip));
+        }
+        streamReader.prepareNextRead(length);
+        columnReadPositions[columnIndex] = start + length;
+        return streamReader.readBlock(type);
+    }
+
+    private void updateMaxBytesPerCell(int columnIndex, Block block)
+    {
         if (block.getPositionCount() > 0) {
             long bytesPerCell = block.getSizeInBytes() / block.getPositionCount();
             if (maxBytesPerCell[columnIndex] < bytesPerCell) {
@@ -389,7 +480,6 @@ public class OrcRecordReader
                 maxBatchSize = toIntExact(min(maxBatchSize, max(1, maxBlockBytes / maxCombinedBytesPerRow)));
             }
         }
-        return block;
     }
 
     public StreamReader getStreamReader(int index)
@@ -437,6 +527,7 @@ public class OrcRecordReader
         filePosition = stripeFilePositions.get(currentStripe) + currentRowGroup.getRowOffset();
 
         // give reader data streams from row group
+        Arrays.fill(columnReadPositions, 0);
         InputStreamSources rowGroupStreamSources = currentRowGroup.getStreamSources();
         for (StreamReader column : streamReaders) {
             if (column != null) {
@@ -79,6 +79,8 @@ public class StripeReader
     private final int rowsInRowGroup;
     private final OrcPredicate predicate;
     private final MetadataReader metadataReader;
+    private final OrcMetadataCache metadataCache;
+    private final OrcFileKey fileKey;
     private final Optional<OrcWriteValidation> writeValidation;
 
     public StripeReader(OrcDataSource orcDataSource,
@@ -89,6 +91,8 @@ public class StripeReader
             OrcPredicate predicate,
             HiveWriterVersion hiveWriterVersion,
             MetadataReader metadataReader,
+            OrcMetadataCache metadataCache,
+            OrcFileKey fileKey,
             Optional<OrcWriteValidation> writeValidation)
     {
         this.orcDataSource = requireNonNull(orcDataSource, "orcDataSource is null");
@@ -99,6 +103,8 @@ public class StripeReader
         this.predicate = requireNonNull(predicate, "predicate is null");
         this.hiveWriterVersion = requireNonNull(hiveWriterVersion, "hiveWriterVersion is null");
         this.metadataReader = requireNonNull(metadataReader, "metadataReader is null");
+        this.metadataCache = requireNonNull(metadataCache, "metadataCache is null");
+        this.fileKey = requireNonNull(fileKey, "fileKey is null");
         this.writeValidation = requireNonNull(writeValidation, "writeValidation is null");
     }
 
@@ -126,18 +132,31 @@ public class StripeReader
         // handle stripes with more than one row group or a dictionary
         boolean invalidCheckPoint = false;
         if ((stripe.getNumberOfRows() > rowsInRowGroup) || hasRowGroupDictionary) {
+            // use the cached row indexes if all included columns have them
+            Optional<Map<Integer, List<RowGroupIndex>>> cachedColumnIndexes = getCachedColumnIndexes(stripe, streams);
+
             // determine ranges of the stripe to read
             Map<StreamId, DiskRange> diskRanges = getDiskRanges(stripeFooter.getStreams());
             diskRanges = Maps.filterKeys(diskRanges, Predicates.in(streams.keySet()));
+            if (cachedColumnIndexes.isPresent()) {
+                diskRanges = Maps.filterKeys(diskRanges, streamId -> streamId.getStreamKind() != ROW_INDEX && streamId.getStreamKind() != BLOOM_FILTER);
+            }
 
             // read the file regions
             Map<StreamId, OrcInputStream> streamsData = readDiskRanges(stripe.getOffset(), diskRanges, systemMemoryUsage);
 
-            // read the bloom filter for each column
-            Map<Integer, List<HiveBloomFilter>> bloomFilterIndexes = readBloomFilterIndexes(streams, streamsData);
+            Map<Integer, List<RowGroupIndex>> columnIndexes;
+            if (cachedColumnIndexes.isPresent()) {
+                columnIndexes = cachedColumnIndexes.get();
+            }
+            else {
+                // read the bloom filter for each column
+                Map<Integer, List<HiveBloomFilter>> bloomFilterIndexes = readBloomFilterIndexes(streams, streamsData);
 
-            // read the row index for each column
-            Map<Integer, List<RowGroupIndex>> columnIndexes = readColumnIndexes(streams, streamsData, bloomFilterIndexes);
+                // read the row index for each column
+                columnIndexes = readColumnIndexes(streams, streamsData, bloomFilterIndexes);
+                cacheColumnIndexes(stripe, columnIndexes);
+            }
             if (writeValidation.isPresent()) {
                 writeValidation.get().validateRowGroupStatistics(orcDataSource.getId(), stripe.getOffset(), columnIndexes);
             }
@@ -360,11 +379,35 @@ public class StripeReader
         long offset = stripe.getOffset() + stripe.getIndexLength() + stripe.getDataLength();
         int tailLength = toIntExact(stripe.getFooterLength());
 
-        // read the footer
-        byte[] tailBuffer = new byte[tailLength];
-        orcDataSource.readFully(offset, tailBuffer);
-        try (InputStream inputStream = new OrcInputStream(orcDataSource.getId(), Slices.wrappedBuffer(tailBuffer).getInput(), decompressor, systemMemoryUsage)) {
-            return metadataReader.readStripeFooter(types, inputStream);
+        return metadataCache.getStripeFooter(fileKey, stripe.getOffset(), () -> {
+            // read the footer
+            byte[] tailBuffer = new byte[tailLength];
+            orcDataSource.readFully(offset, tailBuffer);
+            try (InputStream inputStream = new OrcInputStream(orcDataSource.getId(), Slices.wrappedBuffer(tailBuffer).getInput(), decompressor, systemMemoryUsage)) {
+                return metadataReader.readStripeFooter(types, inputStream);
+            }
+        });
+    }
+
+    private Optional<Map<Integer, List<RowGroupIndex>>> getCachedColumnIndexes(StripeInformation stripe, Map<StreamId, Stream> streams)
+    {
+        ImmutableMap.Builder<Integer, List<RowGroupIndex>> columnIndexes = ImmutableMap.builder();
+        for (Stream stream : streams.values()) {
+            if (stream.getStreamKind() == ROW_INDEX) {
+                Optional<List<RowGroupIndex>> rowGroupIndexes = metadataCache.getRowGroupIndexes(fileKey, stripe.getOffset(), stream.getColumn());
+                if (!rowGroupIndexes.isPresent()) {
+                    return Optional.empty();
+                }
+                columnIndexes.put(stream.getColumn(), rowGroupIndexes.get());
+            }
+        }
+        return Optional.of(columnIndexes.build());
+    }
+
+    private void cacheColumnIndexes(StripeInformation stripe, Map<Integer, List<RowGroupIndex>> columnIndexes)
+    {
+        for (Entry<Integer, List<RowGroupIndex>> entry : columnIndexes.entrySet()) {
+            metadataCache.putRowGroupIndexes(fileKey, stripe.getOffset(), entry.getKey(), entry.getValue());
         }
     }
 
@@ -13,11 +13,15 @@
  */
 package com.facebook.presto.orc.metadata;
 
+import org.openjdk.jol.info.ClassLayout;
+
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static java.util.Objects.requireNonNull;
 
 public class ColumnEncoding
 {
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(ColumnEncoding.class).instanceSize();
+
     public enum ColumnEncodingKind
     {
         DIRECT,
@@ -46,6 +50,11 @@ public class ColumnEncoding
         return dictionarySize;
     }
 
+    public long getRetainedSizeInBytes()
+    {
+        return INSTANCE_SIZE;
+    }
+
     @Override
     public String toString()
     {
@@ -16,14 +16,19 @@ package com.facebook.presto.orc.metadata;
 import com.google.common.collect.ImmutableList;
 import io.airlift.slice.Slice;
 import io.airlift.slice.Slices;
+import org.openjdk.jol.info.ClassLayout;
 
 import java.util.List;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
+import static io.airlift.slice.SizeOf.sizeOfObjectArray;
 import static java.util.Objects.requireNonNull;
 
 public class PostScript
 {
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(PostScript.class).instanceSize();
+    private static final int INTEGER_INSTANCE_SIZE = ClassLayout.parseClass(Integer.class).instanceSize();
+
     public static final Slice MAGIC = Slices.utf8Slice("ORC");
 
     public enum HiveWriterVersion
@@ -90,6 +95,11 @@ public class PostScript
         return hiveWriterVersion;
     }
 
+    public long getRetainedSizeInBytes()
+    {
+        return INSTANCE_SIZE + sizeOfObjectArray(version.size()) + version.size() * INTEGER_INSTANCE_SIZE;
+    }
+
     @Override
     public String toString()
     {
@@ -13,11 +13,15 @@
  */
 package com.facebook.presto.orc.metadata;
 
+import org.openjdk.jol.info.ClassLayout;
+
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static java.util.Objects.requireNonNull;
 
 public class Stream
 {
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(Stream.class).instanceSize();
+
     public enum StreamKind
     {
         PRESENT,
@@ -66,6 +70,11 @@ public class Stream
         return useVInts;
     }
 
+    public long getRetainedSizeInBytes()
+    {
+        return INSTANCE_SIZE;
+    }
+
     @Override
     public String toString()
     {
@@ -14,13 +14,17 @@
 package com.facebook.presto.orc.metadata;
 
 import com.google.common.collect.ImmutableList;
+import org.openjdk.jol.info.ClassLayout;
 
 import java.util.List;
 
+import static io.airlift.slice.SizeOf.sizeOfObjectArray;
 import static java.util.Objects.requireNonNull;
 
 public class StripeFooter
 {
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(StripeFooter.class).instanceSize();
+
     private final List<Stream> streams;
     private final List<ColumnEncoding> columnEncodings;
 
@@ -39,4 +43,16 @@ public class StripeFooter
     {
         return streams;
     }
+
+    public long getRetainedSizeInBytes()
+    {
+        long size = INSTANCE_SIZE + sizeOfObjectArray(streams.size()) + sizeOfObjectArray(columnEncodings.size());
+        for (Stream stream : streams) {
+            size += stream.getRetainedSizeInBytes();
+        }
+        for (ColumnEncoding columnEncoding : columnEncodings) {
+            size += columnEncoding.getRetainedSizeInBytes();
+        }
+        return size;
+    }
 }
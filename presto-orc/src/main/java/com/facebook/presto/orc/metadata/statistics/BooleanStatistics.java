@@ -13,12 +13,16 @@
  */
 package com.facebook.presto.orc.metadata.statistics;
 
+import org.openjdk.jol.info.ClassLayout;
+
 import java.util.Objects;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
 
 public class BooleanStatistics
 {
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(BooleanStatistics.class).instanceSize();
+
     // 1 byte to denote if null + 1 byte for the value
     public static final long BOOLEAN_VALUE_BYTES = Byte.BYTES + Byte.BYTES;
 
@@ -34,6 +38,11 @@ public class BooleanStatistics
         return trueValueCount;
     }
 
+    public long getRetainedSizeInBytes()
+    {
+        return INSTANCE_SIZE;
+    }
+
     @Override
     public boolean equals(Object o)
     {
@@ -13,6 +13,8 @@
  */
 package com.facebook.presto.orc.metadata.statistics;
 
+import org.openjdk.jol.info.ClassLayout;
+
 import java.util.List;
 import java.util.Objects;
 
@@ -27,6 +29,9 @@ import static com.google.common.base.MoreObjects.toStringHelper;
 
 public class ColumnStatistics
 {
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(ColumnStatistics.class).instanceSize();
+    private static final int LONG_INSTANCE_SIZE = ClassLayout.parseClass(Long.class).instanceSize();
+
     private final Long numberOfValues;
     private final long minAverageValueSizeInBytes;
     private final BooleanStatistics booleanStatistics;
@@ -143,6 +148,39 @@ public class ColumnStatistics
                 bloomFilter);
     }
 
+    public long getRetainedSizeInBytes()
+    {
+        long size = INSTANCE_SIZE;
+        if (numberOfValues != null) {
+            size += LONG_INSTANCE_SIZE;
+        }
+        if (booleanStatistics != null) {
+            size += booleanStatistics.getRetainedSizeInBytes();
+        }
+        if (integerStatistics != null) {
+            size += integerStatistics.getRetainedSizeInBytes();
+        }
+        if (doubleStatistics != null) {
+            size += doubleStatistics.getRetainedSizeInBytes();
+        }
+        if (stringStatistics != null) {
+            size += stringStatistics.getRetainedSizeInBytes();
+        }
+        if (dateStatistics != null) {
+            size += dateStatistics.getRetainedSizeInBytes();
+        }
+        if (decimalStatistics != null) {
+            size += decimalStatistics.getRetainedSizeInBytes();
+        }
+        if (binaryStatistics != null) {
+            size += binaryStatistics.getRetainedSizeInBytes();
+        }
+        if (bloomFilter != null) {
+            size += bloomFilter.getRetainedSizeInBytes();
+        }
+        return size;
+    }
+
     @Override
     public boolean equals(Object o)
     {
@@ -13,6 +13,8 @@
  */
 package com.facebook.presto.orc.metadata.statistics;
 
+import org.openjdk.jol.info.ClassLayout;
+
 import java.util.Objects;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
@@ -21,6 +23,9 @@ import static com.google.common.base.Preconditions.checkArgument;
 public class DateStatistics
         implements RangeStatistics<Integer>
 {
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(DateStatistics.class).instanceSize();
+    private static final int INTEGER_INSTANCE_SIZE = ClassLayout.parseClass(Integer.class).instanceSize();
+
     // 1 byte to denote if null + 4 bytes for the value (date is of integer type)
     public static final long DATE_VALUE_BYTES = Byte.BYTES + Integer.BYTES;
 
@@ -46,6 +51,11 @@ public class DateStatistics
         return maximum;
     }
 
+    public long getRetainedSizeInBytes()
+    {
+        return INSTANCE_SIZE + 2 * INTEGER_INSTANCE_SIZE;
+    }
+
     @Override
     public boolean equals(Object o)
     {
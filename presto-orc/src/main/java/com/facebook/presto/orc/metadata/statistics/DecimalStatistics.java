@@ -13,15 +13,23 @@
  */
 package com.facebook.presto.orc.metadata.statistics;
 
+import org.openjdk.jol.info.ClassLayout;
+
 import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.Objects;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkArgument;
+import static io.airlift.slice.SizeOf.sizeOfIntArray;
 
 public class DecimalStatistics
         implements RangeStatistics<BigDecimal>
 {
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(DecimalStatistics.class).instanceSize();
+    private static final int BIG_DECIMAL_INSTANCE_SIZE = ClassLayout.parseClass(BigDecimal.class).instanceSize();
+    private static final int BIG_INTEGER_INSTANCE_SIZE = ClassLayout.parseClass(BigInteger.class).instanceSize();
+
     // 1 byte to denote if null
     public static final long DECIMAL_VALUE_BYTES_OVERHEAD = Byte.BYTES;
 
@@ -47,6 +55,11 @@ public class DecimalStatistics
         return maximum;
     }
 
+    public long getRetainedSizeInBytes()
+    {
+        return INSTANCE_SIZE + sizeOfDecimal(minimum) + sizeOfDecimal(maximum);
+    }
+
     @Override
     public boolean equals(Object o)
     {
@@ -75,4 +88,12 @@ public class DecimalStatistics
                 .add("maximum", maximum)
                 .toString();
     }
+
+    private static long sizeOfDecimal(BigDecimal value)
+    {
+        if (value == null) {
+            return 0;
+        }
+        return BIG_DECIMAL_INSTANCE_SIZE + BIG_INTEGER_INSTANCE_SIZE + sizeOfIntArray(value.unscaledValue().bitLength() / Integer.SIZE + 1);
+    }
 }
@@ -14,6 +14,7 @@
 package com.facebook.presto.orc.metadata.statistics;
 
 import io.airlift.slice.Slice;
+import org.openjdk.jol.info.ClassLayout;
 
 import javax.annotation.Nullable;
 
@@ -25,6 +26,8 @@ import static com.google.common.base.Preconditions.checkArgument;
 public class StringStatistics
         implements RangeStatistics<Slice>
 {
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(StringStatistics.class).instanceSize();
+
     // 1 byte to denote if null + 4 bytes to denote offset
     public static final long STRING_VALUE_BYTES_OVERHEAD = Byte.BYTES + Integer.BYTES;
 
@@ -59,6 +62,18 @@ public class StringStatistics
         return sum;
     }
 
+    public long getRetainedSizeInBytes()
+    {
+        long size = INSTANCE_SIZE;
+        if (minimum != null) {
+            size += minimum.getRetainedSize();
+        }
+        if (maximum != null) {
+            size += maximum.getRetainedSize();
+        }
+        return size;
+    }
+
     @Override
     public boolean equals(Object o)
     {
@@ -14,14 +14,18 @@
 package com.facebook.presto.orc.metadata.statistics;
 
 import com.google.common.collect.ImmutableList;
+import org.openjdk.jol.info.ClassLayout;
 
 import java.util.List;
 import java.util.Objects;
 
+import static io.airlift.slice.SizeOf.sizeOfObjectArray;
 import static java.util.Objects.requireNonNull;
 
 public class StripeStatistics
 {
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(StripeStatistics.class).instanceSize();
+
     private final List<ColumnStatistics> columnStatistics;
 
     public StripeStatistics(List<ColumnStatistics> columnStatistics)
@@ -34,6 +38,15 @@ public class StripeStatistics
         return columnStatistics;
     }
 
+    public long getRetainedSizeInBytes()
+    {
+        long size = INSTANCE_SIZE + sizeOfObjectArray(columnStatistics.size());
+        for (ColumnStatistics statistics : columnStatistics) {
+            size += statistics.getRetainedSizeInBytes();
+        }
+        return size;
+    }
+
     @Override
     public boolean equals(Object o)
     {
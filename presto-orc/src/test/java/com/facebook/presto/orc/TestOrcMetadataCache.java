@@ -0,0 +1,153 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc;
+
+import com.facebook.presto.orc.memory.AggregatedMemoryContext;
+import com.facebook.presto.orc.metadata.CompressionKind;
+import com.facebook.presto.spi.block.Block;
+import com.google.common.collect.ContiguousSet;
+import com.google.common.collect.DiscreteDomain;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Range;
+import io.airlift.units.DataSize;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+
+import static com.facebook.presto.orc.OrcEncoding.ORC;
+import static com.facebook.presto.orc.OrcTester.Format.ORC_12;
+import static com.facebook.presto.orc.OrcTester.HIVE_STORAGE_TIME_ZONE;
+import static com.facebook.presto.orc.OrcTester.MAX_BLOCK_SIZE;
+import static com.facebook.presto.orc.OrcTester.writeOrcColumnOld;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class TestOrcMetadataCache
+{
+    private static final int ROW_COUNT = 30_000;
+
+    @Test
+    public void testDisabled()
+            throws Exception
+    {
+        try (TempFile tempFile = new TempFile()) {
+            writeTestFile(tempFile);
+
+            OrcMetadataCache cache = OrcMetadataCache.NO_CACHE;
+            assertFalse(cache.isEnabled());
+            assertEquals(readFile(tempFile, cache, 0), expectedSum());
+            assertEquals(cache.getSize(), 0);
+            assertEquals(cache.getHitCount(), 0);
+            assertEquals(cache.getMissCount(), 0);
+        }
+    }
+
+    @Test
+    public void testCachedMetadata()
+            throws Exception
+    {
+        try (TempFile tempFile = new TempFile()) {
+            writeTestFile(tempFile);
+
+            OrcMetadataCache cache = new OrcMetadataCache(new DataSize(1, MEGABYTE));
+            assertTrue(cache.isEnabled());
+
+            // file tail, stripe footer and the row index of the column are loaded
+            FileOrcDataSource firstDataSource = createDataSource(tempFile);
+            assertEquals(readFile(firstDataSource, cache, 0), expectedSum());
+            assertEquals(cache.getHitCount(), 0);
+            assertEquals(cache.getSize(), 3);
+
+            // the second read of the same file uses the cached metadata and reads less of the file
+            FileOrcDataSource secondDataSource = createDataSource(tempFile);
+            assertEquals(readFile(secondDataSource, cache, 0), expectedSum());
+            assertTrue(cache.getHitCount() > 0);
+            assertEquals(cache.getSize(), 3);
+            assertTrue(secondDataSource.getReadBytes() < firstDataSource.getReadBytes());
+
+            OrcReader first = new OrcReader(createDataSource(tempFile), ORC, new DataSize(1, BYTE), new DataSize(1, MEGABYTE), MAX_BLOCK_SIZE, cache, 0);
+            OrcReader second = new OrcReader(createDataSource(tempFile), ORC, new DataSize(1, BYTE), new DataSize(1, MEGABYTE), MAX_BLOCK_SIZE, cache, 0);
+            assertSame(first.getFooter(), second.getFooter());
+
+            // a new modification time is a different version of the file
+            assertEquals(readFile(tempFile, cache, 1), expectedSum());
+            assertEquals(cache.getSize(), 6);
+
+            cache.flushCache();
+            assertEquals(cache.getSize(), 0);
+        }
+    }
+
+    @Test
+    public void testEviction()
+            throws Exception
+    {
+        try (TempFile tempFile = new TempFile()) {
+            writeTestFile(tempFile);
+
+            // the cache is too small to hold the metadata of the file
+            OrcMetadataCache cache = new OrcMetadataCache(new DataSize(1, BYTE));
+            assertEquals(readFile(tempFile, cache, 0), expectedSum());
+            assertEquals(readFile(tempFile, cache, 0), expectedSum());
+            assertEquals(cache.getSize(), 0);
+            assertTrue(cache.getEvictionCount() > 0);
+        }
+    }
+
+    private static long readFile(TempFile tempFile, OrcMetadataCache cache, long modificationTime)
+            throws IOException
+    {
+        return readFile(createDataSource(tempFile), cache, modificationTime);
+    }
+
+    private static long readFile(OrcDataSource dataSource, OrcMetadataCache cache, long modificationTime)
+            throws IOException
+    {
+        // use a small merge distance so the file is not cached in memory by the reader
+        OrcReader reader = new OrcReader(dataSource, ORC, new DataSize(1, BYTE), new DataSize(1, MEGABYTE), MAX_BLOCK_SIZE, cache, modificationTime);
+        long sum = 0;
+        try (OrcRecordReader recordReader = reader.createRecordReader(ImmutableMap.of(0, BIGINT), OrcPredicate.TRUE, HIVE_STORAGE_TIME_ZONE, new AggregatedMemoryContext())) {
+            for (int batchSize = recordReader.nextBatch(); batchSize > 0; batchSize = recordReader.nextBatch()) {
+                Block block = recordReader.readBlock(BIGINT, 0);
+                for (int position = 0; position < batchSize; position++) {
+                    sum += BIGINT.getLong(block, position);
+                }
+            }
+        }
+        return sum;
+    }
+
+    private static FileOrcDataSource createDataSource(TempFile tempFile)
+            throws IOException
+    {
+        return new FileOrcDataSource(tempFile.getFile(), new DataSize(1, BYTE), new DataSize(1, MEGABYTE), new DataSize(1, MEGABYTE), true);
+    }
+
+    private static void writeTestFile(TempFile tempFile)
+            throws Exception
+    {
+        // a single stripe with three row groups
+        writeOrcColumnOld(tempFile.getFile(), ORC_12, CompressionKind.NONE, BIGINT, ContiguousSet.create(Range.closedOpen(0L, (long) ROW_COUNT), DiscreteDomain.longs()).iterator());
+    }
+
+    private static long expectedSum()
+    {
+        return ((long) ROW_COUNT) * (ROW_COUNT - 1) / 2;
+    }
+}
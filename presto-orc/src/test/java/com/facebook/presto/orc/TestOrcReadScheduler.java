@@ -0,0 +1,240 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.airlift.slice.FixedLengthSliceInput;
+import io.airlift.units.DataSize;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestOrcReadScheduler
+{
+    private static final int FILE_SIZE = 1024 * 1024;
+    private static final Map<Integer, DiskRange> DISK_RANGES = createDiskRanges();
+
+    private ExecutorService executor;
+
+    @BeforeClass
+    public void setUp()
+    {
+        executor = newFixedThreadPool(4, new ThreadFactoryBuilder().setNameFormat("test-orc-read-%s").setDaemon(true).build());
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+    {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testSequentialReads()
+            throws Exception
+    {
+        for (boolean lazyReadSmallRanges : new boolean[] {true, false}) {
+            TestingDataSource dataSource = new TestingDataSource(OrcReadScheduler.SEQUENTIAL, lazyReadSmallRanges);
+            Map<Integer, FixedLengthSliceInput> slices = dataSource.readFully(DISK_RANGES);
+            assertSlices(slices);
+            assertEquals(dataSource.getReadCount(), DISK_RANGES.size());
+            assertEquals(dataSource.getReadThreads(), ImmutableSet.of(Thread.currentThread().getName()));
+        }
+    }
+
+    @Test
+    public void testConcurrentReads()
+            throws Exception
+    {
+        OrcReadScheduler readScheduler = new OrcReadScheduler(executor, 4, false);
+
+        // lazily read ranges are read ahead by the readers of the scheduler
+        TestingDataSource lazyDataSource = new TestingDataSource(readScheduler, true);
+        Map<Integer, FixedLengthSliceInput> slices = lazyDataSource.readFully(DISK_RANGES);
+        long start = System.nanoTime();
+        while (lazyDataSource.getReadCount() < DISK_RANGES.size()) {
+            assertTrue(System.nanoTime() - start < SECONDS.toNanos(10), "ranges were not read ahead");
+            MILLISECONDS.sleep(1);
+        }
+        assertSlices(slices);
+        assertEquals(lazyDataSource.getReadCount(), DISK_RANGES.size());
+        assertTrue(lazyDataSource.getReadThreads().stream().allMatch(name -> name.startsWith("test-orc-read-")));
+
+        // eagerly read ranges are shared by the readers and the caller
+        TestingDataSource eagerDataSource = new TestingDataSource(readScheduler, false);
+        assertSlices(eagerDataSource.readFully(DISK_RANGES));
+        assertEquals(eagerDataSource.getReadCount(), DISK_RANGES.size());
+        assertEquals(eagerDataSource.getReadBytes(), DISK_RANGES.values().stream().mapToLong(DiskRange::getLength).sum());
+    }
+
+    @Test
+    public void testCloseCancelsReadAhead()
+            throws Exception
+    {
+        // the readers are held until the data source is closed
+        List<Runnable> readers = new ArrayList<>();
+        OrcReadScheduler readScheduler = new OrcReadScheduler(readers::add, 4, false);
+
+        TestingDataSource dataSource = new TestingDataSource(readScheduler, true);
+        Map<Integer, FixedLengthSliceInput> slices = dataSource.readFully(DISK_RANGES);
+        assertEquals(readers.size(), 4);
+        dataSource.close();
+        readers.forEach(Runnable::run);
+        assertEquals(dataSource.getReadCount(), 0);
+
+        // ranges that are still needed are read on demand
+        slices.get(0).readByte();
+        assertEquals(dataSource.getReadCount(), 1);
+
+        // no reads are scheduled after the data source is closed
+        dataSource.readFully(DISK_RANGES);
+        assertEquals(readers.size(), 4);
+    }
+
+    @Test
+    public void testStorageReadsRecordedByDataSource()
+            throws Exception
+    {
+        OrcReadScheduler readScheduler = new OrcReadScheduler(executor, 1, true);
+        TestingDataSource cachingDataSource = new TestingDataSource(readScheduler, false, true);
+        assertSlices(cachingDataSource.readFully(DISK_RANGES));
+        assertTrue(Double.isNaN(readScheduler.getEstimatedLatencyNanos()));
+
+        TestingDataSource dataSource = new TestingDataSource(readScheduler, false, false);
+        assertSlices(dataSource.readFully(DISK_RANGES));
+        assertFalse(Double.isNaN(readScheduler.getEstimatedLatencyNanos()));
+    }
+
+    @Test
+    public void testAdaptiveMergeDistance()
+    {
+        long defaultMergeDistance = new DataSize(1, MEGABYTE).toBytes();
+        long maxMergeDistance = new DataSize(8, MEGABYTE).toBytes();
+
+        OrcReadScheduler fixed = new OrcReadScheduler(executor, 1, false);
+        fixed.recordRead(1024, MILLISECONDS.toNanos(10));
+        fixed.recordRead(10 * 1024 * 1024, MILLISECONDS.toNanos(20));
+        assertEquals(fixed.getMergeDistance(defaultMergeDistance, maxMergeDistance), defaultMergeDistance);
+
+        OrcReadScheduler adaptive = new OrcReadScheduler(executor, 1, true);
+        assertEquals(adaptive.getMergeDistance(defaultMergeDistance, maxMergeDistance), defaultMergeDistance);
+
+        // high latency: 10ms per request at 1 byte per nanosecond
+        adaptive.recordRead(1024, MILLISECONDS.toNanos(10));
+        assertEquals(adaptive.getMergeDistance(defaultMergeDistance, maxMergeDistance), defaultMergeDistance);
+        adaptive.recordRead(2_000_000, MILLISECONDS.toNanos(12));
+        assertEquals(adaptive.getMergeDistance(defaultMergeDistance, maxMergeDistance), maxMergeDistance);
+
+        // low latency: 100us per request at 1 byte per nanosecond
+        OrcReadScheduler local = new OrcReadScheduler(executor, 1, true);
+        local.recordRead(1024, 100_000);
+        local.recordRead(2_000_000, 2_100_000);
+        assertEquals(local.getMergeDistance(defaultMergeDistance, maxMergeDistance), 100_000);
+    }
+
+    private static void assertSlices(Map<Integer, FixedLengthSliceInput> slices)
+    {
+        assertEquals(slices.keySet(), DISK_RANGES.keySet());
+        for (Entry<Integer, DiskRange> entry : DISK_RANGES.entrySet()) {
+            DiskRange diskRange = entry.getValue();
+            FixedLengthSliceInput input = slices.get(entry.getKey());
+            assertEquals(input.length(), diskRange.getLength());
+            for (int i = 0; i < diskRange.getLength(); i++) {
+                assertEquals(input.readByte(), (byte) (diskRange.getOffset() + i));
+            }
+        }
+    }
+
+    private static Map<Integer, DiskRange> createDiskRanges()
+    {
+        // ranges far enough apart to be read separately
+        ImmutableMap.Builder<Integer, DiskRange> diskRanges = ImmutableMap.builder();
+        for (int i = 0; i < 16; i++) {
+            diskRanges.put(i, new DiskRange(i * 50_000, 1_000 + i));
+        }
+        return diskRanges.build();
+    }
+
+    private static class TestingDataSource
+            extends AbstractOrcDataSource
+    {
+        private final AtomicInteger readCount = new AtomicInteger();
+        private final Set<String> readThreads = ConcurrentHashMap.newKeySet();
+        private final boolean recordsStorageReads;
+
+        public TestingDataSource(OrcReadScheduler readScheduler, boolean lazyReadSmallRanges)
+        {
+            this(readScheduler, lazyReadSmallRanges, false);
+        }
+
+        public TestingDataSource(OrcReadScheduler readScheduler, boolean lazyReadSmallRanges, boolean recordsStorageReads)
+        {
+            super(
+                    new OrcDataSourceId("test"),
+                    FILE_SIZE,
+                    new DataSize(1, KILOBYTE),
+                    new DataSize(8, KILOBYTE),
+                    new DataSize(8, KILOBYTE),
+                    lazyReadSmallRanges,
+                    readScheduler);
+            this.recordsStorageReads = recordsStorageReads;
+        }
+
+        @Override
+        protected boolean recordsStorageReads()
+        {
+            // behaves like a data source that serves every read from a local cache
+            return recordsStorageReads;
+        }
+
+        @Override
+        protected void readInternal(long position, byte[] buffer, int bufferOffset, int bufferLength)
+        {
+            readCount.incrementAndGet();
+            readThreads.add(Thread.currentThread().getName());
+            for (int i = 0; i < bufferLength; i++) {
+                buffer[bufferOffset + i] = (byte) (position + i);
+            }
+        }
+
+        public int getReadCount()
+        {
+            return readCount.get();
+        }
+
+        public Set<String> getReadThreads()
+        {
+            return readThreads;
+        }
+    }
+}
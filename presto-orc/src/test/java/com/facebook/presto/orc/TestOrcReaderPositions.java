@@ -86,6 +86,59 @@ public class TestOrcReaderPositions
         }
     }
 
+    @Test
+    public void testReadPositions()
+            throws Exception
+    {
+        try (TempFile tempFile = new TempFile()) {
+            createMultiStripeFile(tempFile.getFile());
+
+            try (OrcRecordReader reader = createCustomOrcRecordReader(tempFile, ORC, OrcPredicate.TRUE, BIGINT)) {
+                // read scattered positions
+                assertEquals(reader.nextBatch(), 20);
+                assertPositions(reader, 0, new int[] {1, 2, 3, 10, 19});
+
+                // skip the entire batch
+                assertEquals(reader.nextBatch(), 20);
+
+                // read the entire batch after a skipped batch
+                assertEquals(reader.nextBatch(), 20);
+                assertCurrentBatch(reader, 2);
+
+                // read a single run of positions
+                assertEquals(reader.nextBatch(), 20);
+                assertPositions(reader, 3, new int[] {5, 6, 7, 8});
+
+                assertEquals(reader.nextBatch(), 20);
+                assertPositions(reader, 4, new int[] {0, 19});
+
+                assertEquals(reader.nextBatch(), -1);
+            }
+        }
+    }
+
+    @Test
+    public void testReadDensePositions()
+            throws Exception
+    {
+        try (TempFile tempFile = new TempFile()) {
+            createMultiStripeFile(tempFile.getFile());
+
+            try (OrcRecordReader reader = createCustomOrcRecordReader(tempFile, ORC, OrcPredicate.TRUE, BIGINT)) {
+                // most of the rows between the first and last position are read
+                assertEquals(reader.nextBatch(), 20);
+                assertPositions(reader, 0, new int[] {2, 3, 5, 6, 7, 9, 10, 11, 13});
+
+                assertEquals(reader.nextBatch(), 20);
+                assertPositions(reader, 1, new int[] {0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 19});
+
+                assertEquals(reader.nextBatch(), 20);
+                // read no positions
+                assertPositions(reader, 2, new int[] {});
+            }
+        }
+    }
+
     @Test
     public void testStripeSkipping()
             throws Exception
@@ -308,6 +361,16 @@ public class TestOrcReaderPositions
         }
     }
 
+    private static void assertPositions(OrcRecordReader reader, int stripe, int[] positions)
+            throws IOException
+    {
+        Block block = reader.readBlock(BIGINT, 0, positions, positions.length);
+        assertEquals(block.getPositionCount(), positions.length);
+        for (int i = 0; i < positions.length; i++) {
+            assertEquals(BIGINT.getLong(block, i), ((stripe * 20L) + positions[i]) * 3);
+        }
+    }
+
     // write 5 stripes of 20 values each: (0,3,6,..,57), (60,..,117), .., (..297)
     private static void createMultiStripeFile(File file)
             throws IOException, ReflectiveOperationException, SerDeException
@@ -49,6 +49,7 @@ public class StorageManagerConfig
     private DataSize orcMaxReadSize = new DataSize(8, MEGABYTE);
     private DataSize orcStreamBufferSize = new DataSize(8, MEGABYTE);
     private boolean orcLazyReadSmallRanges = true;
+    private DataSize orcMetadataCacheSize = new DataSize(0, BYTE);
     private int deletionThreads = max(1, getRuntime().availableProcessors() / 2);
     private int recoveryThreads = 10;
     private int organizationThreads = 5;
@@ -142,6 +143,20 @@ public class StorageManagerConfig
         return this;
     }
 
+    @NotNull
+    public DataSize getOrcMetadataCacheSize()
+    {
+        return orcMetadataCacheSize;
+    }
+
+    @Config("storage.orc.metadata-cache-size")
+    @ConfigDescription("Maximum size of ORC file tails, stripe footers and row indexes cached for shards")
+    public StorageManagerConfig setOrcMetadataCacheSize(DataSize orcMetadataCacheSize)
+    {
+        this.orcMetadataCacheSize = orcMetadataCacheSize;
+        return this;
+    }
+
     @Min(1)
     public int getDeletionThreads()
     {
@@ -20,4 +20,17 @@ public interface BucketFunction
      * Note the tuple values may be null.
      */
     int getBucket(Page page, int position);
+
+    /**
+     * Gets the buckets for all positions of the page.
+     * Implementations can override this to process the page a column at a time.
+     */
+    default int[] getBuckets(Page page)
+    {
+        int[] buckets = new int[page.getPositionCount()];
+        for (int position = 0; position < buckets.length; position++) {
+            buckets[position] = getBucket(page, position);
+        }
+        return buckets;
+    }
 }
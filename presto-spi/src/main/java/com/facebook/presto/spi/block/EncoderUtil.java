@@ -16,8 +16,15 @@ package com.facebook.presto.spi.block;
 import io.airlift.slice.SliceInput;
 import io.airlift.slice.SliceOutput;
 
+import java.util.function.IntPredicate;
+import java.util.function.IntToLongFunction;
+
 final class EncoderUtil
 {
+    private static final byte PLAIN_VALUES = 0;
+    private static final byte FRAME_OF_REFERENCE_VALUES = 1;
+    private static final byte DELTA_VALUES = 2;
+
     private EncoderUtil()
     {
     }
@@ -85,4 +92,286 @@ final class EncoderUtil
 
         return valueIsNull;
     }
+
+    /**
+     * Append the values of the positions which are not null using the most compact of plain, frame of reference
+     * or delta encoding. Frame of reference and delta encodings bit pack the values relative to the minimum value
+     * or the minimum difference between adjacent values, so small, clustered or sorted values take only as many
+     * bits as their range needs. The bit widths are computed in a first pass over the positions and the values
+     * are written in a second one.
+     */
+    public static void encodePackedValues(SliceOutput sliceOutput, int positionCount, IntPredicate isNull, IntToLongFunction values, int plainValueBytes)
+    {
+        int valueCount = 0;
+        long first = 0;
+        long previous = 0;
+        long min = 0;
+        long max = 0;
+        long minDelta = 0;
+        long maxDelta = 0;
+        for (int position = 0; position < positionCount; position++) {
+            if (isNull.test(position)) {
+                continue;
+            }
+            long value = values.applyAsLong(position);
+            if (valueCount == 0) {
+                first = value;
+                min = value;
+                max = value;
+            }
+            else {
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+                long delta = value - previous;
+                if (valueCount == 1) {
+                    minDelta = delta;
+                    maxDelta = delta;
+                }
+                else {
+                    minDelta = Math.min(minDelta, delta);
+                    maxDelta = Math.max(maxDelta, delta);
+                }
+            }
+            previous = value;
+            valueCount++;
+        }
+
+        // the ranges are computed with wrapping arithmetic and interpreted as unsigned
+        int frameOfReferenceWidth = Long.SIZE - Long.numberOfLeadingZeros(max - min);
+        int deltaWidth = Long.SIZE - Long.numberOfLeadingZeros(maxDelta - minDelta);
+
+        long plainSize = (long) valueCount * plainValueBytes;
+        long frameOfReferenceSize = Long.BYTES + Byte.BYTES + packedSize(valueCount, frameOfReferenceWidth);
+        long deltaSize = Long.BYTES + Long.BYTES + Byte.BYTES + packedSize(valueCount - 1, deltaWidth);
+
+        if (valueCount == 0 || (plainSize <= frameOfReferenceSize && plainSize <= deltaSize)) {
+            sliceOutput.appendByte(PLAIN_VALUES);
+            for (int position = 0; position < positionCount; position++) {
+                if (isNull.test(position)) {
+                    continue;
+                }
+                if (plainValueBytes == Long.BYTES) {
+                    sliceOutput.appendLong(values.applyAsLong(position));
+                }
+                else {
+                    sliceOutput.appendInt((int) values.applyAsLong(position));
+                }
+            }
+        }
+        else if (frameOfReferenceSize <= deltaSize) {
+            sliceOutput.appendByte(FRAME_OF_REFERENCE_VALUES);
+            sliceOutput.appendLong(min);
+            sliceOutput.appendByte(frameOfReferenceWidth);
+            PackingWriter writer = new PackingWriter(sliceOutput, frameOfReferenceWidth);
+            for (int position = 0; position < positionCount; position++) {
+                if (!isNull.test(position)) {
+                    writer.write(values.applyAsLong(position) - min);
+                }
+            }
+            writer.flush();
+        }
+        else {
+            sliceOutput.appendByte(DELTA_VALUES);
+            sliceOutput.appendLong(first);
+            sliceOutput.appendLong(minDelta);
+            sliceOutput.appendByte(deltaWidth);
+            PackingWriter writer = new PackingWriter(sliceOutput, deltaWidth);
+            previous = first;
+            boolean firstValue = true;
+            for (int position = 0; position < positionCount; position++) {
+                if (isNull.test(position)) {
+                    continue;
+                }
+                long value = values.applyAsLong(position);
+                if (!firstValue) {
+                    writer.write(value - previous - minDelta);
+                }
+                firstValue = false;
+                previous = value;
+            }
+            writer.flush();
+        }
+    }
+
+    /**
+     * Decode the values written by encodePackedValues into the positions which are not null.
+     *
+     * @param valueIsNull null positions, or null when no position is null
+     */
+    public static void decodePackedValues(SliceInput sliceInput, boolean[] valueIsNull, long[] values)
+    {
+        PackedValuesReader reader = new PackedValuesReader(sliceInput, countValues(valueIsNull, values.length), Long.BYTES);
+        for (int position = 0; position < values.length; position++) {
+            if (valueIsNull == null || !valueIsNull[position]) {
+                values[position] = reader.next();
+            }
+        }
+    }
+
+    /**
+     * Decode the values written by encodePackedValues into the positions which are not null.
+     *
+     * @param valueIsNull null positions, or null when no position is null
+     */
+    public static void decodePackedValues(SliceInput sliceInput, boolean[] valueIsNull, int[] values)
+    {
+        PackedValuesReader reader = new PackedValuesReader(sliceInput, countValues(valueIsNull, values.length), Integer.BYTES);
+        for (int position = 0; position < values.length; position++) {
+            if (valueIsNull == null || !valueIsNull[position]) {
+                values[position] = (int) reader.next();
+            }
+        }
+    }
+
+    private static int countValues(boolean[] valueIsNull, int positionCount)
+    {
+        if (valueIsNull == null) {
+            return positionCount;
+        }
+        int valueCount = 0;
+        for (int position = 0; position < positionCount; position++) {
+            if (!valueIsNull[position]) {
+                valueCount++;
+            }
+        }
+        return valueCount;
+    }
+
+    private static long packedSize(int valueCount, int width)
+    {
+        return ((long) valueCount * width + Byte.SIZE - 1) / Byte.SIZE;
+    }
+
+    private static final class PackingWriter
+    {
+        private final SliceOutput sliceOutput;
+        private final int width;
+        private long buffer;
+        private int bufferBits;
+
+        private PackingWriter(SliceOutput sliceOutput, int width)
+        {
+            this.sliceOutput = sliceOutput;
+            this.width = width;
+        }
+
+        public void write(long packed)
+        {
+            buffer |= packed << bufferBits;
+            if (bufferBits + width >= Long.SIZE) {
+                sliceOutput.appendLong(buffer);
+                int consumed = Long.SIZE - bufferBits;
+                buffer = consumed == Long.SIZE ? 0 : packed >>> consumed;
+                bufferBits = bufferBits + width - Long.SIZE;
+            }
+            else {
+                bufferBits += width;
+            }
+            while (bufferBits >= Byte.SIZE) {
+                sliceOutput.appendByte((int) buffer);
+                buffer >>>= Byte.SIZE;
+                bufferBits -= Byte.SIZE;
+            }
+        }
+
+        public void flush()
+        {
+            if (bufferBits > 0) {
+                sliceOutput.appendByte((int) buffer);
+            }
+        }
+    }
+
+    private static final class PackedValuesReader
+    {
+        private final SliceInput sliceInput;
+        private final int plainValueBytes;
+        private final byte encoding;
+        private final UnpackingReader unpackingReader;
+        private long base;
+        private long minDelta;
+        private boolean firstValue = true;
+
+        private PackedValuesReader(SliceInput sliceInput, int valueCount, int plainValueBytes)
+        {
+            this.sliceInput = sliceInput;
+            this.plainValueBytes = plainValueBytes;
+            this.encoding = sliceInput.readByte();
+            if (encoding == PLAIN_VALUES) {
+                unpackingReader = null;
+            }
+            else if (encoding == FRAME_OF_REFERENCE_VALUES) {
+                base = sliceInput.readLong();
+                unpackingReader = new UnpackingReader(sliceInput, sliceInput.readByte());
+            }
+            else if (encoding == DELTA_VALUES) {
+                if (valueCount == 0) {
+                    throw new IllegalArgumentException("Delta encoding without values");
+                }
+                // base is the previous value
+                base = sliceInput.readLong();
+                minDelta = sliceInput.readLong();
+                unpackingReader = new UnpackingReader(sliceInput, sliceInput.readByte());
+            }
+            else {
+                throw new IllegalArgumentException("Unknown value encoding: " + encoding);
+            }
+        }
+
+        public long next()
+        {
+            if (encoding == PLAIN_VALUES) {
+                return plainValueBytes == Long.BYTES ? sliceInput.readLong() : sliceInput.readInt();
+            }
+            if (encoding == FRAME_OF_REFERENCE_VALUES) {
+                return base + unpackingReader.next();
+            }
+            if (!firstValue) {
+                base += minDelta + unpackingReader.next();
+            }
+            firstValue = false;
+            return base;
+        }
+    }
+
+    private static final class UnpackingReader
+    {
+        private final SliceInput sliceInput;
+        private final int width;
+        private final long mask;
+        private long buffer;
+        private int bufferBits;
+
+        private UnpackingReader(SliceInput sliceInput, int width)
+        {
+            this.sliceInput = sliceInput;
+            this.width = width;
+            this.mask = width == Long.SIZE ? -1L : (1L << width) - 1;
+        }
+
+        public long next()
+        {
+            if (width == 0) {
+                return 0;
+            }
+            while (bufferBits < width && bufferBits <= Long.SIZE - Byte.SIZE) {
+                buffer |= (sliceInput.readByte() & 0xFFL) << bufferBits;
+                bufferBits += Byte.SIZE;
+            }
+            if (bufferBits >= width) {
+                long value = buffer & mask;
+                buffer = width == Long.SIZE ? 0 : buffer >>> width;
+                bufferBits -= width;
+                return value;
+            }
+
+            // the value spans past the 64 bit buffer, so take the remaining bits from the next byte
+            long next = sliceInput.readByte() & 0xFFL;
+            long value = (buffer | (next << bufferBits)) & mask;
+            int used = width - bufferBits;
+            buffer = next >>> used;
+            bufferBits = Byte.SIZE - used;
+            return value;
+        }
+    }
 }
@@ -0,0 +1,122 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spi.block;
+
+import com.facebook.presto.spi.type.TypeManager;
+import io.airlift.slice.SliceInput;
+import io.airlift.slice.SliceOutput;
+
+import static com.facebook.presto.spi.block.EncoderUtil.decodePackedValues;
+import static com.facebook.presto.spi.block.EncoderUtil.encodePackedValues;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Same blocks as {@link DictionaryBlockEncoding}, with the ids bit packed to the width of the compacted dictionary.
+ */
+public class PackedDictionaryBlockEncoding
+        implements BlockEncoding
+{
+    public static final BlockEncodingFactory<PackedDictionaryBlockEncoding> FACTORY = new PackedDictionaryBlockEncodingFactory();
+    private static final String NAME = "DICTIONARY_PACKED";
+    private final BlockEncoding dictionaryEncoding;
+
+    public PackedDictionaryBlockEncoding(BlockEncoding dictionaryEncoding)
+    {
+        this.dictionaryEncoding = requireNonNull(dictionaryEncoding, "dictionaryEncoding is null");
+    }
+
+    @Override
+    public String getName()
+    {
+        return NAME;
+    }
+
+    @Override
+    public void writeBlock(SliceOutput sliceOutput, Block block)
+    {
+        // The down casts here are safe because it is the block itself the provides this encoding implementation.
+        DictionaryBlock dictionaryBlock = ((DictionaryBlock) block).compact();
+
+        // positionCount
+        int positionCount = dictionaryBlock.getPositionCount();
+        sliceOutput.appendInt(positionCount);
+
+        // dictionary
+        dictionaryEncoding.writeBlock(sliceOutput, dictionaryBlock.getDictionary());
+
+        // ids
+        encodePackedValues(sliceOutput, positionCount, position -> false, dictionaryBlock::getId, Integer.BYTES);
+
+        // instance id
+        sliceOutput.appendLong(dictionaryBlock.getDictionarySourceId().getMostSignificantBits());
+        sliceOutput.appendLong(dictionaryBlock.getDictionarySourceId().getLeastSignificantBits());
+        sliceOutput.appendLong(dictionaryBlock.getDictionarySourceId().getSequenceId());
+    }
+
+    @Override
+    public Block readBlock(SliceInput sliceInput)
+    {
+        // positionCount
+        int positionCount = sliceInput.readInt();
+
+        // dictionary
+        Block dictionaryBlock = dictionaryEncoding.readBlock(sliceInput);
+
+        // ids
+        int[] ids = new int[positionCount];
+        decodePackedValues(sliceInput, null, ids);
+
+        // instance id
+        long mostSignificantBits = sliceInput.readLong();
+        long leastSignificantBits = sliceInput.readLong();
+        long sequenceId = sliceInput.readLong();
+
+        // See DictionaryBlockEncoding.readBlock for why the dictionary is not marked as compacted.
+        return new DictionaryBlock(positionCount, dictionaryBlock, ids, false, new DictionaryId(mostSignificantBits, leastSignificantBits, sequenceId));
+    }
+
+    @Override
+    public BlockEncodingFactory getFactory()
+    {
+        return FACTORY;
+    }
+
+    public BlockEncoding getDictionaryEncoding()
+    {
+        return dictionaryEncoding;
+    }
+
+    public static class PackedDictionaryBlockEncodingFactory
+            implements BlockEncodingFactory<PackedDictionaryBlockEncoding>
+    {
+        @Override
+        public String getName()
+        {
+            return NAME;
+        }
+
+        @Override
+        public PackedDictionaryBlockEncoding readEncoding(TypeManager manager, BlockEncodingSerde serde, SliceInput input)
+        {
+            BlockEncoding dictionaryEncoding = serde.readBlockEncoding(input);
+            return new PackedDictionaryBlockEncoding(dictionaryEncoding);
+        }
+
+        @Override
+        public void writeEncoding(BlockEncodingSerde serde, SliceOutput output, PackedDictionaryBlockEncoding blockEncoding)
+        {
+            serde.writeBlockEncoding(output, blockEncoding.getDictionaryEncoding());
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spi.block;
+
+import com.facebook.presto.spi.type.TypeManager;
+import io.airlift.slice.SliceInput;
+import io.airlift.slice.SliceOutput;
+
+import static com.facebook.presto.spi.block.EncoderUtil.decodeNullBits;
+import static com.facebook.presto.spi.block.EncoderUtil.decodePackedValues;
+import static com.facebook.presto.spi.block.EncoderUtil.encodeNullsAsBits;
+import static com.facebook.presto.spi.block.EncoderUtil.encodePackedValues;
+
+/**
+ * Same blocks as {@link IntArrayBlockEncoding}, with the values bit packed relative to their minimum or delta encoded.
+ */
+public class PackedIntArrayBlockEncoding
+        implements BlockEncoding
+{
+    public static final BlockEncodingFactory<PackedIntArrayBlockEncoding> FACTORY = new PackedIntArrayBlockEncodingFactory();
+    private static final String NAME = "INT_ARRAY_PACKED";
+
+    @Override
+    public String getName()
+    {
+        return NAME;
+    }
+
+    @Override
+    public void writeBlock(SliceOutput sliceOutput, Block block)
+    {
+        int positionCount = block.getPositionCount();
+        sliceOutput.appendInt(positionCount);
+
+        encodeNullsAsBits(sliceOutput, block);
+
+        encodePackedValues(sliceOutput, positionCount, block::isNull, position -> block.getInt(position, 0), Integer.BYTES);
+    }
+
+    @Override
+    public Block readBlock(SliceInput sliceInput)
+    {
+        int positionCount = sliceInput.readInt();
+
+        boolean[] valueIsNull = decodeNullBits(sliceInput, positionCount);
+
+        int[] values = new int[positionCount];
+        decodePackedValues(sliceInput, valueIsNull, values);
+
+        return new IntArrayBlock(positionCount, valueIsNull, values);
+    }
+
+    @Override
+    public BlockEncodingFactory getFactory()
+    {
+        return FACTORY;
+    }
+
+    public static class PackedIntArrayBlockEncodingFactory
+            implements BlockEncodingFactory<PackedIntArrayBlockEncoding>
+    {
+        @Override
+        public String getName()
+        {
+            return NAME;
+        }
+
+        @Override
+        public PackedIntArrayBlockEncoding readEncoding(TypeManager manager, BlockEncodingSerde serde, SliceInput input)
+        {
+            return new PackedIntArrayBlockEncoding();
+        }
+
+        @Override
+        public void writeEncoding(BlockEncodingSerde serde, SliceOutput output, PackedIntArrayBlockEncoding blockEncoding)
+        {
+        }
+    }
+}
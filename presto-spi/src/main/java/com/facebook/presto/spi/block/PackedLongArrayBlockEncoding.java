@@ -0,0 +1,90 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spi.block;
+
+import com.facebook.presto.spi.type.TypeManager;
+import io.airlift.slice.SliceInput;
+import io.airlift.slice.SliceOutput;
+
+import static com.facebook.presto.spi.block.EncoderUtil.decodeNullBits;
+import static com.facebook.presto.spi.block.EncoderUtil.decodePackedValues;
+import static com.facebook.presto.spi.block.EncoderUtil.encodeNullsAsBits;
+import static com.facebook.presto.spi.block.EncoderUtil.encodePackedValues;
+
+/**
+ * Same blocks as {@link LongArrayBlockEncoding}, with the values bit packed relative to their minimum or delta encoded.
+ */
+public class PackedLongArrayBlockEncoding
+        implements BlockEncoding
+{
+    public static final BlockEncodingFactory<PackedLongArrayBlockEncoding> FACTORY = new PackedLongArrayBlockEncodingFactory();
+    private static final String NAME = "LONG_ARRAY_PACKED";
+
+    @Override
+    public String getName()
+    {
+        return NAME;
+    }
+
+    @Override
+    public void writeBlock(SliceOutput sliceOutput, Block block)
+    {
+        int positionCount = block.getPositionCount();
+        sliceOutput.appendInt(positionCount);
+
+        encodeNullsAsBits(sliceOutput, block);
+
+        encodePackedValues(sliceOutput, positionCount, block::isNull, position -> block.getLong(position, 0), Long.BYTES);
+    }
+
+    @Override
+    public Block readBlock(SliceInput sliceInput)
+    {
+        int positionCount = sliceInput.readInt();
+
+        boolean[] valueIsNull = decodeNullBits(sliceInput, positionCount);
+
+        long[] values = new long[positionCount];
+        decodePackedValues(sliceInput, valueIsNull, values);
+
+        return new LongArrayBlock(positionCount, valueIsNull, values);
+    }
+
+    @Override
+    public BlockEncodingFactory getFactory()
+    {
+        return FACTORY;
+    }
+
+    public static class PackedLongArrayBlockEncodingFactory
+            implements BlockEncodingFactory<PackedLongArrayBlockEncoding>
+    {
+        @Override
+        public String getName()
+        {
+            return NAME;
+        }
+
+        @Override
+        public PackedLongArrayBlockEncoding readEncoding(TypeManager manager, BlockEncodingSerde serde, SliceInput input)
+        {
+            return new PackedLongArrayBlockEncoding();
+        }
+
+        @Override
+        public void writeEncoding(BlockEncodingSerde serde, SliceOutput output, PackedLongArrayBlockEncoding blockEncoding)
+        {
+        }
+    }
+}
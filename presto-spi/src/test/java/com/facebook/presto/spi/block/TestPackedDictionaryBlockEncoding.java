@@ -0,0 +1,78 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spi.block;
+
+import io.airlift.slice.DynamicSliceOutput;
+import org.testng.annotations.Test;
+
+import java.util.Random;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestPackedDictionaryBlockEncoding
+{
+    private static final int POSITION_COUNT = 1000;
+
+    @Test
+    public void testRoundTrip()
+    {
+        Random random = new Random(0);
+
+        // negative dictionary values with a null entry
+        long[] dictionaryValues = new long[10];
+        boolean[] dictionaryIsNull = new boolean[10];
+        for (int i = 0; i < dictionaryValues.length; i++) {
+            dictionaryValues[i] = -1_000_000_000L * i;
+        }
+        dictionaryIsNull[3] = true;
+        Block dictionary = new LongArrayBlock(dictionaryValues.length, dictionaryIsNull, dictionaryValues);
+
+        // ids of a small dictionary take a few bits each
+        int[] ids = new int[POSITION_COUNT];
+        for (int i = 0; i < POSITION_COUNT; i++) {
+            ids[i] = random.nextInt(dictionaryValues.length);
+        }
+        assertTrue(assertRoundTrip(new DictionaryBlock(dictionary, ids), new PackedLongArrayBlockEncoding()) < POSITION_COUNT);
+        assertRoundTrip(new DictionaryBlock(dictionary, ids), new LongArrayBlockEncoding());
+
+        // ids of unused dictionary entries are compacted away
+        int[] sparseIds = new int[POSITION_COUNT];
+        for (int i = 0; i < POSITION_COUNT; i++) {
+            sparseIds[i] = i % 2 == 0 ? 3 : 9;
+        }
+        assertRoundTrip(new DictionaryBlock(dictionary, sparseIds), new PackedLongArrayBlockEncoding());
+
+        // a single position
+        assertRoundTrip(new DictionaryBlock(dictionary, new int[] {3}), new PackedLongArrayBlockEncoding());
+    }
+
+    private static int assertRoundTrip(DictionaryBlock expectedBlock, BlockEncoding dictionaryEncoding)
+    {
+        DynamicSliceOutput sliceOutput = new DynamicSliceOutput(1024);
+        BlockEncoding blockEncoding = new PackedDictionaryBlockEncoding(dictionaryEncoding);
+        blockEncoding.writeBlock(sliceOutput, expectedBlock);
+        Block actualBlock = blockEncoding.readBlock(sliceOutput.slice().getInput());
+
+        assertTrue(actualBlock instanceof DictionaryBlock);
+        assertEquals(actualBlock.getPositionCount(), expectedBlock.getPositionCount());
+        for (int position = 0; position < expectedBlock.getPositionCount(); position++) {
+            assertEquals(actualBlock.isNull(position), expectedBlock.isNull(position));
+            if (!expectedBlock.isNull(position)) {
+                assertEquals(actualBlock.getLong(position, 0), expectedBlock.getLong(position, 0));
+            }
+        }
+        return sliceOutput.size();
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spi.block;
+
+import io.airlift.slice.DynamicSliceOutput;
+import org.testng.annotations.Test;
+
+import java.util.Random;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestPackedIntArrayBlockEncoding
+{
+    private static final int POSITION_COUNT = 1000;
+
+    @Test
+    public void testRoundTrip()
+    {
+        Random random = new Random(0);
+
+        // sorted values are delta encoded
+        int[] sorted = new int[POSITION_COUNT];
+        for (int i = 1; i < POSITION_COUNT; i++) {
+            sorted[i] = sorted[i - 1] + random.nextInt(10);
+        }
+        assertTrue(assertRoundTrip(sorted, null) < POSITION_COUNT);
+
+        // negative values are encoded relative to the minimum
+        int[] negative = new int[POSITION_COUNT];
+        for (int i = 0; i < POSITION_COUNT; i++) {
+            negative[i] = -1_000_000 - random.nextInt(100);
+        }
+        assertTrue(assertRoundTrip(negative, null) < POSITION_COUNT);
+
+        // values spanning the full range are written as is
+        int[] random32 = new int[POSITION_COUNT];
+        for (int i = 0; i < POSITION_COUNT; i++) {
+            random32[i] = random.nextInt();
+        }
+        assertEquals(assertRoundTrip(random32, null), Integer.BYTES + 125 + Byte.BYTES + POSITION_COUNT * Integer.BYTES);
+
+        // extreme values
+        int[] extremes = new int[POSITION_COUNT];
+        for (int i = 0; i < POSITION_COUNT; i++) {
+            extremes[i] = i % 2 == 0 ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+        }
+        assertRoundTrip(extremes, null);
+
+        // nulls are not encoded
+        boolean[] valueIsNull = new boolean[POSITION_COUNT];
+        for (int i = 0; i < POSITION_COUNT; i++) {
+            valueIsNull[i] = i % 3 == 0;
+        }
+        assertRoundTrip(sorted, valueIsNull);
+        assertRoundTrip(negative, valueIsNull);
+        assertRoundTrip(random32, valueIsNull);
+
+        // a single value and no values
+        assertRoundTrip(new int[] {-42}, null);
+        assertRoundTrip(new int[0], null);
+    }
+
+    private static int assertRoundTrip(int[] values, boolean[] valueIsNull)
+    {
+        Block expectedBlock = new IntArrayBlock(values.length, valueIsNull == null ? new boolean[values.length] : valueIsNull, values);
+
+        DynamicSliceOutput sliceOutput = new DynamicSliceOutput(1024);
+        BlockEncoding blockEncoding = new PackedIntArrayBlockEncoding();
+        blockEncoding.writeBlock(sliceOutput, expectedBlock);
+        Block actualBlock = blockEncoding.readBlock(sliceOutput.slice().getInput());
+
+        assertEquals(actualBlock.getPositionCount(), expectedBlock.getPositionCount());
+        for (int position = 0; position < expectedBlock.getPositionCount(); position++) {
+            assertEquals(actualBlock.isNull(position), expectedBlock.isNull(position));
+            if (!expectedBlock.isNull(position)) {
+                assertEquals(actualBlock.getInt(position, 0), expectedBlock.getInt(position, 0));
+            }
+        }
+        return sliceOutput.size();
+    }
+}
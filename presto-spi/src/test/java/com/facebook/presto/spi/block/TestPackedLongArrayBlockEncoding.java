@@ -0,0 +1,129 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spi.block;
+
+import io.airlift.slice.DynamicSliceOutput;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestPackedLongArrayBlockEncoding
+{
+    private static final int POSITION_COUNT = 1000;
+
+    @Test
+    public void testRoundTrip()
+    {
+        Random random = new Random(0);
+
+        // sorted values are delta encoded
+        long[] sorted = new long[POSITION_COUNT];
+        for (int i = 1; i < POSITION_COUNT; i++) {
+            sorted[i] = sorted[i - 1] + random.nextInt(10);
+        }
+        assertTrue(assertRoundTrip(sorted, null) < POSITION_COUNT);
+
+        // small values are encoded relative to the minimum
+        long[] small = new long[POSITION_COUNT];
+        for (int i = 0; i < POSITION_COUNT; i++) {
+            small[i] = 1_000_000_000L + random.nextInt(100);
+        }
+        assertTrue(assertRoundTrip(small, null) < POSITION_COUNT);
+
+        // negative values
+        long[] negative = new long[POSITION_COUNT];
+        for (int i = 0; i < POSITION_COUNT; i++) {
+            negative[i] = -1_000_000_000L - random.nextInt(100);
+        }
+        assertTrue(assertRoundTrip(negative, null) < POSITION_COUNT);
+
+        // descending values are delta encoded with a negative minimum delta
+        long[] descending = new long[POSITION_COUNT];
+        for (int i = 1; i < POSITION_COUNT; i++) {
+            descending[i] = descending[i - 1] - random.nextInt(10);
+        }
+        assertTrue(assertRoundTrip(descending, null) < POSITION_COUNT);
+
+        // values spanning the full range are written as is
+        long[] random64 = new long[POSITION_COUNT];
+        for (int i = 0; i < POSITION_COUNT; i++) {
+            random64[i] = random.nextLong();
+        }
+        assertRoundTrip(random64, null);
+
+        // extreme values
+        long[] extremes = new long[POSITION_COUNT];
+        for (int i = 0; i < POSITION_COUNT; i++) {
+            extremes[i] = i % 2 == 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+        assertRoundTrip(extremes, null);
+
+        // constant values
+        assertTrue(assertRoundTrip(new long[POSITION_COUNT], null) < 100);
+
+        // nulls are not encoded
+        boolean[] valueIsNull = new boolean[POSITION_COUNT];
+        for (int i = 0; i < POSITION_COUNT; i++) {
+            valueIsNull[i] = i % 3 == 0;
+        }
+        assertRoundTrip(sorted, valueIsNull);
+        assertRoundTrip(random64, valueIsNull);
+        assertRoundTrip(negative, valueIsNull);
+
+        // only nulls
+        boolean[] allNull = new boolean[POSITION_COUNT];
+        Arrays.fill(allNull, true);
+        assertRoundTrip(sorted, allNull);
+
+        // a single value and no values
+        assertRoundTrip(new long[] {42}, null);
+        assertRoundTrip(new long[0], null);
+    }
+
+    @Test
+    public void testBitWidths()
+    {
+        Random random = new Random(1);
+        for (int width = 1; width < Long.SIZE; width++) {
+            long[] values = new long[97];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = random.nextLong() >>> (Long.SIZE - width);
+            }
+            assertRoundTrip(values, null);
+        }
+    }
+
+    private static int assertRoundTrip(long[] values, boolean[] valueIsNull)
+    {
+        Block expectedBlock = new LongArrayBlock(values.length, valueIsNull == null ? new boolean[values.length] : valueIsNull, values);
+
+        DynamicSliceOutput sliceOutput = new DynamicSliceOutput(1024);
+        BlockEncoding blockEncoding = new PackedLongArrayBlockEncoding();
+        blockEncoding.writeBlock(sliceOutput, expectedBlock);
+        Block actualBlock = blockEncoding.readBlock(sliceOutput.slice().getInput());
+
+        assertEquals(actualBlock.getPositionCount(), expectedBlock.getPositionCount());
+        for (int position = 0; position < expectedBlock.getPositionCount(); position++) {
+            assertEquals(actualBlock.isNull(position), expectedBlock.isNull(position));
+            if (!expectedBlock.isNull(position)) {
+                assertEquals(actualBlock.getLong(position, 0), expectedBlock.getLong(position, 0));
+            }
+        }
+        return sliceOutput.size();
+    }
+}
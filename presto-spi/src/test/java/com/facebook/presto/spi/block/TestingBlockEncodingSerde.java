@@ -54,6 +54,9 @@ public final class TestingBlockEncodingSerde
         addBlockEncodingFactory(ArrayBlockEncoding.FACTORY);
         addBlockEncodingFactory(MapBlockEncoding.FACTORY);
         addBlockEncodingFactory(SingleMapBlockEncoding.FACTORY);
+        addBlockEncodingFactory(PackedIntArrayBlockEncoding.FACTORY);
+        addBlockEncodingFactory(PackedLongArrayBlockEncoding.FACTORY);
+        addBlockEncodingFactory(PackedDictionaryBlockEncoding.FACTORY);
 
         for (BlockEncodingFactory<?> factory : requireNonNull(blockEncodingFactories, "blockEncodingFactories is null")) {
             addBlockEncodingFactory(factory);
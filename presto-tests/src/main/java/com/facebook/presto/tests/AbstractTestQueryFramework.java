@@ -14,8 +14,10 @@
 package com.facebook.presto.tests;
 
 import com.facebook.presto.Session;
-import com.facebook.presto.cost.CoefficientBasedCostCalculator;
 import com.facebook.presto.cost.CostCalculator;
+import com.facebook.presto.cost.DefaultStatsCalculator;
+import com.facebook.presto.cost.StatsBasedCostCalculator;
+import com.facebook.presto.cost.StatsCalculator;
 import com.facebook.presto.metadata.Metadata;
 import com.facebook.presto.spi.security.AccessDeniedException;
 import com.facebook.presto.spi.type.Type;
@@ -61,6 +63,7 @@ public abstract class AbstractTestQueryFramework
     private QueryRunner queryRunner;
     private H2QueryRunner h2QueryRunner;
     private SqlParser sqlParser;
+    private StatsCalculator statsCalculator;
     private CostCalculator costCalculator;
 
     protected AbstractTestQueryFramework(QueryRunnerSupplier supplier)
@@ -75,7 +78,8 @@ public abstract class AbstractTestQueryFramework
         queryRunner = queryRunnerSupplier.get();
         h2QueryRunner = new H2QueryRunner();
         sqlParser = new SqlParser();
-        costCalculator = new CoefficientBasedCostCalculator(queryRunner.getMetadata());
+        statsCalculator = new DefaultStatsCalculator(queryRunner.getMetadata());
+        costCalculator = new StatsBasedCostCalculator(statsCalculator, queryRunner::getNodeCount);
     }
 
     @AfterClass(alwaysRun = true)
@@ -301,7 +305,7 @@ public abstract class AbstractTestQueryFramework
         Metadata metadata = queryRunner.getMetadata();
         FeaturesConfig featuresConfig = new FeaturesConfig().setOptimizeHashGeneration(true);
         boolean forceSingleNode = queryRunner.getNodeCount() == 1;
-        List<PlanOptimizer> optimizers = new PlanOptimizers(metadata, sqlParser, featuresConfig, forceSingleNode, new MBeanExporter(new TestingMBeanServer())).get();
+        List<PlanOptimizer> optimizers = new PlanOptimizers(metadata, sqlParser, featuresConfig, forceSingleNode, new MBeanExporter(new TestingMBeanServer()), statsCalculator, costCalculator).get();
         return new QueryExplainer(
                 optimizers,
                 metadata,
@@ -0,0 +1,116 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.tests;
+
+import com.facebook.presto.Session;
+import com.facebook.presto.SystemSessionProperties;
+import com.facebook.presto.sql.parser.SqlParserOptions;
+import com.facebook.presto.tpch.TpchPlugin;
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.nio.file.Paths;
+
+import static com.facebook.presto.testing.TestingSession.testSessionBuilder;
+import static com.facebook.presto.tpch.TpchMetadata.TINY_SCHEMA_NAME;
+
+/**
+ * Runs partitioned joins whose build side is spilled by lookup source partition, with a join
+ * spill partition fanout greater than one, so that every build driver owns several partitions.
+ */
+public class TestSpilledJoinQueries
+        extends AbstractTestQueryFramework
+{
+    public TestSpilledJoinQueries()
+    {
+        super(TestSpilledJoinQueries::createQueryRunner);
+    }
+
+    private static DistributedQueryRunner createQueryRunner()
+            throws Exception
+    {
+        Session defaultSession = testSessionBuilder()
+                .setCatalog("tpch")
+                .setSchema(TINY_SCHEMA_NAME)
+                .setSystemProperty(SystemSessionProperties.TASK_CONCURRENCY, "2")
+                .setSystemProperty(SystemSessionProperties.DISTRIBUTED_JOIN, "true")
+                .setSystemProperty(SystemSessionProperties.SPILL_ENABLED, "true")
+                .setSystemProperty(SystemSessionProperties.JOIN_SPILL_PARTITION_FANOUT, "4")
+                .build();
+
+        ImmutableMap<String, String> extraProperties = ImmutableMap.<String, String>builder()
+                .put("experimental.spiller-spill-path", Paths.get(System.getProperty("java.io.tmpdir"), "presto", "spills").toString())
+                .put("experimental.spiller-max-used-space-threshold", "1.0")
+                .put("experimental.memory-revoking-threshold", "0.0") // revoke always
+                .put("experimental.memory-revoking-target", "0.0")
+                .build();
+
+        DistributedQueryRunner queryRunner = new DistributedQueryRunner(defaultSession, 2, extraProperties, ImmutableMap.of(), new SqlParserOptions());
+
+        try {
+            queryRunner.installPlugin(new TpchPlugin());
+            queryRunner.createCatalog("tpch", "tpch");
+            return queryRunner;
+        }
+        catch (Exception e) {
+            queryRunner.close();
+            throw e;
+        }
+    }
+
+    @DataProvider
+    public Object[][] fanouts()
+    {
+        return new Object[][] {{"1"}, {"2"}, {"8"}};
+    }
+
+    @Test(dataProvider = "fanouts")
+    public void testInnerJoin(String fanout)
+    {
+        assertQuery(
+                withFanout(fanout),
+                "SELECT o.orderkey, o.custkey, l.partkey, l.quantity FROM orders o JOIN lineitem l ON o.orderkey = l.orderkey");
+    }
+
+    @Test(dataProvider = "fanouts")
+    public void testProbeOuterJoin(String fanout)
+    {
+        assertQuery(
+                withFanout(fanout),
+                "SELECT o.orderkey, l.linenumber FROM orders o LEFT JOIN (SELECT * FROM lineitem WHERE quantity > 25) l ON o.orderkey = l.orderkey");
+    }
+
+    @Test(dataProvider = "fanouts")
+    public void testJoinWithAggregation(String fanout)
+    {
+        assertQuery(
+                withFanout(fanout),
+                "SELECT o.orderstatus, count(*), sum(l.quantity) FROM lineitem l JOIN orders o ON l.orderkey = o.orderkey GROUP BY o.orderstatus");
+    }
+
+    @Test
+    public void testMultipleJoinKeys()
+    {
+        assertQuery(
+                "SELECT a.orderkey, a.linenumber, b.quantity FROM lineitem a JOIN lineitem b ON a.orderkey = b.orderkey AND a.linenumber = b.linenumber");
+    }
+
+    private Session withFanout(String fanout)
+    {
+        return Session.builder(getSession())
+                .setSystemProperty(SystemSessionProperties.JOIN_SPILL_PARTITION_FANOUT, fanout)
+                .build();
+    }
+}